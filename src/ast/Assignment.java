@@ -1,7 +1,15 @@
 package src.ast;
 
+import src.cfg.GraphBuilder;
+import src.cfg.InvariantHoister;
 import src.emitter.Emitter;
+import src.emitter.Opcode;
+import src.emitter.Operand;
+import src.emitter.Register;
 import src.environments.Environment;
+import src.environments.Resolver;
+import src.jit.ProcedureCompiler;
+import src.vm.BytecodeEmitter;
 
 /**
  * The Assignment class represents an assignment node in the AST which
@@ -37,14 +45,35 @@ public class Assignment implements Statement
     }
 
     /**
-     * A method that decrements the expression of the assignment node by 1. The method
-     *      is used by the for AST node compile method to allow continue to work.
+     * A getter method to get the expression the variable is assigned to.
+     * @return Expression the expression of the assignment
      */
-    public void decrementExp()
+    public Expression getExpression()
     {
-        Expression e = this.exp;
-        BinOp b = new BinOp(e, new Number(1), "-");
-        this.exp = b;
+        return this.exp;
+    }
+
+    /**
+     * Returns the current value of the assigned variable. Used by the for AST node to read
+     *      its counter.
+     * @param env type Environment the environment the variable lives in
+     * @return type int the value of the variable
+     */
+    public int load(Environment env)
+    {
+        return env.getInt(name);
+    }
+
+    /**
+     * Stores the given value in the assigned variable. Used by the for AST node to advance its
+     *      counter.
+     * @param env type Environment the environment the variable lives in
+     * @param value the value to store
+     * @postcondition the variable holds value
+     */
+    public void store(Environment env, int value)
+    {
+        env.setInt(name, value);
     }
 
     /**
@@ -60,11 +89,124 @@ public class Assignment implements Statement
     @Override
     public void exec(Environment env)
     {
-        if (env.getVariable(name) == null)
+        if (!env.hasValue(name))
         {
             throw new IllegalArgumentException("Variable " + name + " is not defined");
         }
-        env.setVariable(name, exp.eval(env));
+        env.setInt(name, exp.eval(env));
+    }
+
+    /**
+     * A method inherited from the Statement interface to run the assignment node of the AST.
+     *      The assignment statement cannot break, continue, or exit, so the method executes it
+     *      like exec does and completes normally.
+     * @precondition env is not null
+     * @postcondition the assignment statement is executed
+     * @param env type Environment the environment of where the run method will run
+     * @return type Completion always NORMAL
+     */
+    @Override
+    public Completion run(Environment env)
+    {
+        exec(env);
+        return Completion.NORMAL;
+    }
+
+    /**
+     * A method inherited from the Statement interface to resolve the assignment node of the AST.
+     *      The method binds the assigned variable to its slot and resolves the
+     *      expression.
+     * @param r type Resolver the resolver that binds variable names to slots
+     * @precondition the resolver is in the scope the assignment appears in
+     * @postcondition this node is not changed
+     * @return type Statement the resolved assignment
+     */
+    @Override
+    public Statement resolve(Resolver r)
+    {
+        return new ResolvedAssignment(name, exp.resolve(r), r.getDepth(name), r.getSlot(name));
+    }
+
+    /**
+     * A method inherited from the Statement interface to optimize the assignment node of the AST.
+     *      The method optimizes the assigned expression.
+     * @postcondition this node is not changed
+     * @return type Assignment the optimized assignment
+     */
+    @Override
+    public Assignment optimize()
+    {
+        return new Assignment(name, exp.optimize());
+    }
+
+    /**
+     * A method inherited from the Statement interface to hoist the assignment node of the AST out
+     *      of loops. The method hoists the assigned expression.
+     * @param h type InvariantHoister the hoister that knows the loops the assignment is in
+     * @postcondition this node is not changed
+     * @return type Statement the hoisted assignment
+     */
+    @Override
+    public Statement hoist(InvariantHoister h)
+    {
+        return new Assignment(name, exp.hoist(h));
+    }
+
+    /**
+     * A method inherited from the Statement interface to assemble the assignment node of the AST
+     *      into bytecode. The expression is assembled first and its value is stored in the
+     *      variable.
+     * @param b type BytecodeEmitter the emitter that will emit the bytecode
+     * @precondition the emitter is in the scope the assignment appears in
+     * @postcondition the AST node is assembled into bytecode
+     */
+    @Override
+    public void assemble(BytecodeEmitter b)
+    {
+        exp.assembleValue(b);
+        b.emitStore(name);
+    }
+
+    /**
+     * A method inherited from the Statement interface to compile the assignment node of the AST
+     *      into JVM bytecode for the ProcedureCompiler.
+     * @param c type ProcedureCompiler the compiler that will emit the JVM bytecode
+     * @precondition the node belongs to the resolved procedure being compiled
+     * @postcondition the AST node is compiled into JVM bytecode
+     */
+    @Override
+    public void jit(ProcedureCompiler c)
+    {
+        exp.jitValue(c);
+        jitStore(c);
+    }
+
+    /**
+     * The jitStore method compiles the store of the value on top of the JVM stack into the assigned
+     *      variable, the compiled counterpart of the store method. Only a resolved assignment knows
+     *      where its variable lives.
+     * @param c type ProcedureCompiler the compiler that will emit the JVM bytecode
+     * @precondition the node belongs to the resolved procedure being compiled
+     * @postcondition the AST node is compiled into JVM bytecode
+     * @throws UnsupportedOperationException since the assignment is not resolved
+     */
+    public void jitStore(ProcedureCompiler c)
+    {
+        throw new UnsupportedOperationException("Variable " + name + " is not resolved");
+    }
+
+    /**
+     * A method inherited from the Statement interface to lower the assignment node of the AST into
+     *      basic blocks. The statement does not change the flow of control, so it is added to the
+     *      current block.
+     * @param g type GraphBuilder the builder that collects the basic blocks
+     * @precondition the builder is in the loop the assignment appears in, if any
+     * @postcondition the AST node is lowered into basic blocks
+     */
+    @Override
+    public void lower(GraphBuilder g)
+    {
+        g.add(this);
     }
 
     /**
@@ -83,16 +225,30 @@ public class Assignment implements Statement
         exp.compile(e);
         if (exp instanceof ProcedureCall) // handle errors if proc returns null
         {
-            e.emit("la $t3, null" + "\t# load address of null variable");
-            e.emit("beq $v0, $t3, program_error" + "\t# error if assigning null");
+            e.emit(Opcode.LA, Register.T3, Operand.label("null"))
+                    .comment("load address of null variable");
+            e.emit(Opcode.BEQ, Register.V0, Register.T3, Operand.label("program_error"))
+                    .comment("error if assigning null");
         }
         if (e.isLocal(name))
         {
-            e.emit("sw $v0, " + e.getOffset(name) + "($sp)" + "\t# assign the variable");
+            e.emit(Opcode.SW, Register.V0, Operand.address(e.getOffset(name), Register.SP))
+                    .comment("assign the variable");
         }
         else
         {
-            e.emit("sw $v0, var" + name + "\t# assign the variable");
+            e.emit(Opcode.SW, Register.V0, Operand.label("var" + name))
+                    .comment("assign the variable");
         }
     }
+
+    /**
+     * The toString method returns the assignment as it is written in a program.
+     * @return type String the assignment
+     */
+    @Override
+    public String toString()
+    {
+        return name + " := " + exp;
+    }
 }
@@ -1,20 +1,29 @@
 package src.ast;
 
+import src.cfg.InvariantHoister;
 import src.emitter.Emitter;
+import src.emitter.Opcode;
+import src.emitter.Register;
+import src.emitter.RegisterAllocator;
 import src.environments.Environment;
+import src.environments.Resolver;
+import src.jit.ProcedureCompiler;
+import src.vm.BytecodeEmitter;
 
 /**
  * The BinOp class represents a binary operator node on the AST
  *      which is a combination of a left and right hand side
  *      each expressions and a binary operator spanning from
- *      *, +, -, /, and mod.
+ *      *, +, -, /, and mod. The parser builds the nodes with the of method, which
+ *      picks a subclass specialized for the operator, and for a constant right operand,
+ *      whose eval method does not switch on the operator.
  * @author Daniel Gergov
  * @version 10/16/23
  */
 public class BinOp implements Expression
 {
-    private Expression left;
-    private Expression right;
+    protected final Expression left;
+    protected final Expression right;
     private String op;
 
     /**
@@ -30,6 +39,82 @@ public class BinOp implements Expression
         this.op = op;
     }
 
+    /**
+     * The of method creates the binary operation node specialized for the given operator, so that
+     *      evaluating it runs only the code of that operator instead of switching on it. When
+     *      the right operand is a Number, the node is further specialized to use its value
+     *      directly, which is the case for the common forms like i + 1, j mod 2, and i < 10.
+     * @param left the left operand
+     * @param right the right operand
+     * @param op the operator, as the parser spells it
+     * @return type BinOp the specialized node, or a plain BinOp if the operator is not
+     *      recognized, which fails when it is evaluated
+     */
+    public static BinOp of(Expression left, Expression right, String op)
+    {
+        if (right instanceof Number)
+        {
+            int constant = ((Number) right).getValue();
+            switch (op)
+            {
+                case "+":
+                    return new AddConstant(left, right, constant);
+                case "-":
+                    return new SubConstant(left, right, constant);
+                case "*":
+                    return new MulConstant(left, right, constant);
+                case "/":
+                    return new DivConstant(left, right, constant);
+                case "mod":
+                    return new ModConstant(left, right, constant);
+                default:
+                    break;
+            }
+        }
+        switch (op)
+        {
+            case "+":
+                return new Add(left, right);
+            case "-":
+                return new Sub(left, right);
+            case "*":
+                return new Mul(left, right);
+            case "/":
+                return new Div(left, right);
+            case "mod":
+                return new Mod(left, right);
+            default:
+                return new BinOp(left, right, op);
+        }
+    }
+
+    /**
+     * Returns the left operand of the binary operation.
+     * @return type Expression the left operand
+     */
+    public Expression getLeft()
+    {
+        return left;
+    }
+
+    /**
+     * Returns the right operand of the binary operation.
+     * @return type Expression the right operand
+     */
+    public Expression getRight()
+    {
+        return right;
+    }
+
+    /**
+     * Returns the operator of the binary operation, as the parser spells it.
+     * @return type String the operator
+     */
+    public String getOp()
+    {
+        return op;
+    }
+
     /**
      * A method inherited from the Statement interface to execute the binary
      *      operator node of the AST. The method checks the type of the operator
@@ -60,44 +145,496 @@ public class BinOp implements Expression
     }
 
     /**
-     * A method inherited from the Statement interface to compile the binop node of the AST.
-     *      The method compiles the left expression and pushes the result onto the stack, then
-     *      compiles the right expression and pops the left expression off the stack and performs
-     *      the final operation between the two expressions by emitting MIPS code to the emitter.
-     * @param e type Emitter the emitter to emit MIPS code
-     * @param args a varargs parameter type Object, the arguments passed to the compile method
-     * @precondition the emitter object is not null, and the args parameter is empty
+     * A method inherited from the Expression interface to resolve the binary operation node of the AST.
+     *      The method resolves both operands.
+     * @param r type Resolver the resolver that binds variable names to slots
+     * @precondition the resolver is in the scope the binary operation appears in
+     * @postcondition this node is not changed
+     * @return type Expression the resolved binary operation
+     */
+    @Override
+    public Expression resolve(Resolver r)
+    {
+        return BinOp.of(left.resolve(r), right.resolve(r), op);
+    }
+
+    /**
+     * A method inherited from the Expression interface to optimize the binary operation node of the
+     *      AST. The method optimizes both operands. If both fold to numbers, the operation is
+     *      folded into a number, unless it divides by zero, which is left to fail when the program
+     *      runs. Otherwise the identities x + 0, 0 + x, x - 0, x * 1, 1 * x, and x / 1 are
+     *      simplified to x, which is still evaluated, and the negations -1 * x and x * -1,
+     *      which is how the parser reads a unary minus, become the subtraction 0 - x.
+     * @postcondition this node is not changed
+     * @return type Expression the optimized binary operation
+     */
+    @Override
+    public Expression optimize()
+    {
+        Expression l = left.optimize();
+        Expression r = right.optimize();
+        BinOp optimized = BinOp.of(l, r, op);
+        if (l instanceof Number && r instanceof Number)
+        {
+            try
+            {
+                return new Number(optimized.eval(null));
+            }
+            catch (ArithmeticException | IllegalArgumentException e)
+            {
+                return optimized;
+            }
+        }
+        if (isConstant(r, 0) && (op.equals("+") || op.equals("-"))
+                || isConstant(r, 1) && (op.equals("*") || op.equals("/")))
+        {
+            return l;
+        }
+        if (isConstant(l, 0) && op.equals("+") || isConstant(l, 1) && op.equals("*"))
+        {
+            return r;
+        }
+        if (op.equals("*") && (isConstant(l, -1) || isConstant(r, -1)))
+        {
+            return BinOp.of(new Number(0), isConstant(l, -1) ? r : l, "-");
+        }
+        return optimized;
+    }
+
+    /**
+     * A method inherited from the Expression interface to hoist the binary operation node of the
+     *      AST out of loops. If a loop the operation is in hoists it, the operation is replaced
+     *      by the temporary that holds its value; otherwise, both operands are hoisted.
+     * @param h type InvariantHoister the hoister that knows the loops the operation is in
+     * @postcondition this node is not changed
+     * @return type Expression the hoisted binary operation
+     */
+    @Override
+    public Expression hoist(InvariantHoister h)
+    {
+        Variable temporary = h.temporaryFor(this);
+        if (temporary != null)
+        {
+            return temporary;
+        }
+        return BinOp.of(left.hoist(h), right.hoist(h), op);
+    }
+
+    /**
+     * The isConstant method checks whether the given expression is the given number.
+     * @param e the expression to check
+     * @param value the value to compare with
+     * @return type boolean true if the expression is a Number with the given value;
+     *      otherwise, false
+     */
+    private static boolean isConstant(Expression e, int value)
+    {
+        return e instanceof Number && ((Number) e).getValue() == value;
+    }
+
+    /**
+     * A method inherited from the Expression interface to assemble the BinOp node of the AST into
+     *      bytecode that pushes its value. Both operands are assembled and then the operator.
+     * @param b type BytecodeEmitter the emitter that will emit the bytecode
+     * @precondition the emitter is in the scope the BinOp appears in
+     * @postcondition the AST node is assembled into bytecode
+     */
+    @Override
+    public void assembleValue(BytecodeEmitter b)
+    {
+        left.assembleValue(b);
+        right.assembleValue(b);
+        b.emitOperator(op);
+    }
+
+    /**
+     * A method inherited from the Expression interface to compile the BinOp node of the AST into
+     *      JVM bytecode that pushes its value.
+     * @param c type ProcedureCompiler the compiler that will emit the JVM bytecode
+     * @precondition the node belongs to the resolved procedure being compiled
+     * @postcondition the AST node is compiled into JVM bytecode
+     */
+    @Override
+    public void jitValue(ProcedureCompiler c)
+    {
+        left.jitValue(c);
+        right.jitValue(c);
+        c.emitOperator(op);
+    }
+
+    /**
+     * A method inherited from the Expression interface to compile the binop node of the AST into
+     *      a register. The allocator evaluates the two operands into registers, in the order
+     *      that needs the fewest registers, and the operation leaves its result in the register
+     *      of the left operand.
+     * @param r type RegisterAllocator the allocator that hands out the registers
+     * @precondition the registers in use are the ones of the enclosing expression
      * @postcondition the AST node is compiled into MIPS assembly
+     * @return type Register the register that holds the value of the operation
+     * @throws IllegalArgumentException if the operator is not known
      */
     @Override
-    public void compile(Emitter e, Object... args)
+    public Register compileValue(RegisterAllocator r)
     {
-        left.compile(e);
-        e.emitPush("$v0");
-        right.compile(e);
-        e.emitPop("$t0");
+        Emitter e = r.getEmitter();
+        Register[] registers = r.compileOperands(left, right);
+        Register result = registers[0];
+        Register operand = registers[1];
+        r.release(operand);
         switch(this.op)
         {
             case "+":
-                e.emit("add $v0, $t0, $v0" + "\t# add the two expressions");
+                e.emit(Opcode.ADD, result, result, operand).comment("add the two expressions");
                 break;
             case "-":
-                e.emit("sub $v0, $t0, $v0" + "\t# subtract the two expressions");
+                e.emit(Opcode.SUB, result, result, operand)
+                        .comment("subtract the two expressions");
                 break;
             case "*":
-                e.emit("mult $t0, $v0" + "\t# add the multiply expressions");
-                e.emit("mflo $v0");
+                e.emit(Opcode.MULT, result, operand).comment("multiply the two expressions");
+                e.emit(Opcode.MFLO, result);
                 break;
             case "/":
-                e.emit("div $t0, $v0" + "\t# divide the two expressions");
-                e.emit("mflo $v0");
+                e.emit(Opcode.DIV, result, operand).comment("divide the two expressions");
+                e.emit(Opcode.MFLO, result);
                 break;
             case "mod":
-                e.emit("div $t0, $v0" + "\t# add mod two expressions");
-                e.emit("mfhi $v0");
+                e.emit(Opcode.DIV, result, operand).comment("mod the two expressions");
+                e.emit(Opcode.MFHI, result);
                 break;
             default:
                 throw new IllegalArgumentException("Unexpected operator in expression evaluation");
         }
+        return result;
+    }
+
+    /**
+     * A method inherited from the Statement interface to compile the binop node of the AST.
+     *      The method compiles the operation into registers handed out by the register
+     *      allocator of the emitter, and moves the result into $v0.
+     * @param e type Emitter the emitter to emit MIPS code
+     * @param args a varargs parameter type Object, the arguments passed to the compile method
+     * @precondition the emitter object is not null, and the args parameter is empty
+     * @postcondition the AST node is compiled into MIPS assembly
+     */
+    @Override
+    public void compile(Emitter e, Object... args)
+    {
+        RegisterAllocator r = e.getRegisterAllocator();
+        Register register = compileValue(r);
+        r.release(register);
+        e.emit(Opcode.MOVE, Register.V0, register).comment("move the result into $v0");
+    }
+
+    /**
+     * The toString method returns the operation as it is written in a program, with an
+     *      operand that is itself an operation in parentheses.
+     * @return type String the operation
+     */
+    @Override
+    public String toString()
+    {
+        return parenthesize(left) + " " + op + " " + parenthesize(right);
+    }
+
+    /**
+     * Returns the given operand as it is written in a program, in parentheses if it is an
+     *      operation.
+     * @param e the operand
+     * @return type String the operand
+     */
+    private static String parenthesize(Expression e)
+    {
+        return e instanceof BinOp ? "(" + e + ")" : e.toString();
+    }
+
+    /**
+     * The Add class is the BinOp node for the sum of its left and right operand.
+     */
+    private static final class Add extends BinOp
+    {
+        /**
+         * Constructor for the Add class
+         * @param left the left operand
+         * @param right the right operand
+         */
+        Add(Expression left, Expression right)
+        {
+            super(left, right, "+");
+        }
+
+        /**
+         * Evaluates the sum of its left and right operand.
+         * @param env type Environment the environment of where the eval method will run
+         * @return type int the value of the node
+         */
+        @Override
+        public int eval(Environment env)
+        {
+            return left.eval(env) + right.eval(env);
+        }
+    }
+
+    /**
+     * The Sub class is the BinOp node for the difference of its left and right operand.
+     */
+    private static final class Sub extends BinOp
+    {
+        /**
+         * Constructor for the Sub class
+         * @param left the left operand
+         * @param right the right operand
+         */
+        Sub(Expression left, Expression right)
+        {
+            super(left, right, "-");
+        }
+
+        /**
+         * Evaluates the difference of its left and right operand.
+         * @param env type Environment the environment of where the eval method will run
+         * @return type int the value of the node
+         */
+        @Override
+        public int eval(Environment env)
+        {
+            return left.eval(env) - right.eval(env);
+        }
+    }
+
+    /**
+     * The Mul class is the BinOp node for the product of its left and right operand.
+     */
+    private static final class Mul extends BinOp
+    {
+        /**
+         * Constructor for the Mul class
+         * @param left the left operand
+         * @param right the right operand
+         */
+        Mul(Expression left, Expression right)
+        {
+            super(left, right, "*");
+        }
+
+        /**
+         * Evaluates the product of its left and right operand.
+         * @param env type Environment the environment of where the eval method will run
+         * @return type int the value of the node
+         */
+        @Override
+        public int eval(Environment env)
+        {
+            return left.eval(env) * right.eval(env);
+        }
+    }
+
+    /**
+     * The Div class is the BinOp node for the quotient of its left and right operand.
+     */
+    private static final class Div extends BinOp
+    {
+        /**
+         * Constructor for the Div class
+         * @param left the left operand
+         * @param right the right operand
+         */
+        Div(Expression left, Expression right)
+        {
+            super(left, right, "/");
+        }
+
+        /**
+         * Evaluates the quotient of its left and right operand.
+         * @param env type Environment the environment of where the eval method will run
+         * @return type int the value of the node
+         */
+        @Override
+        public int eval(Environment env)
+        {
+            return left.eval(env) / right.eval(env);
+        }
+    }
+
+    /**
+     * The Mod class is the BinOp node for the remainder of its left operand divided by its right operand.
+     */
+    private static final class Mod extends BinOp
+    {
+        /**
+         * Constructor for the Mod class
+         * @param left the left operand
+         * @param right the right operand
+         */
+        Mod(Expression left, Expression right)
+        {
+            super(left, right, "mod");
+        }
+
+        /**
+         * Evaluates the remainder of its left operand divided by its right operand.
+         * @param env type Environment the environment of where the eval method will run
+         * @return type int the value of the node
+         */
+        @Override
+        public int eval(Environment env)
+        {
+            return left.eval(env) % right.eval(env);
+        }
+    }
+
+    /**
+     * The AddConstant class is the BinOp node for the sum of its left and constant right operand.
+     */
+    private static final class AddConstant extends BinOp
+    {
+        private final int constant;
+
+        /**
+         * Constructor for the AddConstant class
+         * @param left the left operand
+         * @param right the right operand, a Number
+         * @param constant the value of the right operand
+         */
+        AddConstant(Expression left, Expression right, int constant)
+        {
+            super(left, right, "+");
+            this.constant = constant;
+        }
+
+        /**
+         * Evaluates the sum of its left and constant right operand.
+         * @param env type Environment the environment of where the eval method will run
+         * @return type int the value of the node
+         */
+        @Override
+        public int eval(Environment env)
+        {
+            return left.eval(env) + constant;
+        }
+    }
+
+    /**
+     * The SubConstant class is the BinOp node for the difference of its left and constant right operand.
+     */
+    private static final class SubConstant extends BinOp
+    {
+        private final int constant;
+
+        /**
+         * Constructor for the SubConstant class
+         * @param left the left operand
+         * @param right the right operand, a Number
+         * @param constant the value of the right operand
+         */
+        SubConstant(Expression left, Expression right, int constant)
+        {
+            super(left, right, "-");
+            this.constant = constant;
+        }
+
+        /**
+         * Evaluates the difference of its left and constant right operand.
+         * @param env type Environment the environment of where the eval method will run
+         * @return type int the value of the node
+         */
+        @Override
+        public int eval(Environment env)
+        {
+            return left.eval(env) - constant;
+        }
+    }
+
+    /**
+     * The MulConstant class is the BinOp node for the product of its left and constant right operand.
+     */
+    private static final class MulConstant extends BinOp
+    {
+        private final int constant;
+
+        /**
+         * Constructor for the MulConstant class
+         * @param left the left operand
+         * @param right the right operand, a Number
+         * @param constant the value of the right operand
+         */
+        MulConstant(Expression left, Expression right, int constant)
+        {
+            super(left, right, "*");
+            this.constant = constant;
+        }
+
+        /**
+         * Evaluates the product of its left and constant right operand.
+         * @param env type Environment the environment of where the eval method will run
+         * @return type int the value of the node
+         */
+        @Override
+        public int eval(Environment env)
+        {
+            return left.eval(env) * constant;
+        }
+    }
+
+    /**
+     * The DivConstant class is the BinOp node for the quotient of its left and constant right operand.
+     */
+    private static final class DivConstant extends BinOp
+    {
+        private final int constant;
+
+        /**
+         * Constructor for the DivConstant class
+         * @param left the left operand
+         * @param right the right operand, a Number
+         * @param constant the value of the right operand
+         */
+        DivConstant(Expression left, Expression right, int constant)
+        {
+            super(left, right, "/");
+            this.constant = constant;
+        }
+
+        /**
+         * Evaluates the quotient of its left and constant right operand.
+         * @param env type Environment the environment of where the eval method will run
+         * @return type int the value of the node
+         */
+        @Override
+        public int eval(Environment env)
+        {
+            return left.eval(env) / constant;
+        }
+    }
+
+    /**
+     * The ModConstant class is the BinOp node for the remainder of its left operand divided by its constant right operand.
+     */
+    private static final class ModConstant extends BinOp
+    {
+        private final int constant;
+
+        /**
+         * Constructor for the ModConstant class
+         * @param left the left operand
+         * @param right the right operand, a Number
+         * @param constant the value of the right operand
+         */
+        ModConstant(Expression left, Expression right, int constant)
+        {
+            super(left, right, "mod");
+            this.constant = constant;
+        }
+
+        /**
+         * Evaluates the remainder of its left operand divided by its constant right operand.
+         * @param env type Environment the environment of where the eval method will run
+         * @return type int the value of the node
+         */
+        @Override
+        public int eval(Environment env)
+        {
+            return left.eval(env) % constant;
+        }
     }
 }
@@ -1,7 +1,14 @@
 package src.ast;
 
+import java.util.ArrayList;
+import java.util.List;
+import src.cfg.GraphBuilder;
+import src.cfg.InvariantHoister;
 import src.emitter.Emitter;
 import src.environments.Environment;
+import src.environments.Resolver;
+import src.jit.ProcedureCompiler;
+import src.vm.BytecodeEmitter;
 
 /**
  * The Block class represents a block node in the AST which represents a list
@@ -47,6 +54,136 @@ public class Block implements Statement
         }
     }
 
+    /**
+     * A method inherited from the Statement interface to run the block node of the AST.
+     *      The method runs the statements of the block in order and stops at the first one
+     *      that does not complete normally, passing its completion up.
+     * @precondition env is not null
+     * @postcondition the statements in the block are executed
+     * @param env type Environment the environment of where the run method will run
+     * @return type Completion how the block completed
+     */
+    @Override
+    public Completion run(Environment env)
+    {
+        for (int i = 0; i < statements.length; ++i)
+        {
+            Completion completion = statements[i].run(env);
+            if (completion != Completion.NORMAL)
+            {
+                return completion;
+            }
+        }
+        return Completion.NORMAL;
+    }
+
+    /**
+     * A method inherited from the Statement interface to resolve the block node of the AST.
+     *      The method resolves every statement of the block.
+     * @param r type Resolver the resolver that binds variable names to slots
+     * @precondition the resolver is in the scope the block appears in
+     * @postcondition this node is not changed
+     * @return type Statement the resolved block
+     */
+    @Override
+    public Statement resolve(Resolver r)
+    {
+        Statement[] resolved = new Statement[statements.length];
+        for (int i = 0; i < statements.length; ++i)
+        {
+            resolved[i] = statements[i].resolve(r);
+        }
+        return new Block(resolved);
+    }
+
+    /**
+     * A method inherited from the Statement interface to optimize the block node of the AST. The
+     *      method optimizes every statement and drops the statements that are optimized away into
+     *      empty blocks.
+     * @postcondition this node is not changed
+     * @return type Statement the optimized block
+     */
+    @Override
+    public Statement optimize()
+    {
+        List<Statement> optimized = new ArrayList<Statement>();
+        for (Statement statement : statements)
+        {
+            Statement s = statement.optimize();
+            if (!(s instanceof Block) || ((Block) s).statements.length > 0)
+            {
+                optimized.add(s);
+            }
+        }
+        return new Block(optimized.toArray(new Statement[optimized.size()]));
+    }
+
+    /**
+     * A method inherited from the Statement interface to hoist the block node of the AST out of
+     *      loops. The method hoists every statement.
+     * @param h type InvariantHoister the hoister that knows the loops the block is in
+     * @postcondition this node is not changed
+     * @return type Statement the hoisted block
+     */
+    @Override
+    public Statement hoist(InvariantHoister h)
+    {
+        Statement[] hoisted = new Statement[statements.length];
+        for (int i = 0; i < statements.length; ++i)
+        {
+            hoisted[i] = statements[i].hoist(h);
+        }
+        return new Block(hoisted);
+    }
+
+    /**
+     * A method inherited from the Statement interface to assemble the block node of the AST into
+     *      bytecode. Every statement of the block is assembled in order.
+     * @param b type BytecodeEmitter the emitter that will emit the bytecode
+     * @precondition the emitter is in the scope the block appears in
+     * @postcondition the AST node is assembled into bytecode
+     */
+    @Override
+    public void assemble(BytecodeEmitter b)
+    {
+        for (Statement statement : statements)
+        {
+            statement.assemble(b);
+        }
+    }
+
+    /**
+     * A method inherited from the Statement interface to compile the block node of the AST into JVM
+     *      bytecode for the ProcedureCompiler. The statements are compiled in order.
+     * @param c type ProcedureCompiler the compiler that will emit the JVM bytecode
+     * @precondition the node belongs to the resolved procedure being compiled
+     * @postcondition the AST node is compiled into JVM bytecode
+     */
+    @Override
+    public void jit(ProcedureCompiler c)
+    {
+        for (Statement statement : statements)
+        {
+            statement.jit(c);
+        }
+    }
+
+    /**
+     * A method inherited from the Statement interface to lower the block node of the AST into basic
+     *      blocks. The statements of the block are lowered in order.
+     * @param g type GraphBuilder the builder that collects the basic blocks
+     * @precondition the builder is in the loop the block appears in, if any
+     * @postcondition the AST node is lowered into basic blocks
+     */
+    @Override
+    public void lower(GraphBuilder g)
+    {
+        for (Statement stmt : statements)
+        {
+            stmt.lower(g);
+        }
+    }
+
     /**
      * A method inherited from the Statement interface to compile the block node of the AST.
      *      The block node which consists of multiple statements is compiled by compiling each
@@ -1,7 +1,14 @@
 package src.ast;
 
+import src.cfg.GraphBuilder;
+import src.cfg.InvariantHoister;
 import src.emitter.Emitter;
+import src.emitter.Opcode;
+import src.emitter.Operand;
 import src.environments.Environment;
+import src.environments.Resolver;
+import src.jit.ProcedureCompiler;
+import src.vm.BytecodeEmitter;
 
 /**
  * THe Break class represents a break node in the AST which is used to break
@@ -43,11 +50,105 @@ public class Break implements Statement
         throw new BreakException();
     }
 
+    /**
+     * A method inherited from the Statement interface to run the break node of the AST.
+     *      The method returns BREAK so that the enclosing loop stops.
+     * @precondition env is not null
+     * @postcondition the break statement is executed
+     * @param env type Environment the environment of where the run method will run
+     * @return type Completion always BREAK
+     * @throws IllegalArgumentException if the break statement is not used inside a loop
+     */
+    @Override
+    public Completion run(Environment env)
+    {
+        if (env.getLoopDepth() == 0) {
+            throw new IllegalArgumentException("Break statement can only be used within a loop.");
+        }
+        return Completion.BREAK;
+    }
+
+    /**
+     * A method inherited from the Statement interface to resolve the break node of the AST.
+     *      A break reads no variables, so the node itself is returned.
+     * @param r type Resolver the resolver that binds variable names to slots
+     * @precondition the resolver is in the scope the break appears in
+     * @postcondition this node is not changed
+     * @return type Statement the resolved break
+     */
+    @Override
+    public Statement resolve(Resolver r)
+    {
+        return this;
+    }
+
+    /**
+     * A method inherited from the Statement interface to optimize the break node of the AST. There
+     *      is nothing to optimize, so the node itself is returned.
+     * @return type Statement this node
+     */
+    @Override
+    public Statement optimize()
+    {
+        return this;
+    }
+
+    /**
+     * A method inherited from the Statement interface to hoist the break node of the AST out of
+     *      loops. There is nothing to hoist, so the node itself is returned.
+     * @param h type InvariantHoister the hoister that knows the loops the node is in
+     * @return type Statement this node
+     */
+    @Override
+    public Statement hoist(InvariantHoister h)
+    {
+        return this;
+    }
+
+    /**
+     * A method inherited from the Statement interface to assemble the break node of the AST into
+     *      bytecode. A break jumps past the end of the innermost loop.
+     * @param b type BytecodeEmitter the emitter that will emit the bytecode
+     * @precondition the emitter is in the scope the break appears in
+     * @postcondition the AST node is assembled into bytecode
+     */
+    @Override
+    public void assemble(BytecodeEmitter b)
+    {
+        b.emitBreak();
+    }
+
+    /**
+     * A method inherited from the Statement interface to compile the break node of the AST into JVM
+     *      bytecode for the ProcedureCompiler. The break jumps out of the innermost loop.
+     * @param c type ProcedureCompiler the compiler that will emit the JVM bytecode
+     * @precondition the node belongs to the resolved procedure being compiled
+     * @postcondition the AST node is compiled into JVM bytecode
+     */
+    @Override
+    public void jit(ProcedureCompiler c)
+    {
+        c.emitBreak();
+    }
+
+    /**
+     * A method inherited from the Statement interface to lower the break node of the AST into basic
+     *      blocks. The current block jumps past the end of the innermost loop.
+     * @param g type GraphBuilder the builder that collects the basic blocks
+     * @precondition the builder is in the loop the break appears in, if any
+     * @postcondition the AST node is lowered into basic blocks
+     */
+    @Override
+    public void lower(GraphBuilder g)
+    {
+        g.jump(g.getBreakTarget());
+    }
+
     /**
      * A method inherited from the Statement interface to compile the break node of the AST.
      *      The method compiles the break node by jumping to the end of the loop. The method
-     *      uses the passed Emitter object to emit code jumping to the label specified by the
-     *      type of loop (for or while) and the id of the loop linked to the break statement.
+     *      uses the passed Emitter object to emit code jumping to the end label of the
+     *      innermost loop the emitter is emitting.
      * @param e type Emitter the emitter that will emit the compiled code
      * @param args a varargs parameter type Object, the arguments passed to the compile method
      * @precondition the emitter object is not null, and the args parameter is empty
@@ -56,15 +157,6 @@ public class Break implements Statement
     @Override
     public void compile(Emitter e, Object... args)
     {
-        String loop;
-        if (this.statement instanceof While)
-        {
-            loop = "while";
-        }
-        else
-        {
-            loop = "for";
-        }
-        e.emit("j term_" + loop + this.id + "\t# break from the loop");
+        e.emit(Opcode.J, Operand.label("term_" + e.getLoopLabel())).comment("break from the loop");
     }
 }
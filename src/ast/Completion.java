@@ -0,0 +1,16 @@
+package src.ast;
+
+/**
+ * The Completion enum represents how the execution of a statement completed when the AST is
+ *      run with the run method instead of the exec method. Rather than throwing a
+ *      BreakException, ContinueException, or ExitException, a statement returns BREAK,
+ *      CONTINUE, or EXIT, and every enclosing statement passes the signal up until a loop,
+ *      a procedure call, or the program handles it. A statement that finished normally
+ *      returns NORMAL.
+ * @author Daniel Gergov
+ * @version 10/18/26
+ */
+public enum Completion
+{
+    NORMAL, BREAK, CONTINUE, EXIT
+}
@@ -1,19 +1,29 @@
 package src.ast;
 
+import src.cfg.InvariantHoister;
 import src.emitter.Emitter;
+import src.emitter.Opcode;
+import src.emitter.Operand;
+import src.emitter.Register;
+import src.emitter.RegisterAllocator;
 import src.environments.Environment;
+import src.environments.Resolver;
+import src.jit.ProcedureCompiler;
+import src.vm.BytecodeEmitter;
 
 /**
  * The Condition class represents a condition node in the AST which is used to represent a
  *      condition in any if statement or while loop header. The condition is an expression
- *      that evaluates to either 0 or 1 reperesenting false or true respectively.
+ *      that evaluates to either 0 or 1 reperesenting false or true respectively. Like
+ *      BinOp nodes, conditions are built with the of method, which picks a subclass
+ *      specialized for the relative operator and for a constant right operand.
  * @author Daniel Gergov
  * @version 10/16/23
  */
 public class Condition implements Expression
 {
-    private Expression left;
-    private Expression right;
+    protected final Expression left;
+    protected final Expression right;
     private String op;
 
     /**
@@ -30,6 +40,86 @@ public class Condition implements Expression
         this.op = op;
     }
 
+    /**
+     * The of method creates the condition node specialized for the given operator, so that
+     *      evaluating it runs only the code of that operator instead of switching on it. When
+     *      the right operand is a Number, the node is further specialized to use its value
+     *      directly, which is the case for the common forms like i + 1, j mod 2, and i < 10.
+     * @param left the left operand
+     * @param right the right operand
+     * @param op the operator, as the parser spells it
+     * @return type Condition the specialized node, or a plain Condition if the operator is not
+     *      recognized, which fails when it is evaluated
+     */
+    public static Condition of(Expression left, Expression right, String op)
+    {
+        if (right instanceof Number)
+        {
+            int constant = ((Number) right).getValue();
+            switch (op)
+            {
+                case "=":
+                    return new EqConstant(left, right, constant);
+                case "<>":
+                    return new NeConstant(left, right, constant);
+                case "<":
+                    return new LtConstant(left, right, constant);
+                case "<=":
+                    return new LeConstant(left, right, constant);
+                case ">":
+                    return new GtConstant(left, right, constant);
+                case ">=":
+                    return new GeConstant(left, right, constant);
+                default:
+                    break;
+            }
+        }
+        switch (op)
+        {
+            case "=":
+                return new Eq(left, right);
+            case "<>":
+                return new Ne(left, right);
+            case "<":
+                return new Lt(left, right);
+            case "<=":
+                return new Le(left, right);
+            case ">":
+                return new Gt(left, right);
+            case ">=":
+                return new Ge(left, right);
+            default:
+                return new Condition(left, right, op);
+        }
+    }
+
+    /**
+     * Returns the left operand of the condition.
+     * @return type Expression the left operand
+     */
+    public Expression getLeft()
+    {
+        return left;
+    }
+
+    /**
+     * Returns the right operand of the condition.
+     * @return type Expression the right operand
+     */
+    public Expression getRight()
+    {
+        return right;
+    }
+
+    /**
+     * Returns the operator of the condition, as the parser spells it.
+     * @return type String the operator
+     */
+    public String getOp()
+    {
+        return op;
+    }
+
     /**
      * A method inherited from the Statement interface to execute the condition
      *      node of the AST. The method checks the type of the operator with every relative
@@ -62,13 +152,140 @@ public class Condition implements Expression
         }
     }
 
+    /**
+     * A method inherited from the Expression interface to resolve the condition node of the AST.
+     *      The method resolves both sides of the condition.
+     * @param r type Resolver the resolver that binds variable names to slots
+     * @precondition the resolver is in the scope the condition appears in
+     * @postcondition this node is not changed
+     * @return type Condition the resolved condition
+     */
+    @Override
+    public Condition resolve(Resolver r)
+    {
+        return Condition.of(left.resolve(r), right.resolve(r), op);
+    }
+
+    /**
+     * A method inherited from the Expression interface to optimize the condition node of the AST.
+     *      The method optimizes both sides of the condition. A condition keeps its type even when
+     *      both sides fold to numbers, since the statements that test it need a Condition; they
+     *      check isConstant instead.
+     * @postcondition this node is not changed
+     * @return type Condition the optimized condition
+     */
+    @Override
+    public Condition optimize()
+    {
+        return Condition.of(left.optimize(), right.optimize(), op);
+    }
+
+    /**
+     * A method inherited from the Expression interface to hoist the condition node of the AST out
+     *      of loops. The method hoists both sides of the condition, which keeps its type.
+     * @param h type InvariantHoister the hoister that knows the loops the condition is in
+     * @postcondition this node is not changed
+     * @return type Condition the hoisted condition
+     */
+    @Override
+    public Condition hoist(InvariantHoister h)
+    {
+        return Condition.of(left.hoist(h), right.hoist(h), op);
+    }
+
+    /**
+     * Returns whether both sides of the condition are numbers, so that the condition can be
+     *      evaluated without an environment.
+     * @return type boolean true if the condition is constant; otherwise, false
+     */
+    public boolean isConstant()
+    {
+        return left instanceof Number && right instanceof Number;
+    }
+
+    /**
+     * A method inherited from the Expression interface to assemble the condition node of the AST
+     *      into bytecode that pushes its value. Both operands are assembled and then the
+     *      comparison, which pushes 1 if it holds and 0 if it does not.
+     * @param b type BytecodeEmitter the emitter that will emit the bytecode
+     * @precondition the emitter is in the scope the condition appears in
+     * @postcondition the AST node is assembled into bytecode
+     */
+    @Override
+    public void assembleValue(BytecodeEmitter b)
+    {
+        left.assembleValue(b);
+        right.assembleValue(b);
+        b.emitOperator(op);
+    }
+
+    /**
+     * The assembleBranch method assembles the condition into bytecode that jumps to the given label
+     *      if the condition holds, or if it does not hold, without pushing its value.
+     * @param b type BytecodeEmitter the emitter that will emit the bytecode
+     * @param when true to jump when the condition holds; false to jump when it does not
+     * @param label the label to jump to
+     * @precondition the emitter is in the scope the condition appears in
+     * @postcondition the AST node is assembled into bytecode
+     */
+    public void assembleBranch(BytecodeEmitter b, boolean when, int label)
+    {
+        left.assembleValue(b);
+        right.assembleValue(b);
+        b.emitBranch(op, when, label);
+    }
+
+    /**
+     * A method inherited from the Expression interface to compile the condition node of the AST
+     *      into JVM bytecode that pushes its value. The value is 1 if the condition holds and 0 if
+     *      it does not.
+     * @param c type ProcedureCompiler the compiler that will emit the JVM bytecode
+     * @precondition the node belongs to the resolved procedure being compiled
+     * @postcondition the AST node is compiled into JVM bytecode
+     */
+    @Override
+    public void jitValue(ProcedureCompiler c)
+    {
+        left.jitValue(c);
+        right.jitValue(c);
+        c.emitOperator(op);
+    }
+
+    /**
+     * The jitBranch method compiles the condition into a JVM branch to the given label that is
+     *      taken when the condition holds, or when it does not hold, without pushing a value.
+     * @param c type ProcedureCompiler the compiler that will emit the JVM bytecode
+     * @param when true to branch when the condition holds; false to branch when it does not
+     * @param label the label to branch to
+     * @precondition the node belongs to the resolved procedure being compiled
+     * @postcondition the AST node is compiled into JVM bytecode
+     */
+    public void jitBranch(ProcedureCompiler c, boolean when, int label)
+    {
+        left.jitValue(c);
+        right.jitValue(c);
+        c.emitBranch(op, when, label);
+    }
+
+    /**
+     * A method inherited from the Expression interface to compile the condition into a
+     *      register. A condition is only compiled as the branch of an if or a loop.
+     * @param r type RegisterAllocator the allocator that hands out the registers
+     * @return type Register never returns
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public Register compileValue(RegisterAllocator r)
+    {
+        throw new UnsupportedOperationException("Condition cannot be compiled as a value");
+    }
+
     /**
      * A method inherited from the Statement interface to compile the condition node of the AST.
      *      The condition node consists of two expressions and an operator. The method compiles
-     *      the left side of the condition expression and pushes the value of the expression 
-     *      onto the stack, then compiles the right side of the expression and pops the value
-     *      of the left side. The method then compares the two values and jumps to the target
-     *      tabel which represents false.
+     *      both sides of the condition into registers handed out by the register allocator of
+     *      the emitter. The method then compares the two values and jumps to the target label
+     *      which represents false.
      * @param e type Emitter the emitter that will emit the compiled code
      * @param args a varargs parameter type Object, the arguments passed to the compile method
      * @precondition the emitter object is not null, and the args parameter is length 1 and
@@ -82,33 +299,397 @@ public class Condition implements Expression
         {
             throw new IllegalArgumentException("Expected 1 argument for condition compilation");
         }
-        left.compile(e);
-        e.emitPush("$v0");
-        right.compile(e);
-        e.emitPop("$t0");
-        String targetLabel = (String) args[0];
+        RegisterAllocator r = e.getRegisterAllocator();
+        Register[] registers = r.compileOperands(left, right);
+        r.release(registers[0]);
+        r.release(registers[1]);
+        Operand target = Operand.label((String) args[0]);
         switch (op)
         {
             case "=":
-                e.emit("bne $t0, $v0, " + targetLabel + "\t# if $t0 and $v0 are not equal");
+                e.emit(Opcode.BNE, registers[0], registers[1], target)
+                        .comment("if the two sides are not equal");
                 break;
             case "<>":
-                e.emit("beq $t0, $v0, " + targetLabel + "\t# if $t0 and $v0 are equal");
+                e.emit(Opcode.BEQ, registers[0], registers[1], target)
+                        .comment("if the two sides are equal");
                 break;
             case "<=":
-                e.emit("bgt $t0, $v0, " + targetLabel + "\t# if $t0 is greater than $v0");
+                e.emit(Opcode.BGT, registers[0], registers[1], target)
+                        .comment("if the left side is greater than the right");
                 break;
             case ">=":
-                e.emit("blt $t0, $v0, " + targetLabel + "\t# if $t0 is less than $v0");
+                e.emit(Opcode.BLT, registers[0], registers[1], target)
+                        .comment("if the left side is less than the right");
                 break;
             case ">":
-                e.emit("ble $t0, $v0, " + targetLabel + "\t# if $t0 is less than or equal to $v0");
+                e.emit(Opcode.BLE, registers[0], registers[1], target)
+                        .comment("if the left side is at most the right");
                 break;
             case "<":
-                e.emit("bge $t0, $v0, " + targetLabel + "\t# if $t0 is greater than or equal to $v0");
+                e.emit(Opcode.BGE, registers[0], registers[1], target)
+                        .comment("if the left side is at least the right");
                 break;
             default:
                 throw new IllegalArgumentException("Unexpected operator in expression evaluationp");
         }
     }
+
+    /**
+     * The toString method returns the condition as it is written in a program.
+     * @return type String the condition
+     */
+    @Override
+    public String toString()
+    {
+        return left + " " + op + " " + right;
+    }
+
+    /**
+     * The Eq class is the Condition node for whether its left operand equals its right operand.
+     */
+    private static final class Eq extends Condition
+    {
+        /**
+         * Constructor for the Eq class
+         * @param left the left operand
+         * @param right the right operand
+         */
+        Eq(Expression left, Expression right)
+        {
+            super(left, right, "=");
+        }
+
+        /**
+         * Evaluates whether its left operand equals its right operand.
+         * @param env type Environment the environment of where the eval method will run
+         * @return type int the value of the node
+         */
+        @Override
+        public int eval(Environment env)
+        {
+            return left.eval(env) == right.eval(env) ? 1 : 0;
+        }
+    }
+
+    /**
+     * The Ne class is the Condition node for whether its left operand differs from its right operand.
+     */
+    private static final class Ne extends Condition
+    {
+        /**
+         * Constructor for the Ne class
+         * @param left the left operand
+         * @param right the right operand
+         */
+        Ne(Expression left, Expression right)
+        {
+            super(left, right, "<>");
+        }
+
+        /**
+         * Evaluates whether its left operand differs from its right operand.
+         * @param env type Environment the environment of where the eval method will run
+         * @return type int the value of the node
+         */
+        @Override
+        public int eval(Environment env)
+        {
+            return left.eval(env) != right.eval(env) ? 1 : 0;
+        }
+    }
+
+    /**
+     * The Lt class is the Condition node for whether its left operand is less than its right operand.
+     */
+    private static final class Lt extends Condition
+    {
+        /**
+         * Constructor for the Lt class
+         * @param left the left operand
+         * @param right the right operand
+         */
+        Lt(Expression left, Expression right)
+        {
+            super(left, right, "<");
+        }
+
+        /**
+         * Evaluates whether its left operand is less than its right operand.
+         * @param env type Environment the environment of where the eval method will run
+         * @return type int the value of the node
+         */
+        @Override
+        public int eval(Environment env)
+        {
+            return left.eval(env) < right.eval(env) ? 1 : 0;
+        }
+    }
+
+    /**
+     * The Le class is the Condition node for whether its left operand is at most its right operand.
+     */
+    private static final class Le extends Condition
+    {
+        /**
+         * Constructor for the Le class
+         * @param left the left operand
+         * @param right the right operand
+         */
+        Le(Expression left, Expression right)
+        {
+            super(left, right, "<=");
+        }
+
+        /**
+         * Evaluates whether its left operand is at most its right operand.
+         * @param env type Environment the environment of where the eval method will run
+         * @return type int the value of the node
+         */
+        @Override
+        public int eval(Environment env)
+        {
+            return left.eval(env) <= right.eval(env) ? 1 : 0;
+        }
+    }
+
+    /**
+     * The Gt class is the Condition node for whether its left operand is greater than its right operand.
+     */
+    private static final class Gt extends Condition
+    {
+        /**
+         * Constructor for the Gt class
+         * @param left the left operand
+         * @param right the right operand
+         */
+        Gt(Expression left, Expression right)
+        {
+            super(left, right, ">");
+        }
+
+        /**
+         * Evaluates whether its left operand is greater than its right operand.
+         * @param env type Environment the environment of where the eval method will run
+         * @return type int the value of the node
+         */
+        @Override
+        public int eval(Environment env)
+        {
+            return left.eval(env) > right.eval(env) ? 1 : 0;
+        }
+    }
+
+    /**
+     * The Ge class is the Condition node for whether its left operand is at least its right operand.
+     */
+    private static final class Ge extends Condition
+    {
+        /**
+         * Constructor for the Ge class
+         * @param left the left operand
+         * @param right the right operand
+         */
+        Ge(Expression left, Expression right)
+        {
+            super(left, right, ">=");
+        }
+
+        /**
+         * Evaluates whether its left operand is at least its right operand.
+         * @param env type Environment the environment of where the eval method will run
+         * @return type int the value of the node
+         */
+        @Override
+        public int eval(Environment env)
+        {
+            return left.eval(env) >= right.eval(env) ? 1 : 0;
+        }
+    }
+
+    /**
+     * The EqConstant class is the Condition node for whether its left operand equals its constant right operand.
+     */
+    private static final class EqConstant extends Condition
+    {
+        private final int constant;
+
+        /**
+         * Constructor for the EqConstant class
+         * @param left the left operand
+         * @param right the right operand, a Number
+         * @param constant the value of the right operand
+         */
+        EqConstant(Expression left, Expression right, int constant)
+        {
+            super(left, right, "=");
+            this.constant = constant;
+        }
+
+        /**
+         * Evaluates whether its left operand equals its constant right operand.
+         * @param env type Environment the environment of where the eval method will run
+         * @return type int the value of the node
+         */
+        @Override
+        public int eval(Environment env)
+        {
+            return left.eval(env) == constant ? 1 : 0;
+        }
+    }
+
+    /**
+     * The NeConstant class is the Condition node for whether its left operand differs from its constant right operand.
+     */
+    private static final class NeConstant extends Condition
+    {
+        private final int constant;
+
+        /**
+         * Constructor for the NeConstant class
+         * @param left the left operand
+         * @param right the right operand, a Number
+         * @param constant the value of the right operand
+         */
+        NeConstant(Expression left, Expression right, int constant)
+        {
+            super(left, right, "<>");
+            this.constant = constant;
+        }
+
+        /**
+         * Evaluates whether its left operand differs from its constant right operand.
+         * @param env type Environment the environment of where the eval method will run
+         * @return type int the value of the node
+         */
+        @Override
+        public int eval(Environment env)
+        {
+            return left.eval(env) != constant ? 1 : 0;
+        }
+    }
+
+    /**
+     * The LtConstant class is the Condition node for whether its left operand is less than its constant right operand.
+     */
+    private static final class LtConstant extends Condition
+    {
+        private final int constant;
+
+        /**
+         * Constructor for the LtConstant class
+         * @param left the left operand
+         * @param right the right operand, a Number
+         * @param constant the value of the right operand
+         */
+        LtConstant(Expression left, Expression right, int constant)
+        {
+            super(left, right, "<");
+            this.constant = constant;
+        }
+
+        /**
+         * Evaluates whether its left operand is less than its constant right operand.
+         * @param env type Environment the environment of where the eval method will run
+         * @return type int the value of the node
+         */
+        @Override
+        public int eval(Environment env)
+        {
+            return left.eval(env) < constant ? 1 : 0;
+        }
+    }
+
+    /**
+     * The LeConstant class is the Condition node for whether its left operand is at most its constant right operand.
+     */
+    private static final class LeConstant extends Condition
+    {
+        private final int constant;
+
+        /**
+         * Constructor for the LeConstant class
+         * @param left the left operand
+         * @param right the right operand, a Number
+         * @param constant the value of the right operand
+         */
+        LeConstant(Expression left, Expression right, int constant)
+        {
+            super(left, right, "<=");
+            this.constant = constant;
+        }
+
+        /**
+         * Evaluates whether its left operand is at most its constant right operand.
+         * @param env type Environment the environment of where the eval method will run
+         * @return type int the value of the node
+         */
+        @Override
+        public int eval(Environment env)
+        {
+            return left.eval(env) <= constant ? 1 : 0;
+        }
+    }
+
+    /**
+     * The GtConstant class is the Condition node for whether its left operand is greater than its constant right operand.
+     */
+    private static final class GtConstant extends Condition
+    {
+        private final int constant;
+
+        /**
+         * Constructor for the GtConstant class
+         * @param left the left operand
+         * @param right the right operand, a Number
+         * @param constant the value of the right operand
+         */
+        GtConstant(Expression left, Expression right, int constant)
+        {
+            super(left, right, ">");
+            this.constant = constant;
+        }
+
+        /**
+         * Evaluates whether its left operand is greater than its constant right operand.
+         * @param env type Environment the environment of where the eval method will run
+         * @return type int the value of the node
+         */
+        @Override
+        public int eval(Environment env)
+        {
+            return left.eval(env) > constant ? 1 : 0;
+        }
+    }
+
+    /**
+     * The GeConstant class is the Condition node for whether its left operand is at least its constant right operand.
+     */
+    private static final class GeConstant extends Condition
+    {
+        private final int constant;
+
+        /**
+         * Constructor for the GeConstant class
+         * @param left the left operand
+         * @param right the right operand, a Number
+         * @param constant the value of the right operand
+         */
+        GeConstant(Expression left, Expression right, int constant)
+        {
+            super(left, right, ">=");
+            this.constant = constant;
+        }
+
+        /**
+         * Evaluates whether its left operand is at least its constant right operand.
+         * @param env type Environment the environment of where the eval method will run
+         * @return type int the value of the node
+         */
+        @Override
+        public int eval(Environment env)
+        {
+            return left.eval(env) >= constant ? 1 : 0;
+        }
+    }
 }
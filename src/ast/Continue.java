@@ -1,7 +1,14 @@
 package src.ast;
 
+import src.cfg.GraphBuilder;
+import src.cfg.InvariantHoister;
 import src.emitter.Emitter;
+import src.emitter.Opcode;
+import src.emitter.Operand;
 import src.environments.Environment;
+import src.environments.Resolver;
+import src.jit.ProcedureCompiler;
+import src.vm.BytecodeEmitter;
 
 /**
  * THe Break class represents a continue node in the AST which is used to continue
@@ -43,6 +50,102 @@ public class Continue implements Statement
         throw new ContinueException("");
     }
 
+    /**
+     * A method inherited from the Statement interface to run the continue node of the AST.
+     *      The method returns CONTINUE so that the enclosing loop goes on to its next
+     *      iteration.
+     * @precondition env is not null
+     * @postcondition the continue statement is executed
+     * @param env type Environment the environment of where the run method will run
+     * @return type Completion always CONTINUE
+     * @throws IllegalArgumentException if the continue statement is not used inside a loop
+     */
+    @Override
+    public Completion run(Environment env)
+    {
+        if (env.getLoopDepth() == 0) {
+            throw new IllegalArgumentException("Continue statement can only be used within a loop.");
+        }
+        return Completion.CONTINUE;
+    }
+
+    /**
+     * A method inherited from the Statement interface to resolve the continue node of the AST.
+     *      A continue reads no variables, so the node itself is returned.
+     * @param r type Resolver the resolver that binds variable names to slots
+     * @precondition the resolver is in the scope the continue appears in
+     * @postcondition this node is not changed
+     * @return type Statement the resolved continue
+     */
+    @Override
+    public Statement resolve(Resolver r)
+    {
+        return this;
+    }
+
+    /**
+     * A method inherited from the Statement interface to optimize the continue node of the AST.
+     *      There is nothing to optimize, so the node itself is returned.
+     * @return type Statement this node
+     */
+    @Override
+    public Statement optimize()
+    {
+        return this;
+    }
+
+    /**
+     * A method inherited from the Statement interface to hoist the continue node of the AST out of
+     *      loops. There is nothing to hoist, so the node itself is returned.
+     * @param h type InvariantHoister the hoister that knows the loops the node is in
+     * @return type Statement this node
+     */
+    @Override
+    public Statement hoist(InvariantHoister h)
+    {
+        return this;
+    }
+
+    /**
+     * A method inherited from the Statement interface to assemble the continue node of the AST into
+     *      bytecode. A continue jumps to the next iteration of the innermost loop.
+     * @param b type BytecodeEmitter the emitter that will emit the bytecode
+     * @precondition the emitter is in the scope the continue appears in
+     * @postcondition the AST node is assembled into bytecode
+     */
+    @Override
+    public void assemble(BytecodeEmitter b)
+    {
+        b.emitContinue();
+    }
+
+    /**
+     * A method inherited from the Statement interface to compile the continue node of the AST into
+     *      JVM bytecode for the ProcedureCompiler. The continue jumps to the next iteration of the
+     *      innermost loop.
+     * @param c type ProcedureCompiler the compiler that will emit the JVM bytecode
+     * @precondition the node belongs to the resolved procedure being compiled
+     * @postcondition the AST node is compiled into JVM bytecode
+     */
+    @Override
+    public void jit(ProcedureCompiler c)
+    {
+        c.emitContinue();
+    }
+
+    /**
+     * A method inherited from the Statement interface to lower the continue node of the AST into
+     *      basic blocks. The current block jumps to where the innermost loop continues.
+     * @param g type GraphBuilder the builder that collects the basic blocks
+     * @precondition the builder is in the loop the continue appears in, if any
+     * @postcondition the AST node is lowered into basic blocks
+     */
+    @Override
+    public void lower(GraphBuilder g)
+    {
+        g.jump(g.getContinueTarget());
+    }
+
     /**
      * A method inherited from the Statement interface to compile the continue node of the AST.
      *      The method compiles the continue node by jumping to the start of the loop that the
@@ -55,15 +158,6 @@ public class Continue implements Statement
     @Override
     public void compile(Emitter e, Object... args)
     {
-        String loop;
-        if (this.statement instanceof While)
-        {
-            loop = "while";
-        }
-        else
-        {
-            loop = "for";
-        }
-        e.emit("j " + loop + this.id + "\t# continue from the loop");
+        e.emit(Opcode.J, Operand.label(e.getLoopLabel())).comment("continue from the loop");
     }
 }
@@ -1,7 +1,15 @@
 package src.ast;
 
+import src.cfg.GraphBuilder;
+import src.cfg.InvariantHoister;
 import src.emitter.Emitter;
+import src.emitter.Opcode;
+import src.emitter.Operand;
+import src.emitter.Register;
 import src.environments.Environment;
+import src.environments.Resolver;
+import src.jit.ProcedureCompiler;
+import src.vm.BytecodeEmitter;
 
 /**
  * The exit class represents an exit node in the AST for which the exit node
@@ -34,12 +42,107 @@ public class Exit implements Statement
         throw new ExitException();
     }
 
+    /**
+     * A method inherited from the Statement interface to run the exit node of the AST.
+     *      The method returns EXIT so that the enclosing procedure or program stops.
+     * @precondition env is not null
+     * @postcondition the exit statement is executed
+     * @param env type Environment the environment of where the run method will run
+     * @return type Completion always EXIT
+     */
+    @Override
+    public Completion run(Environment env)
+    {
+        if (env == null)
+        {
+            throw new RuntimeException("Environment is null, cannot exit.");
+        }
+        return Completion.EXIT;
+    }
+
+    /**
+     * A method inherited from the Statement interface to resolve the exit node of the AST.
+     *      An exit reads no variables, so the node itself is returned.
+     * @param r type Resolver the resolver that binds variable names to slots
+     * @precondition the resolver is in the scope the exit appears in
+     * @postcondition this node is not changed
+     * @return type Statement the resolved exit
+     */
+    @Override
+    public Statement resolve(Resolver r)
+    {
+        return this;
+    }
+
+    /**
+     * A method inherited from the Statement interface to optimize the exit node of the AST. There
+     *      is nothing to optimize, so the node itself is returned.
+     * @return type Statement this node
+     */
+    @Override
+    public Statement optimize()
+    {
+        return this;
+    }
+
+    /**
+     * A method inherited from the Statement interface to hoist the exit node of the AST out of
+     *      loops. There is nothing to hoist, so the node itself is returned.
+     * @param h type InvariantHoister the hoister that knows the loops the node is in
+     * @return type Statement this node
+     */
+    @Override
+    public Statement hoist(InvariantHoister h)
+    {
+        return this;
+    }
+
+    /**
+     * A method inherited from the Statement interface to assemble the exit node of the AST into
+     *      bytecode. An exit returns from the procedure, or ends the program in the main program.
+     * @param b type BytecodeEmitter the emitter that will emit the bytecode
+     * @precondition the emitter is in the scope the exit appears in
+     * @postcondition the AST node is assembled into bytecode
+     */
+    @Override
+    public void assemble(BytecodeEmitter b)
+    {
+        b.emitExit();
+    }
+
+    /**
+     * A method inherited from the Statement interface to compile the exit node of the AST into JVM
+     *      bytecode for the ProcedureCompiler. The exit jumps to the end of the procedure.
+     * @param c type ProcedureCompiler the compiler that will emit the JVM bytecode
+     * @precondition the node belongs to the resolved procedure being compiled
+     * @postcondition the AST node is compiled into JVM bytecode
+     */
+    @Override
+    public void jit(ProcedureCompiler c)
+    {
+        c.emitExit();
+    }
+
+    /**
+     * A method inherited from the Statement interface to lower the exit node of the AST into basic
+     *      blocks. The current block jumps to the exit block of the graph.
+     * @param g type GraphBuilder the builder that collects the basic blocks
+     * @precondition the builder is in the loop the exit appears in, if any
+     * @postcondition the AST node is lowered into basic blocks
+     */
+    @Override
+    public void lower(GraphBuilder g)
+    {
+        g.jump(g.getExit());
+    }
+
     /**
      * A method inherited from the Statement interface to compile the exit node of the AST.
      *      The method emits the MIPS assembly code to exit the program by jumping to the 
      *      exit program label or if the program context is in a suroutine, to locate the
      *      $ra register in the stack and jump to the address stored in $ra while cleaning
-     *      up the procedure's stack trace.
+     *      up the procedure's stack trace. The For loops the exit is in are left first, and
+     *      the stack height is restored afterwards for the code that follows the exit.
      * @param e type Emitter the emitter that will emit the compiled code
      * @param args a varargs parameter type Object, the arguments passed to the compile method
      * @precondition the emitter object is not null, and the args parameter is empty
@@ -50,16 +153,20 @@ public class Exit implements Statement
     {
         if (e.context == null)
         {
-            e.emit("j program_exit" + "\t# exit from the current routine");
+            e.emit(Opcode.J, Operand.label("program_exit"))
+                    .comment("exit from the current routine");
             return;
         }
+        int extraStack = e.getExtraStack();
+        e.emitLeaveCountedLoops();
         // find $ra in the stack
-        e.emitPop("$ra");
+        e.emitPop(Register.RA);
         for (VariableDeclaration v : e.context.getLocals())
         {
-            e.emitPop("$v0"); // pop local variables
+            e.emitPop(Register.V0); // pop local variables
         }
-        e.emitPop("$v0"); // pop method return value
-        e.emit("jr $ra\t# return");
+        e.emitPop(Register.V0); // pop method return value
+        e.emit(Opcode.JR, Register.RA).comment("return");
+        e.extraStack = extraStack;
     }
 }
\ No newline at end of file
@@ -1,7 +1,13 @@
 package src.ast;
 
+import src.cfg.InvariantHoister;
 import src.emitter.Emitter;
+import src.emitter.Register;
+import src.emitter.RegisterAllocator;
 import src.environments.Environment;
+import src.environments.Resolver;
+import src.jit.ProcedureCompiler;
+import src.vm.BytecodeEmitter;
 
 /**
  * The expression interface that represents all AST nodes of type Expression
@@ -21,6 +27,65 @@ public interface Expression
      */
     public int eval(Environment env);
 
+    /**
+     * A method that represents the resolution of any expression AST node. Every variable the
+     *      expression reads is bound to a slot by the given Resolver, and a copy of the
+     *      expression that uses the slots is returned.
+     * @param r the resolver that binds variable names to slots
+     * @precondition the resolver is in the scope the expression appears in
+     * @postcondition this expression is not changed
+     * @return type Expression the resolved expression
+     */
+    public Expression resolve(Resolver r);
+
+    /**
+     * A method that represents the optimization of any expression AST node. Constant
+     *      subexpressions are folded and identities such as x * 1 are simplified, and an
+     *      expression with the same value is returned.
+     * @postcondition this expression is not changed
+     * @return type Expression the optimized expression
+     */
+    public Expression optimize();
+
+    /**
+     * A method that represents the hoisting of any expression AST node out of the loops it is
+     *      in. An operation that a loop does not change is replaced by the temporary that holds
+     *      its value, and an expression with the same value is returned.
+     * @param h type InvariantHoister the hoister that knows the loops the expression is in
+     * @postcondition this expression is not changed
+     * @return type Expression the hoisted expression
+     */
+    public Expression hoist(InvariantHoister h);
+
+    /**
+     * A method that represents the assembly of any expression AST node into bytecode for the
+     *      VirtualMachine. The bytecode pushes the value of the expression.
+     * @param b the emitter for which the expression will emit bytecode to
+     * @precondition the emitter is in the scope the expression appears in
+     * @postcondition the AST node is assembled into bytecode
+     */
+    public void assembleValue(BytecodeEmitter b);
+
+    /**
+     * A method that represents the compilation of any expression AST node of a hot procedure
+     *      into JVM bytecode. The bytecode pushes the value of the expression.
+     * @param c the compiler for which the expression will emit JVM bytecode to
+     * @precondition the expression belongs to the resolved procedure being compiled
+     * @postcondition the AST node is compiled into JVM bytecode
+     */
+    public void jitValue(ProcedureCompiler c);
+
+    /**
+     * A method that represents the compilation of any expression AST node into MIPS assembly
+     *      that leaves the value of the expression in a register taken from the given
+     *      RegisterAllocator.
+     * @param r the allocator that hands out the registers the expression is evaluated in
+     * @precondition the registers in use are the ones of the enclosing expression
+     * @postcondition the AST node is compiled into MIPS assembly
+     * @return type Register the register that holds the value, which the caller releases
+     */
+    public Register compileValue(RegisterAllocator r);
+
     /**
      * A method that represents the compilation of any expression AST node.
      * @param e the emitter for which the expression will emit assembly code to
@@ -2,8 +2,19 @@ package src.ast;
 
 import java.util.HashMap;
 import java.util.Map;
+import src.cfg.BasicBlock;
+import src.cfg.ControlFlowGraph;
+import src.cfg.GraphBuilder;
+import src.cfg.InvariantHoister;
+import src.emitter.CountedLoop;
 import src.emitter.Emitter;
+import src.emitter.Opcode;
+import src.emitter.Operand;
+import src.emitter.Register;
 import src.environments.Environment;
+import src.environments.Resolver;
+import src.jit.ProcedureCompiler;
+import src.vm.BytecodeEmitter;
 
 /**
  * The For class represents a For ndoe in the AST for which the for node
@@ -46,7 +57,7 @@ public class For implements Statement
     {
         Assignment assign = (Assignment) begin;
         assign.exec(env);
-        int count = env.getVariable(assign.getName());
+        int count = assign.load(env);
         int bound = end.eval(env);
         env.modifyLoopDepth(true);
         Map<Class<?>, Integer> map = new HashMap<Class<?>, Integer>();
@@ -59,14 +70,14 @@ public class For implements Statement
             try
             {
                 statement.exec(env);
-                env.setVariable(assign.getName(), ++count);
+                assign.store(env, ++count);
             }
             catch (ParseErrorException e)
             {
                 switch(map.get(e.getClass()))
                 {
                     case 1:
-                        env.setVariable(assign.getName(), ++count);
+                        assign.store(env, ++count);
                         continue;
                     case 2:
                         break whileLoop; // break out of the while loop not the switch case
@@ -78,14 +89,219 @@ public class For implements Statement
         env.modifyLoopDepth(false);
     }
 
+    /**
+     * A method inherited from the Statement interface to run the for node of the AST. The
+     *      method assigns the start variable and runs the statement while the counter is at
+     *      most the end expression, like exec does. A BREAK completion ends the loop, a
+     *      CONTINUE completion goes on to the next count, and an EXIT completion ends the loop
+     *      and is passed up.
+     * @precondition env is not null
+     * @postcondition the loop statement is executed
+     * @param env type Environment the environment of where the run method will run
+     * @return type Completion EXIT if the loop body exited; otherwise, NORMAL
+     */
+    @Override
+    public Completion run(Environment env)
+    {
+        Assignment assign = (Assignment) begin;
+        assign.run(env);
+        int count = assign.load(env);
+        int bound = end.eval(env);
+        env.modifyLoopDepth(true);
+        Completion result = Completion.NORMAL;
+        while (count <= bound)
+        {
+            Completion completion = statement.run(env);
+            if (completion == Completion.BREAK)
+            {
+                break;
+            }
+            if (completion == Completion.EXIT)
+            {
+                result = Completion.EXIT;
+                break;
+            }
+            assign.store(env, ++count);
+        }
+        env.modifyLoopDepth(false);
+        return result;
+    }
+
+    /**
+     * A method inherited from the Statement interface to resolve the for node of the AST.
+     *      The method resolves the starting assignment, the end expression, and the
+     *      loop statement.
+     * @param r type Resolver the resolver that binds variable names to slots
+     * @precondition the resolver is in the scope the for appears in
+     * @postcondition this node is not changed
+     * @return type Statement the resolved for
+     */
+    @Override
+    public Statement resolve(Resolver r)
+    {
+        return new For(begin.resolve(r), end.resolve(r), statement.resolve(r));
+    }
+
+    /**
+     * A method inherited from the Statement interface to optimize the for node of the AST. The
+     *      method optimizes the initial assignment, the bound, and the body of the loop.
+     * @postcondition this node is not changed
+     * @return type Statement the optimized for loop
+     */
+    @Override
+    public Statement optimize()
+    {
+        return new For(begin.optimize(), end.optimize(), statement.optimize());
+    }
+
+    /**
+     * A method inherited from the Statement interface to hoist the for node of the AST out of
+     *      loops. The start and the bound are evaluated once, so they are only hoisted out of
+     *      the loops around this one. The operations the body does not change are computed in
+     *      a preheader that only runs if the loop does, so the start is assigned first, the
+     *      preheader runs if it is at most the bound, and the loop starts from the variable.
+     * @param h type InvariantHoister the hoister that knows the loops the for is in
+     * @postcondition this node is not changed
+     * @return type Statement the hoisted for loop, with its preheader if it has one
+     */
+    @Override
+    public Statement hoist(InvariantHoister h)
+    {
+        Assignment assign = (Assignment) begin.hoist(h);
+        Expression bound = end.hoist(h);
+        Variable variable = new Variable(assign.getName());
+        h.enterLoop(this, statement, assign.getName(), assign.getExpression(), bound);
+        Statement body = statement.hoist(h);
+        Statement loop = new For(new Assignment(variable.getName(), variable), bound, body);
+        Statement hoisted = h.exitLoop(loop, Condition.of(variable, bound, "<="));
+        if (hoisted == loop)
+        {
+            return new For(assign, bound, body);
+        }
+        return new Block(new Statement[] {assign, hoisted});
+    }
+
+    /**
+     * A method inherited from the Statement interface to assemble the for node of the AST into
+     *      bytecode. Like the run method, the loop keeps its counter and its bound, which is
+     *      evaluated once, on the stack, and stores the incremented counter in the loop variable
+     *      after each iteration, where a continue goes.
+     * @param b type BytecodeEmitter the emitter that will emit the bytecode
+     * @precondition the emitter is in the scope the for appears in
+     * @postcondition the AST node is assembled into bytecode
+     */
+    @Override
+    public void assemble(BytecodeEmitter b)
+    {
+        Assignment assign = (Assignment) begin;
+        assign.assemble(b);
+        b.emitLoad(assign.getName());
+        end.assembleValue(b);
+        int top = b.newLabel();
+        int next = b.newLabel();
+        int done = b.newLabel();
+        b.mark(top);
+        b.emitForTest(done);
+        b.enterLoop(next, done);
+        statement.assemble(b);
+        b.exitLoop();
+        b.mark(next);
+        b.emitForNext(assign.getName());
+        b.emitJump(top);
+        b.mark(done);
+        b.emitForEnd();
+    }
+
+    /**
+     * A method inherited from the Statement interface to compile the for node of the AST into JVM
+     *      bytecode for the ProcedureCompiler. Like the run method, the counter and the bound,
+     *      which is evaluated once, are kept apart from the loop variable, in JVM locals, and the
+     *      incremented counter is stored in the loop variable after each iteration, where a
+     *      continue goes.
+     * @param c type ProcedureCompiler the compiler that will emit the JVM bytecode
+     * @precondition the node belongs to the resolved procedure being compiled
+     * @postcondition the AST node is compiled into JVM bytecode
+     */
+    @Override
+    public void jit(ProcedureCompiler c)
+    {
+        Assignment assign = (Assignment) begin;
+        int count = c.newTemporary();
+        int bound = c.newTemporary();
+        assign.getExpression().jitValue(c);
+        c.emitStoreTemporary(count);
+        c.emitLoadTemporary(count);
+        assign.jitStore(c);
+        end.jitValue(c);
+        c.emitStoreTemporary(bound);
+        int top = c.newLabel();
+        int next = c.newLabel();
+        int done = c.newLabel();
+        c.mark(top);
+        c.emitLoadTemporary(count);
+        c.emitLoadTemporary(bound);
+        c.emitBranch(">", true, done);
+        c.enterLoop(next, done);
+        statement.jit(c);
+        c.exitLoop();
+        c.mark(next);
+        c.emitIncrement(count);
+        c.emitLoadTemporary(count);
+        assign.jitStore(c);
+        c.emitJump(top);
+        c.mark(done);
+    }
+
+    /**
+     * A method inherited from the Statement interface to lower the for node of the AST into basic
+     *      blocks. Like the run method, the loop keeps its counter and its bound, which is
+     *      evaluated once, apart from the loop variable, here in temporaries named after the loop
+     *      that no program can declare. The counter is tested against the bound at the top of the
+     *      loop, and incremented and stored in the loop variable in a block of its own after the
+     *      body, where a continue goes.
+     * @param g type GraphBuilder the builder that collects the basic blocks
+     * @precondition the builder is in the loop the for appears in, if any
+     * @postcondition the AST node is lowered into basic blocks
+     */
+    @Override
+    public void lower(GraphBuilder g)
+    {
+        Assignment assign = (Assignment) begin;
+        int id = g.nextLoopID();
+        Variable count = new Variable("for" + id + ".count");
+        Variable bound = new Variable("for" + id + ".bound");
+        BasicBlock head = g.newBlock("for.head");
+        BasicBlock body = g.newBlock("for.body");
+        BasicBlock next = g.newBlock("for.next");
+        BasicBlock end = g.newBlock("for.end");
+        assign.lower(g);
+        g.add(new Assignment(count.getName(), new Variable(assign.getName())));
+        g.add(new Assignment(bound.getName(), this.end));
+        g.start(head);
+        g.branch(Condition.of(count, bound, "<="), body, end);
+        g.start(body);
+        g.enterLoop(this, next, end);
+        statement.lower(g);
+        g.exitLoop();
+        g.start(next);
+        g.add(new Assignment(count.getName(), BinOp.of(count, new Number(1), "+")));
+        g.add(new Assignment(assign.getName(), count));
+        g.jump(head);
+        g.start(end);
+    }
+
     /**
      * A method inherited from the Statement interface to compile the for node of the AST.
-     *      The method compiles the for node by assigning the start variable to the evaluated
-     *      expression assigned to the for loop variable. The method then subtracts 1 from the
-     *      start variable in order to allow the incrementing step to be at the beginning of the
-     *      for loop. The method then compiles the end expression and compares the start variable
-     *      to the end variable. If the start variable is greater than the end variable, the for
-     *      loop jumps to the term loop label.
+     *      The counter and the bound, which may be any expression and is evaluated once after
+     *      the start is assigned, are kept in a pair of $s registers the emitter picks for the
+     *      whole loop, which is tested once before it is entered and then at the bottom of each
+     *      iteration, after the increment, where a continue goes. If the body assigns the loop
+     *      variable, or the body or the bound calls a procedure while the variable is global,
+     *      the incremented counter is stored in the variable after each iteration, like the
+     *      run method does, so the first iteration sees whatever the bound left in it.
+     *      Otherwise the variable is resident: the body reads it from the counter register, and
+     *      it is only stored when the loop is left, a break included, so an iteration does not
+     *      touch memory to count.
      * @param e type Emitter the emitter that will emit the compiled code
      * @param args a varargs parameter type Object, the arguments passed to the compile method
      * @precondition the emitter object is not null, and the args parameter is empty
@@ -96,25 +312,41 @@ public class For implements Statement
     {
         int id = e.nextLoopID();
         String label = "for" + id;
+        String body = "body_for" + id;
         String term = "term_for" + id;
         Assignment assign = (Assignment) begin;
-        assign.decrementExp();
+        String name = assign.getName();
+        ControlFlowGraph iteration = ControlFlowGraph.buildIteration(label, statement);
+        boolean resident = !iteration.getAssigned().contains(name) && (e.isLocal(name)
+                || !iteration.hasCalls() && !ControlFlowGraph.calls(end));
+        CountedLoop loop = e.enterCountedLoop(name);
+        Register count = loop.getCounter();
+        Register bound = loop.getBound();
         assign.compile(e);
-        String variable = "var" + ((Assignment) begin).getName();
-        e.emit("lw $t1, " + variable + "\t# load the start variable into $t1");
-        e.emitPush("$t1");
-        e.emit("li $t2, " + this.end.eval(null) + "\t# load the end number into $t2");
-        e.emitPush("$t2");
-        e.emit(label + ":");
-        e.emitPop("$t2");
-        e.emitPop("$t1");
-        e.emit("addiu $t1, $t1, 1" + "\t# increment the for loop counter");
-        e.emit("sw $t1, " + variable);
-        e.emit("bgt $t1, $t2, " + term + "\t# check if the for loop is done");
-        e.emitPush("$t1");
-        e.emitPush("$t2");
+        e.emit(Opcode.MOVE, count, Register.V0).comment("keep the for loop counter in " + count);
+        end.compile(e);
+        e.emit(Opcode.MOVE, bound, Register.V0).comment("keep the bound in " + bound);
+        loop.setResident(resident);
+        e.emit(Opcode.BGT, count, bound, Operand.label(term))
+                .comment("skip the for loop if the start is past the bound");
+        e.emitLabel(body);
+        e.enterLoop(label);
         statement.compile(e);
-        e.emit("j " + label + "\t# repeat the for loop");
-        e.emit(term + ":");
+        e.exitLoop();
+        e.emitLabel(label);
+        e.emit(Opcode.ADDIU, count, count, Operand.immediate(1))
+                .comment("increment the for loop counter");
+        if (!resident)
+        {
+            e.emitStore(count, name).comment("store the counter in the loop variable");
+        }
+        e.emit(Opcode.BLE, count, bound, Operand.label(body))
+                .comment("repeat the for loop until the counter passes the bound");
+        e.emitLabel(term);
+        if (resident)
+        {
+            e.emitStore(count, name).comment("store the counter in the loop variable");
+        }
+        e.exitCountedLoop();
     }
 }
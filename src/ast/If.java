@@ -1,7 +1,13 @@
 package src.ast;
 
+import src.cfg.BasicBlock;
+import src.cfg.GraphBuilder;
+import src.cfg.InvariantHoister;
 import src.emitter.Emitter;
 import src.environments.Environment;
+import src.environments.Resolver;
+import src.jit.ProcedureCompiler;
+import src.vm.BytecodeEmitter;
 
 /**
  * The If class represents an If node in the AST for which the if node for which
@@ -49,6 +55,121 @@ public class If implements Statement
         }
     }
 
+    /**
+     * A method inherited from the Statement interface to run the if node of the AST. The
+     *      method runs the statement if the condition is true and passes its completion up.
+     * @precondition env is not null
+     * @postcondition the statement is executed if the condition is true
+     * @param env type Environment the environment of where the run method will run
+     * @return type Completion how the if statement completed
+     */
+    @Override
+    public Completion run(Environment env)
+    {
+        if (condition.eval(env) == 1)
+        {
+            return statement.run(env);
+        }
+        return Completion.NORMAL;
+    }
+
+    /**
+     * A method inherited from the Statement interface to resolve the if node of the AST.
+     *      The method resolves the condition and the statement.
+     * @param r type Resolver the resolver that binds variable names to slots
+     * @precondition the resolver is in the scope the if appears in
+     * @postcondition this node is not changed
+     * @return type Statement the resolved if
+     */
+    @Override
+    public Statement resolve(Resolver r)
+    {
+        return new If(condition.resolve(r), statement.resolve(r));
+    }
+
+    /**
+     * A method inherited from the Statement interface to optimize the if node of the AST. If the
+     *      condition folds to a constant, the if is replaced by its statement when the condition
+     *      holds and by an empty block when it does not.
+     * @postcondition this node is not changed
+     * @return type Statement the optimized if
+     */
+    @Override
+    public Statement optimize()
+    {
+        Condition optimized = condition.optimize();
+        if (optimized.isConstant())
+        {
+            return optimized.eval(null) == 1 ? statement.optimize() : new Block(new Statement[0]);
+        }
+        return new If(optimized, statement.optimize());
+    }
+
+    /**
+     * A method inherited from the Statement interface to hoist the if node of the AST out of
+     *      loops. The method hoists the condition and the statement.
+     * @param h type InvariantHoister the hoister that knows the loops the if is in
+     * @postcondition this node is not changed
+     * @return type Statement the hoisted if
+     */
+    @Override
+    public Statement hoist(InvariantHoister h)
+    {
+        return new If(condition.hoist(h), statement.hoist(h));
+    }
+
+    /**
+     * A method inherited from the Statement interface to assemble the if node of the AST into
+     *      bytecode. The statement is skipped by a jump taken when the condition does not hold.
+     * @param b type BytecodeEmitter the emitter that will emit the bytecode
+     * @precondition the emitter is in the scope the if appears in
+     * @postcondition the AST node is assembled into bytecode
+     */
+    @Override
+    public void assemble(BytecodeEmitter b)
+    {
+        int skip = b.newLabel();
+        condition.assembleBranch(b, false, skip);
+        statement.assemble(b);
+        b.mark(skip);
+    }
+
+    /**
+     * A method inherited from the Statement interface to compile the if node of the AST into JVM
+     *      bytecode for the ProcedureCompiler. A branch taken when the condition does not hold
+     *      skips the statement.
+     * @param c type ProcedureCompiler the compiler that will emit the JVM bytecode
+     * @precondition the node belongs to the resolved procedure being compiled
+     * @postcondition the AST node is compiled into JVM bytecode
+     */
+    @Override
+    public void jit(ProcedureCompiler c)
+    {
+        int skip = c.newLabel();
+        condition.jitBranch(c, false, skip);
+        statement.jit(c);
+        c.mark(skip);
+    }
+
+    /**
+     * A method inherited from the Statement interface to lower the if node of the AST into basic
+     *      blocks. The current block branches on the condition to a block for the statement or to
+     *      the block after the if.
+     * @param g type GraphBuilder the builder that collects the basic blocks
+     * @precondition the builder is in the loop the if appears in, if any
+     * @postcondition the AST node is lowered into basic blocks
+     */
+    @Override
+    public void lower(GraphBuilder g)
+    {
+        BasicBlock then = g.newBlock("if.then");
+        BasicBlock end = g.newBlock("if.end");
+        g.branch(condition, then, end);
+        g.start(then);
+        statement.lower(g);
+        g.start(end);
+    }
+
     /**
      * A method inherited from the Statement interface to compile the if node of the AST.
      *      The method starts the compilation by compiling the condition expression, and if
@@ -65,6 +186,6 @@ public class If implements Statement
         String label = "endif" + e.nextIfID();
         condition.compile(e, label);
         statement.compile(e);
-        e.emit(label + ":");
+        e.emitLabel(label);
     }
 }
\ No newline at end of file
@@ -1,7 +1,15 @@
 package src.ast;
 
+import src.cfg.BasicBlock;
+import src.cfg.GraphBuilder;
+import src.cfg.InvariantHoister;
 import src.emitter.Emitter;
+import src.emitter.Opcode;
+import src.emitter.Operand;
 import src.environments.Environment;
+import src.environments.Resolver;
+import src.jit.ProcedureCompiler;
+import src.vm.BytecodeEmitter;
 
 /**
  * The IfElse class represents an IfElse node in the AST for which the if else node for which
@@ -63,6 +71,135 @@ public class IfElse implements Statement
         }
     }
 
+    /**
+     * A method inherited from the Statement interface to run the if else node of the AST.
+     *      The method runs the statement or the else statement depending on the condition and
+     *      passes its completion up.
+     * @precondition env is not null
+     * @postcondition the statement or the else statement is executed
+     * @param env type Environment the environment of where the run method will run
+     * @return type Completion how the if else statement completed
+     */
+    @Override
+    public Completion run(Environment env)
+    {
+        if (condition.eval(env) == 1)
+        {
+            return statement.run(env);
+        }
+        return elseStatement.run(env);
+    }
+
+    /**
+     * A method inherited from the Statement interface to resolve the if else node of the AST.
+     *      The method resolves the condition and both statements.
+     * @param r type Resolver the resolver that binds variable names to slots
+     * @precondition the resolver is in the scope the if else appears in
+     * @postcondition this node is not changed
+     * @return type Statement the resolved if else
+     */
+    @Override
+    public Statement resolve(Resolver r)
+    {
+        return new IfElse(condition.resolve(r), statement.resolve(r), elseStatement.resolve(r));
+    }
+
+    /**
+     * A method inherited from the Statement interface to optimize the if else node of the AST. If
+     *      the condition folds to a constant, the if else is replaced by the branch the condition
+     *      picks.
+     * @postcondition this node is not changed
+     * @return type Statement the optimized if else
+     */
+    @Override
+    public Statement optimize()
+    {
+        Condition optimized = condition.optimize();
+        if (optimized.isConstant())
+        {
+            return optimized.eval(null) == 1 ? statement.optimize() : elseStatement.optimize();
+        }
+        return new IfElse(optimized, statement.optimize(), elseStatement.optimize());
+    }
+
+    /**
+     * A method inherited from the Statement interface to hoist the if else node of the AST out of
+     *      loops. The method hoists the condition and both branches.
+     * @param h type InvariantHoister the hoister that knows the loops the if else is in
+     * @postcondition this node is not changed
+     * @return type Statement the hoisted if else
+     */
+    @Override
+    public Statement hoist(InvariantHoister h)
+    {
+        return new IfElse(condition.hoist(h), statement.hoist(h), elseStatement.hoist(h));
+    }
+
+    /**
+     * A method inherited from the Statement interface to assemble the if else node of the AST into
+     *      bytecode. A jump taken when the condition does not hold goes to the else statement, and
+     *      the then statement jumps past it.
+     * @param b type BytecodeEmitter the emitter that will emit the bytecode
+     * @precondition the emitter is in the scope the if else appears in
+     * @postcondition the AST node is assembled into bytecode
+     */
+    @Override
+    public void assemble(BytecodeEmitter b)
+    {
+        int otherwise = b.newLabel();
+        int end = b.newLabel();
+        condition.assembleBranch(b, false, otherwise);
+        statement.assemble(b);
+        b.emitJump(end);
+        b.mark(otherwise);
+        elseStatement.assemble(b);
+        b.mark(end);
+    }
+
+    /**
+     * A method inherited from the Statement interface to compile the if else node of the AST into
+     *      JVM bytecode for the ProcedureCompiler. A branch taken when the condition does not hold
+     *      goes to the else statement, and the then statement jumps past it.
+     * @param c type ProcedureCompiler the compiler that will emit the JVM bytecode
+     * @precondition the node belongs to the resolved procedure being compiled
+     * @postcondition the AST node is compiled into JVM bytecode
+     */
+    @Override
+    public void jit(ProcedureCompiler c)
+    {
+        int otherwise = c.newLabel();
+        int end = c.newLabel();
+        condition.jitBranch(c, false, otherwise);
+        statement.jit(c);
+        c.emitJump(end);
+        c.mark(otherwise);
+        elseStatement.jit(c);
+        c.mark(end);
+    }
+
+    /**
+     * A method inherited from the Statement interface to lower the if else node of the AST into
+     *      basic blocks. The current block branches on the condition to a block for each statement,
+     *      and both go on to the block after the if.
+     * @param g type GraphBuilder the builder that collects the basic blocks
+     * @precondition the builder is in the loop the if else appears in, if any
+     * @postcondition the AST node is lowered into basic blocks
+     */
+    @Override
+    public void lower(GraphBuilder g)
+    {
+        BasicBlock then = g.newBlock("if.then");
+        BasicBlock otherwise = g.newBlock("if.else");
+        BasicBlock end = g.newBlock("if.end");
+        g.branch(condition, then, otherwise);
+        g.start(then);
+        statement.lower(g);
+        g.jump(end);
+        g.start(otherwise);
+        elseStatement.lower(g);
+        g.start(end);
+    }
+
     /**
      * A method inherited from the Statement interface to compile the if else node. The method
      *      compiles the if else node by first compiling the condition. If the condition is false
@@ -81,9 +218,9 @@ public class IfElse implements Statement
         String elseLabel = "elseif" + e.nextIfID();
         condition.compile(e, elseLabel);
         statement.compile(e);
-        e.emit("j " + label + "\t# jump to end of if statement");
-        e.emit(elseLabel + ":");
+        e.emit(Opcode.J, Operand.label(label)).comment("jump to end of if statement");
+        e.emitLabel(elseLabel);
         elseStatement.compile(e);
-        e.emit(label + ":");
+        e.emitLabel(label);
     }
 }
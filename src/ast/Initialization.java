@@ -0,0 +1,81 @@
+package src.ast;
+
+import src.cfg.InvariantHoister;
+import src.emitter.Emitter;
+import src.environments.Environment;
+
+/**
+ * The Initialization class represents an assignment that declares the variable it assigns. The
+ *      InvariantHoister initializes its temporaries with it, since no program declares them.
+ *      Interpreted, the variable is declared in the current environment with the value of the
+ *      expression, the way the parameters of a procedure are; compiled, the variable is given
+ *      a word in the .data section. Once resolved, it is an ordinary ResolvedAssignment, which
+ *      does not need the variable to be declared.
+ * @author Daniel Gergov
+ * @version 10/18/26
+ */
+public class Initialization extends Assignment
+{
+    /**
+     * Constructor for the Initialization class creating an Initialization node for the AST.
+     * @param name the name of the variable that is being declared and assigned
+     * @param exp the expression to which the variable is assigned to
+     */
+    public Initialization(String name, Expression exp)
+    {
+        super(name, exp);
+    }
+
+    /**
+     * A method inherited from the Statement interface to execute the initialization by declaring
+     *      the variable in the current environment with the value of the expression.
+     * @precondition env is not null
+     * @postcondition the variable is declared in env and holds the value of the expression
+     * @param env type Environment the environment of where the exec method will run
+     */
+    @Override
+    public void exec(Environment env)
+    {
+        env.declareVariable(getName(), getExpression().eval(env));
+    }
+
+    /**
+     * A method inherited from the Statement interface to optimize the initialization. The method
+     *      optimizes the assigned expression.
+     * @postcondition this node is not changed
+     * @return type Initialization the optimized initialization
+     */
+    @Override
+    public Initialization optimize()
+    {
+        return new Initialization(getName(), getExpression().optimize());
+    }
+
+    /**
+     * A method inherited from the Statement interface to hoist the initialization out of loops.
+     *      The method hoists the assigned expression.
+     * @param h type InvariantHoister the hoister that knows the loops the initialization is in
+     * @postcondition this node is not changed
+     * @return type Statement the hoisted initialization
+     */
+    @Override
+    public Statement hoist(InvariantHoister h)
+    {
+        return new Initialization(getName(), getExpression().hoist(h));
+    }
+
+    /**
+     * A method inherited from the Statement interface to compile the initialization. The
+     *      variable is given a word in the .data section, and the assignment is compiled.
+     * @param e type Emitter the emitter that emits the MIPS assembly code to an output file
+     * @param args a varargs parameter type Object, the arguments passed to the compile method
+     * @precondition the emitter object is not null, and the args parameter is empty
+     * @postcondition the AST node is compiled into MIPS assembly
+     */
+    @Override
+    public void compile(Emitter e, Object... args)
+    {
+        e.emitData("var" + getName() + ": .word 0");
+        super.compile(e, args);
+    }
+}
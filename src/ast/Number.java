@@ -1,7 +1,15 @@
 package src.ast;
 
+import src.cfg.InvariantHoister;
 import src.emitter.Emitter;
+import src.emitter.Opcode;
+import src.emitter.Operand;
+import src.emitter.Register;
+import src.emitter.RegisterAllocator;
 import src.environments.Environment;
+import src.environments.Resolver;
+import src.jit.ProcedureCompiler;
+import src.vm.BytecodeEmitter;
 
 /**
  * The Number class represents a Number node in the AST for which the number node
@@ -23,6 +31,15 @@ public class Number implements Expression
         this.value = value;
     }
 
+    /**
+     * Returns the value stored in the number node.
+     * @return type int the value of the number
+     */
+    public int getValue()
+    {
+        return value;
+    }
+
     /**
      * A method inherited from the Statement interface to execute the number
      *      node of the AST. The method returns the value of the number node in
@@ -37,6 +54,86 @@ public class Number implements Expression
         return value;
     }
 
+    /**
+     * A method inherited from the Expression interface to resolve the number node of the AST.
+     *      A number reads no variables, so the node itself is returned.
+     * @param r type Resolver the resolver that binds variable names to slots
+     * @precondition the resolver is in the scope the number appears in
+     * @postcondition this node is not changed
+     * @return type Expression the resolved number
+     */
+    @Override
+    public Expression resolve(Resolver r)
+    {
+        return this;
+    }
+
+    /**
+     * A method inherited from the Expression interface to optimize the number node of the AST. A
+     *      number is already constant, so the node itself is returned.
+     * @return type Expression this node
+     */
+    @Override
+    public Expression optimize()
+    {
+        return this;
+    }
+
+    /**
+     * A method inherited from the Expression interface to hoist the number node of the AST out of
+     *      loops. There is nothing to hoist, so the node itself is returned.
+     * @param h type InvariantHoister the hoister that knows the loops the node is in
+     * @return type Expression this node
+     */
+    @Override
+    public Expression hoist(InvariantHoister h)
+    {
+        return this;
+    }
+
+    /**
+     * A method inherited from the Expression interface to assemble the number node of the AST into
+     *      bytecode that pushes its value.
+     * @param b type BytecodeEmitter the emitter that will emit the bytecode
+     * @precondition the emitter is in the scope the number appears in
+     * @postcondition the AST node is assembled into bytecode
+     */
+    @Override
+    public void assembleValue(BytecodeEmitter b)
+    {
+        b.emitConstant(value);
+    }
+
+    /**
+     * A method inherited from the Expression interface to compile the number node of the AST into
+     *      JVM bytecode that pushes its value.
+     * @param c type ProcedureCompiler the compiler that will emit the JVM bytecode
+     * @precondition the node belongs to the resolved procedure being compiled
+     * @postcondition the AST node is compiled into JVM bytecode
+     */
+    @Override
+    public void jitValue(ProcedureCompiler c)
+    {
+        c.emitConstant(value);
+    }
+
+    /**
+     * A method inherited from the Expression interface to compile the number into a register.
+     *      The method loads the number into a register it takes from the allocator.
+     * @param r type RegisterAllocator the allocator that hands out the registers
+     * @precondition the registers in use are the ones of the enclosing expression
+     * @postcondition the AST node is compiled into MIPS assembly
+     * @return type Register the register that holds the number
+     */
+    @Override
+    public Register compileValue(RegisterAllocator r)
+    {
+        Register register = r.allocate();
+        r.getEmitter().emit(Opcode.LI, register, Operand.immediate(value))
+                .comment("load the number");
+        return register;
+    }
+
     /**
      * A method inherited from the Statement interface to compile the number. The method
      *      loads the number value into the $v0 register.
@@ -48,6 +145,16 @@ public class Number implements Expression
     @Override
     public void compile(Emitter e, Object... args)
     {
-        e.emit("li $v0, " + value + "\t# load the number $v0");
+        e.emit(Opcode.LI, Register.V0, Operand.immediate(value)).comment("load the number $v0");
+    }
+
+    /**
+     * The toString method returns the value of the number.
+     * @return type String the value
+     */
+    @Override
+    public String toString()
+    {
+        return String.valueOf(value);
     }
 }
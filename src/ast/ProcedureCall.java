@@ -1,7 +1,16 @@
 package src.ast;
 
+import src.cfg.GraphBuilder;
+import src.cfg.InvariantHoister;
 import src.emitter.Emitter;
+import src.emitter.Opcode;
+import src.emitter.Operand;
+import src.emitter.Register;
+import src.emitter.RegisterAllocator;
 import src.environments.Environment;
+import src.environments.Resolver;
+import src.jit.ProcedureCompiler;
+import src.vm.BytecodeEmitter;
 
 /**
  * The ProcedureCall class represents a ProcedureCall node in the AST for which the
@@ -29,9 +38,27 @@ public class ProcedureCall implements Expression, Statement
         this.arguments = arguments;
     }
 
+    /**
+     * Returns the name of the procedure that is called.
+     * @return type String the name of the procedure
+     */
+    public String getId()
+    {
+        return id;
+    }
+
+    /**
+     * Returns the argument expressions of the procedure call.
+     * @return type Expression[] the arguments of the call
+     */
+    public Expression[] getArguments()
+    {
+        return arguments;
+    }
+
     /**
      * A method inherited from the Expression interface to evaluate the procedure call by
-     *      executing the statement inside the procedure declaration using the exec method of
+     *      executing the statement inside the procedure declaration using the run method of
      *      the statement class. The method returns what ever the variable named
      *      procedure id stores. If the the method does not return any value but tries
      *      to be evaluated in an expression, the method throws a RuntimeException.
@@ -49,22 +76,7 @@ public class ProcedureCall implements Expression, Statement
         Environment newEnv = new Environment();
         newEnv.declareVariable(id, null); // default return value
         newEnv.setParent(env);
-        try
-        {
-            Variable[] parameters = procedure.getParameters();
-            for (int i = 0; i < arguments.length; ++i)
-            {
-                newEnv.declareVariable(parameters[i].getName(), arguments[i].eval(env));
-            }
-            procedure.getStatement().exec(newEnv);
-        }
-        catch (ParseErrorException e)
-        {
-            if (e instanceof ContinueException || e instanceof BreakException)
-            {
-                throw new RuntimeException("Break/Continue statement not inside loop");
-            }
-        }
+        invoke(procedure, env, newEnv);
         Integer returnValue = newEnv.getVariable(id);
         if (returnValue == null)
         {
@@ -107,6 +119,208 @@ public class ProcedureCall implements Expression, Statement
         }
     }
 
+    /**
+     * A method inherited from the Statement interface to run a procedure call AST node.
+     *      The method runs the statement inside the procedure declaration in a new
+     *      environment like exec does. An EXIT completion ends the procedure.
+     * @param env type Environment the environment of where the run method will run
+     * @precondition env is not null
+     * @postcondition the statement inside the procedure declaration is executed
+     * @return type Completion always NORMAL
+     * @throws RuntimeException if the break or continue statement is not inside a loop
+     */
+    @Override
+    public Completion run(Environment env)
+    {
+        ProcedureDeclaration procedure = env.getProcedure(id);
+        Environment newEnv = new Environment();
+        newEnv.setParent(env);
+        invoke(procedure, env, newEnv);
+        return Completion.NORMAL;
+    }
+
+    /**
+     * A method inherited from the Expression and Statement interface to resolve the procedure call node of the AST.
+     *      The method resolves the arguments and returns a call that runs the
+     *      procedure in an environment of slots. The resolver binds the call to its
+     *      procedure once the whole program is resolved.
+     * @param r type Resolver the resolver that binds variable names to slots
+     * @precondition the resolver is in the scope the procedure call appears in
+     * @postcondition this node is not changed
+     * @return type ProcedureCall the resolved procedure call
+     */
+    @Override
+    public ProcedureCall resolve(Resolver r)
+    {
+        Expression[] resolved = new Expression[arguments.length];
+        for (int i = 0; i < arguments.length; ++i)
+        {
+            resolved[i] = arguments[i].resolve(r);
+        }
+        ResolvedProcedureCall call = new ResolvedProcedureCall(id, resolved);
+        r.addCall(call);
+        return call;
+    }
+
+    /**
+     * A method inherited from the Expression and Statement interfaces to optimize the procedure
+     *      call node of the AST. The method optimizes the arguments.
+     * @postcondition this node is not changed
+     * @return type ProcedureCall the optimized procedure call
+     */
+    @Override
+    public ProcedureCall optimize()
+    {
+        Expression[] optimized = new Expression[arguments.length];
+        for (int i = 0; i < arguments.length; ++i)
+        {
+            optimized[i] = arguments[i].optimize();
+        }
+        return new ProcedureCall(id, optimized);
+    }
+
+    /**
+     * A method inherited from the Expression and Statement interfaces to hoist the procedure call
+     *      node of the AST out of loops. The method hoists the arguments. A loop that calls a
+     *      procedure hoists nothing, but the loops inside it may still hoist from the arguments.
+     * @param h type InvariantHoister the hoister that knows the loops the call is in
+     * @postcondition this node is not changed
+     * @return type ProcedureCall the hoisted procedure call
+     */
+    @Override
+    public ProcedureCall hoist(InvariantHoister h)
+    {
+        Expression[] hoisted = new Expression[arguments.length];
+        for (int i = 0; i < arguments.length; ++i)
+        {
+            hoisted[i] = arguments[i].hoist(h);
+        }
+        return new ProcedureCall(id, hoisted);
+    }
+
+    /**
+     * The invoke method binds the evaluated arguments to the parameters of the procedure in
+     *      the new environment and runs the statement inside the procedure declaration.
+     * @param procedure the procedure to call
+     * @param env the environment the arguments are evaluated in
+     * @param newEnv the environment of the procedure
+     * @postcondition the statement inside the procedure declaration is executed
+     * @throws RuntimeException if the break or continue statement is not inside a loop
+     */
+    private void invoke(ProcedureDeclaration procedure, Environment env, Environment newEnv)
+    {
+        Variable[] parameters = procedure.getParameters();
+        for (int i = 0; i < arguments.length; ++i)
+        {
+            newEnv.declareVariable(parameters[i].getName(), arguments[i].eval(env));
+        }
+        Completion completion = procedure.getStatement().run(newEnv);
+        if (completion == Completion.BREAK || completion == Completion.CONTINUE)
+        {
+            throw new RuntimeException("Break/Continue statement not inside loop");
+        }
+    }
+
+    /**
+     * A method inherited from the Expression interface to assemble the procedure call node of the
+     *      AST into bytecode that pushes the return value of the procedure. The arguments are
+     *      assembled in order and then the call.
+     * @param b type BytecodeEmitter the emitter that will emit the bytecode
+     * @precondition the emitter is in the scope the procedure call appears in
+     * @postcondition the AST node is assembled into bytecode
+     */
+    @Override
+    public void assembleValue(BytecodeEmitter b)
+    {
+        for (Expression argument : arguments)
+        {
+            argument.assembleValue(b);
+        }
+        b.emitCall(id, arguments.length, true);
+    }
+
+    /**
+     * A method inherited from the Statement interface to assemble the procedure call node of the
+     *      AST into bytecode that ignores the return value of the procedure.
+     * @param b type BytecodeEmitter the emitter that will emit the bytecode
+     * @precondition the emitter is in the scope the procedure call appears in
+     * @postcondition the AST node is assembled into bytecode
+     */
+    @Override
+    public void assemble(BytecodeEmitter b)
+    {
+        for (Expression argument : arguments)
+        {
+            argument.assembleValue(b);
+        }
+        b.emitCall(id, arguments.length, false);
+    }
+
+    /**
+     * A method inherited from the Expression interface to compile the procedure call node of the
+     *      AST into JVM bytecode that pushes its value. Only a resolved call knows the procedure it
+     *      calls.
+     * @param c type ProcedureCompiler the compiler that will emit the JVM bytecode
+     * @precondition the node belongs to the resolved procedure being compiled
+     * @postcondition the AST node is compiled into JVM bytecode
+     * @throws UnsupportedOperationException since the call is not resolved
+     */
+    @Override
+    public void jitValue(ProcedureCompiler c)
+    {
+        throw new UnsupportedOperationException("Procedure call " + id + " is not resolved");
+    }
+
+    /**
+     * A method inherited from the Statement interface to compile the procedure call node of the AST
+     *      into JVM bytecode for the ProcedureCompiler. Only a resolved call knows the procedure it
+     *      calls.
+     * @param c type ProcedureCompiler the compiler that will emit the JVM bytecode
+     * @precondition the node belongs to the resolved procedure being compiled
+     * @postcondition the AST node is compiled into JVM bytecode
+     * @throws UnsupportedOperationException since the call is not resolved
+     */
+    @Override
+    public void jit(ProcedureCompiler c)
+    {
+        throw new UnsupportedOperationException("Procedure call " + id + " is not resolved");
+    }
+
+    /**
+     * A method inherited from the Expression interface to compile the procedure call into a
+     *      register. The registers in use are saved on the stack around the call, since the
+     *      procedure evaluates its own expressions in them, and the return value is then moved
+     *      from $v0 into a register taken from the allocator.
+     * @param r type RegisterAllocator the allocator that hands out the registers
+     * @precondition the registers in use are the ones of the enclosing expression
+     * @postcondition the AST node is compiled into MIPS assembly
+     * @return type Register the register that holds the return value
+     */
+    @Override
+    public Register compileValue(RegisterAllocator r)
+    {
+        r.saveLive();
+        compile(r.getEmitter());
+        r.restoreLive();
+        Register register = r.allocate();
+        r.getEmitter().emit(Opcode.MOVE, register, Register.V0).comment("keep the return value");
+        return register;
+    }
+
+    /**
+     * A method inherited from the Statement interface to lower the procedure call node of the AST
+     *      into basic blocks. The call returns to where it was made, so it is added to the current
+     *      block like any other statement.
+     * @param g type GraphBuilder the builder that collects the basic blocks
+     * @precondition the builder is in the loop the procedure call appears in, if any
+     * @postcondition the AST node is lowered into basic blocks
+     */
+    @Override
+    public void lower(GraphBuilder g)
+    {
+        g.add(this);
+    }
+
     /**
      * A method inherited from the Expression interface to compile a procedure call AST node.
      *      The method first compiles all the arguments passed to the procedure call and then
@@ -123,12 +337,27 @@ public class ProcedureCall implements Expression, Statement
         for (Expression exp : arguments)
         {
             exp.compile(e);
-            e.emitPush("$v0");
+            e.emitPush(Register.V0);
         }
-        e.emit("jal proc" + id + "\t# call procedure");
+        e.emit(Opcode.JAL, Operand.label("proc" + id)).comment("call procedure");
+        for (int i = 0; i < arguments.length; ++i)
+        {
+            e.emitPop(Register.T0);
+        }
+    }
+
+    /**
+     * The toString method returns the call as it is written in a program, with its arguments.
+     * @return type String the call
+     */
+    @Override
+    public String toString()
+    {
+        StringBuilder call = new StringBuilder(id).append('(');
         for (int i = 0; i < arguments.length; ++i)
         {
-            e.emitPop("$t0");
+            call.append(i == 0 ? "" : ", ").append(arguments[i]);
         }
+        return call.append(')').toString();
     }
 }
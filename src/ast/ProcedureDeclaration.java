@@ -1,7 +1,18 @@
 package src.ast;
 
+import java.util.Arrays;
+import src.cfg.ControlFlowGraph;
+import src.cfg.GraphBuilder;
+import src.cfg.InvariantHoister;
 import src.emitter.Emitter;
+import src.emitter.Opcode;
+import src.emitter.Operand;
+import src.emitter.Register;
 import src.environments.Environment;
+import src.environments.Resolver;
+import src.jit.CompiledProcedure;
+import src.jit.ProcedureCompiler;
+import src.vm.BytecodeEmitter;
 
 /**
  * The ProcedureDeclaration class represents the procedure declaration node of the AST.
@@ -18,6 +29,13 @@ public class ProcedureDeclaration implements Statement
     private Variable[] parameters;
     private Statement statement;
     private VariableDeclaration[] locals;
+    private int[] parameterSlots;
+    private int returnSlot;
+    private int slotCount;
+    private Environment[] frames;
+    private int frameDepth;
+    private int invocations;
+    private CompiledProcedure compiled;
 
     /**
      * Constructor for objects of class ProcedureDeclaration
@@ -48,6 +66,75 @@ public class ProcedureDeclaration implements Statement
         env.setProcedure(id, this);
     }
 
+    /**
+     * A method inherited from the Statement interface to run the procedure declaration node of the AST.
+     *      The procedure declaration statement cannot break, continue, or exit, so the method executes it
+     *      like exec does and completes normally.
+     * @precondition env is not null
+     * @postcondition the procedure declaration statement is executed
+     * @param env type Environment the environment of where the run method will run
+     * @return type Completion always NORMAL
+     */
+    @Override
+    public Completion run(Environment env)
+    {
+        exec(env);
+        return Completion.NORMAL;
+    }
+
+    /**
+     * A method inherited from the Statement interface to resolve the procedure declaration node of the AST.
+     *      The method resolves the statement of the procedure in the scope of the
+     *      procedure and records the slots of the parameters and the return variable and the
+     *      number of slots an environment of the procedure needs.
+     * @param r type Resolver the resolver that binds variable names to slots
+     * @precondition the resolver is in the scope the procedure declaration appears in
+     * @postcondition this node is not changed
+     * @return type ProcedureDeclaration the resolved procedure declaration
+     */
+    @Override
+    public ProcedureDeclaration resolve(Resolver r)
+    {
+        r.enterProcedure(this);
+        ProcedureDeclaration resolved = new ProcedureDeclaration(id, parameters, statement.resolve(r), locals);
+        resolved.parameterSlots = new int[parameters.length];
+        for (int i = 0; i < parameters.length; ++i)
+        {
+            resolved.parameterSlots[i] = r.getSlot(parameters[i].getName());
+        }
+        resolved.returnSlot = r.getSlot(id);
+        resolved.slotCount = r.getLocalCount();
+        r.exitProcedure();
+        return resolved;
+    }
+
+    /**
+     * A method inherited from the Statement interface to optimize the procedure declaration node of
+     *      the AST. The method optimizes the statement of the procedure.
+     * @postcondition this node is not changed
+     * @return type ProcedureDeclaration the optimized procedure declaration
+     */
+    @Override
+    public ProcedureDeclaration optimize()
+    {
+        return new ProcedureDeclaration(id, parameters, statement.optimize(), locals);
+    }
+
+    /**
+     * A method inherited from the Statement interface to hoist the procedure declaration node of
+     *      the AST out of loops. The method hoists the statement of the procedure, in which only
+     *      the parameters hold a value when it starts.
+     * @param h type InvariantHoister the hoister that knows the loops the node is in
+     * @postcondition this node is not changed
+     * @return type ProcedureDeclaration the hoisted procedure declaration
+     */
+    @Override
+    public ProcedureDeclaration hoist(InvariantHoister h)
+    {
+        h.enterGraph(statement, parameters);
+        return new ProcedureDeclaration(id, parameters, statement.hoist(h), locals);
+    }
+
     /**
      * Returns the statement stored inside the procedure declaration node of the AST.
      *      The statement is the statement that the procedure executes and is used
@@ -89,6 +176,114 @@ public class ProcedureDeclaration implements Statement
         return locals;
     }
 
+    /**
+     * Returns the slots of the parameters of a resolved procedure, in the order of the
+     *      parameters.
+     * @return type int[], the slots of the parameters
+     * @precondition the procedure declaration has been resolved
+     */
+    public int[] getParameterSlots()
+    {
+        return parameterSlots;
+    }
+
+    /**
+     * Returns the slot of the return variable of a resolved procedure.
+     * @return type int, the slot of the return variable
+     * @precondition the procedure declaration has been resolved
+     */
+    public int getReturnSlot()
+    {
+        return returnSlot;
+    }
+
+    /**
+     * Returns the number of slots an environment of a resolved procedure needs for its
+     *      parameters, its return variable, and its local variables.
+     * @return type int, the number of slots of the procedure
+     * @precondition the procedure declaration has been resolved
+     */
+    public int getSlotCount()
+    {
+        return slotCount;
+    }
+
+    /**
+     * The acquireFrame method hands out the environment for a new call of the resolved
+     *      procedure. Frames are pooled per procedure, one for each level of recursion
+     *      reached so far, so a call only creates a frame when it goes deeper than any call
+     *      before it. Every frame has getSlotCount() slots, enough for the parameters, the
+     *      return variable, and the local variables.
+     * @param globals the global environment the frame's parent is set to
+     * @precondition the procedure is resolved
+     * @postcondition every slot of the returned frame is unassigned
+     * @return type Environment the frame of the call
+     */
+    public Environment acquireFrame(Environment globals)
+    {
+        if (frames == null)
+        {
+            frames = new Environment[4];
+        }
+        else if (frameDepth == frames.length)
+        {
+            frames = Arrays.copyOf(frames, frameDepth * 2);
+        }
+        Environment frame = frames[frameDepth];
+        if (frame == null)
+        {
+            frame = new Environment(slotCount);
+            frames[frameDepth] = frame;
+        }
+        else
+        {
+            frame.clearSlots();
+        }
+        frame.setParent(globals);
+        ++frameDepth;
+        return frame;
+    }
+
+    /**
+     * The releaseFrame method gives back the frame of the call that is returning, the one
+     *      most recently handed out by acquireFrame.
+     * @precondition a frame has been acquired and not yet released
+     * @postcondition the frame can be handed out to the next call
+     */
+    public void releaseFrame()
+    {
+        --frameDepth;
+    }
+
+    /**
+     * The invoke method runs the resolved procedure in the given frame. Every call is counted,
+     *      and once the procedure has been called ProcedureCompiler.THRESHOLD times its body is
+     *      compiled into a JVM class; later calls run the compiled body, and a procedure that
+     *      cannot be compiled stays interpreted.
+     * @param frame the frame of the call, as handed out by acquireFrame, with the arguments in
+     *      the parameter slots
+     * @precondition the procedure is resolved
+     * @postcondition the statement inside the procedure declaration is executed
+     * @throws RuntimeException if the break or continue statement is not inside a loop
+     */
+    public void invoke(Environment frame)
+    {
+        if (compiled == null && ++invocations == ProcedureCompiler.THRESHOLD)
+        {
+            compiled = ProcedureCompiler.compile(this);
+        }
+        if (compiled != null)
+        {
+            compiled.run(frame);
+            return;
+        }
+        Completion completion = statement.run(frame);
+        if (completion == Completion.BREAK || completion == Completion.CONTINUE)
+        {
+            throw new RuntimeException("Break/Continue statement not inside loop");
+        }
+    }
+
     /**
      * Returns the identifier stored inside the procedure declaration node of the AST.
      *      The method essentially returns the name of the procedure as a String,
@@ -99,12 +294,69 @@ public class ProcedureDeclaration implements Statement
         return id;
     }
 
+    /**
+     * A method inherited from the Statement interface to assemble the procedure declaration node of
+     *      the AST into bytecode. The body of the procedure is assembled in its own frame and
+     *      followed by a return.
+     * @param b type BytecodeEmitter the emitter that will emit the bytecode
+     * @precondition the emitter is in the scope the procedure declaration appears in
+     * @postcondition the AST node is assembled into bytecode
+     */
+    @Override
+    public void assemble(BytecodeEmitter b)
+    {
+        b.beginProcedure(this);
+        statement.assemble(b);
+        b.endProcedure();
+    }
+
+    /**
+     * A method inherited from the Statement interface to compile the procedure declaration node of
+     *      the AST into JVM bytecode for the ProcedureCompiler. Procedures are only declared in the
+     *      program, so a declaration cannot be compiled inside the body of a procedure.
+     * @param c type ProcedureCompiler the compiler that will emit the JVM bytecode
+     * @precondition the node belongs to the resolved procedure being compiled
+     * @postcondition the AST node is compiled into JVM bytecode
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void jit(ProcedureCompiler c)
+    {
+        throw new UnsupportedOperationException("Procedure " + id + " cannot be declared inside a procedure");
+    }
+
+    /**
+     * A method inherited from the Statement interface to lower the procedure declaration node of
+     *      the AST into basic blocks. A procedure does not run where it is declared, so nothing is
+     *      added; its body is lowered into a graph of its own by buildGraph.
+     * @param g type GraphBuilder the builder that collects the basic blocks
+     * @precondition the builder is in the loop the procedure declaration appears in, if any
+     * @postcondition the AST node is lowered into basic blocks
+     */
+    @Override
+    public void lower(GraphBuilder g)
+    {
+        // the body is lowered by buildGraph
+    }
+
+    /**
+     * The buildGraph method lowers the body of the procedure into a ControlFlowGraph named
+     *      after the procedure, in which an Exit goes to the exit block.
+     * @return type ControlFlowGraph the graph of the body of the procedure
+     * @throws RuntimeException if a Break or a Continue is not inside a loop
+     */
+    public ControlFlowGraph buildGraph()
+    {
+        return ControlFlowGraph.build(id, statement);
+    }
+
     /**
      * A method inherited from the Statement interface to compile the ProcedureDeclaration node
      *      of the AST. The method first emits the label for the procedure, then loads null
      *      into and pushes the return variable, then pushes null for each local variable.
      *      The method then pushes $ra, compiles the statement in the procedure, and pops
-     *      everything else.
+     *      everything else. Finally it flushes the emitter, so a streaming emitter writes the
+     *      finished procedure to the file.
      * @param e type Emitter the emitter that will emit the compiled code
      * @param args a varargs parameter type Object, the arguments passed to the compile method
      * @precondition e is not null
@@ -113,25 +365,27 @@ public class ProcedureDeclaration implements Statement
     @Override
     public void compile(Emitter e, Object... args)
     {
-        e.emit("proc" + id + ":");
-        e.emit("la $t0, null");
-        e.emit("move $v0, $t0\t# load null into $v0"); // put null in method return value
-        e.emitPush("$v0");
+        e.emitLabel("proc" + id);
+        e.emit(Opcode.LA, Register.T0, Operand.label("null"));
+        // put null in method return value
+        e.emit(Opcode.MOVE, Register.V0, Register.T0).comment("load null into $v0");
+        e.emitPush(Register.V0);
         for (VariableDeclaration v : locals)
         {
-            e.emit("move $v0, $t0\t# load null into local variable");
-            e.emitPush("$v0"); // push null for local variables
+            e.emit(Opcode.MOVE, Register.V0, Register.T0).comment("load null into local variable");
+            e.emitPush(Register.V0); // push null for local variables
         }
         e.setProcedureContext(this);
-        e.emitPush("$ra");
+        e.emitPush(Register.RA);
         this.statement.compile(e);
-        e.emitPop("$ra");
+        e.emitPop(Register.RA);
         for (VariableDeclaration v : locals)
         {
-            e.emitPop("$v0"); // pop local variables
+            e.emitPop(Register.V0); // pop local variables
         }
-        e.emitPop("$v0"); // pop method return value
-        e.emit("jr $ra\t# return");
+        e.emitPop(Register.V0); // pop method return value
+        e.emit(Opcode.JR, Register.RA).comment("return");
         e.clearProcedureContext();
+        e.flush();
     }
 }
\ No newline at end of file
@@ -1,7 +1,19 @@
 package src.ast;
 
+import java.util.ArrayList;
+import java.util.List;
+import src.cfg.ControlFlowGraph;
+import src.cfg.GraphBuilder;
+import src.cfg.InvariantHoister;
 import src.emitter.Emitter;
+import src.emitter.Opcode;
+import src.emitter.Operand;
+import src.emitter.Register;
 import src.environments.Environment;
+import src.environments.Resolver;
+import src.jit.ProcedureCompiler;
+import src.vm.BytecodeEmitter;
+import src.vm.BytecodeProgram;
 
 /**
  * The Program class represents the program node of the AST. It stores the procedure
@@ -16,6 +28,7 @@ public class Program implements Statement
     private VariableDeclaration[] variableDeclarations;
     private ProcedureDeclaration[] procedureDeclarations;
     private Statement statement;
+    private int slotCount;
 
     /**
      * Constructor for objects of class Program creating a Program node for the AST.
@@ -29,6 +42,15 @@ public class Program implements Statement
         this.statement = statement;
     }
 
+    /**
+     * Returns the procedure declarations of the program.
+     * @return type ProcedureDeclaration[] the procedure declarations, in source order
+     */
+    public ProcedureDeclaration[] getProcedureDeclarations()
+    {
+        return procedureDeclarations;
+    }
+
     /**
      * A method inherited from the Statement interface to execute the Program node
      *      of the AST. The method executes the procedure declarations and the statement
@@ -42,6 +64,7 @@ public class Program implements Statement
     @Override
     public void exec(Environment env)
     {
+        env.allocateSlots(slotCount);
         for (ProcedureDeclaration procedureDeclaration : procedureDeclarations)
         {
             procedureDeclaration.exec(env);
@@ -59,55 +82,250 @@ public class Program implements Statement
         }
     }
 
+    /**
+     * A method inherited from the Statement interface to run the Program node of the AST.
+     *      The method declares the procedures and runs the statement inside the program node
+     *      like exec does. An EXIT completion ends the program.
+     * @precondition env is not null
+     * @postcondition the procedure declarations and the statement inside the program
+     *     are executed
+     * @param env type Environment the environment of where the run method will run
+     * @return type Completion always NORMAL
+     * @throws RuntimeException if the break or continue statement is not inside a loop
+     */
+    @Override
+    public Completion run(Environment env)
+    {
+        env.allocateSlots(slotCount);
+        for (ProcedureDeclaration procedureDeclaration : procedureDeclarations)
+        {
+            procedureDeclaration.exec(env);
+        }
+        Completion completion = statement.run(env);
+        if (completion == Completion.BREAK || completion == Completion.CONTINUE)
+        {
+            throw new RuntimeException("Break/Continue statement not inside loop");
+        }
+        return Completion.NORMAL;
+    }
+
+    /**
+     * A method inherited from the Statement interface to resolve the Program node of the AST.
+     *      The method resolves every procedure declaration and then the main
+     *      statement, records how many global slots the resolved program needs, and
+     *      binds every procedure call to the procedure it calls.
+     * @param r type Resolver the resolver that binds variable names to slots
+     * @precondition the resolver is in the scope the Program appears in
+     * @postcondition this node is not changed
+     * @return type Program the resolved Program
+     */
+    @Override
+    public Program resolve(Resolver r)
+    {
+        ProcedureDeclaration[] procedures = new ProcedureDeclaration[procedureDeclarations.length];
+        for (int i = 0; i < procedureDeclarations.length; ++i)
+        {
+            procedures[i] = procedureDeclarations[i].resolve(r);
+            r.declareProcedure(procedures[i]);
+        }
+        Program resolved = new Program(variableDeclarations, procedures, statement.resolve(r));
+        for (VariableDeclaration variableDeclaration : variableDeclarations)
+        {
+            for (String name : variableDeclaration.getNames())
+            {
+                r.getSlot(name);
+            }
+        }
+        resolved.slotCount = r.getGlobalCount();
+        r.bindCalls();
+        return resolved;
+    }
+
+    /**
+     * The resolve method resolves the whole program with a new Resolver, so that the
+     *      returned program reads and writes its variables in slots instead of by name.
+     * @return type Program the resolved program
+     */
+    public Program resolve()
+    {
+        return resolve(new Resolver());
+    }
+
+    /**
+     * A method inherited from the Statement interface to optimize the Program node of the AST. The
+     *      method optimizes the main statement and the statement of every procedure, and then
+     *      hoists the loop-invariant code out of their loops.
+     * @postcondition this node is not changed
+     * @return type Program the optimized program
+     */
+    @Override
+    public Program optimize()
+    {
+        ProcedureDeclaration[] procedures = new ProcedureDeclaration[procedureDeclarations.length];
+        for (int i = 0; i < procedureDeclarations.length; ++i)
+        {
+            procedures[i] = procedureDeclarations[i].optimize();
+        }
+        return new Program(variableDeclarations, procedures, statement.optimize())
+                .hoist(new InvariantHoister());
+    }
+
+    /**
+     * A method inherited from the Statement interface to hoist loop-invariant code out of the
+     *      loops of the Program node of the AST. The main statement and the statement of every
+     *      procedure are hoisted; no variable holds a value when the main statement starts.
+     * @param h type InvariantHoister the hoister that knows the loops the node is in
+     * @postcondition this node is not changed
+     * @return type Program the hoisted program
+     */
+    @Override
+    public Program hoist(InvariantHoister h)
+    {
+        ProcedureDeclaration[] procedures = new ProcedureDeclaration[procedureDeclarations.length];
+        for (int i = 0; i < procedureDeclarations.length; ++i)
+        {
+            procedures[i] = procedureDeclarations[i].hoist(h);
+        }
+        h.enterGraph(statement);
+        return new Program(variableDeclarations, procedures, statement.hoist(h));
+    }
+
+    /**
+     * A method inherited from the Statement interface to assemble the Program node of the AST into
+     *      bytecode. The main statement comes first and ends the program, and the procedure
+     *      declarations follow it.
+     * @param b type BytecodeEmitter the emitter that will emit the bytecode
+     * @precondition the emitter is in the scope the Program appears in
+     * @postcondition the AST node is assembled into bytecode
+     */
+    @Override
+    public void assemble(BytecodeEmitter b)
+    {
+        statement.assemble(b);
+        b.endMain();
+        for (ProcedureDeclaration procedureDeclaration : procedureDeclarations)
+        {
+            procedureDeclaration.assemble(b);
+        }
+    }
+
+    /**
+     * The assemble method assembles the whole program with a new BytecodeEmitter into a
+     *      program the VirtualMachine runs.
+     * @return type BytecodeProgram the assembled program
+     */
+    public BytecodeProgram assemble()
+    {
+        BytecodeEmitter b = new BytecodeEmitter();
+        assemble(b);
+        return b.build();
+    }
+
+    /**
+     * A method inherited from the Statement interface to compile the Program node of the AST into
+     *      JVM bytecode for the ProcedureCompiler. A program cannot appear inside the body of a
+     *      procedure.
+     * @param c type ProcedureCompiler the compiler that will emit the JVM bytecode
+     * @precondition the node belongs to the resolved procedure being compiled
+     * @postcondition the AST node is compiled into JVM bytecode
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void jit(ProcedureCompiler c)
+    {
+        throw new UnsupportedOperationException("A program cannot be compiled inside a procedure");
+    }
+
+    /**
+     * A method inherited from the Statement interface to lower the program node of the AST into
+     *      basic blocks. The main statement is lowered; the procedures are lowered into graphs of
+     *      their own by buildGraphs.
+     * @param g type GraphBuilder the builder that collects the basic blocks
+     * @precondition the builder is in the loop the program appears in, if any
+     * @postcondition the AST node is lowered into basic blocks
+     */
+    @Override
+    public void lower(GraphBuilder g)
+    {
+        statement.lower(g);
+    }
+
+    /**
+     * The buildGraphs method lowers the main statement and the body of every procedure into
+     *      ControlFlowGraphs, for analysis passes and for inspection.
+     * @return type List the graph of the main statement, named main, followed by the graph of
+     *      each procedure in the order they are declared
+     * @throws RuntimeException if a Break or a Continue is not inside a loop
+     */
+    public List<ControlFlowGraph> buildGraphs()
+    {
+        List<ControlFlowGraph> graphs = new ArrayList<ControlFlowGraph>();
+        graphs.add(ControlFlowGraph.build("main", statement));
+        for (ProcedureDeclaration procedureDeclaration : procedureDeclarations)
+        {
+            graphs.add(procedureDeclaration.buildGraph());
+        }
+        return graphs;
+    }
+
     /**
      * A method inherited from the Statement interface to compile the Program node.
      *      The method compiles the program node by appending the start of a MIPS
      *      program to the emitter. The method adds the compiled main program statement
      *      to the emitter. After compiling the main code, the method compiles the
-     *      procedure decalarations. Then, the method prepends the
-     *      variable section of an assembly program to the emitter. The emitter's .getVariables()
-     *      method gives this method all the variables seen in the program.
+     *      procedure decalarations. The .data section, with the constants every program uses
+     *      and the declared variables, is emitted separately, and the emitter writes it ahead
+     *      of the code. If the emitter is asked to stream, the code of the main program and
+     *      of each procedure is written to the file as soon as it is compiled, and the .data
+     *      section is written after the code. The comments after the instructions can be left
+     *      out for a smaller file that is written faster.
      * @param e type Emitter the emitter that will emit the compiled code
      * @param args a varargs parameter type Object, the arguments passed to the compile method
-     * @precondition the args parameter contains the output file and is of length 1
+     * @precondition the args parameter contains the output file, optionally followed by a
+     *      Boolean that is true to stream the code to the file and a Boolean that is false to
+     *      leave out the comments
      * @postcondition the AST node is compiled into MIPS assembly
      */
     @Override
     public void compile(Emitter e, Object... args)
     {
-        if (args.length != 1 || !(args[0] instanceof String))
+        if (args.length < 1 || args.length > 3 || !(args[0] instanceof String)
+                || args.length >= 2 && !(args[1] instanceof Boolean)
+                || args.length == 3 && !(args[2] instanceof Boolean))
         {
-            throw new IllegalArgumentException("Expected 1 argument of type String");
+            throw new IllegalArgumentException(
+                    "Expected 1 argument of type String and up to 2 optional Booleans");
         }
         String outputFile = (String) args[0];
-        e = new Emitter(outputFile);
-        e.emit(".text");
-        e.emit(".globl main");
-        e.emit("main:");
+        e = new Emitter(outputFile, args.length >= 2 && (Boolean) args[1],
+                args.length < 3 || (Boolean) args[2]);
+        e.emitData(".data");
+        e.emitData("null: .word 0" + "\t# null variable");
+        e.emitData("error_message: .asciiz \"RuntimeError: null assignment, program quit unexpectedly\"" + "\t# error message");
+        e.emitData("new_line: .asciiz \"\\n\"" + "\t# new line variable");
+        for (VariableDeclaration variableDeclaration : variableDeclarations)
+        {
+            variableDeclaration.compile(e);
+        }
+        e.emit(Opcode.TEXT);
+        e.emit(Opcode.GLOBL, Operand.label("main"));
+        e.emitLabel("main");
         statement.compile(e);
-        e.emit("program_exit:"); // program exit
-        e.emit("li $v0 10" + "\t# exit the program");
-        e.emit("syscall");
-        e.emit("program_error:"); // program error
-        e.emit("li $v0 4" + "\t# print error message");
-        e.emit("la $a0 error_message");
-        e.emit("syscall");
-        e.emit("j program_exit");
+        e.emitLabel("program_exit"); // program exit
+        e.emit(Opcode.LI, Register.V0, Operand.immediate(10)).comment("exit the program");
+        e.emit(Opcode.SYSCALL);
+        e.emitLabel("program_error"); // program error
+        e.emit(Opcode.LI, Register.V0, Operand.immediate(4)).comment("print error message");
+        e.emit(Opcode.LA, Register.A0, Operand.label("error_message"));
+        e.emit(Opcode.SYSCALL);
+        e.emit(Opcode.J, Operand.label("program_exit"));
+        e.flush();
 
         for (ProcedureDeclaration procedureDeclaration : procedureDeclarations)
         {
             procedureDeclaration.compile(e);
         }
 
-        for (VariableDeclaration variableDeclaration : variableDeclarations)
-        {
-            variableDeclaration.compile(e);
-        }
-        e.prepend("new_line: .asciiz \"\\n\"" + "\t# new line variable");
-        e.prepend("error_message: .asciiz \"RuntimeError: null assignment, program quit unexpectedly\"" + "\t# error message");
-        e.prepend("null: .word 0" + "\t# null variable");
-        e.prepend(".data");
-
         e.push();
         e.close();
     }
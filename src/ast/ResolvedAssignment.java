@@ -0,0 +1,121 @@
+package src.ast;
+
+import src.cfg.InvariantHoister;
+import src.environments.Environment;
+import src.environments.Resolver;
+import src.jit.ProcedureCompiler;
+
+/**
+ * The ResolvedAssignment class represents an Assignment node that has been bound to a slot by
+ *      the resolve pass. It writes the variable straight into the slot of the environment the
+ *      given number of levels up, without hashing its name. Like the compiled program, it does
+ *      not require the variable to hold a value before it is assigned.
+ * @author Daniel Gergov
+ * @version 10/18/26
+ */
+public class ResolvedAssignment extends Assignment
+{
+    private int depth;
+    private int slot;
+
+    /**
+     * Constructor for the ResolvedAssignment class creating a resolved Assignment node for the
+     *      AST.
+     * @param name the name of the variable that is being assigned
+     * @param exp the expression to which the variable is assigned to
+     * @param depth the number of environments up that the variable lives in
+     * @param slot the slot of the variable in that environment
+     */
+    public ResolvedAssignment(String name, Expression exp, int depth, int slot)
+    {
+        super(name, exp);
+        this.depth = depth;
+        this.slot = slot;
+    }
+
+    /**
+     * A method inherited from the Statement interface to execute the assignment by storing the
+     *      evaluated expression in the slot of the variable.
+     * @precondition env is not null
+     * @postcondition the variable holds the value of the expression
+     * @param env type Environment the environment of where the exec method will run
+     */
+    @Override
+    public void exec(Environment env)
+    {
+        store(env, getExpression().eval(env));
+    }
+
+    /**
+     * Returns the current value of the assigned variable by reading its slot.
+     * @param env type Environment the environment of where the assignment runs
+     * @return type int the value of the variable
+     */
+    @Override
+    public int load(Environment env)
+    {
+        return env.getFrame(depth).getSlot(slot);
+    }
+
+    /**
+     * Stores the given value in the slot of the assigned variable.
+     * @param env type Environment the environment of where the assignment runs
+     * @param value the value to store
+     * @postcondition the variable holds value
+     */
+    @Override
+    public void store(Environment env, int value)
+    {
+        env.getFrame(depth).setSlot(slot, value);
+    }
+
+    /**
+     * A method inherited from the Statement interface to resolve the assignment. The assignment
+     *      is already resolved, so the node itself is returned.
+     * @param r type Resolver the resolver that binds variable names to slots
+     * @return type Statement this node
+     */
+    @Override
+    public Statement resolve(Resolver r)
+    {
+        return this;
+    }
+
+    /**
+     * A method inherited from the Statement interface to optimize the assignment node of the AST.
+     *      The node is already resolved, and programs are optimized before they are resolved, so
+     *      the node itself is returned.
+     * @return type Assignment this node
+     */
+    @Override
+    public Assignment optimize()
+    {
+        return this;
+    }
+
+    /**
+     * A method inherited from the Statement interface to hoist the assignment node of the AST out
+     *      of loops. The node is already resolved, and programs are hoisted before they are
+     *      resolved, so the node itself is returned.
+     * @param h type InvariantHoister the hoister that knows the loops the assignment is in
+     * @return type Statement this node
+     */
+    @Override
+    public Statement hoist(InvariantHoister h)
+    {
+        return this;
+    }
+
+    /**
+     * The jitStore method compiles the store of the value on top of the JVM stack into the slot of
+     *      the variable.
+     * @param c type ProcedureCompiler the compiler that will emit the JVM bytecode
+     * @precondition the node belongs to the resolved procedure being compiled
+     * @postcondition the AST node is compiled into JVM bytecode
+     */
+    @Override
+    public void jitStore(ProcedureCompiler c)
+    {
+        c.emitStore(depth, slot);
+    }
+}
@@ -0,0 +1,195 @@
+package src.ast;
+
+import src.cfg.InvariantHoister;
+import src.environments.Environment;
+import src.environments.Resolver;
+import src.jit.ProcedureCompiler;
+
+/**
+ * The ResolvedProcedureCall class represents a ProcedureCall node whose arguments have been
+ *      resolved and which is bound to the resolved procedure it calls. It runs the procedure in
+ *      a pooled frame of slots whose parent is the global environment, so the procedure sees
+ *      its own parameters, return variable, and local variables, and the global variables, the
+ *      same variables the compiled procedure sees.
+ * @author Daniel Gergov
+ * @version 10/18/26
+ */
+public class ResolvedProcedureCall extends ProcedureCall
+{
+    private ProcedureDeclaration procedure;
+
+    /**
+     * Constructor for the ResolvedProcedureCall class creating a resolved ProcedureCall node for
+     *      the AST.
+     * @param id the name of the procedure
+     * @param arguments the resolved arguments of the procedure
+     */
+    public ResolvedProcedureCall(String id, Expression[] arguments)
+    {
+        super(id, arguments);
+    }
+
+    /**
+     * The bind method binds the call to the resolved procedure it calls.
+     * @param procedure the resolved procedure, or null if no procedure has the called name
+     * @postcondition the call runs the given procedure
+     */
+    public void bind(ProcedureDeclaration procedure)
+    {
+        this.procedure = procedure;
+    }
+
+    /**
+     * A method inherited from the Expression interface to evaluate the procedure call by running
+     *      the procedure and reading the slot of its return variable.
+     * @param env type Environment the environment of where the eval method will run
+     * @return type int, the value of the return variable of the procedure
+     * @precondition env is not null
+     * @postcondition the statement inside the procedure declaration is executed
+     * @throws RuntimeException if the return value is void but is evaluated as an expression
+     */
+    @Override
+    public int eval(Environment env)
+    {
+        Environment frame = call(env);
+        try
+        {
+            if (!frame.isAssigned(procedure.getReturnSlot()))
+            {
+                throw new RuntimeException("Cannot evaluate expression with void return value");
+            }
+            return frame.getSlot(procedure.getReturnSlot());
+        }
+        finally
+        {
+            procedure.releaseFrame();
+        }
+    }
+
+    /**
+     * A method inherited from the Statement interface to execute the procedure call by running
+     *      the procedure and ignoring its return value.
+     * @param env type Environment the environment of where the exec method will run
+     * @precondition env is not null
+     * @postcondition the statement inside the procedure declaration is executed
+     */
+    @Override
+    public void exec(Environment env)
+    {
+        call(env);
+        procedure.releaseFrame();
+    }
+
+    /**
+     * A method inherited from the Statement interface to run the procedure call.
+     * @param env type Environment the environment of where the run method will run
+     * @precondition env is not null
+     * @postcondition the statement inside the procedure declaration is executed
+     * @return type Completion always NORMAL
+     */
+    @Override
+    public Completion run(Environment env)
+    {
+        exec(env);
+        return Completion.NORMAL;
+    }
+
+    /**
+     * The call method evaluates the arguments into the parameter slots of a frame of the
+     *      procedure and invokes the procedure in it, which counts the call toward compiling
+     *      the procedure. The frame stays acquired until the caller releases it.
+     * @param env the environment the arguments are evaluated in
+     * @return type Environment the frame the procedure ran in
+     * @throws RuntimeException if the called procedure is not declared
+     * @throws RuntimeException if the break or continue statement is not inside a loop
+     */
+    private Environment call(Environment env)
+    {
+        if (procedure == null)
+        {
+            throw new RuntimeException("Procedure " + getId() + " not declared.");
+        }
+        Environment frame = procedure.acquireFrame(env.getGlobals());
+        try
+        {
+            int[] parameterSlots = procedure.getParameterSlots();
+            Expression[] arguments = getArguments();
+            for (int i = 0; i < arguments.length; ++i)
+            {
+                frame.setSlot(parameterSlots[i], arguments[i].eval(env));
+            }
+            procedure.invoke(frame);
+        }
+        catch (RuntimeException e)
+        {
+            procedure.releaseFrame();
+            throw e;
+        }
+        return frame;
+    }
+
+    /**
+     * A method inherited from the Expression and Statement interfaces to resolve the procedure
+     *      call. The call is already resolved, so the node itself is returned.
+     * @param r type Resolver the resolver that binds variable names to slots
+     * @return type ProcedureCall this node
+     */
+    @Override
+    public ProcedureCall resolve(Resolver r)
+    {
+        return this;
+    }
+
+    /**
+     * A method inherited from the Expression and Statement interfaces to optimize the procedure
+     *      call. The node is already resolved, and programs are optimized before they are resolved,
+     *      so the node itself is returned.
+     * @return type ProcedureCall this node
+     */
+    @Override
+    public ProcedureCall optimize()
+    {
+        return this;
+    }
+
+    /**
+     * A method inherited from the Expression and Statement interfaces to hoist the procedure call
+     *      out of loops. The node is already resolved, and programs are hoisted before they are
+     *      resolved, so the node itself is returned.
+     * @param h type InvariantHoister the hoister that knows the loops the call is in
+     * @return type ProcedureCall this node
+     */
+    @Override
+    public ProcedureCall hoist(InvariantHoister h)
+    {
+        return this;
+    }
+
+    /**
+     * A method inherited from the Expression interface to compile the procedure call node of the
+     *      AST into JVM bytecode that pushes its value. The arguments are compiled in order and
+     *      then the call of the procedure the call is bound to.
+     * @param c type ProcedureCompiler the compiler that will emit the JVM bytecode
+     * @precondition the node belongs to the resolved procedure being compiled
+     * @postcondition the AST node is compiled into JVM bytecode
+     */
+    @Override
+    public void jitValue(ProcedureCompiler c)
+    {
+        c.emitCall(procedure, getId(), getArguments(), true);
+    }
+
+    /**
+     * A method inherited from the Statement interface to compile the procedure call node of the AST
+     *      into JVM bytecode for the ProcedureCompiler. The return value of the procedure is
+     *      ignored.
+     * @param c type ProcedureCompiler the compiler that will emit the JVM bytecode
+     * @precondition the node belongs to the resolved procedure being compiled
+     * @postcondition the AST node is compiled into JVM bytecode
+     */
+    @Override
+    public void jit(ProcedureCompiler c)
+    {
+        c.emitCall(procedure, getId(), getArguments(), false);
+    }
+}
@@ -0,0 +1,88 @@
+package src.ast;
+
+import src.environments.Environment;
+import src.environments.Resolver;
+import src.jit.ProcedureCompiler;
+
+/**
+ * The ResolvedVariable class represents a Variable node that has been bound to a slot by the
+ *      resolve pass. It reads the variable straight out of the slot of the environment the
+ *      given number of levels up, without hashing its name.
+ * @author Daniel Gergov
+ * @version 10/18/26
+ */
+public class ResolvedVariable extends Variable
+{
+    private int depth;
+    private int slot;
+
+    /**
+     * Constructor for the ResolvedVariable class creating a resolved Variable node for the AST.
+     * @param name the name of the variable
+     * @param depth the number of environments up that the variable lives in
+     * @param slot the slot of the variable in that environment
+     */
+    public ResolvedVariable(String name, int depth, int slot)
+    {
+        super(name);
+        this.depth = depth;
+        this.slot = slot;
+    }
+
+    /**
+     * A method inherited from the Expression interface to evaluate the variable by reading its
+     *      slot.
+     * @param env type Environment the environment of where the eval method will run
+     * @precondition env is not null
+     * @postcondition the value of the variable is returned
+     * @return type int the value of the variable
+     * @throws RuntimeException if the variable has not been assigned a value
+     */
+    @Override
+    public int eval(Environment env)
+    {
+        Environment frame = env.getFrame(depth);
+        if (!frame.isAssigned(slot))
+        {
+            throw new RuntimeException("Variable " + getName() + " has no value.");
+        }
+        return frame.getSlot(slot);
+    }
+
+    /**
+     * A method inherited from the Expression interface to resolve the variable. The variable is
+     *      already resolved, so the node itself is returned.
+     * @param r type Resolver the resolver that binds variable names to slots
+     * @return type Expression this node
+     */
+    @Override
+    public Expression resolve(Resolver r)
+    {
+        return this;
+    }
+
+    /**
+     * A method inherited from the Expression interface to optimize the variable node of the AST.
+     *      The node is already resolved, and programs are optimized before they are resolved, so
+     *      the node itself is returned.
+     * @return type Expression this node
+     */
+    @Override
+    public Expression optimize()
+    {
+        return this;
+    }
+
+    /**
+     * A method inherited from the Expression interface to compile the variable node of the AST into
+     *      JVM bytecode that pushes its value. The value is read from the slot of the variable.
+     * @param c type ProcedureCompiler the compiler that will emit the JVM bytecode
+     * @precondition the node belongs to the resolved procedure being compiled
+     * @postcondition the AST node is compiled into JVM bytecode
+     */
+    @Override
+    public void jitValue(ProcedureCompiler c)
+    {
+        c.emitLoad(depth, slot, getName());
+    }
+}
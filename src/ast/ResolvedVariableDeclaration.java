@@ -0,0 +1,89 @@
+package src.ast;
+
+import src.environments.Environment;
+import src.environments.Resolver;
+import src.jit.ProcedureCompiler;
+
+/**
+ * The ResolvedVariableDeclaration class represents a VariableDeclaration node that has been
+ *      bound to slots by the resolve pass. Executing it marks the slots of the declared
+ *      variables unassigned again, the slot counterpart of declaring them with a null value.
+ * @author Daniel Gergov
+ * @version 10/18/26
+ */
+public class ResolvedVariableDeclaration extends VariableDeclaration
+{
+    private int[] depths;
+    private int[] slots;
+
+    /**
+     * Constructor for the ResolvedVariableDeclaration class creating a resolved
+     *      VariableDeclaration node for the AST.
+     * @param names the names of the declared variables
+     * @param depths the number of environments up that each variable lives in
+     * @param slots the slot of each variable in that environment
+     */
+    public ResolvedVariableDeclaration(String[] names, int[] depths, int[] slots)
+    {
+        super(names);
+        this.depths = depths;
+        this.slots = slots;
+    }
+
+    /**
+     * A method inherited from the Statement interface to execute the variable declaration by
+     *      marking the slots of the declared variables unassigned.
+     * @precondition env is not null
+     * @postcondition the declared variables hold no value
+     * @param env type Environment the environment of where the exec method will run
+     */
+    @Override
+    public void exec(Environment env)
+    {
+        for (int i = 0; i < slots.length; ++i)
+        {
+            env.getFrame(depths[i]).clearSlot(slots[i]);
+        }
+    }
+
+    /**
+     * A method inherited from the Statement interface to resolve the variable declaration. The
+     *      declaration is already resolved, so the node itself is returned.
+     * @param r type Resolver the resolver that binds variable names to slots
+     * @return type Statement this node
+     */
+    @Override
+    public Statement resolve(Resolver r)
+    {
+        return this;
+    }
+
+    /**
+     * A method inherited from the Statement interface to optimize the variable declaration node of
+     *      the AST. The node is already resolved, and programs are optimized before they are
+     *      resolved, so the node itself is returned.
+     * @return type Statement this node
+     */
+    @Override
+    public Statement optimize()
+    {
+        return this;
+    }
+
+    /**
+     * A method inherited from the Statement interface to compile the variable declaration node of
+     *      the AST into JVM bytecode for the ProcedureCompiler. The slots of the declared variables
+     *      are marked unassigned.
+     * @param c type ProcedureCompiler the compiler that will emit the JVM bytecode
+     * @precondition the node belongs to the resolved procedure being compiled
+     * @postcondition the AST node is compiled into JVM bytecode
+     */
+    @Override
+    public void jit(ProcedureCompiler c)
+    {
+        for (int i = 0; i < slots.length; ++i)
+        {
+            c.emitClear(depths[i], slots[i]);
+        }
+    }
+}
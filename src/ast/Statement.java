@@ -1,7 +1,12 @@
 package src.ast;
 
+import src.cfg.GraphBuilder;
+import src.cfg.InvariantHoister;
 import src.emitter.Emitter;
 import src.environments.Environment;
+import src.environments.Resolver;
+import src.jit.ProcedureCompiler;
+import src.vm.BytecodeEmitter;
 
 /**
  * The Statement class represents a Statement node in the AST for which the statement
@@ -22,6 +27,75 @@ public interface Statement
      */
     public void exec(Environment env) throws ParseErrorException;
 
+    /**
+     * A method inherited from the abstract Statement class to run the statement. Unlike exec,
+     *      the break, continue, and exit statements do not throw; how the statement completed
+     *      is returned instead, so no exception is created or caught on the way.
+     * @param env type Environment, the environment of where the run method will run
+     * @precondition the env parameter is not null
+     * @postcondition the statement is executed
+     * @return type Completion how the statement completed
+     */
+    public Completion run(Environment env);
+
+    /**
+     * A method inherited from the abstract Statement class to resolve the statement. Every
+     *      variable the statement reads or writes is bound to a slot by the given Resolver, and
+     *      a copy of the statement that uses the slots is returned.
+     * @param r type Resolver, the resolver that binds variable names to slots
+     * @precondition the resolver is in the scope the statement appears in
+     * @postcondition this statement is not changed
+     * @return type Statement the resolved statement
+     */
+    public Statement resolve(Resolver r);
+
+    /**
+     * A method inherited from the abstract Statement class to optimize the statement. Constant
+     *      expressions are folded, identities such as x * 1 are simplified, and branches whose
+     *      condition is constant are removed, and an equivalent statement is returned.
+     * @postcondition this statement is not changed
+     * @return type Statement the optimized statement
+     */
+    public Statement optimize();
+
+    /**
+     * A method inherited from the abstract Statement class to hoist loop-invariant code out of
+     *      the loops in the statement. Every loop is given a preheader that computes the
+     *      operations it does not change once, before the loop, and an equivalent statement is
+     *      returned.
+     * @param h type InvariantHoister the hoister that knows the loops the statement is in
+     * @postcondition this statement is not changed
+     * @return type Statement the hoisted statement
+     */
+    public Statement hoist(InvariantHoister h);
+
+    /**
+     * A method inherited from the abstract Statement class to assemble the statement into bytecode
+     *      for the VirtualMachine.
+     * @param b type BytecodeEmitter, the emitter that will emit the bytecode
+     * @precondition the emitter is in the scope the statement appears in
+     * @postcondition the AST node is assembled into bytecode
+     */
+    public void assemble(BytecodeEmitter b);
+
+    /**
+     * A method inherited from the abstract Statement class to compile the statement of a hot
+     *      procedure into JVM bytecode.
+     * @param c type ProcedureCompiler, the compiler that will emit the JVM bytecode
+     * @precondition the statement belongs to the resolved procedure being compiled
+     * @postcondition the AST node is compiled into JVM bytecode
+     */
+    public void jit(ProcedureCompiler c);
+
+    /**
+     * A method inherited from the abstract Statement class to lower the statement into the basic
+     *      blocks of a ControlFlowGraph.
+     * @param g type GraphBuilder, the builder that collects the basic blocks
+     * @precondition the builder is in the loop the statement appears in, if any
+     * @postcondition the AST node is lowered into basic blocks
+     */
+    public void lower(GraphBuilder g);
+
     /**
      * A method inherited from the abstract Statement class to compile the statement.
      * @param e type Emitter, the emitter that will emit the compiled code
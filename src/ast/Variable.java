@@ -1,7 +1,15 @@
 package src.ast;
 
+import src.cfg.InvariantHoister;
 import src.emitter.Emitter;
+import src.emitter.Opcode;
+import src.emitter.Operand;
+import src.emitter.Register;
+import src.emitter.RegisterAllocator;
 import src.environments.Environment;
+import src.environments.Resolver;
+import src.jit.ProcedureCompiler;
+import src.vm.BytecodeEmitter;
 
 /**
  * The Variable class represents a Variable node in the AST for which the variable
@@ -35,7 +43,7 @@ public class Variable implements Expression
     /**
      * A method inherited from the Statement interface to execute the variable which
      *      evaluates the variable node by looking up the identifier in the environment
-     *      hash map and returning the returned value.
+     *      and returning its value.
      * @parameter type Environment the env for which the expression evaluates in
      * @precondition the env is not null
      * @postcondition the expression is evaluated
@@ -44,15 +52,113 @@ public class Variable implements Expression
     @Override
     public int eval(Environment env)
     {
-        return env.getVariable(this.name);
+        return env.getInt(this.name);
+    }
+
+    /**
+     * A method inherited from the Expression interface to resolve the variable node of the AST.
+     *      The method binds the variable to its slot.
+     * @param r type Resolver the resolver that binds variable names to slots
+     * @precondition the resolver is in the scope the variable appears in
+     * @postcondition this node is not changed
+     * @return type Expression the resolved variable
+     */
+    @Override
+    public Expression resolve(Resolver r)
+    {
+        return new ResolvedVariable(name, r.getDepth(name), r.getSlot(name));
+    }
+
+    /**
+     * A method inherited from the Expression interface to optimize the variable node of the AST.
+     *      There is nothing to optimize, so the node itself is returned.
+     * @return type Expression this node
+     */
+    @Override
+    public Expression optimize()
+    {
+        return this;
+    }
+
+    /**
+     * A method inherited from the Expression interface to hoist the variable node of the AST out of
+     *      loops. There is nothing to hoist, so the node itself is returned.
+     * @param h type InvariantHoister the hoister that knows the loops the node is in
+     * @return type Expression this node
+     */
+    @Override
+    public Expression hoist(InvariantHoister h)
+    {
+        return this;
+    }
+
+    /**
+     * A method inherited from the Expression interface to assemble the variable node of the AST
+     *      into bytecode that pushes its value.
+     * @param b type BytecodeEmitter the emitter that will emit the bytecode
+     * @precondition the emitter is in the scope the variable appears in
+     * @postcondition the AST node is assembled into bytecode
+     */
+    @Override
+    public void assembleValue(BytecodeEmitter b)
+    {
+        b.emitLoad(name);
+    }
+
+    /**
+     * A method inherited from the Expression interface to compile the variable node of the AST into
+     *      JVM bytecode that pushes its value. Only a resolved variable knows where it lives.
+     * @param c type ProcedureCompiler the compiler that will emit the JVM bytecode
+     * @precondition the node belongs to the resolved procedure being compiled
+     * @postcondition the AST node is compiled into JVM bytecode
+     * @throws UnsupportedOperationException since the variable is not resolved
+     */
+    @Override
+    public void jitValue(ProcedureCompiler c)
+    {
+        throw new UnsupportedOperationException("Variable " + name + " is not resolved");
+    }
+
+    /**
+     * A method inherited from the Expression interface to compile the variable into a
+     *      register. The method loads a local variable from its offset on the stack and a
+     *      global variable straight from its label into a register it takes from the allocator,
+     *      or copies the counter of the For loop whose resident variable it is.
+     * @param r type RegisterAllocator the allocator that hands out the registers
+     * @precondition the registers in use are the ones of the enclosing expression
+     * @postcondition the AST node is compiled into MIPS assembly
+     * @return type Register the register that holds the value of the variable
+     */
+    @Override
+    public Register compileValue(RegisterAllocator r)
+    {
+        Emitter e = r.getEmitter();
+        Register register = r.allocate();
+        Register counter = e.getLoopRegister(this.name);
+        if (counter != null)
+        {
+            e.emit(Opcode.MOVE, register, counter).comment("copy the loop variable");
+        }
+        else if (e.isLocal(this.name))
+        {
+            e.emit(Opcode.LW, register, Operand.address(e.getOffset(this.name), Register.SP))
+                    .comment("load the variable");
+        }
+        else
+        {
+            e.emit(Opcode.LW, register, Operand.label("var" + this.name))
+                    .comment("load the variable");
+        }
+        return register;
     }
 
     /**
      * A method inherited from the Statement interface to compile the variable. The method
-     *      loads the variable value into the $v0 register by loading its address to the $t0
-     *      register. The method also tells the emitter by calling .addVariable() to store
+     *      loads the variable value into the $v0 register, a global variable straight from its
+     *      label, the way compileValue does. The method also tells the emitter by calling .addVariable() to store
      *      the variable name in order to allocate space for the variable in the .data section.
-     *      This call adds support for using variables without declaring them.
+     *      This call adds support for using variables without declaring them. The resident
+     *      variable of a For loop is copied from the counter register instead.
      * @param e the emitter for which the expression will emit assembly code to
      * @param args a varargs parameter type Object, the arguments passed to the compile method
      * @precondition the emitter object is not null, and the args parameter is empty
@@ -61,14 +167,30 @@ public class Variable implements Expression
     @Override
     public void compile(Emitter e, Object... args)
     {
-        if (e.isLocal(this.name))
+        Register counter = e.getLoopRegister(this.name);
+        if (counter != null)
         {
-            e.emit("lw $v0, " + e.getOffset(this.name) + "($sp)" + "\t# load the variable into $v0");
+            e.emit(Opcode.MOVE, Register.V0, counter).comment("copy the loop variable into $v0");
+        }
+        else if (e.isLocal(this.name))
+        {
+            e.emit(Opcode.LW, Register.V0, Operand.address(e.getOffset(this.name), Register.SP))
+                    .comment("load the variable into $v0");
         }
         else
         {
-            e.emit("la $t0, var" + this.name);
-            e.emit("lw $v0, ($t0)" + "\t# load the variable into $v0");
+            e.emit(Opcode.LW, Register.V0, Operand.label("var" + this.name))
+                    .comment("load the variable into $v0");
         }
     }
+
+    /**
+     * The toString method returns the name of the variable.
+     * @return type String the name
+     */
+    @Override
+    public String toString()
+    {
+        return name;
+    }
 }
@@ -1,7 +1,12 @@
 package src.ast;
 
+import src.cfg.GraphBuilder;
+import src.cfg.InvariantHoister;
 import src.emitter.Emitter;
 import src.environments.Environment;
+import src.environments.Resolver;
+import src.jit.ProcedureCompiler;
+import src.vm.BytecodeEmitter;
 
 /**
  * The VariableDeclaration class represents a VariableDeclaration node in the AST for which
@@ -81,6 +86,111 @@ public class VariableDeclaration implements Statement
         }
     }
 
+    /**
+     * A method inherited from the Statement interface to run the variable declaration node of the AST.
+     *      The variable declaration statement cannot break, continue, or exit, so the method executes it
+     *      like exec does and completes normally.
+     * @precondition env is not null
+     * @postcondition the variable declaration statement is executed
+     * @param env type Environment the environment of where the run method will run
+     * @return type Completion always NORMAL
+     */
+    @Override
+    public Completion run(Environment env)
+    {
+        exec(env);
+        return Completion.NORMAL;
+    }
+
+    /**
+     * A method inherited from the Statement interface to resolve the variable declaration node of the AST.
+     *      The method binds every declared variable to its slot.
+     * @param r type Resolver the resolver that binds variable names to slots
+     * @precondition the resolver is in the scope the variable declaration appears in
+     * @postcondition this node is not changed
+     * @return type Statement the resolved variable declaration
+     */
+    @Override
+    public Statement resolve(Resolver r)
+    {
+        int[] depths = new int[names.length];
+        int[] slots = new int[names.length];
+        for (int i = 0; i < names.length; ++i)
+        {
+            depths[i] = r.getDepth(names[i]);
+            slots[i] = r.getSlot(names[i]);
+        }
+        return new ResolvedVariableDeclaration(names, depths, slots);
+    }
+
+    /**
+     * A method inherited from the Statement interface to optimize the variable declaration node of
+     *      the AST. There is nothing to optimize, so the node itself is returned.
+     * @return type Statement this node
+     */
+    @Override
+    public Statement optimize()
+    {
+        return this;
+    }
+
+    /**
+     * A method inherited from the Statement interface to hoist the variable declaration node of
+     *      the AST out of loops. There is nothing to hoist, so the node itself is returned.
+     * @param h type InvariantHoister the hoister that knows the loops the node is in
+     * @return type Statement this node
+     */
+    @Override
+    public Statement hoist(InvariantHoister h)
+    {
+        return this;
+    }
+
+    /**
+     * A method inherited from the Statement interface to assemble the variable declaration node of
+     *      the AST into bytecode. Every declared variable is marked unassigned.
+     * @param b type BytecodeEmitter the emitter that will emit the bytecode
+     * @precondition the emitter is in the scope the variable declaration appears in
+     * @postcondition the AST node is assembled into bytecode
+     */
+    @Override
+    public void assemble(BytecodeEmitter b)
+    {
+        for (String name : names)
+        {
+            b.emitClear(name);
+        }
+    }
+
+    /**
+     * A method inherited from the Statement interface to compile the variable declaration node of
+     *      the AST into JVM bytecode for the ProcedureCompiler. Only a resolved declaration knows
+     *      where its variables live.
+     * @param c type ProcedureCompiler the compiler that will emit the JVM bytecode
+     * @precondition the node belongs to the resolved procedure being compiled
+     * @postcondition the AST node is compiled into JVM bytecode
+     * @throws UnsupportedOperationException since the declaration is not resolved
+     */
+    @Override
+    public void jit(ProcedureCompiler c)
+    {
+        throw new UnsupportedOperationException("Variables " + String.join(", ", names) + " are not resolved");
+    }
+
+    /**
+     * A method inherited from the Statement interface to lower the variable declaration node of the
+     *      AST into basic blocks. The statement does not change the flow of control, so it is added
+     *      to the current block.
+     * @param g type GraphBuilder the builder that collects the basic blocks
+     * @precondition the builder is in the loop the variable declaration appears in, if any
+     * @postcondition the AST node is lowered into basic blocks
+     */
+    @Override
+    public void lower(GraphBuilder g)
+    {
+        g.add(this);
+    }
+
     /**
      * A method inherited from the Statement interface to compile the variable declaration node.
      *      The method compiles the variable declaration node by emitting the assembly code to
@@ -95,7 +205,17 @@ public class VariableDeclaration implements Statement
     {
         for (String name : names)
         {
-            e.prepend("var" + name + ": .word 0");
+            e.emitData("var" + name + ": .word 0");
         }
     }
+
+    /**
+     * The toString method returns the declaration as it is written in a program.
+     * @return type String the declaration
+     */
+    @Override
+    public String toString()
+    {
+        return "VAR " + String.join(", ", names);
+    }
 }
\ No newline at end of file
@@ -2,8 +2,16 @@ package src.ast;
 
 import java.util.HashMap;
 import java.util.Map;
+import src.cfg.BasicBlock;
+import src.cfg.GraphBuilder;
+import src.cfg.InvariantHoister;
 import src.emitter.Emitter;
+import src.emitter.Opcode;
+import src.emitter.Operand;
 import src.environments.Environment;
+import src.environments.Resolver;
+import src.jit.ProcedureCompiler;
+import src.vm.BytecodeEmitter;
 
 /**
  * The While class represents a While ndoe in the AST for which the for node
@@ -45,6 +53,7 @@ public class While implements Statement
         map.put(ContinueException.class, 1);
         map.put(BreakException.class, 2);
         map.put(ExitException.class, 3);
+        whileLoop: // label the while loop
         while (condition.eval(env) == 1)
         {
             try
@@ -58,7 +67,7 @@ public class While implements Statement
                     case 1:
                         continue;
                     case 2:
-                        break;
+                        break whileLoop; // break out of the while loop not the switch case
                     case 3:
                         throw new ExitException();
                 }
@@ -67,6 +76,156 @@ public class While implements Statement
         env.modifyLoopDepth(false);
     }
 
+    /**
+     * A method inherited from the Statement interface to run the while node of the AST.
+     *      The method runs the statement as long as the condition stays true. A BREAK
+     *      completion ends the loop, a CONTINUE completion goes on to the next check of the
+     *      condition, and an EXIT completion ends the loop and is passed up.
+     * @precondition env is not null
+     * @postcondition the loop statement is executed
+     * @param env type Environment the environment of where the run method will run
+     * @return type Completion EXIT if the loop body exited; otherwise, NORMAL
+     */
+    @Override
+    public Completion run(Environment env)
+    {
+        env.modifyLoopDepth(true);
+        Completion result = Completion.NORMAL;
+        while (condition.eval(env) == 1)
+        {
+            Completion completion = statement.run(env);
+            if (completion == Completion.BREAK)
+            {
+                break;
+            }
+            if (completion == Completion.EXIT)
+            {
+                result = Completion.EXIT;
+                break;
+            }
+        }
+        env.modifyLoopDepth(false);
+        return result;
+    }
+
+    /**
+     * A method inherited from the Statement interface to resolve the while node of the AST.
+     *      The method resolves the condition and the loop statement.
+     * @param r type Resolver the resolver that binds variable names to slots
+     * @precondition the resolver is in the scope the while appears in
+     * @postcondition this node is not changed
+     * @return type Statement the resolved while
+     */
+    @Override
+    public Statement resolve(Resolver r)
+    {
+        return new While(condition.resolve(r), statement.resolve(r));
+    }
+
+    /**
+     * A method inherited from the Statement interface to optimize the while node of the AST. A loop
+     *      whose condition folds to a constant that does not hold never runs its body, so it is
+     *      replaced by an empty block.
+     * @postcondition this node is not changed
+     * @return type Statement the optimized while loop
+     */
+    @Override
+    public Statement optimize()
+    {
+        Condition optimized = condition.optimize();
+        if (optimized.isConstant() && optimized.eval(null) != 1)
+        {
+            return new Block(new Statement[0]);
+        }
+        return new While(optimized, statement.optimize());
+    }
+
+    /**
+     * A method inherited from the Statement interface to hoist the while node of the AST out of
+     *      loops. The operations the loop does not change are computed in a preheader before
+     *      it. The condition is evaluated whenever the loop is reached, so what is hoisted from
+     *      it is computed unconditionally; what is hoisted from the body alone is only computed
+     *      if the condition holds, so that the loop does not compute anything it would not have.
+     * @param h type InvariantHoister the hoister that knows the loops the while is in
+     * @postcondition this node is not changed
+     * @return type Statement the hoisted while loop, with its preheader if it has one
+     */
+    @Override
+    public Statement hoist(InvariantHoister h)
+    {
+        h.enterLoop(this, statement, null, condition);
+        While loop = new While(condition.hoist(h), statement.hoist(h));
+        return h.exitLoop(loop, condition);
+    }
+
+    /**
+     * A method inherited from the Statement interface to assemble the while node of the AST into
+     *      bytecode. The condition is tested at the top of the loop, where a continue goes, and a
+     *      break goes past the end of the loop.
+     * @param b type BytecodeEmitter the emitter that will emit the bytecode
+     * @precondition the emitter is in the scope the while appears in
+     * @postcondition the AST node is assembled into bytecode
+     */
+    @Override
+    public void assemble(BytecodeEmitter b)
+    {
+        int top = b.newLabel();
+        int end = b.newLabel();
+        b.mark(top);
+        condition.assembleBranch(b, false, end);
+        b.enterLoop(top, end);
+        statement.assemble(b);
+        b.exitLoop();
+        b.emitJump(top);
+        b.mark(end);
+    }
+
+    /**
+     * A method inherited from the Statement interface to compile the while node of the AST into JVM
+     *      bytecode for the ProcedureCompiler. The condition is tested at the top of the loop,
+     *      where a continue goes.
+     * @param c type ProcedureCompiler the compiler that will emit the JVM bytecode
+     * @precondition the node belongs to the resolved procedure being compiled
+     * @postcondition the AST node is compiled into JVM bytecode
+     */
+    @Override
+    public void jit(ProcedureCompiler c)
+    {
+        int top = c.newLabel();
+        int end = c.newLabel();
+        c.mark(top);
+        condition.jitBranch(c, false, end);
+        c.enterLoop(top, end);
+        statement.jit(c);
+        c.exitLoop();
+        c.emitJump(top);
+        c.mark(end);
+    }
+
+    /**
+     * A method inherited from the Statement interface to lower the while node of the AST into basic
+     *      blocks. The condition is tested in a block of its own at the top of the loop, where a
+     *      continue goes, and the body jumps back to it.
+     * @param g type GraphBuilder the builder that collects the basic blocks
+     * @precondition the builder is in the loop the while appears in, if any
+     * @postcondition the AST node is lowered into basic blocks
+     */
+    @Override
+    public void lower(GraphBuilder g)
+    {
+        BasicBlock head = g.newBlock("while.head");
+        BasicBlock body = g.newBlock("while.body");
+        BasicBlock end = g.newBlock("while.end");
+        g.start(head);
+        g.branch(condition, body, end);
+        g.start(body);
+        g.enterLoop(this, head, end);
+        statement.lower(g);
+        g.exitLoop();
+        g.jump(head);
+        g.start(end);
+    }
+
     /**
      * A method inherited from the Statement interface to compile the while node of the AST.
      *      The method starts the compilation by adding the start label to the while loop, then
@@ -83,11 +242,13 @@ public class While implements Statement
     {
         int id = e.nextLoopID();
         String label = "while" + id;
-        e.emit(label + ":");
+        e.emitLabel(label);
         String end = "term_while" + id;
         condition.compile(e, end);
+        e.enterLoop(label);
         statement.compile(e);
-        e.emit("j " + label + "\t# repeat the while loop");
-        e.emit(end + ":");
+        e.exitLoop();
+        e.emit(Opcode.J, Operand.label(label)).comment("repeat the while loop");
+        e.emitLabel(end);
     }
 }
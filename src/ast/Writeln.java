@@ -1,7 +1,15 @@
 package src.ast;
 
+import src.cfg.GraphBuilder;
+import src.cfg.InvariantHoister;
 import src.emitter.Emitter;
+import src.emitter.Opcode;
+import src.emitter.Operand;
+import src.emitter.Register;
 import src.environments.Environment;
+import src.environments.Resolver;
+import src.jit.ProcedureCompiler;
+import src.vm.BytecodeEmitter;
 
 /**
  * The Writeln class represents a Writeln node in the AST for which the writeln
@@ -24,6 +32,15 @@ public class Writeln implements Statement
         this.exp = exp;
     }
 
+    /**
+     * Returns the expression the writeln writes.
+     * @return type Expression the expression
+     */
+    public Expression getExpression()
+    {
+        return exp;
+    }
+
     /**
      * A method inherited from the Statement interface to execute the writeln by
      *      calling Java's System.out.println() method to write the expression to console.
@@ -37,6 +54,103 @@ public class Writeln implements Statement
         System.out.println(exp.eval(env));
     }
 
+    /**
+     * A method inherited from the Statement interface to run the writeln node of the AST.
+     *      The writeln statement cannot break, continue, or exit, so the method executes it
+     *      like exec does and completes normally.
+     * @precondition env is not null
+     * @postcondition the writeln statement is executed
+     * @param env type Environment the environment of where the run method will run
+     * @return type Completion always NORMAL
+     */
+    @Override
+    public Completion run(Environment env)
+    {
+        exec(env);
+        return Completion.NORMAL;
+    }
+
+    /**
+     * A method inherited from the Statement interface to resolve the writeln node of the AST.
+     *      The method resolves the expression to print.
+     * @param r type Resolver the resolver that binds variable names to slots
+     * @precondition the resolver is in the scope the writeln appears in
+     * @postcondition this node is not changed
+     * @return type Statement the resolved writeln
+     */
+    @Override
+    public Statement resolve(Resolver r)
+    {
+        return new Writeln(exp.resolve(r));
+    }
+
+    /**
+     * A method inherited from the Statement interface to optimize the writeln node of the AST. The
+     *      method optimizes the written expression.
+     * @postcondition this node is not changed
+     * @return type Statement the optimized writeln
+     */
+    @Override
+    public Statement optimize()
+    {
+        return new Writeln(exp.optimize());
+    }
+
+    /**
+     * A method inherited from the Statement interface to hoist the writeln node of the AST out of
+     *      loops. The method hoists the written expression.
+     * @param h type InvariantHoister the hoister that knows the loops the writeln is in
+     * @postcondition this node is not changed
+     * @return type Statement the hoisted writeln
+     */
+    @Override
+    public Statement hoist(InvariantHoister h)
+    {
+        return new Writeln(exp.hoist(h));
+    }
+
+    /**
+     * A method inherited from the Statement interface to assemble the writeln node of the AST into
+     *      bytecode. The expression is assembled and its value is printed.
+     * @param b type BytecodeEmitter the emitter that will emit the bytecode
+     * @precondition the emitter is in the scope the writeln appears in
+     * @postcondition the AST node is assembled into bytecode
+     */
+    @Override
+    public void assemble(BytecodeEmitter b)
+    {
+        exp.assembleValue(b);
+        b.emitWriteln();
+    }
+
+    /**
+     * A method inherited from the Statement interface to compile the writeln node of the AST into
+     *      JVM bytecode for the ProcedureCompiler.
+     * @param c type ProcedureCompiler the compiler that will emit the JVM bytecode
+     * @precondition the node belongs to the resolved procedure being compiled
+     * @postcondition the AST node is compiled into JVM bytecode
+     */
+    @Override
+    public void jit(ProcedureCompiler c)
+    {
+        exp.jitValue(c);
+        c.emitWriteln();
+    }
+
+    /**
+     * A method inherited from the Statement interface to lower the writeln node of the AST into
+     *      basic blocks. The statement does not change the flow of control, so it is added to the
+     *      current block.
+     * @param g type GraphBuilder the builder that collects the basic blocks
+     * @precondition the builder is in the loop the writeln appears in, if any
+     * @postcondition the AST node is lowered into basic blocks
+     */
+    @Override
+    public void lower(GraphBuilder g)
+    {
+        g.add(this);
+    }
+
     /**
      * A method inherited from the Statement interface to compile the writeln. The method
      *      compiles the expression and prints the returned value to console. The method
@@ -50,11 +164,21 @@ public class Writeln implements Statement
     public void compile(Emitter e, Object... args)
     {
         exp.compile(e);
-        e.emit("move $a0, $v0");
-        e.emit("li $v0, 1" + "\t# print the expression");
-        e.emit("syscall");
-        e.emit("la $a0, new_line" + "\t# print a new line");
-        e.emit("li $v0, 4");
-        e.emit("syscall");
+        e.emit(Opcode.MOVE, Register.A0, Register.V0);
+        e.emit(Opcode.LI, Register.V0, Operand.immediate(1)).comment("print the expression");
+        e.emit(Opcode.SYSCALL);
+        e.emit(Opcode.LA, Register.A0, Operand.label("new_line")).comment("print a new line");
+        e.emit(Opcode.LI, Register.V0, Operand.immediate(4));
+        e.emit(Opcode.SYSCALL);
+    }
+
+    /**
+     * The toString method returns the statement as it is written in a program.
+     * @return type String the statement
+     */
+    @Override
+    public String toString()
+    {
+        return "WRITELN(" + exp + ")";
     }
 }
\ No newline at end of file
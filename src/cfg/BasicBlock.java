@@ -0,0 +1,189 @@
+package src.cfg;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import src.ast.Assignment;
+import src.ast.Condition;
+import src.ast.Expression;
+import src.ast.ProcedureCall;
+import src.ast.Statement;
+import src.ast.Writeln;
+
+/**
+ * The BasicBlock class is one node of a ControlFlowGraph: a run of statements that always
+ *      execute one after the other, entered only at the top and left only at the bottom. A
+ *      block that ends in a branch has a Condition and two successors, the one taken when the
+ *      condition is true first; any other block has at most one successor.
+ * @author Daniel Gergov
+ * @version 10/18/26
+ */
+public class BasicBlock
+{
+    private int id;
+    private String name;
+    private List<Statement> statements;
+    private Condition condition;
+    private List<BasicBlock> successors;
+    private List<BasicBlock> predecessors;
+
+    /**
+     * Constructor for the BasicBlock class that creates an empty block without edges.
+     * @param id the number of the block in its graph
+     * @param name what the block is, such as while.head, for the dump of the graph
+     */
+    BasicBlock(int id, String name)
+    {
+        this.id = id;
+        this.name = name;
+        statements = new ArrayList<Statement>();
+        successors = new ArrayList<BasicBlock>(2);
+        predecessors = new ArrayList<BasicBlock>(2);
+    }
+
+    /**
+     * Returns the number of the block, which is its position in the blocks of its graph.
+     * @return type int the number of the block
+     */
+    public int getId()
+    {
+        return id;
+    }
+
+    /**
+     * Sets the number of the block.
+     * @param id the number of the block
+     */
+    void setId(int id)
+    {
+        this.id = id;
+    }
+
+    /**
+     * Returns what the block is, such as entry, if.then, or for.next.
+     * @return type String the name of the block
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * Returns the statements of the block in the order they run. None of them is a statement
+     *      that changes the flow of control, such as an If or a Break.
+     * @return type List the statements, which cannot be modified
+     */
+    public List<Statement> getStatements()
+    {
+        return Collections.unmodifiableList(statements);
+    }
+
+    /**
+     * Returns the expressions the block evaluates in the order it evaluates them: the one each
+     *      statement evaluates, a procedure call being its own, and then the condition.
+     * @return type List the expressions
+     */
+    public List<Expression> getExpressions()
+    {
+        List<Expression> expressions = new ArrayList<Expression>(statements.size() + 1);
+        for (Statement statement : statements)
+        {
+            if (statement instanceof Assignment)
+            {
+                expressions.add(((Assignment) statement).getExpression());
+            }
+            else if (statement instanceof Writeln)
+            {
+                expressions.add(((Writeln) statement).getExpression());
+            }
+            else if (statement instanceof ProcedureCall)
+            {
+                expressions.add((ProcedureCall) statement);
+            }
+        }
+        if (condition != null)
+        {
+            expressions.add(condition);
+        }
+        return expressions;
+    }
+
+    /**
+     * Adds a statement to the end of the block.
+     * @param statement the statement
+     */
+    void add(Statement statement)
+    {
+        statements.add(statement);
+    }
+
+    /**
+     * Returns the condition the block branches on after its statements.
+     * @return type Condition the condition, or null if the block does not branch
+     */
+    public Condition getCondition()
+    {
+        return condition;
+    }
+
+    /**
+     * Sets the condition the block branches on after its statements.
+     * @param condition the condition
+     */
+    void setCondition(Condition condition)
+    {
+        this.condition = condition;
+    }
+
+    /**
+     * Returns the blocks control can go to after this block. A block with a condition goes to
+     *      the first when the condition is true and to the second when it is false.
+     * @return type List the successors, which cannot be modified
+     */
+    public List<BasicBlock> getSuccessors()
+    {
+        return Collections.unmodifiableList(successors);
+    }
+
+    /**
+     * Returns the blocks control can come from into this block.
+     * @return type List the predecessors, which cannot be modified
+     */
+    public List<BasicBlock> getPredecessors()
+    {
+        return Collections.unmodifiableList(predecessors);
+    }
+
+    /**
+     * The addSuccessor method adds an edge from this block to the given block.
+     * @param block the block control goes to
+     * @postcondition block is the last successor of this block, and this block is the last
+     *      predecessor of block
+     */
+    void addSuccessor(BasicBlock block)
+    {
+        successors.add(block);
+        block.predecessors.add(this);
+    }
+
+    /**
+     * The removePredecessor method removes the edges from the given block into this one, when
+     *      that block is dropped from the graph.
+     * @param block the block that is dropped
+     * @postcondition block is not a predecessor of this block
+     */
+    void removePredecessor(BasicBlock block)
+    {
+        predecessors.removeIf(predecessor -> predecessor == block);
+    }
+
+    /**
+     * The toString method returns the label of the block in the dump of its graph.
+     * @return type String B followed by the number of the block
+     */
+    @Override
+    public String toString()
+    {
+        return "B" + id;
+    }
+}
@@ -0,0 +1,489 @@
+package src.cfg;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import src.ast.Assignment;
+import src.ast.BinOp;
+import src.ast.Condition;
+import src.ast.Expression;
+import src.ast.ProcedureCall;
+import src.ast.Statement;
+
+/**
+ * The ControlFlowGraph class is the graph of the BasicBlocks of a procedure or of the main
+ *      program, with an edge from each block to every block control can go to next. Every
+ *      block can be reached from the entry block, and the exit block, which is empty, is where
+ *      control leaves. The graph is built by lowering the statements into a GraphBuilder, and
+ *      offers what analysis passes need: the blocks in reverse postorder, where every block
+ *      comes before its successors except along the back edges of loops, and the dominator
+ *      tree. It can be dumped as text or in the dot language of Graphviz.
+ * @author Daniel Gergov
+ * @version 10/18/26
+ */
+public class ControlFlowGraph
+{
+    private String name;
+    private BasicBlock entry;
+    private BasicBlock exit;
+    private List<BasicBlock> blocks;
+    private List<BasicBlock> order;
+    private BasicBlock[] dominators;
+    private Map<Statement, BasicBlock> loopBodies;
+
+    /**
+     * Constructor for the ControlFlowGraph class.
+     * @param name the name of the graph
+     * @param entry the block control enters at
+     * @param exit the block control leaves from
+     * @param blocks every block of the graph, each at the position of its number
+     * @param loopBodies the block the body of each loop starts in, by the loop
+     */
+    ControlFlowGraph(String name, BasicBlock entry, BasicBlock exit, List<BasicBlock> blocks,
+            Map<Statement, BasicBlock> loopBodies)
+    {
+        this.name = name;
+        this.entry = entry;
+        this.exit = exit;
+        this.blocks = blocks;
+        this.loopBodies = loopBodies;
+    }
+
+    /**
+     * The build method lowers the given statement into basic blocks.
+     * @param name the name of the graph, such as main or the name of a procedure
+     * @param statement the statement, such as the body of a procedure
+     * @return type ControlFlowGraph the graph of the statement
+     * @throws RuntimeException if a Break or a Continue is not inside a loop
+     */
+    public static ControlFlowGraph build(String name, Statement statement)
+    {
+        GraphBuilder g = new GraphBuilder();
+        statement.lower(g);
+        return g.finish(name);
+    }
+
+    /**
+     * The buildIteration method lowers one iteration of the body of a loop into basic blocks.
+     *      A Break, a Continue, or an Exit in the body leaves the iteration through the exit
+     *      block, the same way reaching the end of the body does.
+     * @param name the name of the graph
+     * @param body the body of the loop
+     * @return type ControlFlowGraph the graph of one iteration of the body
+     */
+    public static ControlFlowGraph buildIteration(String name, Statement body)
+    {
+        GraphBuilder g = new GraphBuilder();
+        g.enterLoop(g.getExit(), g.getExit());
+        body.lower(g);
+        return g.finish(name);
+    }
+
+    /**
+     * Returns the names of the variables the statements of the graph assign.
+     * @return type Set the names of the assigned variables
+     */
+    public Set<String> getAssigned()
+    {
+        Set<String> assigned = new HashSet<String>();
+        for (BasicBlock block : blocks)
+        {
+            for (Statement statement : block.getStatements())
+            {
+                if (statement instanceof Assignment)
+                {
+                    assigned.add(((Assignment) statement).getName());
+                }
+            }
+        }
+        return assigned;
+    }
+
+    /**
+     * Returns the block the body of the given loop starts in.
+     * @param loop the While or For loop
+     * @return type BasicBlock the first block of the body, or null if the loop is not in the
+     *      graph or cannot be reached
+     */
+    public BasicBlock getLoopBody(Statement loop)
+    {
+        BasicBlock block = loopBodies.get(loop);
+        return block != null && block.getId() < blocks.size() && blocks.get(block.getId()) == block
+                ? block : null;
+    }
+
+    /**
+     * The definitelyAssigned method finds the variables that hold a value whenever control
+     *      enters each block: the ones assigned on every path from the entry block to it. The
+     *      sets are computed by intersecting those of the predecessors of each block, in
+     *      reverse postorder, until nothing changes; a predecessor not yet visited is left out,
+     *      as if it assigned every variable.
+     * @param initial the variables that hold a value when control enters the graph, such as
+     *      the parameters of a procedure
+     * @return type Map the variables definitely assigned on entry to each reachable block
+     */
+    public Map<BasicBlock, Set<String>> definitelyAssigned(Set<String> initial)
+    {
+        Map<BasicBlock, Set<String>> in = new HashMap<BasicBlock, Set<String>>();
+        Map<BasicBlock, Set<String>> out = new HashMap<BasicBlock, Set<String>>();
+        boolean changed = true;
+        while (changed)
+        {
+            changed = false;
+            for (BasicBlock block : reversePostorder())
+            {
+                Set<String> before = block == entry ? new HashSet<String>(initial) : null;
+                for (BasicBlock predecessor : block.getPredecessors())
+                {
+                    Set<String> after = out.get(predecessor);
+                    if (after == null || block == entry)
+                    {
+                        continue;
+                    }
+                    if (before == null)
+                    {
+                        before = new HashSet<String>(after);
+                    }
+                    else
+                    {
+                        before.retainAll(after);
+                    }
+                }
+                in.put(block, before);
+                Set<String> after = new HashSet<String>(before);
+                for (Statement statement : block.getStatements())
+                {
+                    if (statement instanceof Assignment)
+                    {
+                        after.add(((Assignment) statement).getName());
+                    }
+                }
+                if (!after.equals(out.get(block)))
+                {
+                    out.put(block, after);
+                    changed = true;
+                }
+            }
+        }
+        return in;
+    }
+
+    /**
+     * Returns whether anything in the graph calls a procedure, which may assign any global
+     *      variable.
+     * @return type boolean true if a block evaluates a ProcedureCall; otherwise, false
+     */
+    public boolean hasCalls()
+    {
+        for (BasicBlock block : blocks)
+        {
+            for (Expression expression : block.getExpressions())
+            {
+                if (calls(expression))
+                {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether the given expression calls a procedure.
+     * @param expression the expression, or null
+     * @return type boolean true if the expression contains a ProcedureCall; otherwise, false
+     */
+    public static boolean calls(Expression expression)
+    {
+        if (expression instanceof ProcedureCall)
+        {
+            return true;
+        }
+        if (expression instanceof BinOp)
+        {
+            return calls(((BinOp) expression).getLeft()) || calls(((BinOp) expression).getRight());
+        }
+        if (expression instanceof Condition)
+        {
+            return calls(((Condition) expression).getLeft())
+                    || calls(((Condition) expression).getRight());
+        }
+        return false;
+    }
+
+    /**
+     * Returns the name of the graph.
+     * @return type String the name
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * Returns the block control enters the graph at.
+     * @return type BasicBlock the entry block
+     */
+    public BasicBlock getEntry()
+    {
+        return entry;
+    }
+
+    /**
+     * Returns the empty block control leaves the graph from.
+     * @return type BasicBlock the exit block
+     */
+    public BasicBlock getExit()
+    {
+        return exit;
+    }
+
+    /**
+     * Returns every block of the graph, ordered by number.
+     * @return type List the blocks, which cannot be modified
+     */
+    public List<BasicBlock> getBlocks()
+    {
+        return Collections.unmodifiableList(blocks);
+    }
+
+    /**
+     * Returns the blocks in reverse postorder of a depth-first search from the entry block,
+     *      which keeps its path on a stack of its own so that long programs do not overflow
+     *      the stack of the JVM. A forward analysis converges fastest when it visits the blocks
+     *      in this order. The exit block is left out if no path reaches it.
+     * @return type List the blocks in reverse postorder, which cannot be modified
+     */
+    public List<BasicBlock> reversePostorder()
+    {
+        if (order == null)
+        {
+            List<BasicBlock> postorder = new ArrayList<BasicBlock>(blocks.size());
+            boolean[] visited = new boolean[blocks.size()];
+            Deque<BasicBlock> path = new ArrayDeque<BasicBlock>();
+            Deque<Integer> next = new ArrayDeque<Integer>();
+            visited[entry.getId()] = true;
+            path.push(entry);
+            next.push(0);
+            while (!path.isEmpty())
+            {
+                BasicBlock block = path.peek();
+                int i = next.pop();
+                if (i == block.getSuccessors().size())
+                {
+                    postorder.add(path.pop());
+                    continue;
+                }
+                next.push(i + 1);
+                BasicBlock successor = block.getSuccessors().get(i);
+                if (!visited[successor.getId()])
+                {
+                    visited[successor.getId()] = true;
+                    path.push(successor);
+                    next.push(0);
+                }
+            }
+            Collections.reverse(postorder);
+            order = Collections.unmodifiableList(postorder);
+        }
+        return order;
+    }
+
+    /**
+     * Returns the immediate dominator of the given block: the last block other than itself
+     *      that every path from the entry block to it goes through. The dominators are
+     *      computed once, with the iterative algorithm of Cooper, Harvey, and Kennedy.
+     * @param block the block
+     * @return type BasicBlock the immediate dominator, or null for the entry block and for the
+     *      exit block if no path reaches it
+     */
+    public BasicBlock getImmediateDominator(BasicBlock block)
+    {
+        if (dominators == null)
+        {
+            computeDominators();
+        }
+        return block == entry ? null : dominators[block.getId()];
+    }
+
+    /**
+     * Returns whether every path from the entry block to the second block goes through the
+     *      first. A block dominates itself.
+     * @param dominator the block that may dominate
+     * @param block the block that may be dominated
+     * @return type boolean true if dominator dominates block; otherwise, false
+     */
+    public boolean dominates(BasicBlock dominator, BasicBlock block)
+    {
+        for (BasicBlock b = block; b != null; b = getImmediateDominator(b))
+        {
+            if (b == dominator)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Computes the immediate dominator of every reachable block by intersecting the dominators
+     *      of its predecessors, in reverse postorder, until nothing changes.
+     * @postcondition dominators holds the immediate dominator of each block by number, with
+     *      the entry block as its own
+     */
+    private void computeDominators()
+    {
+        List<BasicBlock> rpo = reversePostorder();
+        int[] position = new int[blocks.size()];
+        for (int i = 0; i < rpo.size(); ++i)
+        {
+            position[rpo.get(i).getId()] = i;
+        }
+        dominators = new BasicBlock[blocks.size()];
+        dominators[entry.getId()] = entry;
+        boolean changed = true;
+        while (changed)
+        {
+            changed = false;
+            for (BasicBlock block : rpo)
+            {
+                if (block == entry)
+                {
+                    continue;
+                }
+                BasicBlock idom = null;
+                for (BasicBlock predecessor : block.getPredecessors())
+                {
+                    if (dominators[predecessor.getId()] != null)
+                    {
+                        idom = idom == null ? predecessor
+                                : intersect(idom, predecessor, position);
+                    }
+                }
+                if (dominators[block.getId()] != idom)
+                {
+                    dominators[block.getId()] = idom;
+                    changed = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the closest block that dominates both given blocks, walking up the dominator
+     *      tree from whichever is later in reverse postorder.
+     * @param a one block
+     * @param b another block
+     * @param position the position of each block in reverse postorder, by number
+     * @return type BasicBlock the closest common dominator
+     */
+    private BasicBlock intersect(BasicBlock a, BasicBlock b, int[] position)
+    {
+        while (a != b)
+        {
+            while (position[a.getId()] > position[b.getId()])
+            {
+                a = dominators[a.getId()];
+            }
+            while (position[b.getId()] > position[a.getId()])
+            {
+                b = dominators[b.getId()];
+            }
+        }
+        return a;
+    }
+
+    /**
+     * The toDot method writes the graph in the dot language of Graphviz, with the statements
+     *      of each block in its box and the edges out of a branch marked T and F.
+     * @return type String the graph in dot
+     */
+    public String toDot()
+    {
+        StringBuilder dot = new StringBuilder();
+        dot.append("digraph \"").append(escape(name)).append("\" {\n");
+        dot.append("    node [shape=box, fontname=monospace];\n");
+        for (BasicBlock block : blocks)
+        {
+            dot.append("    ").append(block).append(" [label=\"").append(block).append(' ')
+                    .append(escape(block.getName())).append("\\l");
+            for (Statement statement : block.getStatements())
+            {
+                dot.append(escape(statement.toString())).append("\\l");
+            }
+            if (block.getCondition() != null)
+            {
+                dot.append("if ").append(escape(block.getCondition().toString())).append("\\l");
+            }
+            dot.append("\"];\n");
+            List<BasicBlock> successors = block.getSuccessors();
+            for (int i = 0; i < successors.size(); ++i)
+            {
+                dot.append("    ").append(block).append(" -> ").append(successors.get(i));
+                if (block.getCondition() != null)
+                {
+                    dot.append(i == 0 ? " [label=\"T\"]" : " [label=\"F\"]");
+                }
+                dot.append(";\n");
+            }
+        }
+        return dot.append("}\n").toString();
+    }
+
+    /**
+     * Escapes the quotes and backslashes in the given text for a string in dot.
+     * @param text the text
+     * @return type String the escaped text
+     */
+    private static String escape(String text)
+    {
+        return text.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    /**
+     * The toString method dumps the graph as text: each block with its predecessors, its
+     *      statements, and where control goes after it.
+     * @return type String the dump of the graph
+     */
+    @Override
+    public String toString()
+    {
+        StringBuilder dump = new StringBuilder();
+        dump.append("graph ").append(name).append('\n');
+        for (BasicBlock block : blocks)
+        {
+            dump.append(block).append(' ').append(block.getName());
+            if (!block.getPredecessors().isEmpty())
+            {
+                dump.append(" <-");
+                for (BasicBlock predecessor : block.getPredecessors())
+                {
+                    dump.append(' ').append(predecessor);
+                }
+            }
+            dump.append('\n');
+            for (Statement statement : block.getStatements())
+            {
+                dump.append("    ").append(statement).append('\n');
+            }
+            List<BasicBlock> successors = block.getSuccessors();
+            if (block.getCondition() != null)
+            {
+                dump.append("    if ").append(block.getCondition()).append(" goto ")
+                        .append(successors.get(0)).append(" else ").append(successors.get(1))
+                        .append('\n');
+            }
+            else if (!successors.isEmpty())
+            {
+                dump.append("    goto ").append(successors.get(0)).append('\n');
+            }
+        }
+        return dump.toString();
+    }
+}
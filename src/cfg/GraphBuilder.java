@@ -0,0 +1,260 @@
+package src.cfg;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import src.ast.Condition;
+import src.ast.Statement;
+
+/**
+ * The GraphBuilder class is the ControlFlowGraph counterpart of the Emitter class. The AST
+ *      nodes lower themselves into it the same way they compile themselves into MIPS
+ *      assembly: a statement that does not change the flow of control is added to the current
+ *      block, and an If, a loop, a Break, a Continue, or an Exit ends the current block with a
+ *      branch or a jump and starts the blocks it goes to. The builder keeps the loops being
+ *      lowered, so Break and Continue know where to go, and the exit block, where Exit goes.
+ * @author Daniel Gergov
+ * @version 10/18/26
+ */
+public class GraphBuilder
+{
+    private List<BasicBlock> blocks;
+    private BasicBlock entry;
+    private BasicBlock exit;
+    private BasicBlock current;
+    private Deque<BasicBlock> continueTargets;
+    private Deque<BasicBlock> breakTargets;
+    private Map<Statement, BasicBlock> loopBodies;
+    private int loopID;
+
+    /**
+     * Constructor for the GraphBuilder class that starts lowering into the entry block of a
+     *      new graph.
+     */
+    public GraphBuilder()
+    {
+        blocks = new ArrayList<BasicBlock>();
+        entry = newBlock("entry");
+        exit = newBlock("exit");
+        current = entry;
+        continueTargets = new ArrayDeque<BasicBlock>();
+        breakTargets = new ArrayDeque<BasicBlock>();
+        loopBodies = new IdentityHashMap<Statement, BasicBlock>();
+        loopID = 1;
+    }
+
+    /**
+     * The newBlock method creates an empty block that statements are lowered into once it is
+     *      started.
+     * @param name what the block is, such as while.head
+     * @return type BasicBlock the new block
+     */
+    public BasicBlock newBlock(String name)
+    {
+        BasicBlock block = new BasicBlock(blocks.size(), name);
+        blocks.add(block);
+        return block;
+    }
+
+    /**
+     * Returns the next loop ID, so that the temporaries of each For loop have their own names.
+     * @return type int the next loop ID
+     */
+    public int nextLoopID()
+    {
+        return loopID++;
+    }
+
+    /**
+     * The add method adds a statement that does not change the flow of control to the current
+     *      block. A statement after a jump cannot be reached, and starts a block of its own that
+     *      is dropped when the graph is finished.
+     * @param statement the statement
+     * @postcondition the statement is the last one of the current block
+     */
+    public void add(Statement statement)
+    {
+        if (current == null)
+        {
+            current = newBlock("unreachable");
+        }
+        current.add(statement);
+    }
+
+    /**
+     * The start method makes the given block the current block, which the current block falls
+     *      through into if control can reach its end.
+     * @param block the block to lower into next
+     * @postcondition block is the current block
+     */
+    public void start(BasicBlock block)
+    {
+        if (current != null)
+        {
+            current.addSuccessor(block);
+        }
+        current = block;
+    }
+
+    /**
+     * The jump method ends the current block with a jump to the given block. Nothing falls
+     *      through from it, so the current block is unknown until the next call to start.
+     * @param target the block to jump to
+     * @postcondition there is no current block
+     */
+    public void jump(BasicBlock target)
+    {
+        if (current != null)
+        {
+            current.addSuccessor(target);
+        }
+        current = null;
+    }
+
+    /**
+     * The branch method ends the current block with a branch on the given condition.
+     * @param condition the condition
+     * @param whenTrue the block to go to when the condition is true
+     * @param whenFalse the block to go to when the condition is false
+     * @postcondition there is no current block
+     */
+    public void branch(Condition condition, BasicBlock whenTrue, BasicBlock whenFalse)
+    {
+        if (current == null)
+        {
+            current = newBlock("unreachable");
+        }
+        current.setCondition(condition);
+        current.addSuccessor(whenTrue);
+        current.addSuccessor(whenFalse);
+        current = null;
+    }
+
+    /**
+     * Records that the statements lowered next are the body of a loop, so that a Continue in
+     *      it goes to one block and a Break to the other.
+     * @param continueTarget the block a Continue goes to
+     * @param breakTarget the block a Break goes to
+     * @postcondition the loop is the innermost loop until exitLoop is called
+     */
+    public void enterLoop(BasicBlock continueTarget, BasicBlock breakTarget)
+    {
+        continueTargets.push(continueTarget);
+        breakTargets.push(breakTarget);
+    }
+
+    /**
+     * Records that the statements lowered next are the body of the given loop, which starts in
+     *      the current block, so that a Continue in it goes to one block and a Break to the
+     *      other.
+     * @param loop the While or For loop
+     * @param continueTarget the block a Continue goes to
+     * @param breakTarget the block a Break goes to
+     * @postcondition the loop is the innermost loop until exitLoop is called
+     */
+    public void enterLoop(Statement loop, BasicBlock continueTarget, BasicBlock breakTarget)
+    {
+        loopBodies.put(loop, current);
+        enterLoop(continueTarget, breakTarget);
+    }
+
+    /**
+     * Records that the body of the innermost loop has been lowered.
+     * @precondition enterLoop has been called more times than exitLoop
+     * @postcondition the enclosing loop is the innermost loop again
+     */
+    public void exitLoop()
+    {
+        continueTargets.pop();
+        breakTargets.pop();
+    }
+
+    /**
+     * Returns the block a Continue in the innermost loop goes to.
+     * @return type BasicBlock the block
+     * @throws RuntimeException if no loop is being lowered
+     */
+    public BasicBlock getContinueTarget()
+    {
+        if (continueTargets.isEmpty())
+        {
+            throw new RuntimeException("Break/Continue statement not inside loop");
+        }
+        return continueTargets.peek();
+    }
+
+    /**
+     * Returns the block a Break in the innermost loop goes to.
+     * @return type BasicBlock the block
+     * @throws RuntimeException if no loop is being lowered
+     */
+    public BasicBlock getBreakTarget()
+    {
+        if (breakTargets.isEmpty())
+        {
+            throw new RuntimeException("Break/Continue statement not inside loop");
+        }
+        return breakTargets.peek();
+    }
+
+    /**
+     * Returns the exit block of the graph, which an Exit goes to.
+     * @return type BasicBlock the exit block
+     */
+    public BasicBlock getExit()
+    {
+        return exit;
+    }
+
+    /**
+     * The finish method ends the current block with a jump to the exit block, drops every block
+     *      that cannot be reached from the entry block, and numbers the rest in the order they
+     *      were created.
+     * @param name the name of the graph, such as main or the name of the procedure
+     * @postcondition the builder is not used again
+     * @return type ControlFlowGraph the graph of the lowered statements
+     */
+    public ControlFlowGraph finish(String name)
+    {
+        jump(exit);
+        boolean[] reached = new boolean[blocks.size()];
+        Deque<BasicBlock> work = new ArrayDeque<BasicBlock>();
+        reached[entry.getId()] = true;
+        work.push(entry);
+        while (!work.isEmpty())
+        {
+            for (BasicBlock successor : work.pop().getSuccessors())
+            {
+                if (!reached[successor.getId()])
+                {
+                    reached[successor.getId()] = true;
+                    work.push(successor);
+                }
+            }
+        }
+        reached[exit.getId()] = true;
+        List<BasicBlock> kept = new ArrayList<BasicBlock>();
+        for (BasicBlock block : blocks)
+        {
+            if (reached[block.getId()])
+            {
+                kept.add(block);
+            }
+            else
+            {
+                for (BasicBlock successor : block.getSuccessors())
+                {
+                    successor.removePredecessor(block);
+                }
+            }
+        }
+        for (int i = 0; i < kept.size(); ++i)
+        {
+            kept.get(i).setId(i);
+        }
+        return new ControlFlowGraph(name, entry, exit, kept, loopBodies);
+    }
+}
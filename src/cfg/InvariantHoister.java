@@ -0,0 +1,283 @@
+package src.cfg;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import src.ast.BinOp;
+import src.ast.Block;
+import src.ast.Condition;
+import src.ast.Expression;
+import src.ast.If;
+import src.ast.Initialization;
+import src.ast.Number;
+import src.ast.Statement;
+import src.ast.Variable;
+
+/**
+ * The InvariantHoister class moves loop-invariant code out of While and For loops. The AST
+ *      nodes hoist themselves through it the same way they optimize themselves: a loop calls
+ *      enterLoop before it hoists its condition and its body and exitLoop after, and a BinOp
+ *      asks for a temporary to read instead of computing itself. When a loop is entered, one
+ *      iteration of its body is lowered into a ControlFlowGraph, and every BinOp that reads
+ *      only variables the loop does not assign, and that is evaluated on every path through
+ *      the iteration because its block dominates the exit block, becomes a candidate. The
+ *      first time a candidate is found in the loop it is given a temporary, which exitLoop
+ *      assigns in a preheader run once before the loop. A loop that calls a procedure is left
+ *      alone, since the procedure may assign anything. Division is only hoisted by a nonzero
+ *      constant, and a variable is only read early if it is definitely assigned before the
+ *      loop, which the graph of the whole procedure tells, so a hoisted expression cannot fail
+ *      where the loop would not have, nor before output the loop would have written first. An
+ *      expression found only in the body is evaluated a first time by the body, so its
+ *      preheader only runs if the loop runs at least once.
+ * @author Daniel Gergov
+ * @version 10/18/26
+ */
+public class InvariantHoister
+{
+    private Deque<Frame> frames;
+    private ControlFlowGraph graph;
+    private Map<BasicBlock, Set<String>> defined;
+    private int count;
+
+    /**
+     * Constructor for the InvariantHoister class that hoists into new temporaries.
+     */
+    public InvariantHoister()
+    {
+        frames = new ArrayDeque<Frame>();
+        count = 0;
+    }
+
+    /**
+     * The enterGraph method finds the variables that are definitely assigned where each loop of
+     *      the given procedure body or main statement starts, before its loops are hoisted.
+     * @param statement the body of the procedure or the main statement
+     * @param assigned the variables that hold a value when the statement starts, such as the
+     *      parameters of the procedure
+     * @postcondition the loops hoisted next are looked up in the graph of the statement
+     */
+    public void enterGraph(Statement statement, Variable... assigned)
+    {
+        Set<String> initial = new HashSet<String>();
+        for (Variable variable : assigned)
+        {
+            initial.add(variable.getName());
+        }
+        graph = ControlFlowGraph.build("hoist", statement);
+        defined = graph.definitelyAssigned(initial);
+    }
+
+    /**
+     * The enterLoop method finds the candidates of a loop that is about to be hoisted.
+     * @param loop the While or For loop
+     * @param body the body of the loop
+     * @param variable the loop variable of a For loop, which the loop assigns, or null
+     * @param header the expressions evaluated each time the loop is reached, before the body
+     *      runs; the condition of a While loop is a candidate, but not the start and bound of
+     *      a For loop, which are only evaluated once
+     * @postcondition the loop is the innermost loop until exitLoop is called
+     */
+    public void enterLoop(Statement loop, Statement body, String variable, Expression... header)
+    {
+        Frame frame = new Frame();
+        frames.push(frame);
+        BasicBlock start = graph == null ? null : graph.getLoopBody(loop);
+        frame.defined = start == null ? Collections.<String>emptySet() : defined.get(start);
+        ControlFlowGraph graph = ControlFlowGraph.buildIteration("loop", body);
+        frame.assigned.addAll(graph.getAssigned());
+        boolean calls = graph.hasCalls();
+        if (variable != null)
+        {
+            frame.assigned.add(variable);
+        }
+        for (Expression expression : header)
+        {
+            calls |= ControlFlowGraph.calls(expression);
+        }
+        if (calls)
+        {
+            return;
+        }
+        if (variable == null)
+        {
+            for (Expression expression : header)
+            {
+                collect(expression, frame, false);
+            }
+        }
+        for (BasicBlock block = graph.getExit(); block != null;
+                block = graph.getImmediateDominator(block))
+        {
+            for (Expression expression : block.getExpressions())
+            {
+                collect(expression, frame, true);
+            }
+        }
+    }
+
+    /**
+     * The exitLoop method puts the preheader of the innermost loop in front of it. The
+     *      preheader initializes the temporaries where the loop is, so an interpreted procedure
+     *      keeps them in its own environment. The preheader and the guard are hoisted again into
+     *      the loops that contain this one.
+     * @param loop the hoisted loop
+     * @param guard the condition under which the loop runs at least once
+     * @precondition enterLoop has been called more times than exitLoop
+     * @postcondition the enclosing loop is the innermost loop again
+     * @return type Statement the loop if nothing was hoisted out of it; otherwise, a Block of
+     *      the preheader and the loop, inside an If on the guard if anything was hoisted
+     *      from the body alone
+     */
+    public Statement exitLoop(Statement loop, Condition guard)
+    {
+        Frame frame = frames.pop();
+        if (frame.preheader.isEmpty())
+        {
+            return loop;
+        }
+        Statement[] statements = new Statement[frame.preheader.size() + 1];
+        boolean guarded = false;
+        int i = 0;
+        for (Map.Entry<String, Variable> entry : frame.preheader.entrySet())
+        {
+            Expression expression = frame.candidates.get(entry.getKey());
+            statements[i++] = new Initialization(entry.getValue().getName(),
+                    expression.hoist(this));
+            guarded |= frame.fromBody.contains(entry.getKey());
+        }
+        statements[i] = loop;
+        Statement hoisted = new Block(statements);
+        return guarded ? new If(guard.hoist(this), hoisted) : hoisted;
+    }
+
+    /**
+     * Returns the temporary that holds the value of the given operation, if an enclosing loop
+     *      hoists it. The outermost such loop hoists it, and the first time it is asked for, the
+     *      temporary is created and added to the preheader of that loop.
+     * @param operation the operation
+     * @return type Variable the temporary, or null if the operation is not hoisted
+     */
+    public Variable temporaryFor(BinOp operation)
+    {
+        String key = null;
+        for (Iterator<Frame> it = frames.descendingIterator(); it.hasNext();)
+        {
+            Frame frame = it.next();
+            if (frame.candidates.isEmpty())
+            {
+                continue;
+            }
+            if (key == null)
+            {
+                key = operation.toString();
+            }
+            if (frame.candidates.containsKey(key))
+            {
+                Variable temporary = frame.preheader.get(key);
+                if (temporary == null)
+                {
+                    temporary = new Variable("inv_" + (++count));
+                    frame.preheader.put(key, temporary);
+                }
+                return temporary;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds the largest invariant operations in the given expression to the candidates of the
+     *      given loop.
+     * @param expression the expression, or null
+     * @param frame the loop
+     * @param fromBody true if the expression is in the body of the loop
+     * @postcondition the operations are candidates of the loop
+     */
+    private void collect(Expression expression, Frame frame, boolean fromBody)
+    {
+        if (expression instanceof BinOp)
+        {
+            BinOp operation = (BinOp) expression;
+            if (isInvariant(operation, frame))
+            {
+                String key = operation.toString();
+                if (!frame.candidates.containsKey(key))
+                {
+                    frame.candidates.put(key, operation);
+                    if (fromBody)
+                    {
+                        frame.fromBody.add(key);
+                    }
+                }
+                else if (!fromBody)
+                {
+                    frame.fromBody.remove(key);
+                }
+                return;
+            }
+            collect(operation.getLeft(), frame, fromBody);
+            collect(operation.getRight(), frame, fromBody);
+        }
+        else if (expression instanceof Condition)
+        {
+            collect(((Condition) expression).getLeft(), frame, fromBody);
+            collect(((Condition) expression).getRight(), frame, fromBody);
+        }
+    }
+
+    /**
+     * Returns whether the given expression has the same value on every iteration of the loop
+     *      and can be evaluated before it without failing where the loop would not.
+     * @param expression the expression
+     * @param frame the loop
+     * @return type boolean true if the expression is invariant; otherwise, false
+     */
+    private boolean isInvariant(Expression expression, Frame frame)
+    {
+        if (expression instanceof Number)
+        {
+            return true;
+        }
+        if (expression instanceof Variable)
+        {
+            String name = ((Variable) expression).getName();
+            return !frame.assigned.contains(name) && frame.defined.contains(name);
+        }
+        if (expression instanceof BinOp)
+        {
+            BinOp operation = (BinOp) expression;
+            if (operation.getOp().equals("/") || operation.getOp().equals("mod"))
+            {
+                if (!(operation.getRight() instanceof Number)
+                        || ((Number) operation.getRight()).getValue() == 0)
+                {
+                    return false;
+                }
+            }
+            return isInvariant(operation.getLeft(), frame)
+                    && isInvariant(operation.getRight(), frame);
+        }
+        return false;
+    }
+
+    /**
+     * The Frame class holds what is known about one loop being hoisted: the variables it
+     *      assigns, the variables definitely assigned before it, its candidates by their text,
+     *      and the temporaries of the candidates found in it so far, in the order they were
+     *      found.
+     */
+    private static class Frame
+    {
+        private Set<String> assigned = new HashSet<String>();
+        private Set<String> defined;
+        private Map<String, Expression> candidates = new HashMap<String, Expression>();
+        private Set<String> fromBody = new HashSet<String>();
+        private Map<String, Variable> preheader = new LinkedHashMap<String, Variable>();
+    }
+}
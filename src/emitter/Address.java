@@ -0,0 +1,76 @@
+package src.emitter;
+
+/**
+ * The Address class is an Operand that is the word at an offset from the address held in a
+ *      register, such as 8($sp).
+ * @author Daniel Gergov
+ * @version 10/18/26
+ */
+public final class Address implements Operand
+{
+    private final int offset;
+    private final Register base;
+
+    /**
+     * Constructor for the Address class.
+     * @param offset the offset in bytes
+     * @param base the register that holds the address
+     */
+    public Address(int offset, Register base)
+    {
+        this.offset = offset;
+        this.base = base;
+    }
+
+    /**
+     * Returns the offset in bytes.
+     * @return type int the offset
+     */
+    public int getOffset()
+    {
+        return offset;
+    }
+
+    /**
+     * Returns the base register, which is read to compute the address.
+     * @return type Register the base register
+     */
+    @Override
+    public Register getRegister()
+    {
+        return base;
+    }
+
+    /**
+     * Returns whether the given object is an Address with the same offset and base.
+     * @param other the object to compare to
+     * @return type boolean true if the object is the same address; otherwise, false
+     */
+    @Override
+    public boolean equals(Object other)
+    {
+        return other instanceof Address && ((Address) other).offset == offset
+                && ((Address) other).base == base;
+    }
+
+    /**
+     * Returns a hash code that agrees with equals.
+     * @return type int the hash code
+     */
+    @Override
+    public int hashCode()
+    {
+        return 31 * offset + base.hashCode();
+    }
+
+    /**
+     * The toString method returns the address in MIPS assembly. The offset is left out if it
+     *      is zero, as in ($sp).
+     * @return type String the address
+     */
+    @Override
+    public String toString()
+    {
+        return (offset == 0 ? "" : String.valueOf(offset)) + "(" + base + ")";
+    }
+}
@@ -0,0 +1,90 @@
+package src.emitter;
+
+/**
+ * The CountedLoop class records a For loop whose code is being emitted: its loop variable and
+ *      the pair of $s registers its counter and its bound are kept in for the whole loop. A
+ *      loop whose variable is resident is read from the counter register instead of from
+ *      memory, and its variable is only stored when the loop is left. A loop that saved its
+ *      registers restores what they held before when it is left.
+ * @author Daniel Gergov
+ * @version 10/18/26
+ */
+public class CountedLoop
+{
+    private String variable;
+    private Register counter;
+    private Register bound;
+    private boolean saved;
+    private boolean resident;
+
+    /**
+     * Constructor for the CountedLoop class for a loop whose variable is not yet resident.
+     * @param variable the name of the loop variable
+     * @param counter the register the counter is kept in
+     * @param bound the register the bound is kept in
+     * @param saved true if the loop saves the registers on the stack before it uses them
+     */
+    CountedLoop(String variable, Register counter, Register bound, boolean saved)
+    {
+        this.variable = variable;
+        this.counter = counter;
+        this.bound = bound;
+        this.saved = saved;
+        resident = false;
+    }
+
+    /**
+     * Returns the name of the loop variable.
+     * @return type String the name of the loop variable
+     */
+    public String getVariable()
+    {
+        return variable;
+    }
+
+    /**
+     * Returns the register the counter is kept in.
+     * @return type Register the counter register
+     */
+    public Register getCounter()
+    {
+        return counter;
+    }
+
+    /**
+     * Returns the register the bound is kept in.
+     * @return type Register the bound register
+     */
+    public Register getBound()
+    {
+        return bound;
+    }
+
+    /**
+     * Returns whether the loop saved its registers on the stack before it used them.
+     * @return type boolean true if the registers are restored when the loop is left
+     */
+    public boolean isSaved()
+    {
+        return saved;
+    }
+
+    /**
+     * Returns whether the loop variable is read from the counter register.
+     * @return type boolean true if the loop variable is resident; otherwise, false
+     */
+    public boolean isResident()
+    {
+        return resident;
+    }
+
+    /**
+     * Sets whether the loop variable is read from the counter register.
+     * @param resident true if the counter register holds the value of the loop variable
+     *      wherever it is read
+     */
+    public void setResident(boolean resident)
+    {
+        this.resident = resident;
+    }
+}
@@ -2,6 +2,16 @@ package src.emitter;
 
 import java.beans.Expression;
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.Set;
 import src.ast.ProcedureDeclaration;
@@ -11,96 +21,285 @@ import src.ast.VariableDeclaration;
 /**
  * The Emitter class represents an emitter for writing to a new file with given name and keeping
  *      track of all the variables in a program. The class provides methods to emit MIPS assembly
- *      to an output file.
+ *      to an output file. The .data and .text sections are collected in separate buffers that
+ *      are only appended to, and are written to the file in one go once the program is
+ *      compiled. A streaming emitter instead writes the .text section to a FileChannel each
+ *      time a procedure is finished and only keeps the .data section until the end, where it
+ *      is written after the code, so it never holds more than one procedure of code. The
+ *      instructions of each procedure are emitted as typed Instruction objects and kept in an
+ *      InstructionList until it is finished, when the PeepholeOptimizer shortens them before
+ *      they are turned into text, with or without their comments. The counter and the bound
+ *      of each For loop are kept in a pair of $s registers picked by how deeply the loop is
+ *      nested. A loop in a procedure saves its pair on the stack and restores it when it is
+ *      left, the way a callee-saved register is, so the loops of the procedures it calls
+ *      keep their own counters; so does a loop nested deeper than there are pairs.
  * @author Daniel Gergov
  * @version 12/3/23
  */
 public class Emitter
 {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final Register[] LOOP_REGISTERS = {Register.S0, Register.S1, Register.S2,
+        Register.S3, Register.S4, Register.S5, Register.S6, Register.S7};
+
 	private PrintWriter out;
-    private String code;
+    private FileChannel channel;
+    private ByteBuffer buffer;
+    private CharsetEncoder encoder;
+    private InstructionList pending;
+    private boolean comments;
+    private PeepholeOptimizer peephole;
+    private int eliminated;
+    private StringBuilder text;
+    private StringBuilder data;
     private int loopID;
     private int ifID;
+    private Deque<String> loops;
+    private Deque<CountedLoop> countedLoops;
+    private RegisterAllocator registers;
     public ProcedureDeclaration context;
     public int extraStack;
 
 	/**
      * Creates an Emitter for writing to a new file with given name. The method creates a
-     *      PrintWriter object to write to the file.
+     *      buffered PrintWriter object to write to the file.
      * @param outputFileName the name of the file to write to
      * @precondition outputFileName is not null
      */
 	public Emitter(String outputFileName)
 	{
+        this(outputFileName, false);
+    }
+
+    /**
+     * Creates an Emitter for writing to a new file with given name that writes the comment of
+     *      each instruction after it.
+     * @param outputFileName the name of the file to write to
+     * @param streaming true if the code is written to the file as each procedure is finished
+     * @precondition outputFileName is not null
+     */
+    public Emitter(String outputFileName, boolean streaming)
+    {
+        this(outputFileName, streaming, true);
+    }
+
+    /**
+     * Creates an Emitter for writing to a new file with given name. A streaming emitter opens a
+     *      FileChannel and writes the code through one reusable direct ByteBuffer as it is
+     *      flushed; otherwise the method creates a buffered PrintWriter object to write the whole
+     *      program at the end.
+     * @param outputFileName the name of the file to write to
+     * @param streaming true if the code is written to the file as each procedure is finished
+     * @param comments true if the comment of each instruction is written after it
+     * @precondition outputFileName is not null
+     */
+    public Emitter(String outputFileName, boolean streaming, boolean comments)
+    {
 		try
 		{
-			out = new PrintWriter(new FileWriter(outputFileName), true);
+            if (streaming)
+            {
+                channel = FileChannel.open(Paths.get(outputFileName), StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+                encoder = StandardCharsets.UTF_8.newEncoder();
+            }
+            else
+            {
+                out = new PrintWriter(Files.newBufferedWriter(Paths.get(outputFileName)));
+            }
 		}
 		catch(IOException e)
 		{
 			throw new RuntimeException(e);
 		}
-        code = "";
+        pending = new InstructionList();
+        this.comments = comments;
+        peephole = new PeepholeOptimizer();
+        text = new StringBuilder();
+        data = new StringBuilder();
         loopID = 1;
         ifID = 1;
+        loops = new ArrayDeque<String>();
+        countedLoops = new ArrayDeque<CountedLoop>();
+        registers = new RegisterAllocator(this);
         extraStack = 0;
 	}
 
 	/**
-     * Adds one line of code to the entire code string variable. Lines the start with a dot or
-     *      that are labels are not indented; everything else is indented.
-     * @param code the line of code to add to the code string
-     * @precondition code is not null
+     * Adds one instruction to the .text section. The instruction is kept until the code around
+     *      it is flushed, and is returned so that a comment can be added to it.
+     * @param opcode the opcode of the instruction
+     * @param operands the operands of the instruction, in order
+     * @precondition the operands are the ones the opcode takes
+     * @return type Instruction the instruction that was added
      */
-	public void emit(String code)
+	public Instruction emit(Opcode opcode, Operand... operands)
 	{
-		if (!code.endsWith(":") && !code.startsWith("."))
-			code = "\t" + code;
-        code += "\n";
-		this.code += code;
+        Instruction instruction = new Instruction(opcode, operands);
+        pending.add(instruction);
+        return instruction;
 	}
 
     /**
-     * Prepends one line of code to the entire code string variable. Lines the start with a dot or
-     *      that are labels are not indented; everything else is indented.
-     * @param code the line of code to add to the code string
+     * Adds a line that defines the given label to the .text section.
+     * @param label the name of the label, without a colon
+     */
+    public void emitLabel(String label)
+    {
+        emit(Opcode.LABEL, Operand.label(label));
+    }
+
+    /**
+     * Adds one line to the .data section. Lines the start with a dot or that are labels are not
+     *      indented; everything else is indented.
+     * @param code the line to add to the .data section
      * @precondition code is not null
      */
-    public void prepend(String code)
+    public void emitData(String code)
+    {
+        append(data, code);
+    }
+
+    /**
+     * Appends one line of code to the given section, indenting it unless it starts with a dot
+     *      or is a label.
+     * @param section the section to append to
+     * @param code the line of code to append
+     */
+    private static void append(StringBuilder section, String code)
     {
         if (!code.endsWith(":") && !code.startsWith("."))
-			code = "\t" + code;
-        code += "\n";
-        this.code = code + this.code;
+        {
+            section.append('\t');
+        }
+        section.append(code).append('\n');
+    }
+
+    /**
+     * Runs the PeepholeOptimizer over the instructions emitted since the last flush and turns
+     *      them into text. A streaming emitter then writes the text to the output file, so the
+     *      code of a finished procedure does not stay in memory; a buffered emitter keeps the
+     *      text until push is called.
+     * @precondition the instructions since the last flush are a whole procedure or the whole
+     *      main program
+     * @postcondition a streaming emitter holds no code that is not written to the file
+     */
+    public void flush()
+    {
+        eliminated += peephole.optimize(pending);
+        pending.render(text, comments);
+        pending.clear();
+        if (channel != null)
+        {
+            write(text);
+            text.setLength(0);
+        }
     }
 
     /**
-     * Pushes the entire code string to the output file.
-     * @precondition the code string is not null
+     * Returns the number of instructions the PeepholeOptimizer has eliminated so far.
+     * @return type int the number of instructions eliminated
+     */
+    public int getEliminated()
+    {
+        return eliminated;
+    }
+
+    /**
+     * Writes the .data section and then the .text section to the output file, followed by a
+     *      comment that reports how many instructions the PeepholeOptimizer eliminated unless
+     *      comments are left out. A
+     *      streaming emitter has already written its code, so it writes the rest of the code and
+     *      then the .data section after it.
+     * @precondition the program has been compiled
+     * @postcondition both sections are in the output file or in its buffer
      */
     public void push()
     {
-        out.println(this.code);
+        flush();
+        String report = comments
+                ? "# peephole optimizer eliminated " + eliminated + " instructions\n" : "";
+        if (channel != null)
+        {
+            write(data.append(report));
+        }
+        else
+        {
+            out.append(data).append(text).append(report);
+        }
     }
 
-	/**
+    /**
      * Closes the file.
      */
 	public void close()
 	{
-		out.close();
+        if (channel != null)
+        {
+            try
+            {
+                channel.close();
+            }
+            catch (IOException e)
+            {
+                throw new RuntimeException(e);
+            }
+        }
+        else
+        {
+            out.close();
+        }
 	}
 
+    /**
+     * Encodes the given characters into the direct buffer and writes the buffer to the channel
+     *      each time it fills up.
+     * @param chars the characters to write
+     * @precondition the emitter is streaming
+     * @postcondition the characters are written to the file
+     */
+    private void write(CharSequence chars)
+    {
+        CharBuffer in = CharBuffer.wrap(chars);
+        encoder.reset();
+        try
+        {
+            while (true)
+            {
+                boolean done = !encoder.encode(in, buffer, true).isOverflow();
+                if (done)
+                {
+                    encoder.flush(buffer);
+                }
+                buffer.flip();
+                while (buffer.hasRemaining())
+                {
+                    channel.write(buffer);
+                }
+                buffer.clear();
+                if (done)
+                {
+                    return;
+                }
+            }
+        }
+        catch (IOException e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+
     /**
      * Emits the MIPS code to the emitter to push the given register onto the stack.
      *      The method also decrements the stack pointer to allow for more space on the stack.
      * @param reg the register to push onto the stack
      */
-    public void emitPush(String reg)
+    public void emitPush(Register reg)
     {
         this.incrementExtraStack(false);
-        this.emit("addi $sp, $sp, -4");
-        this.emit("sw " + reg + ", ($sp)");
+        this.emit(Opcode.ADDI, Register.SP, Register.SP, Operand.immediate(-4));
+        this.emit(Opcode.SW, reg, Operand.address(0, Register.SP));
     }
 
     /**
@@ -108,11 +307,11 @@ public class Emitter
      *      The method also increments the stack pointer to allow for more space on the stack.
      * @param reg the register to pop off the stack
      */
-    public void emitPop(String reg)
+    public void emitPop(Register reg)
     {
         this.incrementExtraStack(true);
-        this.emit("lw " + reg + ", ($sp)");
-        this.emit("addu $sp, $sp, 4");
+        this.emit(Opcode.LW, reg, Operand.address(0, Register.SP));
+        this.emit(Opcode.ADDU, Register.SP, Register.SP, Operand.immediate(4));
     }
 
     /**
@@ -134,6 +333,146 @@ public class Emitter
     
     }
 
+    /**
+     * Records that the code emitted next is the body of the loop with the given label, so
+     *      that break and continue statements in it jump to that loop.
+     * @param label the label at the start of the loop, such as while1 or for2
+     * @postcondition the loop is the innermost loop until exitLoop is called
+     */
+    public void enterLoop(String label)
+    {
+        loops.push(label);
+    }
+
+    /**
+     * Records that the body of the innermost loop has been emitted.
+     * @precondition enterLoop has been called more times than exitLoop
+     * @postcondition the enclosing loop is the innermost loop again
+     */
+    public void exitLoop()
+    {
+        loops.pop();
+    }
+
+    /**
+     * Returns the label of the innermost loop whose body is being emitted. The end of the loop
+     *      is labeled with the same label prefixed by term_.
+     * @precondition enterLoop has been called more times than exitLoop
+     * @return type String the label at the start of the innermost loop
+     */
+    public String getLoopLabel()
+    {
+        return loops.peek();
+    }
+
+    /**
+     * Records that the code emitted next is a For loop over the given variable, and takes the
+     *      pair of registers its counter and its bound are kept in. The registers are pushed
+     *      onto the stack first if the loop is in a procedure or if an enclosing loop uses them.
+     * @param variable the name of the loop variable
+     * @postcondition the loop is the innermost For loop until exitCountedLoop is called
+     * @return type CountedLoop the loop, whose variable is not yet resident
+     */
+    public CountedLoop enterCountedLoop(String variable)
+    {
+        int pairs = LOOP_REGISTERS.length / 2;
+        int pair = countedLoops.size() % pairs;
+        CountedLoop loop = new CountedLoop(variable, LOOP_REGISTERS[2 * pair],
+                LOOP_REGISTERS[2 * pair + 1], context != null || countedLoops.size() >= pairs);
+        if (loop.isSaved())
+        {
+            emitPush(loop.getCounter());
+            emitPush(loop.getBound());
+        }
+        countedLoops.push(loop);
+        return loop;
+    }
+
+    /**
+     * Records that the innermost For loop has been emitted, and pops the registers it saved.
+     * @precondition enterCountedLoop has been called more times than exitCountedLoop
+     * @postcondition the enclosing For loop is the innermost For loop again
+     */
+    public void exitCountedLoop()
+    {
+        CountedLoop loop = countedLoops.pop();
+        if (loop.isSaved())
+        {
+            emitPop(loop.getBound());
+            emitPop(loop.getCounter());
+        }
+    }
+
+    /**
+     * Returns the register that holds the value of the given variable, if it is the resident
+     *      variable of an enclosing For loop.
+     * @param name the name of the variable
+     * @return type Register the counter register of the innermost For loop over the variable
+     *      if its variable is resident; otherwise, null
+     */
+    public Register getLoopRegister(String name)
+    {
+        for (CountedLoop loop : countedLoops)
+        {
+            if (loop.getVariable().equals(name))
+            {
+                return loop.isResident() ? loop.getCounter() : null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Emits what returning from a procedure out of every enclosing For loop at once needs:
+     *      the resident global variables are stored, and the registers the loops saved are
+     *      popped, innermost first. The loops are not left, since the code after the return is
+     *      still in them, so the caller restores the extra stack height afterwards.
+     * @precondition the emitter is in a procedure
+     * @postcondition the stack is as it was before the enclosing For loops were entered
+     */
+    public void emitLeaveCountedLoops()
+    {
+        for (CountedLoop loop : countedLoops)
+        {
+            if (loop.isResident() && !isLocal(loop.getVariable()))
+            {
+                emitStore(loop.getCounter(), loop.getVariable())
+                        .comment("store the loop variable before returning");
+            }
+            if (loop.isSaved())
+            {
+                emitPop(loop.getBound());
+                emitPop(loop.getCounter());
+            }
+        }
+    }
+
+    /**
+     * Emits the MIPS code to store the given register in the given variable, which is on the
+     *      stack if it is local and in the .data section otherwise.
+     * @param register the register that holds the value
+     * @param name the name of the variable
+     * @return type Instruction the store, so that a comment can be added to it
+     */
+    public Instruction emitStore(Register register, String name)
+    {
+        if (isLocal(name))
+        {
+            return emit(Opcode.SW, register, Operand.address(getOffset(name), Register.SP));
+        }
+        return emit(Opcode.SW, register, Operand.label("var" + name));
+    }
+
+    /**
+     * Returns the register allocator that hands out the registers expressions are evaluated
+     *      in.
+     * @return type RegisterAllocator the register allocator of the emitter
+     */
+    public RegisterAllocator getRegisterAllocator()
+    {
+        return registers;
+    }
+
     /**
      * Sets the procedure context of the emitter to the given procedure declaration.
      *      This method is needed in order to compile procedure calls and access
@@ -0,0 +1,70 @@
+package src.emitter;
+
+/**
+ * The Immediate class is an Operand that is a number written into the instruction itself.
+ * @author Daniel Gergov
+ * @version 10/18/26
+ */
+public final class Immediate implements Operand
+{
+    private final int value;
+
+    /**
+     * Constructor for the Immediate class.
+     * @param value the number
+     */
+    public Immediate(int value)
+    {
+        this.value = value;
+    }
+
+    /**
+     * Returns the number.
+     * @return type int the number
+     */
+    public int getValue()
+    {
+        return value;
+    }
+
+    /**
+     * Returns null, since a number reads no register.
+     * @return type Register null
+     */
+    @Override
+    public Register getRegister()
+    {
+        return null;
+    }
+
+    /**
+     * Returns whether the given object is an Immediate with the same number.
+     * @param other the object to compare to
+     * @return type boolean true if the object is the same number; otherwise, false
+     */
+    @Override
+    public boolean equals(Object other)
+    {
+        return other instanceof Immediate && ((Immediate) other).value == value;
+    }
+
+    /**
+     * Returns a hash code that agrees with equals.
+     * @return type int the number
+     */
+    @Override
+    public int hashCode()
+    {
+        return value;
+    }
+
+    /**
+     * The toString method returns the number in decimal.
+     * @return type String the number
+     */
+    @Override
+    public String toString()
+    {
+        return String.valueOf(value);
+    }
+}
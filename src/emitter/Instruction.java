@@ -0,0 +1,265 @@
+package src.emitter;
+
+/**
+ * The Instruction class represents one line of the .text section of a MIPS program: a label,
+ *      a directive, or an instruction with its Opcode, its typed Operands, and an optional
+ *      comment. Keeping the parts apart lets the PeepholeOptimizer see which registers an
+ *      instruction reads and writes, and the line is only turned into text when it is
+ *      written out.
+ * @author Daniel Gergov
+ * @version 10/18/26
+ */
+public class Instruction
+{
+    private final Opcode opcode;
+    private final Operand[] operands;
+    private String comment;
+
+    /**
+     * Constructor for the Instruction class.
+     * @param opcode the opcode of the instruction
+     * @param operands the operands of the instruction, in order
+     */
+    public Instruction(Opcode opcode, Operand... operands)
+    {
+        this.opcode = opcode;
+        this.operands = operands;
+    }
+
+    /**
+     * The comment method sets the comment written after the instruction.
+     * @param comment the comment, without the #
+     * @postcondition the instruction has the given comment
+     * @return type Instruction this instruction
+     */
+    public Instruction comment(String comment)
+    {
+        this.comment = comment;
+        return this;
+    }
+
+    /**
+     * Returns the opcode of the instruction.
+     * @return type Opcode the opcode
+     */
+    public Opcode getOpcode()
+    {
+        return opcode;
+    }
+
+    /**
+     * Returns the number of operands of the instruction.
+     * @return type int the number of operands
+     */
+    public int getOperandCount()
+    {
+        return operands.length;
+    }
+
+    /**
+     * Returns the operand at the given position.
+     * @param i the position of the operand
+     * @return type Operand the operand
+     */
+    public Operand getOperand(int i)
+    {
+        return operands[i];
+    }
+
+    /**
+     * Returns the comment of the line.
+     * @return type String the comment, or null if the line has none
+     */
+    public String getComment()
+    {
+        return comment;
+    }
+
+    /**
+     * Returns whether the instruction has the given opcode and operands.
+     * @param op the opcode
+     * @param args the operands
+     * @return type boolean true if the opcode and every operand match; otherwise, false
+     */
+    public boolean is(Opcode op, Operand... args)
+    {
+        if (opcode != op || operands.length != args.length)
+        {
+            return false;
+        }
+        for (int i = 0; i < args.length; ++i)
+        {
+            if (!operands[i].equals(args[i]))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether the line is a label.
+     * @return type boolean true if the line is a label; otherwise, false
+     */
+    public boolean isLabel()
+    {
+        return opcode == Opcode.LABEL;
+    }
+
+    /**
+     * Returns the name of the label on this line.
+     * @precondition the line is a label
+     * @return type String the label without its colon
+     */
+    public String getLabel()
+    {
+        return operands[0].toString();
+    }
+
+    /**
+     * Returns whether the instruction always jumps somewhere else, so the next line only runs
+     *      if it is jumped to.
+     * @return type boolean true for j and jr; otherwise, false
+     */
+    public boolean isJump()
+    {
+        return opcode.isJump();
+    }
+
+    /**
+     * Returns whether control can reach or leave this line other than by falling through, so
+     *      that what is known about the registers before it does not hold after it. Labels,
+     *      directives, jumps, branches, and calls are barriers.
+     * @return type boolean true if the line is a barrier; otherwise, false
+     */
+    public boolean isBarrier()
+    {
+        return isLabel() || opcode.isDirective() || opcode.isJump() || opcode.isBranch()
+                || opcode == Opcode.JAL;
+    }
+
+    /**
+     * Returns the register the instruction writes, if it only computes that register from
+     *      its other operands and has no other effect.
+     * @return type Register the register written, or null if the instruction does anything
+     *      else
+     */
+    public Register getDestination()
+    {
+        return opcode.defines() ? (Register) operands[0] : null;
+    }
+
+    /**
+     * Returns whether the instruction writes the given register.
+     * @param register the register
+     * @return type boolean true if the instruction writes the register; otherwise, false
+     */
+    public boolean writes(Register register)
+    {
+        if (opcode == Opcode.MULT || opcode == Opcode.DIV)
+        {
+            return register == Register.HI || register == Register.LO;
+        }
+        if (opcode == Opcode.JAL)
+        {
+            return register == Register.RA;
+        }
+        return register == getDestination();
+    }
+
+    /**
+     * Returns whether the instruction reads the given register, either as an operand, as the
+     *      base of an address, or implicitly.
+     * @param register the register
+     * @return type boolean true if the instruction reads the register; otherwise, false
+     */
+    public boolean reads(Register register)
+    {
+        switch (opcode)
+        {
+            case MFLO:
+                return register == Register.LO;
+            case MFHI:
+                return register == Register.HI;
+            case SYSCALL:
+                return register == Register.V0 || register == Register.A0;
+            default:
+                break;
+        }
+        for (int i = opcode.defines() ? 1 : 0; i < operands.length; ++i)
+        {
+            if (operands[i].getRegister() == register)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The replaceSource method makes the instruction read one register instead of another
+     *      wherever it reads it through an operand.
+     * @param register the register that is read now
+     * @param replacement the register to read instead
+     * @postcondition the operands that read register read replacement
+     */
+    public void replaceSource(Register register, Register replacement)
+    {
+        for (int i = opcode.defines() ? 1 : 0; i < operands.length; ++i)
+        {
+            if (operands[i] == register)
+            {
+                operands[i] = replacement;
+            }
+            else if (operands[i] instanceof Address && operands[i].getRegister() == register)
+            {
+                operands[i] = new Address(((Address) operands[i]).getOffset(), replacement);
+            }
+        }
+    }
+
+    /**
+     * The render method appends the line as MIPS assembly to the given text. Labels and
+     *      directives are not indented; everything else is indented, and the operands are
+     *      separated by commas.
+     * @param out the text to append to
+     * @param comments true if the comment of the line is written after it
+     * @postcondition the line and a line break are appended to out
+     */
+    public void render(StringBuilder out, boolean comments)
+    {
+        if (isLabel())
+        {
+            out.append(operands[0]).append(':');
+        }
+        else
+        {
+            if (!opcode.isDirective())
+            {
+                out.append('\t');
+            }
+            out.append(opcode);
+            for (int i = 0; i < operands.length; ++i)
+            {
+                out.append(i == 0 ? " " : ", ").append(operands[i]);
+            }
+        }
+        if (comments && comment != null)
+        {
+            out.append("\t# ").append(comment);
+        }
+        out.append('\n');
+    }
+
+    /**
+     * The toString method renders the line as MIPS assembly with its comment.
+     * @return type String the line of assembly without a line break
+     */
+    @Override
+    public String toString()
+    {
+        StringBuilder line = new StringBuilder();
+        render(line, true);
+        return line.substring(0, line.length() - 1);
+    }
+}
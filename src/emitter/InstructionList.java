@@ -0,0 +1,146 @@
+package src.emitter;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * The InstructionList class holds the instructions of one procedure or of the main program in
+ *      a single array that grows by doubling, so the emitter keeps one reference per line
+ *      instead of a string, and the PeepholeOptimizer can look at, replace, insert, and remove
+ *      lines by position. The lines are only turned into text by render once the code is
+ *      optimized.
+ * @author Daniel Gergov
+ * @version 10/18/26
+ */
+public class InstructionList extends AbstractList<Instruction> implements RandomAccess
+{
+    private static final int INITIAL_CAPACITY = 64;
+
+    private Instruction[] instructions;
+    private int size;
+
+    /**
+     * Constructor for the InstructionList class that creates an empty list.
+     */
+    public InstructionList()
+    {
+        instructions = new Instruction[INITIAL_CAPACITY];
+        size = 0;
+    }
+
+    /**
+     * Returns the number of instructions in the list.
+     * @return type int the number of instructions
+     */
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Returns the instruction at the given position.
+     * @param i the position
+     * @precondition 0 &lt;= i &lt; size()
+     * @return type Instruction the instruction
+     */
+    @Override
+    public Instruction get(int i)
+    {
+        return instructions[i];
+    }
+
+    /**
+     * Replaces the instruction at the given position.
+     * @param i the position
+     * @param instruction the new instruction
+     * @precondition 0 &lt;= i &lt; size()
+     * @return type Instruction the instruction that was replaced
+     */
+    @Override
+    public Instruction set(int i, Instruction instruction)
+    {
+        Instruction old = instructions[i];
+        instructions[i] = instruction;
+        return old;
+    }
+
+    /**
+     * Inserts an instruction at the given position, moving the later ones back by one.
+     * @param i the position
+     * @param instruction the instruction to insert
+     * @precondition 0 &lt;= i &lt;= size()
+     * @postcondition the list is one instruction longer
+     */
+    @Override
+    public void add(int i, Instruction instruction)
+    {
+        if (size == instructions.length)
+        {
+            instructions = Arrays.copyOf(instructions, 2 * size);
+        }
+        System.arraycopy(instructions, i, instructions, i + 1, size - i);
+        instructions[i] = instruction;
+        ++size;
+        ++modCount;
+    }
+
+    /**
+     * Removes the instruction at the given position, moving the later ones forward by one.
+     * @param i the position
+     * @precondition 0 &lt;= i &lt; size()
+     * @postcondition the list is one instruction shorter
+     * @return type Instruction the instruction that was removed
+     */
+    @Override
+    public Instruction remove(int i)
+    {
+        Instruction old = instructions[i];
+        removeRange(i, i + 1);
+        return old;
+    }
+
+    /**
+     * Removes the instructions from one position up to but not including another.
+     * @param from the first position to remove
+     * @param to the position after the last one to remove
+     * @precondition 0 &lt;= from &lt;= to &lt;= size()
+     * @postcondition the list is to - from instructions shorter
+     */
+    @Override
+    protected void removeRange(int from, int to)
+    {
+        System.arraycopy(instructions, to, instructions, from, size - to);
+        Arrays.fill(instructions, size - (to - from), size, null);
+        size -= to - from;
+        ++modCount;
+    }
+
+    /**
+     * Removes every instruction, keeping the array for the next procedure.
+     * @postcondition the list is empty
+     */
+    @Override
+    public void clear()
+    {
+        Arrays.fill(instructions, 0, size, null);
+        size = 0;
+        ++modCount;
+    }
+
+    /**
+     * The render method appends every instruction as a line of MIPS assembly to the given
+     *      text.
+     * @param out the text to append to
+     * @param comments true if the comments of the lines are written
+     * @postcondition the lines are appended to out in order
+     */
+    public void render(StringBuilder out, boolean comments)
+    {
+        for (int i = 0; i < size; ++i)
+        {
+            instructions[i].render(out, comments);
+        }
+    }
+}
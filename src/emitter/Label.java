@@ -0,0 +1,71 @@
+package src.emitter;
+
+/**
+ * The Label class is an Operand that names a place in the program: a line of code that is
+ *      jumped to, or a word in the .data section.
+ * @author Daniel Gergov
+ * @version 10/18/26
+ */
+public final class Label implements Operand
+{
+    private final String name;
+
+    /**
+     * Constructor for the Label class.
+     * @param name the name of the label, without a colon
+     */
+    public Label(String name)
+    {
+        this.name = name;
+    }
+
+    /**
+     * Returns the name of the label.
+     * @return type String the name, without a colon
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * Returns null, since a label reads no register.
+     * @return type Register null
+     */
+    @Override
+    public Register getRegister()
+    {
+        return null;
+    }
+
+    /**
+     * Returns whether the given object is a Label with the same name.
+     * @param other the object to compare to
+     * @return type boolean true if the object is the same label; otherwise, false
+     */
+    @Override
+    public boolean equals(Object other)
+    {
+        return other instanceof Label && ((Label) other).name.equals(name);
+    }
+
+    /**
+     * Returns a hash code that agrees with equals.
+     * @return type int the hash code of the name
+     */
+    @Override
+    public int hashCode()
+    {
+        return name.hashCode();
+    }
+
+    /**
+     * The toString method returns the name of the label.
+     * @return type String the name
+     */
+    @Override
+    public String toString()
+    {
+        return name;
+    }
+}
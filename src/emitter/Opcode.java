@@ -0,0 +1,84 @@
+package src.emitter;
+
+/**
+ * The Opcode enum holds the MIPS instructions and directives the compiler emits. Besides its
+ *      mnemonic, each opcode records whether its first operand is a register it computes from
+ *      the others without any other effect, which is what the PeepholeOptimizer needs to know
+ *      to drop an instruction whose result is never read. LABEL is the opcode of a line that
+ *      only defines a label.
+ * @author Daniel Gergov
+ * @version 10/18/26
+ */
+public enum Opcode
+{
+    LI("li", true), LA("la", true), LW("lw", true), SW("sw", false), MOVE("move", true),
+    ADD("add", true), ADDU("addu", true), ADDI("addi", true), ADDIU("addiu", true),
+    SUB("sub", true), MULT("mult", false), DIV("div", false), MFLO("mflo", true),
+    MFHI("mfhi", true),
+    BEQ("beq", false), BNE("bne", false), BLT("blt", false), BLE("ble", false),
+    BGT("bgt", false), BGE("bge", false),
+    J("j", false), JR("jr", false), JAL("jal", false), SYSCALL("syscall", false),
+    LABEL("", false), TEXT(".text", false), GLOBL(".globl", false);
+
+    private final String mnemonic;
+    private final boolean defines;
+
+    /**
+     * Constructor for the Opcode enum.
+     * @param mnemonic the name of the opcode in MIPS assembly
+     * @param defines true if the opcode only computes the register that is its first operand
+     */
+    private Opcode(String mnemonic, boolean defines)
+    {
+        this.mnemonic = mnemonic;
+        this.defines = defines;
+    }
+
+    /**
+     * Returns whether the opcode only computes the register that is its first operand from
+     *      its other operands.
+     * @return type boolean true if the first operand is the only effect; otherwise, false
+     */
+    public boolean defines()
+    {
+        return defines;
+    }
+
+    /**
+     * Returns whether the opcode is a conditional branch to the label in its last operand.
+     * @return type boolean true for the branches; otherwise, false
+     */
+    public boolean isBranch()
+    {
+        return compareTo(BEQ) >= 0 && compareTo(BGE) <= 0;
+    }
+
+    /**
+     * Returns whether the opcode always jumps somewhere else, so the next line only runs if it
+     *      is jumped to.
+     * @return type boolean true for j and jr; otherwise, false
+     */
+    public boolean isJump()
+    {
+        return this == J || this == JR;
+    }
+
+    /**
+     * Returns whether the opcode is an assembler directive.
+     * @return type boolean true for the directives; otherwise, false
+     */
+    public boolean isDirective()
+    {
+        return this == TEXT || this == GLOBL;
+    }
+
+    /**
+     * The toString method returns the mnemonic of the opcode.
+     * @return type String the mnemonic, such as addu or .text
+     */
+    @Override
+    public String toString()
+    {
+        return mnemonic;
+    }
+}
@@ -0,0 +1,48 @@
+package src.emitter;
+
+/**
+ * The Operand interface represents one operand of an Instruction: a Register, an Immediate
+ *      number, a Label, or an Address in memory given as an offset from a register.
+ * @author Daniel Gergov
+ * @version 10/18/26
+ */
+public interface Operand
+{
+    /**
+     * Returns the register the operand reads when an instruction uses it as a source: the
+     *      register itself, or the base register of an address.
+     * @return type Register the register the operand reads, or null if it reads none
+     */
+    public Register getRegister();
+
+    /**
+     * Returns the operand for the given number.
+     * @param value the number
+     * @return type Operand the immediate operand
+     */
+    public static Operand immediate(int value)
+    {
+        return new Immediate(value);
+    }
+
+    /**
+     * Returns the operand for the given label.
+     * @param name the name of the label, without a colon
+     * @return type Operand the label operand
+     */
+    public static Operand label(String name)
+    {
+        return new Label(name);
+    }
+
+    /**
+     * Returns the operand for the word at the given offset from the address in a register.
+     * @param offset the offset in bytes
+     * @param base the register that holds the address
+     * @return type Operand the address operand
+     */
+    public static Operand address(int offset, Register base)
+    {
+        return new Address(offset, base);
+    }
+}
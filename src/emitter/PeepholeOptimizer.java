@@ -0,0 +1,272 @@
+package src.emitter;
+
+import java.util.List;
+
+/**
+ * The PeepholeOptimizer class rewrites short sequences of emitted MIPS instructions into
+ *      shorter ones with the same effect. It cancels a push that is popped right away, fuses
+ *      loading the address of a variable with loading the word at that address, forwards the
+ *      value of a move into the instruction that reads it, removes jumps to the next line and
+ *      code that cannot be reached, and drops instructions whose result is overwritten before
+ *      it is read, including stores to a global variable that is stored again. A register is
+ *      only taken to be dead if it is overwritten before any label, branch, or jump, so nothing
+ *      that is known within a straight run of code is assumed across one. A system call reads
+ *      only $v0 and $a0, and a call ends the search only for a register other than the $t
+ *      registers, which the called procedure never reads.
+ * @author Daniel Gergov
+ * @version 10/18/26
+ */
+public class PeepholeOptimizer
+{
+    private static final Operand PUSH = Operand.immediate(-4);
+    private static final Operand POP = Operand.immediate(4);
+    private static final Operand TOP = Operand.address(0, Register.SP);
+
+    /**
+     * The optimize method applies the rewrites to the given code until none applies.
+     * @param code the instructions of one procedure or of the main program
+     * @postcondition the code has the same effect with fewer or the same number of instructions
+     * @return type int the number of instructions that were eliminated
+     */
+    public int optimize(List<Instruction> code)
+    {
+        int before = code.size();
+        boolean changed = true;
+        while (changed)
+        {
+            changed = false;
+            for (int i = 0; i < code.size(); ++i)
+            {
+                if (cancelPushPop(code, i) || fuseAddress(code, i) || forwardMove(code, i)
+                        || removeJump(code, i) || removeDead(code, i))
+                {
+                    changed = true;
+                }
+            }
+        }
+        return before - code.size();
+    }
+
+    /**
+     * The cancelPushPop method replaces a push that is immediately popped into a register by a
+     *      move into that register, or by nothing if the register is the one pushed, and
+     *      removes a push of the register that was just popped.
+     * @param code the instructions
+     * @param i the position of the first instruction of the pattern
+     * @return type boolean true if the code was changed; otherwise, false
+     */
+    private boolean cancelPushPop(List<Instruction> code, int i)
+    {
+        if (i + 3 >= code.size())
+        {
+            return false;
+        }
+        Instruction first = code.get(i);
+        Instruction second = code.get(i + 1);
+        Instruction third = code.get(i + 2);
+        Instruction fourth = code.get(i + 3);
+        if (first.is(Opcode.ADDI, Register.SP, Register.SP, PUSH)
+                && second.getOpcode() == Opcode.SW && second.getOperand(1).equals(TOP)
+                && third.getOpcode() == Opcode.LW && third.getOperand(1).equals(TOP)
+                && fourth.is(Opcode.ADDU, Register.SP, Register.SP, POP))
+        {
+            Operand pushed = second.getOperand(0);
+            Operand popped = third.getOperand(0);
+            code.subList(i, i + 4).clear();
+            if (pushed != popped)
+            {
+                code.add(i, new Instruction(Opcode.MOVE, popped, pushed));
+            }
+            return true;
+        }
+        if (first.getOpcode() == Opcode.LW && first.getOperand(1).equals(TOP)
+                && second.is(Opcode.ADDU, Register.SP, Register.SP, POP)
+                && third.is(Opcode.ADDI, Register.SP, Register.SP, PUSH)
+                && fourth.is(Opcode.SW, first.getOperand(0), TOP))
+        {
+            code.subList(i + 1, i + 4).clear();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * The fuseAddress method replaces loading the address of a label into a register and then
+     *      the word at that address by loading the word at the label, if the register that held
+     *      the address is not read afterwards.
+     * @param code the instructions
+     * @param i the position of the la instruction
+     * @return type boolean true if the code was changed; otherwise, false
+     */
+    private boolean fuseAddress(List<Instruction> code, int i)
+    {
+        if (i + 1 >= code.size() || code.get(i).getOpcode() != Opcode.LA)
+        {
+            return false;
+        }
+        Instruction address = code.get(i);
+        Instruction load = code.get(i + 1);
+        Register register = address.getDestination();
+        if (load.getOpcode() != Opcode.LW
+                || !load.getOperand(1).equals(Operand.address(0, register)))
+        {
+            return false;
+        }
+        Register destination = load.getDestination();
+        if (destination != register && !isDead(code, i + 2, register))
+        {
+            return false;
+        }
+        code.set(i, new Instruction(Opcode.LW, destination, address.getOperand(1))
+                .comment(load.getComment()));
+        code.remove(i + 1);
+        return true;
+    }
+
+    /**
+     * The forwardMove method makes the instruction after a move read the source of the move
+     *      instead of its destination, so the move can be dropped once nothing else reads it.
+     * @param code the instructions
+     * @param i the position of the move
+     * @return type boolean true if the code was changed; otherwise, false
+     */
+    private boolean forwardMove(List<Instruction> code, int i)
+    {
+        if (i + 1 >= code.size() || code.get(i).getOpcode() != Opcode.MOVE)
+        {
+            return false;
+        }
+        Instruction move = code.get(i);
+        Instruction next = code.get(i + 1);
+        Register destination = move.getDestination();
+        Register source = (Register) move.getOperand(1);
+        if (destination == source)
+        {
+            code.remove(i);
+            return true;
+        }
+        if (next.isLabel() || next.getOpcode() == Opcode.SYSCALL || !next.reads(destination)
+                || destination == Register.SP || source == Register.SP)
+        {
+            return false;
+        }
+        next.replaceSource(destination, source);
+        return true;
+    }
+
+    /**
+     * The removeJump method removes a jump to a label that directly follows it, and the
+     *      instructions after a jump that cannot be reached because no label precedes them.
+     * @param code the instructions
+     * @param i the position of the jump
+     * @return type boolean true if the code was changed; otherwise, false
+     */
+    private boolean removeJump(List<Instruction> code, int i)
+    {
+        Instruction jump = code.get(i);
+        if (!jump.isJump())
+        {
+            return false;
+        }
+        if (i + 1 < code.size() && !code.get(i + 1).isLabel()
+                && !code.get(i + 1).getOpcode().isDirective())
+        {
+            code.remove(i + 1);
+            return true;
+        }
+        if (jump.getOpcode() == Opcode.J)
+        {
+            for (int j = i + 1; j < code.size() && code.get(j).isLabel(); ++j)
+            {
+                if (code.get(j).getLabel().equals(jump.getOperand(0).toString()))
+                {
+                    code.remove(i);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The removeDead method removes an instruction whose only effect is to write a register
+     *      that is overwritten before it is read, or to store to a global variable that is
+     *      stored to again before anything can read it.
+     * @param code the instructions
+     * @param i the position of the instruction
+     * @return type boolean true if the code was changed; otherwise, false
+     */
+    private boolean removeDead(List<Instruction> code, int i)
+    {
+        Instruction instruction = code.get(i);
+        Register destination = instruction.getDestination();
+        if (destination != null && destination != Register.SP && isDead(code, i + 1, destination))
+        {
+            code.remove(i);
+            return true;
+        }
+        if (instruction.getOpcode() == Opcode.SW && instruction.getOperand(1) instanceof Label
+                && isStoredAgain(code, i + 1, instruction.getOperand(1)))
+        {
+            code.remove(i);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether the given register is written before it is read, starting at the given
+     *      position, without passing a barrier. A system call is not a barrier, since what it
+     *      reads is known, and neither is a call for a $t register, which the called procedure
+     *      does not read and the caller pushes before the call if it is still needed.
+     * @param code the instructions
+     * @param from the position to start at
+     * @param register the register
+     * @return type boolean true if the value in the register is dead; otherwise, false
+     */
+    private boolean isDead(List<Instruction> code, int from, Register register)
+    {
+        for (int i = from; i < code.size(); ++i)
+        {
+            Instruction instruction = code.get(i);
+            boolean call = instruction.getOpcode() == Opcode.JAL && register.isTemporary();
+            if (instruction.reads(register) || instruction.isBarrier() && !call)
+            {
+                return false;
+            }
+            if (instruction.writes(register))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether the word at the given label is stored to again before it can be read,
+     *      starting at the given position, without passing a barrier or a system call.
+     * @param code the instructions
+     * @param from the position to start at
+     * @param label the label of the global variable
+     * @return type boolean true if the store before the position is dead; otherwise, false
+     */
+    private boolean isStoredAgain(List<Instruction> code, int from, Operand label)
+    {
+        for (int i = from; i < code.size(); ++i)
+        {
+            Instruction instruction = code.get(i);
+            if (instruction.isBarrier() || instruction.getOpcode() == Opcode.SYSCALL)
+            {
+                return false;
+            }
+            for (int j = 0; j < instruction.getOperandCount(); ++j)
+            {
+                if (instruction.getOperand(j).equals(label))
+                {
+                    return instruction.getOpcode() == Opcode.SW && j == 1;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,61 @@
+package src.emitter;
+
+/**
+ * The Register enum names the MIPS registers the compiled code uses. A register is an Operand
+ *      of an Instruction by itself, and is also the base of an Address. The hi and lo registers,
+ *      which mult and div write, are included so that the PeepholeOptimizer can follow them
+ *      like any other register.
+ * @author Daniel Gergov
+ * @version 10/18/26
+ */
+public enum Register implements Operand
+{
+    V0("$v0"), A0("$a0"),
+    T0("$t0"), T1("$t1"), T2("$t2"), T3("$t3"), T4("$t4"),
+    T5("$t5"), T6("$t6"), T7("$t7"), T8("$t8"), T9("$t9"),
+    S0("$s0"), S1("$s1"), S2("$s2"), S3("$s3"), S4("$s4"), S5("$s5"), S6("$s6"), S7("$s7"),
+    SP("$sp"), RA("$ra"), HI("hi"), LO("lo");
+
+    private final String name;
+
+    /**
+     * Constructor for the Register enum.
+     * @param name the name of the register in MIPS assembly
+     */
+    private Register(String name)
+    {
+        this.name = name;
+    }
+
+    /**
+     * Returns the register itself, since an instruction that takes a register as a source
+     *      reads it.
+     * @return type Register this register
+     */
+    @Override
+    public Register getRegister()
+    {
+        return this;
+    }
+
+    /**
+     * Returns whether the register is one of the $t registers, which expressions are evaluated
+     *      in. A called procedure does not read them, and the caller saves the ones it still
+     *      needs before the call.
+     * @return type boolean true if the register is $t0 through $t9; otherwise, false
+     */
+    public boolean isTemporary()
+    {
+        return compareTo(T0) >= 0 && compareTo(T9) <= 0;
+    }
+
+    /**
+     * The toString method returns the name of the register in MIPS assembly, such as $t0.
+     * @return type String the name of the register
+     */
+    @Override
+    public String toString()
+    {
+        return name;
+    }
+}
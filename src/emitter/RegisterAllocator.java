@@ -0,0 +1,211 @@
+package src.emitter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import src.ast.BinOp;
+import src.ast.Expression;
+import src.ast.ProcedureCall;
+
+/**
+ * The RegisterAllocator class hands out the registers that expressions are evaluated in when
+ *      they are compiled into MIPS assembly, so that the intermediate values of an expression
+ *      stay in registers instead of being pushed onto the stack and popped off again. The
+ *      operands of a binary operation are evaluated in Sethi-Ullman order: the operand that
+ *      needs more registers goes first, so the whole expression needs as few registers as
+ *      possible. A value is spilled onto the stack only when the registers run out, and the
+ *      registers in use are saved around procedure calls, since the called procedure
+ *      evaluates its own expressions in the same registers. The $s registers are not handed
+ *      out, since they hold the counters and bounds of For loops.
+ * @author Daniel Gergov
+ * @version 10/18/26
+ */
+public class RegisterAllocator
+{
+    private static final Register[] REGISTERS = {Register.T0, Register.T1, Register.T2,
+        Register.T3, Register.T4, Register.T5, Register.T6, Register.T7, Register.T8,
+        Register.T9};
+    private static final int CALL = REGISTERS.length + 1;
+
+    private Emitter emitter;
+    private boolean[] used;
+    private int freeCount;
+    private Deque<List<Integer>> saved;
+
+    /**
+     * Constructor for the RegisterAllocator class that allocates registers for the code
+     *      emitted by the given emitter.
+     * @param emitter the emitter that the expressions are compiled with
+     */
+    public RegisterAllocator(Emitter emitter)
+    {
+        this.emitter = emitter;
+        used = new boolean[REGISTERS.length];
+        freeCount = REGISTERS.length;
+        saved = new ArrayDeque<List<Integer>>();
+    }
+
+    /**
+     * Returns the emitter that the expressions are compiled with.
+     * @return type Emitter the emitter
+     */
+    public Emitter getEmitter()
+    {
+        return emitter;
+    }
+
+    /**
+     * The allocate method takes the first free register.
+     * @precondition a register is free
+     * @postcondition the register is in use until it is released
+     * @return type Register the register
+     * @throws IllegalStateException if every register is in use
+     */
+    public Register allocate()
+    {
+        for (int i = 0; i < REGISTERS.length; ++i)
+        {
+            if (!used[i])
+            {
+                used[i] = true;
+                --freeCount;
+                return REGISTERS[i];
+            }
+        }
+        throw new IllegalStateException("No free registers");
+    }
+
+    /**
+     * The release method gives back a register that is no longer needed.
+     * @param register the register
+     * @precondition the register was allocated and has not been released since
+     * @postcondition the register is free
+     */
+    public void release(Register register)
+    {
+        used[indexOf(register)] = false;
+        ++freeCount;
+    }
+
+    /**
+     * Returns the number of registers the given expression needs to be evaluated without
+     *      spilling, which is its Sethi-Ullman number. An expression that calls a procedure
+     *      needs more registers than there are, since every register in use is saved across
+     *      the call.
+     * @param exp the expression
+     * @return type int the number of registers the expression needs
+     */
+    public int need(Expression exp)
+    {
+        if (exp instanceof BinOp)
+        {
+            int left = need(((BinOp) exp).getLeft());
+            int right = need(((BinOp) exp).getRight());
+            return left == right ? Math.min(left + 1, CALL) : Math.max(left, right);
+        }
+        if (exp instanceof ProcedureCall)
+        {
+            return CALL;
+        }
+        return 1;
+    }
+
+    /**
+     * The compileOperands method evaluates the two operands of a binary operation into
+     *      registers. The operand that needs more registers is evaluated first, unless either
+     *      operand calls a procedure, in which case the left operand goes first so that the
+     *      calls happen in the order of the program. If the registers left after the first
+     *      operand are too few for the second, the first is spilled onto the stack while the
+     *      second is evaluated.
+     * @param left the left operand
+     * @param right the right operand
+     * @precondition the registers in use are the ones of the enclosing expression
+     * @postcondition both registers returned are in use
+     * @return type Register[] the registers of the left and the right operand
+     */
+    public Register[] compileOperands(Expression left, Expression right)
+    {
+        int leftNeed = need(left);
+        int rightNeed = need(right);
+        boolean rightFirst = rightNeed > leftNeed && rightNeed < CALL;
+        Expression first = rightFirst ? right : left;
+        Expression second = rightFirst ? left : right;
+        Register firstRegister = first.compileValue(this);
+        Register secondRegister;
+        if (freeCount < (rightFirst ? leftNeed : rightNeed))
+        {
+            emitter.emitPush(firstRegister);
+            release(firstRegister);
+            secondRegister = second.compileValue(this);
+            firstRegister = allocate();
+            emitter.emitPop(firstRegister);
+        }
+        else
+        {
+            secondRegister = second.compileValue(this);
+        }
+        if (rightFirst)
+        {
+            return new Register[] {secondRegister, firstRegister};
+        }
+        return new Register[] {firstRegister, secondRegister};
+    }
+
+    /**
+     * The saveLive method pushes every register in use onto the stack before a procedure is
+     *      called and frees them for the arguments and the body of the procedure.
+     * @postcondition every register is free until restoreLive is called
+     */
+    public void saveLive()
+    {
+        List<Integer> live = new ArrayList<Integer>();
+        for (int i = 0; i < REGISTERS.length; ++i)
+        {
+            if (used[i])
+            {
+                emitter.emitPush(REGISTERS[i]);
+                used[i] = false;
+                live.add(i);
+            }
+        }
+        freeCount += live.size();
+        saved.push(live);
+    }
+
+    /**
+     * The restoreLive method pops the registers the matching saveLive pushed off the stack
+     *      after the procedure returns.
+     * @precondition saveLive has been called more times than restoreLive, and every register
+     *      allocated since has been released
+     * @postcondition the registers that were in use before the call are in use again
+     */
+    public void restoreLive()
+    {
+        List<Integer> live = saved.pop();
+        for (int i = live.size() - 1; i >= 0; --i)
+        {
+            emitter.emitPop(REGISTERS[live.get(i)]);
+            used[live.get(i)] = true;
+        }
+        freeCount -= live.size();
+    }
+
+    /**
+     * Returns the index of the given register in the pool.
+     * @param register the register
+     * @return type int the index of the register
+     * @throws IllegalArgumentException if the register is not in the pool
+     */
+    private int indexOf(Register register)
+    {
+        for (int i = 0; i < REGISTERS.length; ++i)
+        {
+            if (REGISTERS[i] == register)
+            {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown register " + register);
+    }
+}
@@ -1,23 +1,31 @@
 package src.environments;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import src.ast.ProcedureDeclaration;
 
 /**
  * The Environment class represents the environment of the program. It stores the
- *      variables in a hash map and provides methods to modify and access the
- *      variables in the hash map. The environment also stores the loop depth
- *      of the program to handle the break and continue statements.
+ *      variables in a VariableTable, which keeps their values as unboxed ints, and
+ *      provides methods to modify and access the variables in the table. The environment
+ *      also stores the loop depth of the program to handle the break and continue
+ *      statements. A program that has been resolved does not look variables up by name;
+ *      its variables live in an array of int slots instead, with a bitset recording which
+ *      slots have been assigned. Every environment knows the root of its tree, which holds
+ *      the procedures, so finding a procedure does not walk up the tree.
  * @author Daniel Gergov
  * @version 10/16/23
  */
 public class Environment
 {
-    private Map<String, Integer> envSymtab;
+    private VariableTable envSymtab;
     private Map<String, ProcedureDeclaration> envProceduretab;
     private int loopDepth;
     private Environment parent;
+    private Environment root;
+    private int[] slots;
+    private long[] assigned;
 
     /**
      * Constructor for the Environment class that creates an environment for the program.
@@ -27,10 +35,118 @@ public class Environment
      */
     public Environment()
     {
-        envSymtab = new HashMap<String, Integer>();
-        envProceduretab = new HashMap<String, ProcedureDeclaration>();
+        envSymtab = new VariableTable();
+        envProceduretab = null;
         loopDepth = 0;
         parent = null;
+        root = this;
+        slots = new int[0];
+        assigned = new long[0];
+    }
+
+    /**
+     * Constructor for the Environment class that creates an environment with the given number
+     *      of int slots for the variables of a resolved program or procedure. Every slot starts
+     *      out unassigned.
+     * @param slotCount the number of slots of the environment
+     */
+    public Environment(int slotCount)
+    {
+        this();
+        allocateSlots(slotCount);
+    }
+
+    /**
+     * The allocateSlots method replaces the slots of the environment with the given number of
+     *      unassigned slots.
+     * @param slotCount the number of slots of the environment
+     * @postcondition the environment has slotCount unassigned slots
+     */
+    public void allocateSlots(int slotCount)
+    {
+        slots = new int[slotCount];
+        assigned = new long[(slotCount + 63) >>> 6];
+    }
+
+    /**
+     * Returns the environment the given number of levels up the tree of environments. Level 0
+     *      is this environment.
+     * @param depth the number of levels to go up
+     * @precondition the tree of environments is at least depth levels deep above this one
+     * @return type Environment the environment depth levels up
+     */
+    public Environment getFrame(int depth)
+    {
+        Environment current = this;
+        for (int i = 0; i < depth; ++i)
+        {
+            current = current.parent;
+        }
+        return current;
+    }
+
+    /**
+     * Returns the root of the tree of environments, which holds the global variables and the
+     *      procedures.
+     * @return type Environment the global environment
+     */
+    public Environment getGlobals()
+    {
+        return root;
+    }
+
+    /**
+     * Returns the value stored in the given slot of this environment.
+     * @param slot the index of the slot
+     * @precondition the slot has been assigned
+     * @return type int the value of the slot
+     */
+    public int getSlot(int slot)
+    {
+        return slots[slot];
+    }
+
+    /**
+     * Stores the given value in the given slot of this environment and marks it assigned.
+     * @param slot the index of the slot
+     * @param value the value to store
+     * @postcondition the slot holds value and is assigned
+     */
+    public void setSlot(int slot, int value)
+    {
+        slots[slot] = value;
+        assigned[slot >>> 6] |= 1L << slot;
+    }
+
+    /**
+     * Returns whether the given slot of this environment has been assigned.
+     * @param slot the index of the slot
+     * @return type boolean true if the slot has been assigned; otherwise, false
+     */
+    public boolean isAssigned(int slot)
+    {
+        return (assigned[slot >>> 6] & (1L << slot)) != 0;
+    }
+
+    /**
+     * Marks the given slot of this environment as unassigned again, the slot counterpart of
+     *      declaring a variable with a null value.
+     * @param slot the index of the slot
+     * @postcondition the slot is unassigned
+     */
+    public void clearSlot(int slot)
+    {
+        assigned[slot >>> 6] &= ~(1L << slot);
+    }
+
+    /**
+     * Marks every slot of this environment as unassigned again, so that the environment can be
+     *      reused as the frame of another procedure call.
+     * @postcondition every slot is unassigned
+     */
+    public void clearSlots()
+    {
+        Arrays.fill(assigned, 0L);
     }
 
     /**
@@ -43,40 +159,132 @@ public class Environment
     public void setParent(Environment e)
     {
         this.parent = e;
+        this.root = e == null ? this : e.root;
     }
 
     /**
      * Associates the given variable name with the given value by storing the identifier
-     *       type String and the value type int in the symbol table hash map.
+     *       type String and the value type int in the symbol table.
      * @param variable type String, the name of the variable
      * @param value type Integer, the value of the variable, null if void
-     * @precondition the variable and value is not null
-     * @postcondition the variable is stored in the hash map
+     * @precondition the variable is not null
+     * @postcondition the variable is stored in the symbol table
      */
     public void declareVariable(String variable, Integer value)
     {
-        envSymtab.put(variable, value);
+        if (value == null)
+        {
+            envSymtab.putNull(variable);
+        }
+        else
+        {
+            envSymtab.put(variable, value);
+        }
     }
     
     /**
      * Associates the given variable name with the given value by storing the identifier
-     *      type String and the value type int in the symbol table hash map. The method
+     *      type String and the value type int in the symbol table. The method
      *      recursively looks up the tree of environments until the variable is found.
      *      If the variable is not found, the creates a variable in the current
      *      environment.
      * @param variable type String, the name of the variable
      * @param value type Integer, the value of the variable, null if void
-     * @precondition the variable and value is not null
-     * @postcondition the variable is stored in the hash map
+     * @precondition the variable is not null
+     * @postcondition the variable is stored in the symbol table
      */
     public void setVariable(String variable, Integer value)
     {
-        if (envSymtab.containsKey(variable) || this.parent == null)
+        if (value == null)
         {
-            envSymtab.put(variable, value);
+            Environment current = this;
+            while (current.parent != null && current.envSymtab.find(variable) < 0)
+            {
+                current = current.parent;
+            }
+            current.envSymtab.putNull(variable);
             return;
         }
-        this.parent.setVariable(variable, value);
+        setInt(variable, value);
+    }
+
+    /**
+     * Stores the given int value in the given variable without boxing it. Like setVariable,
+     *      the method looks up the tree of environments until the variable is found, and
+     *      creates the variable in the root environment if it is not found.
+     * @param variable type String, the name of the variable
+     * @param value type int, the value of the variable
+     * @precondition the variable is not null
+     * @postcondition the variable holds value
+     */
+    public void setInt(String variable, int value)
+    {
+        Environment current = this;
+        while (true)
+        {
+            int index = current.envSymtab.find(variable);
+            if (index >= 0)
+            {
+                current.envSymtab.set(index, value);
+                return;
+            }
+            if (current.parent == null)
+            {
+                current.envSymtab.put(variable, value);
+                return;
+            }
+            current = current.parent;
+        }
+    }
+
+    /**
+     * Returns the int value of the given variable without boxing it. The method looks up
+     *      the tree of environments until the variable is found.
+     * @param variable type String, the name of the variable to look up
+     * @precondition the variable is not null
+     * @return type int the value of the variable
+     * @throws RuntimeException if the variable is not declared or holds no value
+     */
+    public int getInt(String variable)
+    {
+        Environment current = this;
+        while (current != null)
+        {
+            int index = current.envSymtab.find(variable);
+            if (index >= 0)
+            {
+                if (!current.envSymtab.hasValue(index))
+                {
+                    throw new RuntimeException("Variable " + variable + " has no value.");
+                }
+                return current.envSymtab.get(index);
+            }
+            current = current.parent;
+        }
+        throw new RuntimeException("Variable " + variable + " not declared.");
+    }
+
+    /**
+     * Returns whether the given variable holds a value rather than null. The method looks up
+     *      the tree of environments until the variable is found.
+     * @param variable type String, the name of the variable to look up
+     * @precondition the variable is not null
+     * @return type boolean true if the variable holds a value; false if it is null
+     * @throws RuntimeException if the variable is not declared
+     */
+    public boolean hasValue(String variable)
+    {
+        Environment current = this;
+        while (current != null)
+        {
+            int index = current.envSymtab.find(variable);
+            if (index >= 0)
+            {
+                return current.envSymtab.hasValue(index);
+            }
+            current = current.parent;
+        }
+        throw new RuntimeException("Variable " + variable + " not declared.");
     }
 
     /**
@@ -109,22 +317,23 @@ public class Environment
 
     /**
      * Returns the value associated with the given variable by looking up the variable
-     *      in the hash map and returning the value associated with the variable.
+     *      in the symbol table and returning the value associated with the variable.
      *      The method recursively looks up the tree of environments until the variable
      *      is found.
      * @param variable type String, the name of the variable to look up
      * @precondition the variable is not null
      * @postcondition the value of the variable is returned
-     * @return type Integer the value of the variable in the hash map symbol table
+     * @return type Integer the value of the variable in the symbol table, null if void
      */
     public Integer getVariable(String variable)
     {
         Environment current = this;
         while (current != null)
         {
-            if (current.envSymtab.containsKey(variable))
+            int index = current.envSymtab.find(variable);
+            if (index >= 0)
             {
-                return current.envSymtab.get(variable);
+                return current.envSymtab.hasValue(index) ? current.envSymtab.get(index) : null;
             }
             current = current.parent;
         }
@@ -142,12 +351,11 @@ public class Environment
      */
     public void setProcedure(String id, ProcedureDeclaration procedure)
     {
-        Environment current = this;
-        while (current.parent != null)
+        if (root.envProceduretab == null)
         {
-            current = current.parent;
+            root.envProceduretab = new HashMap<String, ProcedureDeclaration>();
         }
-        current.envProceduretab.put(id, procedure);
+        root.envProceduretab.put(id, procedure);
     }
 
     /**
@@ -161,11 +369,6 @@ public class Environment
      */
     public ProcedureDeclaration getProcedure(String id)
     {
-        Environment current = this;
-        while (current.parent != null)
-        {
-            current = current.parent;
-        }
-        return current.envProceduretab.get(id);
+        return root.envProceduretab == null ? null : root.envProceduretab.get(id);
     }
 }
\ No newline at end of file
@@ -0,0 +1,176 @@
+package src.environments;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import src.ast.ProcedureDeclaration;
+import src.ast.ResolvedProcedureCall;
+import src.ast.Variable;
+import src.ast.VariableDeclaration;
+
+/**
+ * The Resolver class is the compile-time counterpart of the Environment class. It is used by
+ *      the resolve pass over the AST to give every variable name a slot once, so that the
+ *      resolved program reads and writes int slots instead of looking names up in hash maps.
+ *      Variables are scoped the way the compiled program scopes them: inside a procedure, its
+ *      parameters, its return variable, and its local variables live in the slots of the
+ *      procedure's own environment (depth 0), and every other name is a global variable that
+ *      lives in the slots of the global environment (depth 1 inside a procedure, depth 0 in the
+ *      main program). Procedure calls are bound to the resolved procedure they call once the
+ *      whole program has been resolved, so no call looks its procedure up by name.
+ * @author Daniel Gergov
+ * @version 10/18/26
+ */
+public class Resolver
+{
+    private Map<String, Integer> globals;
+    private Map<String, Integer> locals;
+    private Map<String, ProcedureDeclaration> procedures;
+    private List<ResolvedProcedureCall> calls;
+
+    /**
+     * Constructor for the Resolver class that starts resolving in the main program with no
+     *      variables known yet.
+     */
+    public Resolver()
+    {
+        globals = new HashMap<String, Integer>();
+        locals = null;
+        procedures = new HashMap<String, ProcedureDeclaration>();
+        calls = new ArrayList<ResolvedProcedureCall>();
+    }
+
+    /**
+     * The enterProcedure method starts resolving the body of the given procedure. The slots of
+     *      the procedure's environment are its parameters in order, then its return variable,
+     *      then its local variables.
+     * @param procedure the procedure whose body is resolved next
+     * @postcondition names are resolved in the scope of the procedure until exitProcedure
+     */
+    public void enterProcedure(ProcedureDeclaration procedure)
+    {
+        locals = new HashMap<String, Integer>();
+        for (Variable parameter : procedure.getParameters())
+        {
+            locals.putIfAbsent(parameter.getName(), locals.size());
+        }
+        locals.putIfAbsent(procedure.getId(), locals.size());
+        for (VariableDeclaration local : procedure.getLocals())
+        {
+            for (String name : local.getNames())
+            {
+                locals.putIfAbsent(name, locals.size());
+            }
+        }
+    }
+
+    /**
+     * The exitProcedure method goes back to resolving names in the main program.
+     * @postcondition names are resolved as globals
+     */
+    public void exitProcedure()
+    {
+        locals = null;
+    }
+
+    /**
+     * Returns whether the given variable is a parameter, the return variable, or a local
+     *      variable of the procedure being resolved.
+     * @param name the name of the variable
+     * @return type boolean true if the variable lives in the procedure's own environment;
+     *      false if it is a global variable
+     */
+    public boolean isLocal(String name)
+    {
+        return locals != null && locals.containsKey(name);
+    }
+
+    /**
+     * Returns the number of environments up from the current one that the given variable
+     *      lives in: 0 for a local variable of the current procedure or a global variable in the
+     *      main program, and 1 for a global variable inside a procedure.
+     * @param name the name of the variable
+     * @return type int the depth of the variable
+     */
+    public int getDepth(String name)
+    {
+        return locals == null || locals.containsKey(name) ? 0 : 1;
+    }
+
+    /**
+     * Returns the slot of the given variable in the environment it lives in, giving a global
+     *      variable the next free global slot the first time it is seen.
+     * @param name the name of the variable
+     * @return type int the slot of the variable
+     */
+    public int getSlot(String name)
+    {
+        if (locals != null && locals.containsKey(name))
+        {
+            return locals.get(name);
+        }
+        Integer slot = globals.get(name);
+        if (slot == null)
+        {
+            slot = globals.size();
+            globals.put(name, slot);
+        }
+        return slot;
+    }
+
+    /**
+     * Returns the number of slots the environment of the procedure being resolved needs.
+     * @precondition a procedure is being resolved
+     * @return type int the number of local slots
+     */
+    public int getLocalCount()
+    {
+        return locals.size();
+    }
+
+    /**
+     * Returns the number of slots the global environment needs for every global variable seen
+     *      so far.
+     * @return type int the number of global slots
+     */
+    public int getGlobalCount()
+    {
+        return globals.size();
+    }
+
+    /**
+     * The declareProcedure method records a resolved procedure so that calls to it can be
+     *      bound. A later procedure with the same name replaces an earlier one, as it does when
+     *      the program runs.
+     * @param procedure the resolved procedure
+     */
+    public void declareProcedure(ProcedureDeclaration procedure)
+    {
+        procedures.put(procedure.getId(), procedure);
+    }
+
+    /**
+     * The addCall method records a resolved procedure call to bind once every procedure has
+     *      been resolved.
+     * @param call the resolved procedure call
+     */
+    public void addCall(ResolvedProcedureCall call)
+    {
+        calls.add(call);
+    }
+
+    /**
+     * The bindCalls method binds every recorded procedure call to the resolved procedure it
+     *      calls.
+     * @precondition every procedure of the program has been declared
+     * @postcondition every call to a declared procedure is bound to it
+     */
+    public void bindCalls()
+    {
+        for (ResolvedProcedureCall call : calls)
+        {
+            call.bind(procedures.get(call.getId()));
+        }
+    }
+}
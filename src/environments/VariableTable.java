@@ -0,0 +1,190 @@
+package src.environments;
+
+/**
+ * The VariableTable class maps variable names to int values without boxing them. The names
+ *      are kept in an open-addressing hash table with linear probing, the values in a parallel
+ *      int array, and whether each variable holds a value or is null in a separate bitset, so
+ *      reading and writing a variable that is already in the table allocates nothing.
+ * @author Daniel Gergov
+ * @version 10/18/26
+ */
+public class VariableTable
+{
+    private static final int MIN_CAPACITY = 8;
+
+    private String[] names;
+    private int[] values;
+    private long[] hasValue;
+    private int size;
+
+    /**
+     * Constructor for the VariableTable class that creates an empty table.
+     */
+    public VariableTable()
+    {
+        names = new String[MIN_CAPACITY];
+        values = new int[MIN_CAPACITY];
+        hasValue = new long[1];
+        size = 0;
+    }
+
+    /**
+     * The find method looks the given name up in the table.
+     * @param name the name of the variable
+     * @return type int the index of the variable in the table, or -1 if it is not in the table
+     */
+    public int find(String name)
+    {
+        int mask = names.length - 1;
+        int i = hash(name) & mask;
+        String current;
+        while ((current = names[i]) != null)
+        {
+            if (current == name || current.equals(name))
+            {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns whether the variable at the given index holds a value.
+     * @param index the index of the variable, as returned by find
+     * @return type boolean true if the variable holds a value; false if it is null
+     */
+    public boolean hasValue(int index)
+    {
+        return (hasValue[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Returns the value of the variable at the given index.
+     * @param index the index of the variable, as returned by find
+     * @precondition the variable holds a value
+     * @return type int the value of the variable
+     */
+    public int get(int index)
+    {
+        return values[index];
+    }
+
+    /**
+     * Stores the given value in the variable at the given index.
+     * @param index the index of the variable, as returned by find
+     * @param value the value to store
+     * @postcondition the variable holds value
+     */
+    public void set(int index, int value)
+    {
+        values[index] = value;
+        hasValue[index >>> 6] |= 1L << index;
+    }
+
+    /**
+     * Associates the given name with the given value, adding the name to the table if it is
+     *      not in it yet.
+     * @param name the name of the variable
+     * @param value the value of the variable
+     * @postcondition the variable holds value
+     */
+    public void put(String name, int value)
+    {
+        set(insert(name), value);
+    }
+
+    /**
+     * Associates the given name with null, adding the name to the table if it is not in it
+     *      yet.
+     * @param name the name of the variable
+     * @postcondition the variable holds no value
+     */
+    public void putNull(String name)
+    {
+        int index = insert(name);
+        hasValue[index >>> 6] &= ~(1L << index);
+    }
+
+    /**
+     * The insert method finds the index of the given name, adding the name to the table and
+     *      growing the table once it is half full.
+     * @param name the name of the variable
+     * @return type int the index of the variable in the table
+     */
+    private int insert(String name)
+    {
+        int index = find(name);
+        if (index >= 0)
+        {
+            return index;
+        }
+        if ((size + 1) * 2 > names.length)
+        {
+            grow();
+        }
+        int mask = names.length - 1;
+        index = hash(name) & mask;
+        while (names[index] != null)
+        {
+            index = (index + 1) & mask;
+        }
+        names[index] = name;
+        ++size;
+        return index;
+    }
+
+    /**
+     * The grow method doubles the capacity of the table and moves every variable to its index
+     *      in the larger table.
+     * @postcondition the table has twice the capacity and the same variables
+     */
+    private void grow()
+    {
+        String[] oldNames = names;
+        int[] oldValues = values;
+        long[] oldHasValue = hasValue;
+        names = new String[oldNames.length * 2];
+        values = new int[names.length];
+        hasValue = new long[(names.length + 63) >>> 6];
+        int mask = names.length - 1;
+        for (int i = 0; i < oldNames.length; ++i)
+        {
+            if (oldNames[i] != null)
+            {
+                int index = hash(oldNames[i]) & mask;
+                while (names[index] != null)
+                {
+                    index = (index + 1) & mask;
+                }
+                names[index] = oldNames[i];
+                values[index] = oldValues[i];
+                if ((oldHasValue[i >>> 6] & (1L << i)) != 0)
+                {
+                    hasValue[index >>> 6] |= 1L << index;
+                }
+            }
+        }
+    }
+
+    /**
+     * The hash method folds the high bits of the hash code of a name into the low bits, since
+     *      only the low bits pick the index of the name in the table.
+     * @param name the name of the variable
+     * @return type int the spread hash code of the name
+     */
+    private static int hash(String name)
+    {
+        int h = name.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the number of variables in the table.
+     * @return type int the number of variables
+     */
+    public int size()
+    {
+        return size;
+    }
+}
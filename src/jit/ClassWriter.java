@@ -0,0 +1,337 @@
+package src.jit;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The ClassWriter class writes a JVM class file by hand. It keeps the constant pool, in which
+ *      every constant is stored once, and the fields and methods of the class, and lays them
+ *      out in the class file format. The class files are written as version 49, which the
+ *      JVM verifies by inferring the types of the stack and the locals, so the methods need
+ *      no StackMapTable.
+ * @author Daniel Gergov
+ * @version 10/18/26
+ */
+public class ClassWriter
+{
+    private static final int VERSION = 49;
+    private static final int UTF8 = 1;
+    private static final int INTEGER = 3;
+    private static final int CLASS = 7;
+    private static final int STRING = 8;
+    private static final int FIELD = 9;
+    private static final int METHOD = 10;
+    private static final int NAME_AND_TYPE = 12;
+
+    static final int ACC_PUBLIC = 0x0001;
+    static final int ACC_PRIVATE = 0x0002;
+    static final int ACC_FINAL = 0x0010;
+    static final int ACC_SUPER = 0x0020;
+
+    private ByteArrayOutputStream poolBytes;
+    private DataOutputStream pool;
+    private Map<String, Integer> constants;
+    private int poolCount;
+    private int thisClass;
+    private int superClass;
+    private int[] interfaces;
+    private List<byte[]> fields;
+    private List<byte[]> methods;
+
+    /**
+     * Constructor for the ClassWriter class that starts a public final class.
+     * @param name the internal name of the class, such as src/jit/Compiled
+     * @param superName the internal name of the superclass
+     * @param interfaceNames the internal names of the interfaces the class implements
+     */
+    public ClassWriter(String name, String superName, String... interfaceNames)
+    {
+        poolBytes = new ByteArrayOutputStream();
+        pool = new DataOutputStream(poolBytes);
+        constants = new HashMap<String, Integer>();
+        poolCount = 1;
+        fields = new ArrayList<byte[]>();
+        methods = new ArrayList<byte[]>();
+        thisClass = classRef(name);
+        superClass = classRef(superName);
+        interfaces = new int[interfaceNames.length];
+        for (int i = 0; i < interfaceNames.length; ++i)
+        {
+            interfaces[i] = classRef(interfaceNames[i]);
+        }
+    }
+
+    /**
+     * Returns the index of the given UTF-8 string in the constant pool, adding it if needed.
+     * @param value the string
+     * @return type int the index of the constant
+     */
+    public int utf8(String value)
+    {
+        Integer index = constants.get("U" + value);
+        if (index != null)
+        {
+            return index;
+        }
+        try
+        {
+            pool.writeByte(UTF8);
+            pool.writeUTF(value);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        return add("U" + value);
+    }
+
+    /**
+     * Returns the index of the given int in the constant pool, adding it if needed.
+     * @param value the int
+     * @return type int the index of the constant
+     */
+    public int integer(int value)
+    {
+        Integer index = constants.get("I" + value);
+        if (index != null)
+        {
+            return index;
+        }
+        write(INTEGER, value >>> 16, value & 0xffff);
+        return add("I" + value);
+    }
+
+    /**
+     * Returns the index of the given class in the constant pool, adding it if needed.
+     * @param name the internal name of the class
+     * @return type int the index of the constant
+     */
+    public int classRef(String name)
+    {
+        return reference(CLASS, name, utf8(name), -1);
+    }
+
+    /**
+     * Returns the index of the given string literal in the constant pool, adding it if
+     *      needed.
+     * @param value the string
+     * @return type int the index of the constant
+     */
+    public int string(String value)
+    {
+        return reference(STRING, value, utf8(value), -1);
+    }
+
+    /**
+     * Returns the index of a reference to the given field in the constant pool, adding it if
+     *      needed.
+     * @param owner the internal name of the class that declares the field
+     * @param name the name of the field
+     * @param descriptor the descriptor of the field
+     * @return type int the index of the constant
+     */
+    public int fieldRef(String owner, String name, String descriptor)
+    {
+        return reference(FIELD, owner + "." + name + descriptor, classRef(owner),
+                nameAndType(name, descriptor));
+    }
+
+    /**
+     * Returns the index of a reference to the given method in the constant pool, adding it if
+     *      needed.
+     * @param owner the internal name of the class that declares the method
+     * @param name the name of the method
+     * @param descriptor the descriptor of the method
+     * @return type int the index of the constant
+     */
+    public int methodRef(String owner, String name, String descriptor)
+    {
+        return reference(METHOD, owner + "." + name + descriptor, classRef(owner),
+                nameAndType(name, descriptor));
+    }
+
+    /**
+     * The addField method adds a field to the class.
+     * @param access the access flags of the field
+     * @param name the name of the field
+     * @param descriptor the descriptor of the field
+     * @postcondition the class declares the field
+     */
+    public void addField(int access, String name, String descriptor)
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try
+        {
+            out.writeShort(access);
+            out.writeShort(utf8(name));
+            out.writeShort(utf8(descriptor));
+            out.writeShort(0);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        fields.add(bytes.toByteArray());
+    }
+
+    /**
+     * The addMethod method adds a method with the given code to the class.
+     * @param access the access flags of the method
+     * @param name the name of the method
+     * @param descriptor the descriptor of the method
+     * @param code the code of the method, with every label placed
+     * @param maxLocals the number of local variable slots the method uses
+     * @postcondition the class declares the method
+     * @throws IllegalStateException if the method is too large for the class file
+     */
+    public void addMethod(int access, String name, String descriptor, CodeWriter code,
+            int maxLocals)
+    {
+        byte[] instructions = code.toByteArray();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try
+        {
+            out.writeShort(access);
+            out.writeShort(utf8(name));
+            out.writeShort(utf8(descriptor));
+            out.writeShort(1);
+            out.writeShort(utf8("Code"));
+            out.writeInt(12 + instructions.length);
+            out.writeShort(code.getMaxStack());
+            out.writeShort(maxLocals);
+            out.writeInt(instructions.length);
+            out.write(instructions);
+            out.writeShort(0);
+            out.writeShort(0);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        methods.add(bytes.toByteArray());
+    }
+
+    /**
+     * The toByteArray method lays the class out in the class file format.
+     * @return type byte[] the class file
+     * @throws IllegalStateException if the constant pool is too large for the class file
+     */
+    public byte[] toByteArray()
+    {
+        if (poolCount > 0xffff)
+        {
+            throw new IllegalStateException("Constant pool is too large");
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try
+        {
+            out.writeInt(0xcafebabe);
+            out.writeShort(0);
+            out.writeShort(VERSION);
+            out.writeShort(poolCount);
+            poolBytes.writeTo(out);
+            out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(interfaces.length);
+            for (int index : interfaces)
+            {
+                out.writeShort(index);
+            }
+            out.writeShort(fields.size());
+            for (byte[] field : fields)
+            {
+                out.write(field);
+            }
+            out.writeShort(methods.size());
+            for (byte[] method : methods)
+            {
+                out.write(method);
+            }
+            out.writeShort(0);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Returns the index of the given name and type in the constant pool, adding it if needed.
+     * @param name the name of the field or method
+     * @param descriptor the descriptor of the field or method
+     * @return type int the index of the constant
+     */
+    private int nameAndType(String name, String descriptor)
+    {
+        return reference(NAME_AND_TYPE, name + ":" + descriptor, utf8(name), utf8(descriptor));
+    }
+
+    /**
+     * Returns the index of a constant made of one or two other constants, adding it if needed.
+     * @param tag the tag of the constant
+     * @param key the text that identifies the constant among those with the same tag
+     * @param first the index of the first constant it refers to
+     * @param second the index of the second constant it refers to, or -1 if it refers to one
+     * @return type int the index of the constant
+     */
+    private int reference(int tag, String key, int first, int second)
+    {
+        Integer index = constants.get(tag + key);
+        if (index != null)
+        {
+            return index;
+        }
+        if (second < 0)
+        {
+            write(tag, first);
+        }
+        else
+        {
+            write(tag, first, second);
+        }
+        return add(tag + key);
+    }
+
+    /**
+     * The write method appends a constant made of a tag and two-byte values to the pool.
+     * @param tag the tag of the constant
+     * @param values the two-byte values that follow the tag
+     */
+    private void write(int tag, int... values)
+    {
+        try
+        {
+            pool.writeByte(tag);
+            for (int value : values)
+            {
+                pool.writeShort(value);
+            }
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * The add method records the constant just written to the pool.
+     * @param key the key the constant is found by
+     * @return type int the index of the constant
+     */
+    private int add(String key)
+    {
+        constants.put(key, poolCount);
+        return poolCount++;
+    }
+}
@@ -0,0 +1,360 @@
+package src.jit;
+
+import java.util.Arrays;
+
+/**
+ * The CodeWriter class writes the code of one JVM method. It appends instructions to a byte
+ *      array, keeps track of how deep the operand stack gets so the method can declare its
+ *      max_stack, and resolves the branches to labels once the whole method is written. Only
+ *      the instructions the ProcedureCompiler needs are named here.
+ * @author Daniel Gergov
+ * @version 10/18/26
+ */
+public class CodeWriter
+{
+    static final int ICONST_0 = 0x03;
+    static final int ICONST_1 = 0x04;
+    static final int LCONST_0 = 0x09;
+    static final int BIPUSH = 0x10;
+    static final int SIPUSH = 0x11;
+    static final int LDC_W = 0x13;
+    static final int ILOAD = 0x15;
+    static final int ALOAD = 0x19;
+    static final int ALOAD_0 = 0x2a;
+    static final int ALOAD_1 = 0x2b;
+    static final int AALOAD = 0x32;
+    static final int ISTORE = 0x36;
+    static final int IASTORE = 0x4f;
+    static final int POP = 0x57;
+    static final int POP2 = 0x58;
+    static final int DUP = 0x59;
+    static final int IADD = 0x60;
+    static final int ISUB = 0x64;
+    static final int IMUL = 0x68;
+    static final int IDIV = 0x6c;
+    static final int IREM = 0x70;
+    static final int IINC = 0x84;
+    static final int IFEQ = 0x99;
+    static final int IF_ICMPEQ = 0x9f;
+    static final int IF_ICMPNE = 0xa0;
+    static final int IF_ICMPLT = 0xa1;
+    static final int IF_ICMPGE = 0xa2;
+    static final int IF_ICMPGT = 0xa3;
+    static final int IF_ICMPLE = 0xa4;
+    static final int GOTO = 0xa7;
+    static final int LRETURN = 0xad;
+    static final int RETURN = 0xb1;
+    static final int GETFIELD = 0xb4;
+    static final int PUTFIELD = 0xb5;
+    static final int INVOKEVIRTUAL = 0xb6;
+    static final int INVOKESPECIAL = 0xb7;
+    static final int INVOKESTATIC = 0xb8;
+    static final int NEWARRAY = 0xbc;
+    static final int WIDE = 0xc4;
+
+    static final int T_INT = 10;
+
+    private byte[] code;
+    private int length;
+    private int depth;
+    private int maxDepth;
+    private int[] labels;
+    private int[] labelDepths;
+    private int labelCount;
+    private int[] branches;
+    private int branchCount;
+
+    /**
+     * Constructor for the CodeWriter class that starts an empty method.
+     */
+    public CodeWriter()
+    {
+        code = new byte[64];
+        labels = new int[8];
+        labelDepths = new int[8];
+        branches = new int[16];
+    }
+
+    /**
+     * The emit method appends an instruction without operands.
+     * @param opcode the opcode of the instruction
+     * @param delta the number of stack slots the instruction pushes, less the number it pops
+     * @postcondition the instruction is appended and the stack depth is updated
+     */
+    public void emit(int opcode, int delta)
+    {
+        emitByte(opcode);
+        adjust(delta);
+    }
+
+    /**
+     * The emitLocal method appends an instruction that loads or stores the given local,
+     *      widening it if the index does not fit in a byte.
+     * @param opcode ILOAD, ISTORE, or ALOAD
+     * @param local the index of the local
+     * @postcondition the instruction is appended and the stack depth is updated
+     */
+    public void emitLocal(int opcode, int local)
+    {
+        if (local > 0xff)
+        {
+            emitByte(WIDE);
+            emitByte(opcode);
+            emitShort(local);
+        }
+        else
+        {
+            emitByte(opcode);
+            emitByte(local);
+        }
+        adjust(opcode == ISTORE ? -1 : 1);
+    }
+
+    /**
+     * The emitIncrement method appends an instruction that adds the given amount to an int
+     *      local.
+     * @param local the index of the local
+     * @param amount the amount to add, which fits in a byte
+     * @postcondition the instruction is appended
+     */
+    public void emitIncrement(int local, int amount)
+    {
+        if (local > 0xff)
+        {
+            emitByte(WIDE);
+            emitByte(IINC);
+            emitShort(local);
+            emitShort(amount);
+        }
+        else
+        {
+            emitByte(IINC);
+            emitByte(local);
+            emitByte(amount);
+        }
+    }
+
+    /**
+     * The emitInt method appends the shortest instruction that pushes the given int.
+     * @param value the value to push
+     * @param pool the constant pool that holds the value if no shorter instruction fits
+     * @postcondition the instruction is appended and one more value is on the stack
+     */
+    public void emitInt(int value, ClassWriter pool)
+    {
+        if (value >= -1 && value <= 5)
+        {
+            emitByte(ICONST_0 + value);
+        }
+        else if (value == (byte) value)
+        {
+            emitByte(BIPUSH);
+            emitByte(value);
+        }
+        else if (value == (short) value)
+        {
+            emitByte(SIPUSH);
+            emitShort(value);
+        }
+        else
+        {
+            emitByte(LDC_W);
+            emitShort(pool.integer(value));
+        }
+        adjust(1);
+    }
+
+    /**
+     * The emitConstant method appends an instruction that pushes a constant from the pool.
+     * @param index the index of the constant in the constant pool
+     * @postcondition the instruction is appended and one more value is on the stack
+     */
+    public void emitConstant(int index)
+    {
+        emitByte(LDC_W);
+        emitShort(index);
+        adjust(1);
+    }
+
+    /**
+     * The emitField method appends an instruction that reads or writes an instance field.
+     * @param opcode GETFIELD or PUTFIELD
+     * @param index the index of the field reference in the constant pool
+     * @postcondition the instruction is appended and the stack depth is updated
+     */
+    public void emitField(int opcode, int index)
+    {
+        emitByte(opcode);
+        emitShort(index);
+        adjust(opcode == GETFIELD ? 0 : -2);
+    }
+
+    /**
+     * The emitInvoke method appends an instruction that calls a method, working out from the
+     *      descriptor of the method how the call changes the stack.
+     * @param opcode INVOKEVIRTUAL, INVOKESPECIAL, or INVOKESTATIC
+     * @param index the index of the method reference in the constant pool
+     * @param descriptor the descriptor of the method
+     * @postcondition the instruction is appended and the stack depth is updated
+     */
+    public void emitInvoke(int opcode, int index, String descriptor)
+    {
+        emitByte(opcode);
+        emitShort(index);
+        int delta = opcode == INVOKESTATIC ? 0 : -1;
+        int i = 1;
+        while (descriptor.charAt(i) != ')')
+        {
+            char c = descriptor.charAt(i);
+            delta -= c == 'J' || c == 'D' ? 2 : 1;
+            while (descriptor.charAt(i) == '[')
+            {
+                ++i;
+            }
+            i = descriptor.charAt(i) == 'L' ? descriptor.indexOf(';', i) + 1 : i + 1;
+        }
+        char result = descriptor.charAt(i + 1);
+        delta += result == 'V' ? 0 : result == 'J' || result == 'D' ? 2 : 1;
+        adjust(delta);
+    }
+
+    /**
+     * The emitNewIntArray method appends an instruction that pops a length and pushes a new int
+     *      array of that length.
+     * @postcondition the instruction is appended
+     */
+    public void emitNewIntArray()
+    {
+        emitByte(NEWARRAY);
+        emitByte(T_INT);
+    }
+
+    /**
+     * The newLabel method creates a label that is not yet placed in the code.
+     * @return type int the label
+     */
+    public int newLabel()
+    {
+        if (labelCount == labels.length)
+        {
+            labels = Arrays.copyOf(labels, labelCount * 2);
+            labelDepths = Arrays.copyOf(labelDepths, labelCount * 2);
+        }
+        labels[labelCount] = -1;
+        labelDepths[labelCount] = -1;
+        return labelCount++;
+    }
+
+    /**
+     * The mark method places the given label at the end of the code. If a branch to the label
+     *      was already written, the stack is as deep here as it was at the branch, which matters
+     *      after an unconditional jump.
+     * @param label the label to place
+     * @postcondition branches to the label continue at the next instruction
+     */
+    public void mark(int label)
+    {
+        labels[label] = length;
+        if (labelDepths[label] >= 0)
+        {
+            depth = labelDepths[label];
+        }
+    }
+
+    /**
+     * The emitBranch method appends a branch to the given label, whose offset is filled in
+     *      once the label is placed.
+     * @param opcode the opcode of the branch
+     * @param label the label to branch to
+     * @param delta the number of stack slots the branch pushes, less the number it pops
+     * @postcondition the branch is appended and the stack depth is updated
+     * @throws IllegalStateException if the method has too many labels
+     */
+    public void emitBranch(int opcode, int label, int delta)
+    {
+        if (label > 0xffff)
+        {
+            throw new IllegalStateException("Method has too many labels");
+        }
+        if (branchCount == branches.length)
+        {
+            branches = Arrays.copyOf(branches, branchCount * 2);
+        }
+        branches[branchCount++] = length;
+        emitByte(opcode);
+        emitShort(label);
+        adjust(delta);
+        labelDepths[label] = depth;
+    }
+
+    /**
+     * Returns the most values the method keeps on the operand stack at once.
+     * @return type int the max_stack of the method
+     */
+    public int getMaxStack()
+    {
+        return maxDepth;
+    }
+
+    /**
+     * The toByteArray method fills in the offsets of the branches and returns the code.
+     * @precondition every label that is branched to has been placed
+     * @return type byte[] the code of the method
+     * @throws IllegalStateException if the method is too large for its branches or for the
+     *      class file
+     */
+    public byte[] toByteArray()
+    {
+        if (length > 0xffff)
+        {
+            throw new IllegalStateException("Method code is too large");
+        }
+        for (int i = 0; i < branchCount; ++i)
+        {
+            int at = branches[i];
+            int label = ((code[at + 1] & 0xff) << 8) | (code[at + 2] & 0xff);
+            int offset = labels[label] - at;
+            if (offset != (short) offset)
+            {
+                throw new IllegalStateException("Branch offset is too large");
+            }
+            code[at + 1] = (byte) (offset >> 8);
+            code[at + 2] = (byte) offset;
+        }
+        return Arrays.copyOf(code, length);
+    }
+
+    /**
+     * The adjust method changes the stack depth by the given amount, recording the deepest the
+     *      stack has been.
+     * @param delta the change in the stack depth
+     */
+    private void adjust(int delta)
+    {
+        depth += delta;
+        maxDepth = Math.max(maxDepth, depth);
+    }
+
+    /**
+     * The emitByte method appends one byte to the code, growing the array as needed.
+     * @param b the byte to append
+     */
+    private void emitByte(int b)
+    {
+        if (length == code.length)
+        {
+            code = Arrays.copyOf(code, length * 2);
+        }
+        code[length++] = (byte) b;
+    }
+
+    /**
+     * The emitShort method appends two bytes to the code, high byte first.
+     * @param s the short to append
+     */
+    private void emitShort(int s)
+    {
+        emitByte(s >> 8);
+        emitByte(s);
+    }
+}
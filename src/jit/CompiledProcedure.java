@@ -0,0 +1,23 @@
+package src.jit;
+
+import src.environments.Environment;
+
+/**
+ * The CompiledProcedure interface is implemented by the classes the ProcedureCompiler generates
+ *      for hot procedures. A compiled procedure runs in the same frame the interpreted procedure
+ *      would run in, so a call does not need to know which of the two it is calling.
+ * @author Daniel Gergov
+ * @version 10/18/26
+ */
+public interface CompiledProcedure
+{
+    /**
+     * Runs the compiled body of the procedure.
+     * @param frame the frame of the call, with the arguments in the parameter slots and the
+     *      global environment as its parent
+     * @precondition every other slot of the frame is unassigned
+     * @postcondition the return slot of the frame holds the return value of the procedure, if
+     *      it assigned one
+     */
+    public void run(Environment frame);
+}
@@ -0,0 +1,173 @@
+package src.jit;
+
+import src.ast.ProcedureDeclaration;
+import src.environments.Environment;
+
+/**
+ * The JitRuntime class holds the static methods the code of compiled procedures calls for the
+ *      work that is simpler to write in Java than in JVM bytecode: reading and writing global
+ *      variables, calling other procedures through the interpreter, and failing with the same
+ *      messages the interpreter fails with. HotSpot inlines them into the compiled code.
+ *      The result of a compiled procedure is a long whose low 32 bits are the return value and
+ *      whose bit 32 is set if the procedure assigned its return variable.
+ * @author Daniel Gergov
+ * @version 10/18/26
+ */
+public final class JitRuntime
+{
+    private static final long ASSIGNED = 1L << 32;
+
+    /**
+     * The private constructor of the JitRuntime class, which only holds static methods.
+     */
+    private JitRuntime()
+    {
+    }
+
+    /**
+     * Returns the value of a local variable if it has been assigned.
+     * @param assigned 1 if the variable has been assigned, otherwise 0
+     * @param value the value of the variable
+     * @param name the name of the variable
+     * @return type int the value of the variable
+     * @throws RuntimeException if the variable has not been assigned
+     */
+    public static int checked(int assigned, int value, String name)
+    {
+        if (assigned == 0)
+        {
+            throw new RuntimeException("Variable " + name + " has no value.");
+        }
+        return value;
+    }
+
+    /**
+     * Returns the value of a global variable if it has been assigned.
+     * @param globals the global environment
+     * @param slot the slot of the variable
+     * @param name the name of the variable
+     * @return type int the value of the variable
+     * @throws RuntimeException if the variable has not been assigned
+     */
+    public static int getGlobal(Environment globals, int slot, String name)
+    {
+        if (!globals.isAssigned(slot))
+        {
+            throw new RuntimeException("Variable " + name + " has no value.");
+        }
+        return globals.getSlot(slot);
+    }
+
+    /**
+     * Stores the given value in a global variable.
+     * @param value the value to store
+     * @param globals the global environment
+     * @param slot the slot of the variable
+     * @postcondition the variable holds value
+     */
+    public static void setGlobal(int value, Environment globals, int slot)
+    {
+        globals.setSlot(slot, value);
+    }
+
+    /**
+     * Returns the result of a procedure that assigned the given return value.
+     * @param value the return value
+     * @return type long the result of the procedure
+     */
+    public static long result(int value)
+    {
+        return ASSIGNED | (value & 0xffffffffL);
+    }
+
+    /**
+     * Returns the return value in the given result of a procedure.
+     * @param result the result of the procedure
+     * @return type int the return value
+     * @throws RuntimeException if the procedure did not assign its return variable
+     */
+    public static int value(long result)
+    {
+        if ((result & ASSIGNED) == 0)
+        {
+            throw new RuntimeException("Cannot evaluate expression with void return value");
+        }
+        return (int) result;
+    }
+
+    /**
+     * Stores the return value in the given result of a procedure in the return slot of its
+     *      frame, if the procedure assigned one.
+     * @param frame the frame of the call
+     * @param slot the return slot of the procedure
+     * @param result the result of the procedure
+     * @postcondition the return slot holds the return value if there is one
+     */
+    public static void storeResult(Environment frame, int slot, long result)
+    {
+        if ((result & ASSIGNED) != 0)
+        {
+            frame.setSlot(slot, (int) result);
+        }
+    }
+
+    /**
+     * Returns the result of a procedure that is not compiled into the calling class, calling it
+     *      the way a ResolvedProcedureCall does.
+     * @param procedure the procedure to call
+     * @param globals the global environment
+     * @param arguments the values of the arguments
+     * @return type long the result of the procedure
+     */
+    public static long call(ProcedureDeclaration procedure, Environment globals, int[] arguments)
+    {
+        Environment frame = procedure.acquireFrame(globals);
+        try
+        {
+            int[] parameterSlots = procedure.getParameterSlots();
+            for (int i = 0; i < arguments.length; ++i)
+            {
+                frame.setSlot(parameterSlots[i], arguments[i]);
+            }
+            procedure.invoke(frame);
+            int slot = procedure.getReturnSlot();
+            return frame.isAssigned(slot) ? result(frame.getSlot(slot)) : 0L;
+        }
+        finally
+        {
+            procedure.releaseFrame();
+        }
+    }
+
+    /**
+     * Writes the given value on its own line.
+     * @param value the value to write
+     * @postcondition the value has been printed
+     */
+    public static void writeln(int value)
+    {
+        System.out.println(value);
+    }
+
+    /**
+     * Fails because the called procedure is not declared. The method is declared to return an
+     *      int so that the compiled code can call it where a value is expected.
+     * @param id the name of the procedure
+     * @return never returns
+     * @throws RuntimeException always
+     */
+    public static int notDeclared(String id)
+    {
+        throw new RuntimeException("Procedure " + id + " not declared.");
+    }
+
+    /**
+     * Fails because a break or continue statement is not inside a loop.
+     * @param message the message of the interpreter for the statement
+     * @throws IllegalArgumentException always
+     */
+    public static void notInLoop(String message)
+    {
+        throw new IllegalArgumentException(message);
+    }
+}
@@ -0,0 +1,575 @@
+package src.jit;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.List;
+import src.ast.Expression;
+import src.ast.ProcedureDeclaration;
+
+/**
+ * The ProcedureCompiler class compiles the body of a hot resolved procedure into a hidden JVM
+ *      class, so that HotSpot compiles the Pascal code to machine code like any other Java
+ *      method. The AST nodes compile themselves by calling the emit methods of this class, the
+ *      same way they assemble themselves for the VirtualMachine. The generated class has one
+ *      method, invoke, that takes the global environment and the arguments and returns the
+ *      result of the procedure as JitRuntime encodes it. Every slot of the procedure's frame
+ *      becomes a pair of JVM locals, its value and whether it has been assigned; global
+ *      variables stay in the slots of the global environment. Calls of the procedure to
+ *      itself call invoke directly, and calls to other procedures go through the interpreter,
+ *      which compiles those procedures once they get hot in turn.
+ * @author Daniel Gergov
+ * @version 10/18/26
+ */
+public class ProcedureCompiler
+{
+    /** The number of calls after which a procedure is compiled. */
+    public static final int THRESHOLD = 1000;
+
+    private static final String OBJECT = "java/lang/Object";
+    private static final String ENVIRONMENT = "src/environments/Environment";
+    private static final String PROCEDURE = "src/ast/ProcedureDeclaration";
+    private static final String RUNTIME = "src/jit/JitRuntime";
+    private static final String CALLEES = "[L" + PROCEDURE + ";";
+    private static final int MAX_LOCALS = 0xffff;
+    private static final int MAX_PARAMETERS = 250;
+
+    private ProcedureDeclaration procedure;
+    private String className;
+    private String descriptor;
+    private ClassWriter writer;
+    private CodeWriter code;
+    private int valueBase;
+    private int flagBase;
+    private int localCount;
+    private int exit;
+    private List<ProcedureDeclaration> callees;
+    private List<int[]> loops;
+
+    /**
+     * Constructor for the ProcedureCompiler class that compiles the given procedure.
+     * @param procedure the resolved procedure to compile
+     */
+    private ProcedureCompiler(ProcedureDeclaration procedure)
+    {
+        this.procedure = procedure;
+        className = "src/jit/Compiled" + procedure.getId();
+        StringBuilder parameters = new StringBuilder("(L" + ENVIRONMENT + ";");
+        for (int i = 0; i < procedure.getParameterSlots().length; ++i)
+        {
+            parameters.append('I');
+        }
+        descriptor = parameters.append(")J").toString();
+        writer = new ClassWriter(className, OBJECT, "src/jit/CompiledProcedure");
+        callees = new ArrayList<ProcedureDeclaration>();
+        loops = new ArrayList<int[]>();
+    }
+
+    /**
+     * The compile method compiles the given resolved procedure and loads it as a hidden class.
+     * @param procedure the resolved procedure to compile
+     * @return type CompiledProcedure the compiled procedure, or null if the procedure cannot be
+     *      compiled, in which case it stays interpreted
+     */
+    public static CompiledProcedure compile(ProcedureDeclaration procedure)
+    {
+        if (procedure.getParameterSlots().length > MAX_PARAMETERS)
+        {
+            return null;
+        }
+        try
+        {
+            ProcedureCompiler compiler = new ProcedureCompiler(procedure);
+            compiler.writeInvoke();
+            compiler.writeRun();
+            compiler.writeConstructor();
+            Class<?> compiled = MethodHandles.lookup()
+                    .defineHiddenClass(compiler.writer.toByteArray(), true).lookupClass();
+            ProcedureDeclaration[] callees = compiler.callees.toArray(new ProcedureDeclaration[0]);
+            return (CompiledProcedure) compiled.getConstructor(ProcedureDeclaration[].class)
+                    .newInstance((Object) callees);
+        }
+        catch (ReflectiveOperationException | RuntimeException | LinkageError e)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * The writeInvoke method writes the invoke method, which clears the slots of the frame,
+     *      stores the arguments in the parameter slots, runs the body, and returns the result.
+     * @postcondition the class declares invoke
+     */
+    private void writeInvoke()
+    {
+        int[] parameterSlots = procedure.getParameterSlots();
+        int slotCount = procedure.getSlotCount();
+        code = new CodeWriter();
+        valueBase = 2 + parameterSlots.length;
+        flagBase = valueBase + slotCount;
+        localCount = flagBase + slotCount;
+        exit = code.newLabel();
+        for (int slot = 0; slot < slotCount; ++slot)
+        {
+            code.emit(CodeWriter.ICONST_0, 1);
+            code.emitLocal(CodeWriter.ISTORE, valueBase + slot);
+            code.emit(CodeWriter.ICONST_0, 1);
+            code.emitLocal(CodeWriter.ISTORE, flagBase + slot);
+        }
+        for (int i = 0; i < parameterSlots.length; ++i)
+        {
+            code.emitLocal(CodeWriter.ILOAD, 2 + i);
+            emitStore(0, parameterSlots[i]);
+        }
+        procedure.getStatement().jit(this);
+        code.mark(exit);
+        int unassigned = code.newLabel();
+        code.emitLocal(CodeWriter.ILOAD, flagBase + procedure.getReturnSlot());
+        code.emitBranch(CodeWriter.IFEQ, unassigned, -1);
+        code.emitLocal(CodeWriter.ILOAD, valueBase + procedure.getReturnSlot());
+        emitRuntime("result", "(I)J");
+        code.emit(CodeWriter.LRETURN, -2);
+        code.mark(unassigned);
+        code.emit(CodeWriter.LCONST_0, 2);
+        code.emit(CodeWriter.LRETURN, -2);
+        if (localCount > MAX_LOCALS)
+        {
+            throw new IllegalStateException("Procedure " + procedure.getId() + " has too many locals");
+        }
+        writer.addMethod(ClassWriter.ACC_PUBLIC, "invoke", descriptor, code, localCount);
+    }
+
+    /**
+     * The writeRun method writes the run method of the CompiledProcedure interface, which
+     *      reads the arguments from the parameter slots of the frame, calls invoke, and stores
+     *      the return value in the return slot of the frame.
+     * @postcondition the class declares run
+     */
+    private void writeRun()
+    {
+        int[] parameterSlots = procedure.getParameterSlots();
+        code = new CodeWriter();
+        code.emit(CodeWriter.ALOAD_1, 1);
+        code.emitInt(procedure.getReturnSlot(), writer);
+        code.emit(CodeWriter.ALOAD_0, 1);
+        code.emit(CodeWriter.ALOAD_1, 1);
+        emitInvoke(CodeWriter.INVOKEVIRTUAL, ENVIRONMENT, "getGlobals", "()L" + ENVIRONMENT + ";");
+        for (int slot : parameterSlots)
+        {
+            code.emit(CodeWriter.ALOAD_1, 1);
+            code.emitInt(slot, writer);
+            emitInvoke(CodeWriter.INVOKEVIRTUAL, ENVIRONMENT, "getSlot", "(I)I");
+        }
+        emitInvoke(CodeWriter.INVOKEVIRTUAL, className, "invoke", descriptor);
+        emitRuntime("storeResult", "(L" + ENVIRONMENT + ";IJ)V");
+        code.emit(CodeWriter.RETURN, 0);
+        writer.addMethod(ClassWriter.ACC_PUBLIC, "run", "(L" + ENVIRONMENT + ";)V", code, 2);
+    }
+
+    /**
+     * The writeConstructor method writes the constructor, which stores the procedures the
+     *      compiled code calls through the interpreter.
+     * @postcondition the class declares its constructor and the field of the callees
+     */
+    private void writeConstructor()
+    {
+        writer.addField(ClassWriter.ACC_PRIVATE | ClassWriter.ACC_FINAL, "callees", CALLEES);
+        code = new CodeWriter();
+        code.emit(CodeWriter.ALOAD_0, 1);
+        emitInvoke(CodeWriter.INVOKESPECIAL, OBJECT, "<init>", "()V");
+        code.emit(CodeWriter.ALOAD_0, 1);
+        code.emit(CodeWriter.ALOAD_1, 1);
+        code.emitField(CodeWriter.PUTFIELD, writer.fieldRef(className, "callees", CALLEES));
+        code.emit(CodeWriter.RETURN, 0);
+        writer.addMethod(ClassWriter.ACC_PUBLIC, "<init>", "(" + CALLEES + ")V", code, 2);
+    }
+
+    /**
+     * The emitConstant method emits code that pushes the given value.
+     * @param value the value to push
+     * @postcondition the code is emitted
+     */
+    public void emitConstant(int value)
+    {
+        code.emitInt(value, writer);
+    }
+
+    /**
+     * The emitLoad method emits code that pushes the value of the given variable, failing if
+     *      the variable has not been assigned.
+     * @param depth 0 for a slot of the procedure's frame; 1 for a global slot
+     * @param slot the slot of the variable
+     * @param name the name of the variable, for the error message
+     * @postcondition the code is emitted
+     */
+    public void emitLoad(int depth, int slot, String name)
+    {
+        if (depth == 0)
+        {
+            code.emitLocal(CodeWriter.ILOAD, flagBase + slot);
+            code.emitLocal(CodeWriter.ILOAD, valueBase + slot);
+            code.emitConstant(writer.string(name));
+            emitRuntime("checked", "(IILjava/lang/String;)I");
+        }
+        else
+        {
+            code.emit(CodeWriter.ALOAD_1, 1);
+            code.emitInt(slot, writer);
+            code.emitConstant(writer.string(name));
+            emitRuntime("getGlobal", "(L" + ENVIRONMENT + ";ILjava/lang/String;)I");
+        }
+    }
+
+    /**
+     * The emitStore method emits code that pops a value into the given variable.
+     * @param depth 0 for a slot of the procedure's frame; 1 for a global slot
+     * @param slot the slot of the variable
+     * @postcondition the code is emitted
+     */
+    public void emitStore(int depth, int slot)
+    {
+        if (depth == 0)
+        {
+            code.emitLocal(CodeWriter.ISTORE, valueBase + slot);
+            code.emit(CodeWriter.ICONST_1, 1);
+            code.emitLocal(CodeWriter.ISTORE, flagBase + slot);
+        }
+        else
+        {
+            code.emit(CodeWriter.ALOAD_1, 1);
+            code.emitInt(slot, writer);
+            emitRuntime("setGlobal", "(IL" + ENVIRONMENT + ";I)V");
+        }
+    }
+
+    /**
+     * The emitClear method emits code that marks the given variable unassigned.
+     * @param depth 0 for a slot of the procedure's frame; 1 for a global slot
+     * @param slot the slot of the variable
+     * @postcondition the code is emitted
+     */
+    public void emitClear(int depth, int slot)
+    {
+        if (depth == 0)
+        {
+            code.emit(CodeWriter.ICONST_0, 1);
+            code.emitLocal(CodeWriter.ISTORE, flagBase + slot);
+        }
+        else
+        {
+            code.emit(CodeWriter.ALOAD_1, 1);
+            code.emitInt(slot, writer);
+            emitInvoke(CodeWriter.INVOKEVIRTUAL, ENVIRONMENT, "clearSlot", "(I)V");
+        }
+    }
+
+    /**
+     * The newTemporary method reserves a JVM local for a value the compiled code keeps, such as
+     *      the counter and the bound of a for loop.
+     * @return type int the index of the local
+     */
+    public int newTemporary()
+    {
+        return localCount++;
+    }
+
+    /**
+     * The emitLoadTemporary method emits code that pushes the value of a temporary.
+     * @param temporary the local returned by newTemporary
+     * @postcondition the code is emitted
+     */
+    public void emitLoadTemporary(int temporary)
+    {
+        code.emitLocal(CodeWriter.ILOAD, temporary);
+    }
+
+    /**
+     * The emitStoreTemporary method emits code that pops a value into a temporary.
+     * @param temporary the local returned by newTemporary
+     * @postcondition the code is emitted
+     */
+    public void emitStoreTemporary(int temporary)
+    {
+        code.emitLocal(CodeWriter.ISTORE, temporary);
+    }
+
+    /**
+     * The emitIncrement method emits code that adds one to a temporary.
+     * @param temporary the local returned by newTemporary
+     * @postcondition the code is emitted
+     */
+    public void emitIncrement(int temporary)
+    {
+        code.emitIncrement(temporary, 1);
+    }
+
+    /**
+     * The emitOperator method emits code that pops two values and pushes the result of the
+     *      given arithmetic or comparison operator, 1 or 0 for a comparison.
+     * @param op the operator as the parser spells it
+     * @postcondition the code is emitted
+     * @throws IllegalArgumentException if op is not an operator
+     */
+    public void emitOperator(String op)
+    {
+        switch (op)
+        {
+            case "+":
+                code.emit(CodeWriter.IADD, -1);
+                break;
+            case "-":
+                code.emit(CodeWriter.ISUB, -1);
+                break;
+            case "*":
+                code.emit(CodeWriter.IMUL, -1);
+                break;
+            case "/":
+                code.emit(CodeWriter.IDIV, -1);
+                break;
+            case "mod":
+                code.emit(CodeWriter.IREM, -1);
+                break;
+            default:
+                int holds = code.newLabel();
+                int end = code.newLabel();
+                code.emitBranch(comparison(op, true), holds, -2);
+                code.emit(CodeWriter.ICONST_0, 1);
+                code.emitBranch(CodeWriter.GOTO, end, 0);
+                code.mark(holds);
+                code.emit(CodeWriter.ICONST_1, 1);
+                code.mark(end);
+        }
+    }
+
+    /**
+     * The emitBranch method emits code that pops two values and jumps to the given label when
+     *      the given comparison of them holds, or when it does not hold.
+     * @param op the comparison operator as the parser spells it
+     * @param when true to jump when the comparison holds; false to jump when it does not
+     * @param label the label to jump to
+     * @postcondition the code is emitted
+     * @throws IllegalArgumentException if op is not a comparison operator
+     */
+    public void emitBranch(String op, boolean when, int label)
+    {
+        code.emitBranch(comparison(op, when), label, -2);
+    }
+
+    /**
+     * The emitJump method emits a jump to the given label.
+     * @param label the label to jump to
+     * @postcondition the code is emitted
+     */
+    public void emitJump(int label)
+    {
+        code.emitBranch(CodeWriter.GOTO, label, 0);
+    }
+
+    /**
+     * The newLabel method creates a label that is not yet placed in the code.
+     * @return type int the label
+     */
+    public int newLabel()
+    {
+        return code.newLabel();
+    }
+
+    /**
+     * The mark method places the given label at the end of the code emitted so far.
+     * @param label the label to place
+     * @postcondition jumps to the label continue at the next instruction emitted
+     */
+    public void mark(int label)
+    {
+        code.mark(label);
+    }
+
+    /**
+     * The enterLoop method starts the body of a loop, so that break and continue statements in
+     *      it jump to the given labels.
+     * @param next the label a continue statement jumps to
+     * @param end the label a break statement jumps to
+     * @postcondition the loop is the innermost loop
+     */
+    public void enterLoop(int next, int end)
+    {
+        loops.add(new int[] {next, end});
+    }
+
+    /**
+     * The exitLoop method ends the body of the innermost loop.
+     * @postcondition the enclosing loop, if any, is the innermost loop
+     */
+    public void exitLoop()
+    {
+        loops.remove(loops.size() - 1);
+    }
+
+    /**
+     * The emitBreak method emits a jump out of the innermost loop, or code that fails the way
+     *      the interpreter does if the break statement is not inside a loop.
+     * @postcondition the code is emitted
+     */
+    public void emitBreak()
+    {
+        if (loops.isEmpty())
+        {
+            code.emitConstant(writer.string("Break statement can only be used within a loop."));
+            emitRuntime("notInLoop", "(Ljava/lang/String;)V");
+            return;
+        }
+        emitJump(loops.get(loops.size() - 1)[1]);
+    }
+
+    /**
+     * The emitContinue method emits a jump to the next iteration of the innermost loop, or code
+     *      that fails the way the interpreter does if the continue statement is not inside a
+     *      loop.
+     * @postcondition the code is emitted
+     */
+    public void emitContinue()
+    {
+        if (loops.isEmpty())
+        {
+            code.emitConstant(writer.string("Continue statement can only be used within a loop."));
+            emitRuntime("notInLoop", "(Ljava/lang/String;)V");
+            return;
+        }
+        emitJump(loops.get(loops.size() - 1)[0]);
+    }
+
+    /**
+     * The emitExit method emits a jump to the end of the procedure.
+     * @postcondition the code is emitted
+     */
+    public void emitExit()
+    {
+        emitJump(exit);
+    }
+
+    /**
+     * The emitWriteln method emits code that pops a value and prints it on its own line.
+     * @postcondition the code is emitted
+     */
+    public void emitWriteln()
+    {
+        emitRuntime("writeln", "(I)V");
+    }
+
+    /**
+     * The emitCall method emits a call to the given procedure with the given arguments. A call
+     *      of the procedure being compiled to itself calls invoke directly; any other call goes
+     *      through JitRuntime.call.
+     * @param callee the procedure the call is bound to, or null if it is not declared
+     * @param id the name of the called procedure
+     * @param arguments the arguments of the call
+     * @param value true to push the return value of the procedure; false to ignore it
+     * @postcondition the code is emitted
+     */
+    public void emitCall(ProcedureDeclaration callee, String id, Expression[] arguments,
+            boolean value)
+    {
+        if (callee == null)
+        {
+            code.emitConstant(writer.string(id));
+            emitRuntime("notDeclared", "(Ljava/lang/String;)I");
+            if (!value)
+            {
+                code.emit(CodeWriter.POP, -1);
+            }
+            return;
+        }
+        if (callee == procedure && arguments.length == procedure.getParameterSlots().length)
+        {
+            code.emit(CodeWriter.ALOAD_0, 1);
+            code.emit(CodeWriter.ALOAD_1, 1);
+            for (Expression argument : arguments)
+            {
+                argument.jitValue(this);
+            }
+            emitInvoke(CodeWriter.INVOKEVIRTUAL, className, "invoke", descriptor);
+        }
+        else
+        {
+            int index = callees.indexOf(callee);
+            if (index < 0)
+            {
+                index = callees.size();
+                callees.add(callee);
+            }
+            code.emit(CodeWriter.ALOAD_0, 1);
+            code.emitField(CodeWriter.GETFIELD, writer.fieldRef(className, "callees", CALLEES));
+            code.emitInt(index, writer);
+            code.emit(CodeWriter.AALOAD, -1);
+            code.emit(CodeWriter.ALOAD_1, 1);
+            code.emitInt(arguments.length, writer);
+            code.emitNewIntArray();
+            for (int i = 0; i < arguments.length; ++i)
+            {
+                code.emit(CodeWriter.DUP, 1);
+                code.emitInt(i, writer);
+                arguments[i].jitValue(this);
+                code.emit(CodeWriter.IASTORE, -3);
+            }
+            emitRuntime("call", "(L" + PROCEDURE + ";L" + ENVIRONMENT + ";[I)J");
+        }
+        if (value)
+        {
+            emitRuntime("value", "(J)I");
+        }
+        else
+        {
+            code.emit(CodeWriter.POP2, -2);
+        }
+    }
+
+    /**
+     * Returns the JVM branch that jumps when the given comparison holds, or when it does not.
+     * @param op the comparison operator as the parser spells it
+     * @param when true for the branch taken when the comparison holds; false for the branch
+     *      taken when it does not
+     * @return type int the opcode of the branch
+     * @throws IllegalArgumentException if op is not a comparison operator
+     */
+    private static int comparison(String op, boolean when)
+    {
+        switch (op)
+        {
+            case "=":
+                return when ? CodeWriter.IF_ICMPEQ : CodeWriter.IF_ICMPNE;
+            case "<>":
+                return when ? CodeWriter.IF_ICMPNE : CodeWriter.IF_ICMPEQ;
+            case "<":
+                return when ? CodeWriter.IF_ICMPLT : CodeWriter.IF_ICMPGE;
+            case "<=":
+                return when ? CodeWriter.IF_ICMPLE : CodeWriter.IF_ICMPGT;
+            case ">":
+                return when ? CodeWriter.IF_ICMPGT : CodeWriter.IF_ICMPLE;
+            case ">=":
+                return when ? CodeWriter.IF_ICMPGE : CodeWriter.IF_ICMPLT;
+            default:
+                throw new IllegalArgumentException("Unexpected operator in expression evaluation");
+        }
+    }
+
+    /**
+     * The emitRuntime method emits a call to a static method of JitRuntime.
+     * @param name the name of the method
+     * @param methodDescriptor the descriptor of the method
+     */
+    private void emitRuntime(String name, String methodDescriptor)
+    {
+        emitInvoke(CodeWriter.INVOKESTATIC, RUNTIME, name, methodDescriptor);
+    }
+
+    /**
+     * The emitInvoke method emits a call to the given method.
+     * @param opcode the invoke instruction
+     * @param owner the internal name of the class that declares the method
+     * @param name the name of the method
+     * @param methodDescriptor the descriptor of the method
+     */
+    private void emitInvoke(int opcode, String owner, String name, String methodDescriptor)
+    {
+        code.emitInvoke(opcode, writer.methodRef(owner, name, methodDescriptor), methodDescriptor);
+    }
+}
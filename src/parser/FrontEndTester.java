@@ -0,0 +1,298 @@
+package src.parser;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.IdentityHashMap;
+import src.ast.ProcedureDeclaration;
+import src.ast.Program;
+import src.scanner.ScanErrorException;
+import src.scanner.Scanner;
+
+/**
+ * The FrontEndTester class checks that the IncrementalParser and the ParallelParser build the
+ *      Program that a full parse with Parser.parseProgram builds. Two Programs are the same if
+ *      every field of every AST node is, including the loop that each Break and Continue
+ *      refers to and the number it was parsed with. The tester parses every program in ./test
+ *      all three ways, and then edits ./test/procs.txt: inside one procedure, where the other
+ *      procedures must be reused as the same objects; by adding a loop, which renumbers the
+ *      loops of the procedures after it; and by breaking the source and then fixing it again,
+ *      both with a syntax error and with a character the scanner rejects.
+ * Usage: java src.parser.FrontEndTester
+ * @author Daniel Gergov
+ * @version 10/18/26
+ */
+public class FrontEndTester
+{
+    private static boolean passed = true;
+
+    /**
+     * The main method runs every check and exits with status 1 if any of them fails.
+     * @param args command-line arguments parameter that Java requires to be specified here
+     */
+    public static void main(String[] args)
+    {
+        try
+        {
+            for (String name : new String[] {"adv", "calls", "hoist", "loops", "procs", "test",
+                    "test2", "test3"})
+            {
+                String text = read("./test/" + name + ".txt");
+                Program expected = parse(text);
+                check(name + ".txt parallel", same(expected, parallel(text)));
+                check(name + ".txt incremental", same(expected, new IncrementalParser(text).getProgram()));
+            }
+            editInsideProcedure();
+            editLoopCount();
+            editBreakAndFix("WRITELN(i);", "WRITELN(", "syntax error");
+            editBreakAndFix("WRITELN(i);", "$", "scan error");
+        }
+        catch (IOException e)
+        {
+            e.printStackTrace();
+            System.out.println("File could not be read.");
+            passed = false;
+        }
+        catch (ScanErrorException e)
+        {
+            e.printStackTrace();
+            System.out.println(e.getMessage());
+            passed = false;
+        }
+        System.out.println(passed ? "all checks pass" : "some checks fail");
+        if (!passed)
+        {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * The editInsideProcedure method changes a number in the body of the second procedure of
+     *      procs.txt. Only that procedure may be parsed again; the first and the third must be
+     *      the same objects as before the edit.
+     * @throws IOException if procs.txt cannot be read
+     * @throws ScanErrorException if procs.txt contains an unexpected character
+     */
+    private static void editInsideProcedure() throws IOException, ScanErrorException
+    {
+        String text = read("./test/procs.txt");
+        IncrementalParser incremental = new IncrementalParser(text);
+        ProcedureDeclaration[] before = incremental.getProgram().getProcedureDeclarations();
+        int offset = text.indexOf("i > 7") + 4;
+        String edited = text.substring(0, offset) + "12" + text.substring(offset + 1);
+        Program program = incremental.edit(offset, 1, "12");
+        check("edit inside second", same(parse(edited), program));
+        ProcedureDeclaration[] after = program.getProcedureDeclarations();
+        check("edit inside second reuses first", after[0] == before[0]);
+        check("edit inside second parses second again", after[1] != before[1]);
+        check("edit inside second reuses third", after[2] == before[2]);
+    }
+
+    /**
+     * The editLoopCount method adds a loop to the first procedure of procs.txt, so the loops of
+     *      the procedures after it, and the ids of their Break and Continue statements, are
+     *      numbered one higher, and then removes it again.
+     * @throws IOException if procs.txt cannot be read
+     * @throws ScanErrorException if procs.txt contains an unexpected character
+     */
+    private static void editLoopCount() throws IOException, ScanErrorException
+    {
+        String text = read("./test/procs.txt");
+        IncrementalParser incremental = new IncrementalParser(text);
+        String loop = "WHILE n < 0 DO n := n + 1;\n    ";
+        int offset = text.indexOf("first := s;");
+        String edited = text.substring(0, offset) + loop + text.substring(offset);
+        check("add a loop", same(parse(edited), incremental.edit(offset, 0, loop)));
+        check("add a loop parallel", same(parse(edited), parallel(edited)));
+        check("remove the loop", same(parse(text), incremental.edit(offset, loop.length(), "")));
+    }
+
+    /**
+     * The editBreakAndFix method inserts text into the third procedure of procs.txt that does
+     *      not scan or parse, checks that every parser rejects it with the error a full parse of
+     *      its TokenStream fails with, and then removes it again, after which the
+     *      IncrementalParser must recover the full parse. A Parser reading from a Scanner prints
+     *      a scan error and goes on, so it is not asked for the error.
+     * @param at the text to insert before
+     * @param inserted the text that breaks the source
+     * @param what what kind of error the text causes
+     * @throws IOException if procs.txt cannot be read
+     * @throws ScanErrorException if procs.txt contains an unexpected character
+     */
+    private static void editBreakAndFix(String at, String inserted, String what)
+            throws IOException, ScanErrorException
+    {
+        String text = read("./test/procs.txt");
+        IncrementalParser incremental = new IncrementalParser(text);
+        int offset = text.indexOf(at);
+        String broken = text.substring(0, offset) + inserted + text.substring(offset);
+        String expected = error(() -> new Parser(new Scanner(broken).tokenize()).parseProgram());
+        check(what + " is an error", expected != null);
+        check(what + " parallel", expected != null
+                && expected.equals(error(() -> parallel(broken))));
+        check(what + " incremental", expected != null
+                && expected.equals(error(() -> incremental.edit(offset, 0, inserted))));
+        check(what + " leaves no program", incremental.getProgram() == null);
+        check(what + " fixed", same(parse(text), incremental.edit(offset, inserted.length(), "")));
+    }
+
+    /**
+     * The Parse interface is a parse that may fail.
+     */
+    private interface Parse
+    {
+        /**
+         * Parses a program.
+         * @return type Program the parsed program
+         * @throws ScanErrorException if the source contains an unexpected character
+         */
+        Program run() throws ScanErrorException;
+    }
+
+    /**
+     * The error method runs the given parse and returns the error it fails with.
+     * @param parse the parse
+     * @return type String the class and message of the error, or null if the parse succeeds
+     */
+    private static String error(Parse parse)
+    {
+        try
+        {
+            parse.run();
+            return null;
+        }
+        catch (ScanErrorException | RuntimeException e)
+        {
+            return e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+    }
+
+    /**
+     * The parse method parses the given source in full with a Parser reading from a Scanner.
+     * @param text the source
+     * @return type Program the parsed program
+     * @throws ScanErrorException if the source contains an unexpected character
+     */
+    private static Program parse(String text) throws ScanErrorException
+    {
+        return new Parser(new Scanner(text)).parseProgram();
+    }
+
+    /**
+     * The parallel method parses the given source with a ParallelParser.
+     * @param text the source
+     * @return type Program the parsed program
+     * @throws ScanErrorException if the source contains an unexpected character
+     */
+    private static Program parallel(String text) throws ScanErrorException
+    {
+        return new ParallelParser(new Scanner(text).tokenize()).parseProgram();
+    }
+
+    /**
+     * The read method reads the given file as ISO-8859-1, the way the Scanner reads it.
+     * @param file the file
+     * @return type String the contents of the file
+     * @throws IOException if the file cannot be read
+     */
+    private static String read(String file) throws IOException
+    {
+        return new String(Files.readAllBytes(Paths.get(file)), StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * The check method reports one check.
+     * @param name what was checked
+     * @param ok whether the check passed
+     * @postcondition a failed check makes the tester fail
+     */
+    private static void check(String name, boolean ok)
+    {
+        System.out.println(name + ": " + (ok ? "ok" : "MISMATCH"));
+        passed &= ok;
+    }
+
+    /**
+     * Returns whether the two given ASTs are the same.
+     * @param a one AST
+     * @param b another AST
+     * @return type boolean true if every field of every node is the same; otherwise, false
+     */
+    private static boolean same(Object a, Object b)
+    {
+        return same(a, b, new IdentityHashMap<Object, Object>());
+    }
+
+    /**
+     * Returns whether the two given values are the same. AST nodes are compared field by
+     *      field, arrays element by element, and anything else with equals. A node seen before,
+     *      such as the loop a Break refers to, must be paired with the node it was paired with
+     *      the first time.
+     * @param a one value, or null
+     * @param b another value, or null
+     * @param seen the nodes of a seen so far, each with the node of b it was paired with
+     * @return type boolean true if the values are the same; otherwise, false
+     */
+    private static boolean same(Object a, Object b, IdentityHashMap<Object, Object> seen)
+    {
+        if (a == null || b == null)
+        {
+            return a == b;
+        }
+        if (a.getClass() != b.getClass())
+        {
+            return false;
+        }
+        if (a.getClass().isArray())
+        {
+            if (Array.getLength(a) != Array.getLength(b))
+            {
+                return false;
+            }
+            for (int i = 0; i < Array.getLength(a); ++i)
+            {
+                if (!same(Array.get(a, i), Array.get(b, i), seen))
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (!a.getClass().getName().startsWith("src.ast."))
+        {
+            return a.equals(b);
+        }
+        if (seen.containsKey(a))
+        {
+            return seen.get(a) == b;
+        }
+        seen.put(a, b);
+        try
+        {
+            for (Class<?> c = a.getClass(); c != Object.class; c = c.getSuperclass())
+            {
+                for (Field field : c.getDeclaredFields())
+                {
+                    if (Modifier.isStatic(field.getModifiers()))
+                    {
+                        continue;
+                    }
+                    field.setAccessible(true);
+                    if (!same(field.get(a), field.get(b), seen))
+                    {
+                        return false;
+                    }
+                }
+            }
+        }
+        catch (IllegalAccessException e)
+        {
+            throw new RuntimeException(e);
+        }
+        return true;
+    }
+}
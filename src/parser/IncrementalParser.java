@@ -0,0 +1,249 @@
+package src.parser;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import src.ast.ProcedureDeclaration;
+import src.ast.Program;
+import src.ast.Statement;
+import src.ast.VariableDeclaration;
+import src.scanner.ScanErrorException;
+import src.scanner.Scanner;
+import src.scanner.TokenStream;
+
+/**
+ * The IncrementalParser class keeps the source, the TokenStream, and the Program of a file that
+ *      is being edited, and brings all three up to date after each text edit without scanning
+ *      or parsing the whole file again. A program is a sequence of units: global variable
+ *      declarations, procedure declarations, and the main statement. An edit scans again only
+ *      the tokens around it and parses again only the units those tokens belong to; every other
+ *      unit, in particular every untouched ProcedureDeclaration, is reused as the same object.
+ *      Offsets and lengths of edits are counted in bytes of the ISO-8859-1 encoded source, which
+ *      are its characters.
+ * @author Daniel Gergov
+ * @version 10/18/26
+ */
+public class IncrementalParser
+{
+    private byte[] source;
+    private TokenStream tokens;
+    private Statement[] units;
+    private int[] unitStarts;
+    private int[] unitLoops;
+    private int unitCount;
+    private int variableCount;
+    private int procedureCount;
+    private Program program;
+
+    /**
+     * Constructor for the IncrementalParser class that scans and parses the given source in
+     *      full.
+     * @param text the source of the program
+     * @throws ScanErrorException if the source contains an unexpected character
+     * @throws IllegalArgumentException if the source does not parse
+     */
+    public IncrementalParser(String text) throws ScanErrorException
+    {
+        source = text.getBytes(StandardCharsets.ISO_8859_1);
+        tokens = new Scanner(text).tokenize();
+        units = new Statement[16];
+        unitStarts = new int[16];
+        unitLoops = new int[16];
+        parseUnits(0, 0);
+    }
+
+    /**
+     * Returns the Program parsed from the current source.
+     * @return type Program the parsed Program AST node, or null if the last edit left the source
+     *      unparsable
+     */
+    public Program getProgram()
+    {
+        return program;
+    }
+
+    /**
+     * Returns the tokens of the current source.
+     * @return type TokenStream the tokens of the current source
+     */
+    public TokenStream getTokens()
+    {
+        return tokens;
+    }
+
+    /**
+     * The edit method applies a text edit to the source and brings the tokens and the Program up
+     *      to date. Only the units overlapping the tokens the edit scanned again are parsed again,
+     *      and parsing stops at the first unit boundary past those tokens where the parse is in
+     *      the same state it was in before the edit: the same unit kinds are allowed there and
+     *      the same number of loops has been seen, which numbers the loops break and continue
+     *      refer to. The resulting Program is exactly the one a full parse would build.
+     * @param offset the offset of the edit in the current source
+     * @param removedLength the number of bytes the edit removes
+     * @param insertedText the text the edit inserts in their place
+     * @return type Program the Program parsed from the edited source
+     * @throws ScanErrorException if the edited source contains an unexpected character
+     * @throws IllegalArgumentException if the edited source does not parse
+     */
+    public Program edit(int offset, int removedLength, String insertedText) throws ScanErrorException
+    {
+        byte[] inserted = insertedText.getBytes(StandardCharsets.ISO_8859_1);
+        byte[] edited = new byte[source.length - removedLength + inserted.length];
+        System.arraycopy(source, 0, edited, 0, offset);
+        System.arraycopy(inserted, 0, edited, offset, inserted.length);
+        System.arraycopy(source, offset + removedLength, edited, offset + inserted.length, source.length - offset - removedLength);
+        source = edited;
+        if (program == null) // the last edit left the source unscannable or unparsable
+        {
+            tokens = new Scanner(new String(edited, StandardCharsets.ISO_8859_1)).tokenize();
+            unitCount = 0;
+            parseUnits(0, 0);
+            return program;
+        }
+        TokenStream old = tokens;
+        try
+        {
+            tokens = old.edit(ByteBuffer.wrap(edited), offset, removedLength, inserted.length);
+        }
+        catch (ScanErrorException e)
+        {
+            program = null;
+            throw e;
+        }
+        // a unit may have looked at the first token of the next one, e.g. for an ELSE
+        int first = 0;
+        while (first + 1 < unitCount && unitStarts[first + 1] < tokens.getEditStart())
+        {
+            ++first;
+        }
+        parseUnits(first, tokens.size() - old.size());
+        return program;
+    }
+
+    /**
+     * The parseUnits method parses the units of the program from the start of the given unit,
+     *      keeping every unit before it. Once the parse has passed the tokens the last edit
+     *      scanned again, it checks at each unit boundary whether an old unit started there in
+     *      the same parse state, and if so keeps that unit and every one after it, shifting
+     *      their start indices by the change in the number of tokens.
+     * @param first the index of the first unit to parse again
+     * @param shift the number of tokens the last edit added, negative if it removed tokens
+     * @postcondition the units and the Program reflect the current tokens, or the Program is null
+     *      if they do not parse
+     * @throws IllegalArgumentException if the tokens do not parse
+     */
+    private void parseUnits(int first, int shift)
+    {
+        Statement[] oldUnits = units;
+        int[] oldStarts = unitStarts;
+        int[] oldLoops = unitLoops;
+        int oldCount = unitCount;
+        int oldVariables = variableCount;
+        units = Arrays.copyOf(oldUnits, Math.max(oldUnits.length, 16));
+        unitStarts = Arrays.copyOf(oldStarts, units.length);
+        unitLoops = Arrays.copyOf(oldLoops, units.length);
+        unitCount = first;
+        variableCount = Math.min(first, oldVariables);
+        procedureCount = first - variableCount;
+        program = null;
+        int loops = oldLoops[first];
+        Parser parser = new Parser(tokens, oldStarts[first], loops);
+        int next = first;
+        while (true)
+        {
+            int index = parser.getIndex();
+            if (index >= tokens.getEditEnd())
+            {
+                while (next < oldCount && oldStarts[next] + shift < index)
+                {
+                    ++next;
+                }
+                if (next < oldCount && oldStarts[next] + shift == index && oldLoops[next] == parser.getLoopCount()
+                        && (next > oldVariables) == (procedureCount > 0))
+                {
+                    keep(oldUnits, oldStarts, oldLoops, oldCount, oldVariables, next, shift);
+                    break;
+                }
+            }
+            Statement unit;
+            if (procedureCount == 0 && parser.at(Scanner.TOKEN_KIND.VAR))
+            {
+                unit = parser.parseVariableDeclaration();
+                ++variableCount;
+            }
+            else if (parser.at(Scanner.TOKEN_KIND.PROCEDURE))
+            {
+                unit = parser.parseProcedureDeclaration();
+                ++procedureCount;
+            }
+            else
+            {
+                unit = parser.parseStatement(false);
+            }
+            add(unit, index, loops);
+            loops = parser.getLoopCount();
+            if (unitCount > variableCount + procedureCount)
+            {
+                break;
+            }
+        }
+        VariableDeclaration[] variables = new VariableDeclaration[variableCount];
+        ProcedureDeclaration[] procedures = new ProcedureDeclaration[procedureCount];
+        for (int i = 0; i < variableCount; ++i)
+        {
+            variables[i] = (VariableDeclaration) units[i];
+        }
+        for (int i = 0; i < procedureCount; ++i)
+        {
+            procedures[i] = (ProcedureDeclaration) units[variableCount + i];
+        }
+        program = new Program(variables, procedures, units[unitCount - 1]);
+    }
+
+    /**
+     * The keep method appends the old units from the given index on, shifting their start
+     *      indices by the given number of tokens.
+     * @param oldUnits the units before the edit
+     * @param oldStarts the start indices of the units before the edit
+     * @param oldLoops the loop counts at the start of the units before the edit
+     * @param oldCount the number of units before the edit
+     * @param oldVariables the number of variable declaration units before the edit
+     * @param from the index of the first old unit to keep
+     * @param shift the number of tokens the last edit added
+     */
+    private void keep(Statement[] oldUnits, int[] oldStarts, int[] oldLoops, int oldCount, int oldVariables, int from, int shift)
+    {
+        for (int i = from; i < oldCount; ++i)
+        {
+            add(oldUnits[i], oldStarts[i] + shift, oldLoops[i]);
+            if (i < oldVariables)
+            {
+                ++variableCount;
+            }
+            else if (i < oldCount - 1)
+            {
+                ++procedureCount;
+            }
+        }
+    }
+
+    /**
+     * The add method appends a unit, growing the unit arrays when they are full.
+     * @param unit the unit to append
+     * @param start the index of the first token of the unit
+     * @param loops the number of loops parsed before the unit
+     */
+    private void add(Statement unit, int start, int loops)
+    {
+        if (unitCount == units.length)
+        {
+            units = Arrays.copyOf(units, unitCount * 2);
+            unitStarts = Arrays.copyOf(unitStarts, unitCount * 2);
+            unitLoops = Arrays.copyOf(unitLoops, unitCount * 2);
+        }
+        units[unitCount] = unit;
+        unitStarts[unitCount] = start;
+        unitLoops[unitCount] = loops;
+        ++unitCount;
+    }
+}
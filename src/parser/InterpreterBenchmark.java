@@ -0,0 +1,112 @@
+package src.parser;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import src.ast.Program;
+import src.environments.Environment;
+import src.scanner.ScanErrorException;
+import src.scanner.Scanner;
+import src.vm.VirtualMachine;
+
+/**
+ * The InterpreterBenchmark class compares the ways of interpreting a program: the exec
+ *      methods, where break, continue, and exit throw exceptions, the run methods, where they
+ *      return a Completion, the run methods of the resolved program, where variables are
+ *      slots instead of names and procedures that get hot are compiled to JVM classes during
+ *      the warm-up, and the VirtualMachine running the program assembled into bytecode. It
+ *      parses and optimizes a loop-heavy program once, warms every mode up, and then reports
+ *      the best time of each over a number of measured rounds.
+ * Usage: java src.parser.InterpreterBenchmark [file] [rounds]
+ * @author Daniel Gergov
+ * @version 10/18/26
+ */
+public class InterpreterBenchmark
+{
+    private static final int WARMUP_ROUNDS = 5;
+
+    /**
+     * The main method parses the given program, ./test/loops.txt by default, and times
+     *      Program.exec against Program.run, Program.run on the resolved program, and the
+     *      VirtualMachine.
+     * @param args the file to run and the number of measured rounds, both optional
+     */
+    public static void main(String[] args)
+    {
+        String file = args.length > 0 ? args[0] : "./test/loops.txt";
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        try
+        {
+            Program program = new Parser(new Scanner(Paths.get(file)).tokenize()).parseProgram()
+                    .optimize();
+            Program resolved = program.resolve();
+            VirtualMachine vm = new VirtualMachine(program.assemble());
+            for (int i = 0; i < WARMUP_ROUNDS; ++i)
+            {
+                time(program, true);
+                time(program, false);
+                time(resolved, false);
+                time(vm);
+            }
+            long exec = Long.MAX_VALUE;
+            long run = Long.MAX_VALUE;
+            long slots = Long.MAX_VALUE;
+            long bytecode = Long.MAX_VALUE;
+            for (int i = 0; i < rounds; ++i)
+            {
+                exec = Math.min(exec, time(program, true));
+                run = Math.min(run, time(program, false));
+                slots = Math.min(slots, time(resolved, false));
+                bytecode = Math.min(bytecode, time(vm));
+            }
+            System.out.println("exec: " + exec / 1000000.0 + " ms");
+            System.out.println("run:  " + run / 1000000.0 + " ms");
+            System.out.println("resolved run (JIT): " + slots / 1000000.0 + " ms");
+            System.out.println("bytecode: " + bytecode / 1000000.0 + " ms");
+            System.out.println("speedup: " + (double) exec / run);
+            System.out.println("resolved speedup: " + (double) run / slots);
+            System.out.println("bytecode speedup: " + (double) slots / bytecode);
+        }
+        catch (IOException e)
+        {
+            e.printStackTrace();
+            System.out.println("File could not be read.");
+        }
+        catch (ScanErrorException e)
+        {
+            e.printStackTrace();
+            System.out.println(e.getMessage());
+        }
+    }
+
+    /**
+     * The time method interprets the program once in a fresh environment.
+     * @param program the program to interpret
+     * @param exec true to interpret with exec, false to interpret with run
+     * @return type long the time the program took in nanoseconds
+     */
+    private static long time(Program program, boolean exec)
+    {
+        long start = System.nanoTime();
+        if (exec)
+        {
+            program.exec(new Environment());
+        }
+        else
+        {
+            program.run(new Environment());
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * The time method runs the program on the virtual machine once.
+     * @param vm the virtual machine holding the assembled program
+     * @return type long the time the program took in nanoseconds
+     */
+    private static long time(VirtualMachine vm)
+    {
+        long start = System.nanoTime();
+        vm.run();
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,178 @@
+package src.parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import src.ast.ProcedureDeclaration;
+import src.ast.Program;
+import src.ast.Statement;
+import src.ast.VariableDeclaration;
+import src.scanner.Scanner;
+import src.scanner.TokenStream;
+
+/**
+ * The ParallelParser class parses a TokenStream into the same Program that Parser.parseProgram
+ *      builds, but parses the procedure declarations in parallel on a fork-join pool. A quick
+ *      pass over the token kinds finds where each procedure starts, since the PROCEDURE keyword
+ *      cannot appear anywhere else, and counts the WHILE and FOR keywords before each one, so
+ *      that every procedure can be parsed by its own Parser with the loop numbering a sequential
+ *      parse would have reached at that point.
+ * @author Daniel Gergov
+ * @version 10/18/26
+ */
+public class ParallelParser
+{
+    private TokenStream tokens;
+    private ForkJoinPool pool;
+
+    /**
+     * Constructor for the ParallelParser class that parses the given tokens on the common
+     *      fork-join pool.
+     * @param tokens the TokenStream to parse
+     */
+    public ParallelParser(TokenStream tokens)
+    {
+        this(tokens, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor for the ParallelParser class that parses the given tokens on the given
+     *      fork-join pool.
+     * @param tokens the TokenStream to parse
+     * @param pool the pool to parse procedures on
+     */
+    public ParallelParser(TokenStream tokens, ForkJoinPool pool)
+    {
+        this.tokens = tokens;
+        this.pool = pool;
+    }
+
+    /**
+     * The parseProgram method parses the whole program. The global variable declarations are
+     *      parsed first, then every procedure is parsed as its own task, and finally the main
+     *      statement is parsed after the last procedure. The results are put together in source
+     *      order. If a procedure does not end right where the next one starts, a sequential parse
+     *      would have read the main statement there and ignored the rest, so the same is done
+     *      here.
+     * @return type Program the parsed Program AST node
+     * @throws IllegalArgumentException if the tokens do not parse
+     */
+    public Program parseProgram()
+    {
+        Parser parser = new Parser(tokens, 0, 0);
+        ArrayList<VariableDeclaration> variables = new ArrayList<VariableDeclaration>();
+        while (parser.at(Scanner.TOKEN_KIND.VAR))
+        {
+            variables.add(parser.parseVariableDeclaration());
+        }
+        int[] starts = new int[16];
+        int[] loops = new int[16];
+        int count = 0;
+        int loopCount = 0;
+        int index = parser.getIndex();
+        if (parser.at(Scanner.TOKEN_KIND.PROCEDURE))
+        {
+            for (int i = index; i < tokens.size(); ++i)
+            {
+                Scanner.TOKEN_KIND kind = tokens.getKind(i);
+                if (kind == Scanner.TOKEN_KIND.PROCEDURE)
+                {
+                    if (count == starts.length)
+                    {
+                        starts = Arrays.copyOf(starts, count * 2);
+                        loops = Arrays.copyOf(loops, count * 2);
+                    }
+                    starts[count] = i;
+                    loops[count] = loopCount;
+                    ++count;
+                }
+                else if (kind == Scanner.TOKEN_KIND.WHILE || kind == Scanner.TOKEN_KIND.FOR)
+                {
+                    ++loopCount;
+                }
+            }
+        }
+        ArrayList<ForkJoinTask<Parsed>> tasks = new ArrayList<ForkJoinTask<Parsed>>(count);
+        for (int i = 0; i < count; ++i)
+        {
+            final int start = starts[i];
+            final int before = loops[i];
+            final boolean last = i == count - 1;
+            tasks.add(pool.submit(() -> parseProcedure(start, before, last)));
+        }
+        ArrayList<ProcedureDeclaration> procedures = new ArrayList<ProcedureDeclaration>(count);
+        Statement statement = null;
+        for (int i = 0; i < count; ++i)
+        {
+            Parsed parsed = tasks.get(i).join();
+            if (parsed.error != null)
+            {
+                throw parsed.error;
+            }
+            procedures.add(parsed.procedure);
+            if (parsed.statement != null)
+            {
+                statement = parsed.statement;
+                break;
+            }
+            if (parsed.end != starts[i + 1])
+            {
+                statement = new Parser(tokens, parsed.end, parsed.loops).parseStatement(false);
+                break;
+            }
+        }
+        for (ForkJoinTask<Parsed> task : tasks)
+        {
+            task.cancel(false);
+        }
+        if (count == 0)
+        {
+            statement = parser.parseStatement(false);
+        }
+        return new Program(variables.toArray(new VariableDeclaration[variables.size()]), procedures.toArray(new ProcedureDeclaration[procedures.size()]), statement);
+    }
+
+    /**
+     * The parseProcedure method parses one procedure declaration with its own Parser. After
+     *      the last procedure it also parses the main statement.
+     * @param start the index of the PROCEDURE keyword
+     * @param loops the number of loops before the procedure
+     * @param last whether this is the last procedure of the program
+     * @return type Parsed the parsed procedure, where it ended, and the main statement if last,
+     *      or the exception the parse threw, which is only rethrown if a sequential parse would
+     *      have reached this procedure
+     */
+    private Parsed parseProcedure(int start, int loops, boolean last)
+    {
+        Parser parser = new Parser(tokens, start, loops);
+        Parsed parsed = new Parsed();
+        try
+        {
+            parsed.procedure = parser.parseProcedureDeclaration();
+            parsed.end = parser.getIndex();
+            parsed.loops = parser.getLoopCount();
+            if (last)
+            {
+                parsed.statement = parser.parseStatement(false);
+            }
+        }
+        catch (RuntimeException e)
+        {
+            parsed.error = e;
+        }
+        return parsed;
+    }
+
+    /**
+     * The Parsed class holds the result of parsing one procedure.
+     */
+    private static class Parsed
+    {
+        private ProcedureDeclaration procedure;
+        private Statement statement;
+        private int end;
+        private int loops;
+        private RuntimeException error;
+    }
+}
@@ -5,6 +5,7 @@ import java.util.Stack;
 import src.scanner.ScanErrorException;
 import src.scanner.Scanner;
 import src.scanner.Token;
+import src.scanner.TokenStream;
 import java.util.ArrayList;
 import src.ast.*;
 import src.ast.Number;
@@ -37,6 +38,8 @@ public class Parser
 {
     private Scanner scanner;
     private Token currentToken;
+    private TokenStream tokens;
+    private int index;
     private Map<String, Variable> symtab;
     private Object[] currentLoop;
     private ArrayList<VariableDeclaration> variables;
@@ -57,33 +60,127 @@ public class Parser
         variables = new ArrayList<VariableDeclaration>();
     }
 
+    /**
+     * Constructor for the Parser class that takes in a TokenStream produced by
+     *      Scanner.tokenize and parses it directly, walking an index through the stream
+     *      instead of asking a Scanner for Token objects.
+     * @param tokens the TokenStream to parse
+     */
+    public Parser(TokenStream tokens)
+    {
+        this(tokens, 0, 0);
+    }
+
+    /**
+     * Constructor for the Parser class that parses a TokenStream starting in the middle, at
+     *      the given token index, as if the given number of loops had already been parsed
+     *      before it. Used to reparse a single part of a program.
+     * @param tokens the TokenStream to parse
+     * @param index the index of the first token to parse
+     * @param loops the number of loops parsed before the first token
+     */
+    Parser(TokenStream tokens, int index, int loops)
+    {
+        this.tokens = tokens;
+        this.index = index;
+        symtab = new HashMap<String, Variable>();
+        currentLoop = new Object[]{ new Stack<Statement>(), loops };
+        variables = new ArrayList<VariableDeclaration>();
+    }
+
+    /**
+     * Returns the index of the current token in the TokenStream being parsed.
+     * @return type int the index of the current token
+     */
+    int getIndex()
+    {
+        return index;
+    }
+
+    /**
+     * Returns the number of loops parsed so far, which numbers the loops that break and
+     *      continue statements refer to.
+     * @return type int the number of loops parsed so far
+     */
+    int getLoopCount()
+    {
+        return (int) currentLoop[1];
+    }
+
+    /**
+     * Returns whether the current token is of the given kind.
+     * @param kind the kind to check for
+     * @return type boolean true if the current token is of the given kind; otherwise, false
+     */
+    boolean at(Scanner.TOKEN_KIND kind)
+    {
+        return currentKind() == kind;
+    }
+
+    /**
+     * Returns the kind of the current token, read from the TokenStream when parsing one.
+     * @return type Scanner.TOKEN_KIND the kind of the current token
+     */
+    private Scanner.TOKEN_KIND currentKind()
+    {
+        return tokens != null ? tokens.getKind(index) : currentToken.getKind();
+    }
+
+    /**
+     * Returns the value of the current token. When parsing a TokenStream the value of an
+     *      identifier or number is only cut out of the input here.
+     * @return type String the value of the current token
+     */
+    private String currentValue()
+    {
+        return tokens != null ? tokens.getValue(index) : currentToken.getValue();
+    }
+
+    /**
+     * Returns the current token as a Token object, used for error messages.
+     * @return type Token the current token
+     */
+    private Token currentToken()
+    {
+        return tokens != null ? tokens.getToken(index) : currentToken;
+    }
+
     /**
      * The eat method is responsible for eating the current token and checking if the current
-     *      token is equal to the expected token. If the current token is equal to the expected
-     *      token, the currentToken instance variable is updated to the next token. If the current
-     *      token is not equal to the expected token, an IllegalArgumentException is thrown.
-     * @param expected the expect token to eat
+     *      token is of the expected kind. If the current token is of the expected kind, the
+     *      currentToken instance variable is updated to the next token. If the current token is
+     *      not of the expected kind, an IllegalArgumentException is thrown. Comparing kinds is
+     *      an identity comparison, so eating a token allocates nothing.
+     * @param expected the expected kind of the token to eat
      * @precondition the current token is not null
      * @postcondition the current token is updated to the next token
-     * @throws IllegalArgumentException if the current token is not equal to the expected token
+     * @throws IllegalArgumentException if the current token is not of the expected kind
      */
-    private void eat(Token expected)
+    private void eat(Scanner.TOKEN_KIND expected)
     {
-        if(expected.equals(currentToken))
+        if(currentKind() != expected)
         {
-            try
-            {
-                currentToken = scanner.nextToken();
-            }
-            catch(ScanErrorException e)
+            int line = tokens != null ? tokens.getLine(index) : scanner.getLine(scanner.getTokenOffset());
+            int column = tokens != null ? tokens.getColumn(index) : scanner.getColumn(scanner.getTokenOffset());
+            System.out.println("Error found on line " + line + " and column " + column);
+            String name = expected.getSpelling() == null ? expected.name() : expected.getSpelling();
+            throw new IllegalArgumentException("Expected " + name + " but found " + currentToken());
+        }
+        if(tokens != null)
+        {
+            if(expected != Scanner.TOKEN_KIND.EOF) // the stream ends with a single EOF token
             {
-                e.printStackTrace();
+                ++index;
             }
+            return;
         }
-        else
+        try
+        {
+            currentToken = scanner.nextToken();
+        }
+        catch(ScanErrorException e)
         {
-            System.out.println("Error found on line " + scanner.getLineno() + " and column " + scanner.getColno());
-            throw new IllegalArgumentException("Expected " + expected + " but found " + currentToken);
+            e.printStackTrace();
         }
     }
 
@@ -96,8 +193,8 @@ public class Parser
      * @postcondition the current NUMBER token is eaten and the Number AST node value is returned
      */
     private Number parseNumber() {
-        int number = Integer.parseInt(currentToken.getValue());
-        eat(new Token(Scanner.TOKEN_TYPE.NUMBER, currentToken.getValue()));
+        int number = tokens != null ? tokens.getInt(index) : Integer.parseInt(currentValue());
+        eat(Scanner.TOKEN_KIND.NUMBER);
         return new Number(number);
     }
 
@@ -107,61 +204,74 @@ public class Parser
      */
     public Program parseProgram()
     {
-        while(currentToken.getValue().equals("VAR"))
+        while(currentKind() == Scanner.TOKEN_KIND.VAR)
         {
             variables.add(parseVariableDeclaration());
         }
         ArrayList<ProcedureDeclaration> procedures = new ArrayList<ProcedureDeclaration>();
-        while(currentToken.getValue().equals("PROCEDURE"))
+        while(currentKind() == Scanner.TOKEN_KIND.PROCEDURE)
+        {
+            procedures.add(parseProcedureDeclaration());
+        }
+        Statement statement = parseStatement(false);
+        return new Program(variables.toArray(new VariableDeclaration[variables.size()]), procedures.toArray(new ProcedureDeclaration[procedures.size()]), statement);
+    }
+
+    /**
+     * The parseProcedureDeclaration method parses a procedure declaration which is defined
+     *      by PROCEDURE id (maybeparms) ; stmt, along with the local variables declared at its
+     *      start or anywhere in its body.
+     * @return type ProcedureDeclaration the parsed ProcedureDeclaration AST node
+     * @precondition the current token is the PROCEDURE keyword
+     * @postcondition the current token is updated to the token after the procedure
+     */
+    public ProcedureDeclaration parseProcedureDeclaration()
+    {
+        eat(Scanner.TOKEN_KIND.PROCEDURE);
+        String id = currentValue();
+        eat(Scanner.TOKEN_KIND.IDENTIFIER);
+        eat(Scanner.TOKEN_KIND.LEFT_PAREN);
+        ArrayList<src.ast.Variable> parameters = new ArrayList<src.ast.Variable>();
+        if(currentKind() != Scanner.TOKEN_KIND.RIGHT_PAREN)
         {
-            eat(new Token(Scanner.TOKEN_TYPE.IDENTIFIER, "PROCEDURE"));
-            String id = currentToken.getValue();
-            eat(new Token(Scanner.TOKEN_TYPE.IDENTIFIER, currentToken.getValue()));
-            eat(new Token(Scanner.TOKEN_TYPE.OPERATOR, "("));
-            ArrayList<src.ast.Variable> parameters = new ArrayList<src.ast.Variable>();
-            if(!currentToken.getValue().equals(")"))
+            String param = currentValue();
+            eat(Scanner.TOKEN_KIND.IDENTIFIER);
+            parameters.add(new src.ast.Variable(param));
+            while(currentKind() == Scanner.TOKEN_KIND.COMMA)
             {
-                String param = currentToken.getValue();
-                eat(new Token(Scanner.TOKEN_TYPE.IDENTIFIER, currentToken.getValue()));
+                eat(Scanner.TOKEN_KIND.COMMA);
+                param = currentValue();
+                eat(Scanner.TOKEN_KIND.IDENTIFIER);
                 parameters.add(new src.ast.Variable(param));
-                while(currentToken.getValue().equals(","))
-                {
-                    eat(new Token(Scanner.TOKEN_TYPE.OPERATOR, ","));
-                    param = currentToken.getValue();
-                    eat(new Token(Scanner.TOKEN_TYPE.IDENTIFIER, currentToken.getValue()));
-                    parameters.add(new src.ast.Variable(param));
-                }
             }
-            eat(new Token(Scanner.TOKEN_TYPE.OPERATOR, ")"));
-            eat(new Token(Scanner.TOKEN_TYPE.OPERATOR, ";"));
-            ArrayList<src.ast.VariableDeclaration> locals = new ArrayList<src.ast.VariableDeclaration>();
-            while(currentToken.getValue().equals("VAR"))
-            {
-                locals.add(parseVariableDeclaration());
-            }
-            this.procOverride = locals;
-            Statement statement = parseStatement(false);
-            this.procOverride = null;
-            // split all the variable declaration nodes
-            ArrayList<src.ast.VariableDeclaration> split = new ArrayList<src.ast.VariableDeclaration>();
-            for (src.ast.VariableDeclaration v : locals)
+        }
+        eat(Scanner.TOKEN_KIND.RIGHT_PAREN);
+        eat(Scanner.TOKEN_KIND.SEMICOLON);
+        ArrayList<src.ast.VariableDeclaration> locals = new ArrayList<src.ast.VariableDeclaration>();
+        while(currentKind() == Scanner.TOKEN_KIND.VAR)
+        {
+            locals.add(parseVariableDeclaration());
+        }
+        this.procOverride = locals;
+        Statement statement = parseStatement(false);
+        this.procOverride = null;
+        // split all the variable declaration nodes
+        ArrayList<src.ast.VariableDeclaration> split = new ArrayList<src.ast.VariableDeclaration>();
+        for (src.ast.VariableDeclaration v : locals)
+        {
+            if (v.multipleNames())
             {
-                if (v.multipleNames())
+                for (src.ast.VariableDeclaration s : v.splitNames())
                 {
-                    for (src.ast.VariableDeclaration s : v.splitNames())
-                    {
-                        split.add(s);
-                    }
-                }
-                else
-                {
-                    split.add(v);
+                    split.add(s);
                 }
             }
-            procedures.add(new ProcedureDeclaration(id, parameters.toArray(new src.ast.Variable[parameters.size()]), statement, split.toArray(new VariableDeclaration[split.size()])));
+            else
+            {
+                split.add(v);
+            }
         }
-        Statement statement = parseStatement(false);
-        return new Program(variables.toArray(new VariableDeclaration[variables.size()]), procedures.toArray(new ProcedureDeclaration[procedures.size()]), statement);
+        return new ProcedureDeclaration(id, parameters.toArray(new src.ast.Variable[parameters.size()]), statement, split.toArray(new VariableDeclaration[split.size()]));
     }
 
     /**
@@ -175,18 +285,18 @@ public class Parser
     public VariableDeclaration parseVariableDeclaration()
     {
         ArrayList<String> ids = new ArrayList<String>();
-        eat(new Token(Scanner.TOKEN_TYPE.IDENTIFIER, "VAR"));
-        String id = currentToken.getValue();
+        eat(Scanner.TOKEN_KIND.VAR);
+        String id = currentValue();
         ids.add(id);
-        eat(new Token(Scanner.TOKEN_TYPE.IDENTIFIER, currentToken.getValue()));
-        while(!currentToken.getValue().equals(";"))
+        eat(Scanner.TOKEN_KIND.IDENTIFIER);
+        while(currentKind() != Scanner.TOKEN_KIND.SEMICOLON)
         {
-            eat(new Token(Scanner.TOKEN_TYPE.OPERATOR, ","));
-            id = currentToken.getValue();
+            eat(Scanner.TOKEN_KIND.COMMA);
+            id = currentValue();
             ids.add(id);
-            eat(new Token(Scanner.TOKEN_TYPE.IDENTIFIER, currentToken.getValue()));
+            eat(Scanner.TOKEN_KIND.IDENTIFIER);
         }
-        eat(new Token(Scanner.TOKEN_TYPE.OPERATOR, ";"));
+        eat(Scanner.TOKEN_KIND.SEMICOLON);
         VariableDeclaration node = new VariableDeclaration(ids.toArray(new String[ids.size()]));
         if (procOverride != null)
         {
@@ -209,158 +319,164 @@ public class Parser
      */
     public Statement parseStatement(boolean ignoreSemi)
     {
-        if(currentToken.getValue().equals("VAR"))
+        switch(currentKind())
         {
-            return parseVariableDeclaration();
-        }
-        else if(currentToken.getValue().equals("WRITELN"))
-        {
-            eat(new Token(Scanner.TOKEN_TYPE.IDENTIFIER, "WRITELN"));
-            eat(new Token(Scanner.TOKEN_TYPE.OPERATOR, "("));
-            Expression exp = parseExpression();
-            eat(new Token(Scanner.TOKEN_TYPE.OPERATOR, ")"));
-            if(!ignoreSemi)
+            case VAR:
             {
-                eat(new Token(Scanner.TOKEN_TYPE.OPERATOR, ";"));
+                return parseVariableDeclaration();
             }
-            return new Writeln(exp);
-        }
-        else if(currentToken.getValue().equals("BEGIN"))
-        {
-            eat(new Token(Scanner.TOKEN_TYPE.IDENTIFIER, "BEGIN"));
-            ArrayList<Statement> list = new ArrayList<Statement>();
-            while(!currentToken.equals(new Token(Scanner.TOKEN_TYPE.IDENTIFIER, "END")))
+            case WRITELN:
             {
-                list.add(parseStatement(false));
+                eat(Scanner.TOKEN_KIND.WRITELN);
+                eat(Scanner.TOKEN_KIND.LEFT_PAREN);
+                Expression exp = parseExpression();
+                eat(Scanner.TOKEN_KIND.RIGHT_PAREN);
+                if(!ignoreSemi)
+                {
+                    eat(Scanner.TOKEN_KIND.SEMICOLON);
+                }
+                return new Writeln(exp);
             }
-            eat(new Token(Scanner.TOKEN_TYPE.IDENTIFIER, "END"));
-            if(!ignoreSemi)
+            case BEGIN:
             {
-                eat(new Token(Scanner.TOKEN_TYPE.OPERATOR, ";"));
+                eat(Scanner.TOKEN_KIND.BEGIN);
+                ArrayList<Statement> list = new ArrayList<Statement>();
+                while(currentKind() != Scanner.TOKEN_KIND.END)
+                {
+                    list.add(parseStatement(false));
+                }
+                eat(Scanner.TOKEN_KIND.END);
+                if(!ignoreSemi)
+                {
+                    eat(Scanner.TOKEN_KIND.SEMICOLON);
+                }
+                return new Block(list.toArray(new Statement[list.size()]));
             }
-            return new Block(list.toArray(new Statement[list.size()]));
-        }
-        else if(currentToken.getValue().equals("IF"))
-        {
-            eat(new Token(Scanner.TOKEN_TYPE.IDENTIFIER, "IF"));
-            Condition cond = parseCondition();
-            eat(new Token(Scanner.TOKEN_TYPE.IDENTIFIER, "THEN"));
-            Statement statement = parseStatement(false);
-            if(currentToken.getValue().equals("ELSE"))
+            case IF:
             {
-                eat(new Token(Scanner.TOKEN_TYPE.IDENTIFIER, "ELSE"));
-                Statement elseStatement = parseStatement(false);
-                return new IfElse(cond, statement, elseStatement);
+                eat(Scanner.TOKEN_KIND.IF);
+                Condition cond = parseCondition();
+                eat(Scanner.TOKEN_KIND.THEN);
+                Statement statement = parseStatement(false);
+                if(currentKind() == Scanner.TOKEN_KIND.ELSE)
+                {
+                    eat(Scanner.TOKEN_KIND.ELSE);
+                    Statement elseStatement = parseStatement(false);
+                    return new IfElse(cond, statement, elseStatement);
+                }
+                else
+                {
+                    return new If(cond, statement);
+                }
             }
-            else
+            case WHILE:
             {
-                return new If(cond, statement);
-            }
-        }
-        else if(currentToken.getValue().equals("WHILE"))
-        {
-            Stack<Statement> st = (Stack<Statement>) currentLoop[0];
-            st.push(new While(null, null));
-            currentLoop[1] = (int) currentLoop[1] + 1;
+                Stack<Statement> st = (Stack<Statement>) currentLoop[0];
+                st.push(new While(null, null));
+                currentLoop[1] = (int) currentLoop[1] + 1;
 
-            eat(new Token(Scanner.TOKEN_TYPE.IDENTIFIER, "WHILE"));
-            Condition cond = parseCondition();
-            eat(new Token(Scanner.TOKEN_TYPE.IDENTIFIER, "DO"));
-            Statement statement = parseStatement(false);
-
-            st.pop();
-            
-            return new While(cond, statement);
-        }
-        else if(currentToken.getValue().equals("FOR"))
-        {
-            Stack<Statement> st = (Stack<Statement>) currentLoop[0];
-            st.push(new For(null, null, null));
-            currentLoop[1] = (int) currentLoop[1] + 1;
+                eat(Scanner.TOKEN_KIND.WHILE);
+                Condition cond = parseCondition();
+                eat(Scanner.TOKEN_KIND.DO);
+                Statement statement = parseStatement(false);
 
-            eat(new Token(Scanner.TOKEN_TYPE.IDENTIFIER, "FOR"));
-            Statement begin = parseStatement(true);
-            if(!(begin instanceof Assignment))
-            {
-                throw new IllegalArgumentException("Expected assignment in for loop heading.");
+                st.pop();
+                
+                return new While(cond, statement);
             }
-            eat(new Token(Scanner.TOKEN_TYPE.IDENTIFIER, "TO"));
-            Expression end = parseExpression();
-            eat(new Token(Scanner.TOKEN_TYPE.IDENTIFIER, "DO"));
-            Statement statement = parseStatement(false);
+            case FOR:
+            {
+                Stack<Statement> st = (Stack<Statement>) currentLoop[0];
+                st.push(new For(null, null, null));
+                currentLoop[1] = (int) currentLoop[1] + 1;
 
-            st.pop();
+                eat(Scanner.TOKEN_KIND.FOR);
+                Statement begin = parseStatement(true);
+                if(!(begin instanceof Assignment))
+                {
+                    throw new IllegalArgumentException("Expected assignment in for loop heading.");
+                }
+                eat(Scanner.TOKEN_KIND.TO);
+                Expression end = parseExpression();
+                eat(Scanner.TOKEN_KIND.DO);
+                Statement statement = parseStatement(false);
 
-            return new For(begin, end, statement);
-        }
-        else if(currentToken.getValue().equals("CONTINUE"))
-        {
-            Stack<Statement> st = (Stack<Statement>) currentLoop[0];
+                st.pop();
 
-            eat(new Token(Scanner.TOKEN_TYPE.IDENTIFIER, "CONTINUE"));
-            if(!ignoreSemi)
-            {
-                eat(new Token(Scanner.TOKEN_TYPE.OPERATOR, ";"));
+                return new For(begin, end, statement);
             }
-            return new Continue(st.peek(), (int) currentLoop[1]);
-        }
-        else if(currentToken.getValue().equals("BREAK"))
-        {
-            Stack<Statement> st = (Stack<Statement>) currentLoop[0];
-
-            eat(new Token(Scanner.TOKEN_TYPE.IDENTIFIER, "BREAK"));
-            if(!ignoreSemi)
+            case CONTINUE:
             {
-                eat(new Token(Scanner.TOKEN_TYPE.OPERATOR, ";"));
+                Stack<Statement> st = (Stack<Statement>) currentLoop[0];
+
+                eat(Scanner.TOKEN_KIND.CONTINUE);
+                if(!ignoreSemi)
+                {
+                    eat(Scanner.TOKEN_KIND.SEMICOLON);
+                }
+                return new Continue(st.peek(), (int) currentLoop[1]);
             }
-            return new Break(st.peek(), (int) currentLoop[1]);
-        }
-        else if(currentToken.getValue().equals("EXIT"))
-        {
-            eat(new Token(Scanner.TOKEN_TYPE.IDENTIFIER, "EXIT"));
-            if(!ignoreSemi)
+            case BREAK:
             {
-                eat(new Token(Scanner.TOKEN_TYPE.OPERATOR, ";"));
+                Stack<Statement> st = (Stack<Statement>) currentLoop[0];
+
+                eat(Scanner.TOKEN_KIND.BREAK);
+                if(!ignoreSemi)
+                {
+                    eat(Scanner.TOKEN_KIND.SEMICOLON);
+                }
+                return new Break(st.peek(), (int) currentLoop[1]);
             }
-            return new Exit();
-        }
-        else if(currentToken.getType() == Scanner.TOKEN_TYPE.IDENTIFIER)
-        {
-            String id = currentToken.getValue();
-            eat(new Token(Scanner.TOKEN_TYPE.IDENTIFIER, currentToken.getValue()));
-            if(currentToken.getValue().equals(":="))
+            case EXIT:
             {
-                eat(new Token(Scanner.TOKEN_TYPE.OPERATOR, ":="));
-                Expression exp = parseExpression();
-                Assignment assign = new Assignment(id, exp);
+                eat(Scanner.TOKEN_KIND.EXIT);
                 if(!ignoreSemi)
                 {
-                    eat(new Token(Scanner.TOKEN_TYPE.OPERATOR, ";"));
+                    eat(Scanner.TOKEN_KIND.SEMICOLON);
                 }
-                return assign;
+                return new Exit();
             }
-            else if(currentToken.getValue().equals("("))
+            case IDENTIFIER:
             {
-                eat(new Token(Scanner.TOKEN_TYPE.OPERATOR, "("));
-                ArrayList<src.ast.Expression> arguments = new ArrayList<src.ast.Expression>();
-                if(!currentToken.getValue().equals(")"))
+                String id = currentValue();
+                eat(Scanner.TOKEN_KIND.IDENTIFIER);
+                if(currentKind() == Scanner.TOKEN_KIND.ASSIGN)
                 {
-                    arguments.add(parseExpression());
-                    while(currentToken.getValue().equals(","))
+                    eat(Scanner.TOKEN_KIND.ASSIGN);
+                    Expression exp = parseExpression();
+                    Assignment assign = new Assignment(id, exp);
+                    if(!ignoreSemi)
                     {
-                        eat(new Token(Scanner.TOKEN_TYPE.OPERATOR, ","));
-                        arguments.add(parseExpression());
+                        eat(Scanner.TOKEN_KIND.SEMICOLON);
                     }
+                    return assign;
                 }
-                eat(new Token(Scanner.TOKEN_TYPE.OPERATOR, ")"));
-                if(!ignoreSemi)
+                else if(currentKind() == Scanner.TOKEN_KIND.LEFT_PAREN)
                 {
-                    eat(new Token(Scanner.TOKEN_TYPE.OPERATOR, ";"));
+                    eat(Scanner.TOKEN_KIND.LEFT_PAREN);
+                    ArrayList<src.ast.Expression> arguments = new ArrayList<src.ast.Expression>();
+                    if(currentKind() != Scanner.TOKEN_KIND.RIGHT_PAREN)
+                    {
+                        arguments.add(parseExpression());
+                        while(currentKind() == Scanner.TOKEN_KIND.COMMA)
+                        {
+                            eat(Scanner.TOKEN_KIND.COMMA);
+                            arguments.add(parseExpression());
+                        }
+                    }
+                    eat(Scanner.TOKEN_KIND.RIGHT_PAREN);
+                    if(!ignoreSemi)
+                    {
+                        eat(Scanner.TOKEN_KIND.SEMICOLON);
+                    }
+                    return new src.ast.ProcedureCall(id, arguments.toArray(new src.ast.Expression[arguments.size()]));
                 }
-                return new src.ast.ProcedureCall(id, arguments.toArray(new src.ast.Expression[arguments.size()]));
+                break;
             }
+            default:
+                break;
         }
-        throw new IllegalArgumentException("Unexpected Statement, got: " + currentToken.getValue());
+        throw new IllegalArgumentException("Unexpected Statement, got: " + currentValue());
     }
 
     /**
@@ -375,17 +491,17 @@ public class Parser
     {
         Expression left = parseExpression();
         String op;
-        if(currentToken.getType() == Scanner.TOKEN_TYPE.OPERATOR)
+        if(currentKind().getType() == Scanner.TOKEN_TYPE.OPERATOR)
         {
-            op = currentToken.getValue();
-            eat(currentToken);
+            op = currentValue();
+            eat(currentKind());
         }
         else
         {
             throw new IllegalArgumentException("Expecting operator in condition");
         }
         Expression right = parseExpression();
-        return new Condition(left, right, op);
+        return Condition.of(left, right, op);
     }
 
     /**
@@ -398,48 +514,48 @@ public class Parser
      */
     private Expression parseFactor()
     {
-        if(currentToken.getType() == Scanner.TOKEN_TYPE.OPERATOR)
+        if(currentKind().getType() == Scanner.TOKEN_TYPE.OPERATOR)
         {
-            if(currentToken.getValue().equals("("))
+            if(currentKind() == Scanner.TOKEN_KIND.LEFT_PAREN)
             {
-                eat(new Token(Scanner.TOKEN_TYPE.OPERATOR, "("));
+                eat(Scanner.TOKEN_KIND.LEFT_PAREN);
                 Expression factor = parseExpression();
-                eat(new Token(Scanner.TOKEN_TYPE.OPERATOR, ")"));
+                eat(Scanner.TOKEN_KIND.RIGHT_PAREN);
                 return factor;
             }
-            else if(currentToken.getValue().equals("-"))
+            else if(currentKind() == Scanner.TOKEN_KIND.MINUS)
             {
-                eat(new Token(Scanner.TOKEN_TYPE.OPERATOR, "-"));
-                return new BinOp(new Number(-1), parseFactor(), "*");
+                eat(Scanner.TOKEN_KIND.MINUS);
+                return BinOp.of(new Number(-1), parseFactor(), "*");
             }
         }
-        else if(currentToken.getType() == Scanner.TOKEN_TYPE.NUMBER)
+        else if(currentKind().getType() == Scanner.TOKEN_TYPE.NUMBER)
         {
             return parseNumber();
         }
-        else if(currentToken.getType() == Scanner.TOKEN_TYPE.IDENTIFIER)
+        else if(currentKind() == Scanner.TOKEN_KIND.IDENTIFIER)
         {
-            String id = currentToken.getValue();
-            eat(new Token(Scanner.TOKEN_TYPE.IDENTIFIER, id));
-            if(currentToken.getValue().equals("("))
+            String id = currentValue();
+            eat(Scanner.TOKEN_KIND.IDENTIFIER);
+            if(currentKind() == Scanner.TOKEN_KIND.LEFT_PAREN)
             {
-                eat(new Token(Scanner.TOKEN_TYPE.OPERATOR, "("));
+                eat(Scanner.TOKEN_KIND.LEFT_PAREN);
                 ArrayList<src.ast.Expression> arguments = new ArrayList<src.ast.Expression>();
-                if(!currentToken.getValue().equals(")"))
+                if(currentKind() != Scanner.TOKEN_KIND.RIGHT_PAREN)
                 {
                     arguments.add(parseExpression());
-                    while(currentToken.getValue().equals(","))
+                    while(currentKind() == Scanner.TOKEN_KIND.COMMA)
                     {
-                        eat(new Token(Scanner.TOKEN_TYPE.OPERATOR, ","));
+                        eat(Scanner.TOKEN_KIND.COMMA);
                         arguments.add(parseExpression());
                     }
                 }
-                eat(new Token(Scanner.TOKEN_TYPE.OPERATOR, ")"));
+                eat(Scanner.TOKEN_KIND.RIGHT_PAREN);
                 return new src.ast.ProcedureCall(id, arguments.toArray(new src.ast.Expression[arguments.size()]));
             }
             return new src.ast.Variable(id);
         }
-        throw new IllegalArgumentException("Expected factor but found " + currentToken);
+        throw new IllegalArgumentException("Expected factor but found " + currentToken());
     }
 
     /**
@@ -455,28 +571,27 @@ public class Parser
     {
         Expression left = parseFactor();
         Expression exp = null;
-        while(currentToken.getType() == Scanner.TOKEN_TYPE.OPERATOR 
-            && (currentToken.getValue().equals("*") 
-            || currentToken.getValue().equals("/") 
-            || (currentToken.getValue().equals("mod"))))
+        while(currentKind() == Scanner.TOKEN_KIND.TIMES
+            || currentKind() == Scanner.TOKEN_KIND.DIVIDE
+            || currentKind() == Scanner.TOKEN_KIND.MOD)
         {
-            if(currentToken.getValue().equals("*"))
+            if(currentKind() == Scanner.TOKEN_KIND.TIMES)
             {
-                eat(new Token(Scanner.TOKEN_TYPE.OPERATOR, "*"));
+                eat(Scanner.TOKEN_KIND.TIMES);
                 Expression right = parseFactor();
-                exp = new BinOp(left, right, "*");
+                exp = BinOp.of(left, right, "*");
             }
-            else if(currentToken.getValue().equals("/"))
+            else if(currentKind() == Scanner.TOKEN_KIND.DIVIDE)
             {
-                eat(new Token(Scanner.TOKEN_TYPE.OPERATOR, "/"));
+                eat(Scanner.TOKEN_KIND.DIVIDE);
                 Expression right = parseFactor();
-                exp = new BinOp(left, right, "/");
+                exp = BinOp.of(left, right, "/");
             }
-            else if(currentToken.getValue().equals("mod"))
+            else if(currentKind() == Scanner.TOKEN_KIND.MOD)
             {
-                eat(new Token(Scanner.TOKEN_TYPE.OPERATOR, "mod"));
+                eat(Scanner.TOKEN_KIND.MOD);
                 Expression right = parseFactor();
-                exp = new BinOp(left, right, "mod");
+                exp = BinOp.of(left, right, "mod");
             }
         }
         return exp == null ? left : exp;
@@ -495,19 +610,19 @@ public class Parser
     {
         Expression exp = null;
         Expression left = parseTerm();
-        while(currentToken.getType() == Scanner.TOKEN_TYPE.OPERATOR 
-            && (currentToken.getValue().equals("+") || currentToken.getValue().equals("-")))
+        while(currentKind() == Scanner.TOKEN_KIND.PLUS
+            || currentKind() == Scanner.TOKEN_KIND.MINUS)
         {
-            if(currentToken.getValue().equals("+"))
+            if(currentKind() == Scanner.TOKEN_KIND.PLUS)
             {
-                eat(new Token(Scanner.TOKEN_TYPE.OPERATOR, "+"));
+                eat(Scanner.TOKEN_KIND.PLUS);
                 Expression right = parseTerm();
-                exp = new BinOp(left, right, "+");
+                exp = BinOp.of(left, right, "+");
             }
-            else if(currentToken.getValue().equals("-")) {
-                eat(new Token(Scanner.TOKEN_TYPE.OPERATOR, "-"));
+            else if(currentKind() == Scanner.TOKEN_KIND.MINUS) {
+                eat(Scanner.TOKEN_KIND.MINUS);
                 Expression right = parseTerm();
-                exp = new BinOp(left, right, "-");
+                exp = BinOp.of(left, right, "-");
             }
         }
         return exp == null ? left : exp;
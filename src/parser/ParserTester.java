@@ -1,7 +1,7 @@
 package src.parser;
 
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Paths;
 import src.scanner.Scanner;
 import src.environments.Environment;
 import src.scanner.ScanErrorException;
@@ -24,16 +24,15 @@ public class ParserTester
     {
         try
         {
-            FileInputStream inStream = new FileInputStream("./test/test3.txt");
-            Scanner lex = new Scanner(inStream);
+            Scanner lex = new Scanner(Paths.get("./test/test3.txt"));
             Parser yacc = new Parser(lex);
             Environment env = new Environment();
-            yacc.parseProgram().compile(null, "out.asm");
+            yacc.parseProgram().optimize().compile(null, "out.asm");
         }
-        catch (FileNotFoundException e)
+        catch (IOException e)
         {
             e.printStackTrace();
-            System.out.println("File not found.");
+            System.out.println("File could not be read.");
         }
         catch (ScanErrorException e)
         {
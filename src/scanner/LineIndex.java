@@ -0,0 +1,80 @@
+package src.scanner;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The LineIndex class maps offsets in a scanned input to line and column numbers. It records
+ *      the offset at which every line starts in one pass over the input and answers queries with
+ *      a binary search, so the scanner never has to count lines and columns character by
+ *      character. Lines and columns are both numbered from 1.
+ * @author Daniel Gergov
+ * @version 10/18/26
+ */
+public class LineIndex
+{
+    private final int[] lineStarts;
+    private final int lineCount;
+
+    /**
+     * Constructor for the LineIndex class that records where every line of the given input
+     *      starts. A line starts at offset 0 and after every newline character.
+     * @param source the buffer holding the input
+     * @postcondition the position of the buffer is not changed
+     */
+    public LineIndex(ByteBuffer source)
+    {
+        int[] starts = new int[64];
+        int count = 1;
+        int limit = source.limit();
+        for (int i = 0; i < limit; ++i)
+        {
+            if (source.get(i) == '\n')
+            {
+                if (count == starts.length)
+                {
+                    starts = Arrays.copyOf(starts, count * 2);
+                }
+                starts[count++] = i + 1;
+            }
+        }
+        lineStarts = starts;
+        lineCount = count;
+    }
+
+    /**
+     * Returns the line the given offset lies on.
+     * @param offset the offset in the input
+     * @precondition offset is not negative
+     * @return type int the line of the offset, numbered from 1
+     */
+    public int getLine(int offset)
+    {
+        int low = 0;
+        int high = lineCount - 1;
+        while (low < high)
+        {
+            int mid = (low + high + 1) >>> 1;
+            if (lineStarts[mid] <= offset)
+            {
+                low = mid;
+            }
+            else
+            {
+                high = mid - 1;
+            }
+        }
+        return low + 1;
+    }
+
+    /**
+     * Returns the column the given offset lies on within its line.
+     * @param offset the offset in the input
+     * @precondition offset is not negative
+     * @return type int the column of the offset, numbered from 1
+     */
+    public int getColumn(int offset)
+    {
+        return offset - lineStarts[getLine(offset) - 1] + 1;
+    }
+}
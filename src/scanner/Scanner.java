@@ -1,6 +1,12 @@
 package src.scanner;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 
 /**
  * Scanner is a simple scanner for Compilers and Interpreters (2014-2015) lab exercise 1
@@ -12,17 +18,129 @@ import java.io.*;
  */
 public class Scanner
 {
-    private BufferedReader in;
+    private ByteBuffer buffer;
+    private InputStream stream;
     private char currentChar;
+    private int charOffset;
+    private int tokenStart;
     private boolean eof;
-    private int lineno;
-    private int colno;
+    private LineIndex lines;
+    private int linesLimit;
+    private char[] lexeme;
+    private int lexemeLength;
 
     public static enum TOKEN_TYPE { OPERATOR, IDENTIFIER, NUMBER, EOF, UMKNOWN };
 
+    /**
+     * The TOKEN_KIND enum gives every keyword and operator of the language its own kind so
+     *      that the parser can dispatch on the kind of a token instead of comparing its value
+     *      against string literals. Kinds with a fixed spelling also know the TOKEN_TYPE that
+     *      the scanner has always reported for them (keywords are identifiers, mod is an
+     *      operator). IDENTIFIER, NUMBER, and OTHER tokens carry their spelling in the token.
+     */
+    public static enum TOKEN_KIND
+    {
+        VAR("VAR"), PROCEDURE("PROCEDURE"), BEGIN("BEGIN"), END("END"), WRITELN("WRITELN"),
+        IF("IF"), THEN("THEN"), ELSE("ELSE"), WHILE("WHILE"), DO("DO"), FOR("FOR"), TO("TO"),
+        CONTINUE("CONTINUE"), BREAK("BREAK"), EXIT("EXIT"), MOD(TOKEN_TYPE.OPERATOR, "mod"),
+        ASSIGN(TOKEN_TYPE.OPERATOR, ":="), COLON(TOKEN_TYPE.OPERATOR, ":"),
+        SEMICOLON(TOKEN_TYPE.OPERATOR, ";"), COMMA(TOKEN_TYPE.OPERATOR, ","),
+        LEFT_PAREN(TOKEN_TYPE.OPERATOR, "("), RIGHT_PAREN(TOKEN_TYPE.OPERATOR, ")"),
+        PLUS(TOKEN_TYPE.OPERATOR, "+"), MINUS(TOKEN_TYPE.OPERATOR, "-"),
+        TIMES(TOKEN_TYPE.OPERATOR, "*"), DIVIDE(TOKEN_TYPE.OPERATOR, "/"),
+        PERCENT(TOKEN_TYPE.OPERATOR, "%"), EQUALS(TOKEN_TYPE.OPERATOR, "="),
+        NOT_EQUALS(TOKEN_TYPE.OPERATOR, "<>"), LESS(TOKEN_TYPE.OPERATOR, "<"),
+        LESS_EQUALS(TOKEN_TYPE.OPERATOR, "<="), GREATER(TOKEN_TYPE.OPERATOR, ">"),
+        GREATER_EQUALS(TOKEN_TYPE.OPERATOR, ">="), OTHER(TOKEN_TYPE.OPERATOR, null),
+        IDENTIFIER(TOKEN_TYPE.IDENTIFIER, null), NUMBER(TOKEN_TYPE.NUMBER, null),
+        EOF(TOKEN_TYPE.EOF, "");
+
+        private final TOKEN_TYPE type;
+        private final String spelling;
+
+        TOKEN_KIND(String keyword)
+        {
+            this(TOKEN_TYPE.IDENTIFIER, keyword);
+        }
+
+        TOKEN_KIND(TOKEN_TYPE type, String spelling)
+        {
+            this.type = type;
+            this.spelling = spelling;
+        }
+
+        /**
+         * Returns the TOKEN_TYPE that tokens of this kind are reported with.
+         * @return type TOKEN_TYPE the type of tokens of this kind
+         */
+        public TOKEN_TYPE getType()
+        {
+            return type;
+        }
+
+        /**
+         * Returns the fixed spelling of this kind, or null if tokens of this kind (identifiers,
+         *      numbers, and other operators) are spelled differently every time.
+         * @return type String the spelling of this kind
+         */
+        public String getSpelling()
+        {
+            return spelling;
+        }
+    }
+
+    private static final byte WHITESPACE = 1;
+    private static final byte LETTER = 2;
+    private static final byte DIGIT = 4;
+    private static final byte OPERATOR = 8;
+    private static final byte[] CHAR_CLASS = new byte[128];
+    private static final int INITIAL_LEXEME_CAPACITY = 64;
+    private static final int STREAM_CHUNK = 8192;
+    private static final long MAP_THRESHOLD = 1 << 16;
+    private static final TOKEN_KIND[] KEYWORDS = new TOKEN_KIND[32];
+
+    static
+    {
+        for (char c : " \n\t\r".toCharArray())
+        {
+            CHAR_CLASS[c] |= WHITESPACE;
+        }
+        for (char c = 'a'; c <= 'z'; ++c)
+        {
+            CHAR_CLASS[c] |= LETTER;
+            CHAR_CLASS[Character.toUpperCase(c)] |= LETTER;
+        }
+        for (char c = '0'; c <= '9'; ++c)
+        {
+            CHAR_CLASS[c] |= DIGIT;
+        }
+        for (char c : ":<>=;,+-*/%()".toCharArray())
+        {
+            CHAR_CLASS[c] |= OPERATOR;
+        }
+        for (TOKEN_KIND kind : TOKEN_KIND.values())
+        {
+            String keyword = kind.getSpelling();
+            if (keyword == null || keyword.isEmpty() || !hasClass(keyword.charAt(0), LETTER))
+            {
+                continue;
+            }
+            int hash = keywordHash(keyword.charAt(0), keyword.charAt(keyword.length() - 1), keyword.length());
+            if (KEYWORDS[hash] != null)
+            {
+                throw new IllegalStateException("Keyword hash collision between " + KEYWORDS[hash] + " and " + kind);
+            }
+            KEYWORDS[hash] = kind;
+        }
+    }
+
     /**
      * Scanner constructor for construction of a scanner that 
-     * uses an InputStream object for input.  
+     * uses an InputStream object for input. The stream is read lazily:
+     * whenever the scanner runs out of input it reads the next chunk the stream
+     * has available and appends it to a byte buffer, so an interactive stream is
+     * scanned as its input arrives. Every byte is one character (ISO-8859-1), and
+     * columns count bytes.
      * Usage: 
      * FileInputStream inStream = new FileInputStream(new File(<file name>);
      * Scanner lex = new Scanner(inStream);
@@ -30,61 +148,156 @@ public class Scanner
      */
     public Scanner(InputStream inStream)
     {
-        in = new BufferedReader(new InputStreamReader(inStream));
+        stream = inStream;
+        buffer = ByteBuffer.allocate(STREAM_CHUNK);
+        buffer.limit(0);
         eof = false;
-        lineno = 1;
-        colno = 1;
+        lexeme = new char[INITIAL_LEXEME_CAPACITY];
         getNextChar();
     }
     /**
      * Scanner constructor for constructing a scanner that 
      * scans a given input string.  It sets the end-of-file flag an then reads
      * the first character of the input string into the instance field currentChar.
+     * The string is encoded as ISO-8859-1, the same charset lexemes are decoded
+     * with, so every character is one byte and columns count characters.
+     * Characters above U+00FF cannot be encoded and are scanned as '?'.
      * Usage: Scanner lex = new Scanner(input_string);
      * @param inString the string to scan
      */
     public Scanner(String inString)
     {
-        in = new BufferedReader(new StringReader(inString));
+        buffer = ByteBuffer.wrap(inString.getBytes(StandardCharsets.ISO_8859_1));
         eof = false;
+        lexeme = new char[INITIAL_LEXEME_CAPACITY];
         getNextChar();
     }
 
     /**
-     * The getNextChar method reads the next character from the input stream
-     *      and sets the end-of-file flag eof if the end of file is reached and
-     *      the current character to the next character in the input stream
-     * @precondition the input file stream is open
-     * @postcondition updates the currentChar instance field with the next character
-     *      and the eof instance field if the file ended
+     * Scanner constructor for constructing a scanner that scans the ASCII source file at the
+     *      given path directly out of a byte buffer instead of through a Reader. Files larger
+     *      than MAP_THRESHOLD bytes are memory-mapped, smaller files are read with one bulk
+     *      FileChannel read, since mapping a tiny file costs more than copying it.
+     * Usage: Scanner lex = new Scanner(Paths.get(<file name>));
+     * @param path the path of the source file to scan
+     * @throws IOException if the file cannot be opened, mapped, or read
      */
-    private void getNextChar()
+    public Scanner(Path path) throws IOException
     {
-        try
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
         {
-            int inp = in.read();
-            if (inp == -1 || inp == '.')
+            long size = channel.size();
+            if (size > MAP_THRESHOLD)
             {
-                eof = true;
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
             }
             else
             {
-                currentChar = (char) inp;
+                buffer = ByteBuffer.allocate((int) size);
+                while (buffer.hasRemaining() && channel.read(buffer) != -1);
+                buffer.flip();
             }
-            if (inp == '\n')
+        }
+        eof = false;
+        lexeme = new char[INITIAL_LEXEME_CAPACITY];
+        getNextChar();
+    }
+
+    /**
+     * Scanner constructor for constructing a scanner that scans the given input buffer
+     *      starting at the given offset instead of at its beginning. Used to scan again only
+     *      the part of an input that was edited.
+     * @param buffer the buffer holding the input
+     * @param offset the offset to start scanning at
+     * @precondition offset lies between two tokens of the input
+     */
+    Scanner(ByteBuffer buffer, int offset)
+    {
+        this.buffer = buffer.duplicate();
+        this.buffer.position(offset);
+        eof = false;
+        lexeme = new char[INITIAL_LEXEME_CAPACITY];
+        getNextChar();
+    }
+
+    /**
+     * The readNext method reads the next raw character straight out of the byte buffer that
+     *      holds the input. Bytes are read as unsigned values, so non-ASCII bytes are never
+     *      mistaken for end of file.
+     * @precondition the input buffer has been filled
+     * @postcondition the input is advanced by one character
+     * @return the next character of the input, or -1 at the end of the input
+     */
+    private int readNext()
+    {
+        if (!buffer.hasRemaining() && !fill())
+        {
+            return -1;
+        }
+        return buffer.get() & 0xFF;
+    }
+
+    /**
+     * The fill method reads the next chunk of a streamed input into the byte buffer, keeping
+     *      every byte read so far so that lexemes can still be cut out of the buffer by offset.
+     *      The buffer doubles in size whenever it is full. A single read returns as soon as
+     *      the stream has any input, so it never waits for the end of an interactive stream.
+     * @precondition the input buffer has no bytes remaining
+     * @postcondition the buffer holds at least one more byte, or the stream is closed off
+     * @return true if more input was read, false if the input has ended
+     */
+    private boolean fill()
+    {
+        if (stream == null)
+        {
+            return false;
+        }
+        try
+        {
+            int limit = buffer.limit();
+            if (limit == buffer.capacity())
             {
-                ++lineno;
-                colno = 1;
+                buffer = ByteBuffer.wrap(Arrays.copyOf(buffer.array(), limit * 2));
+                buffer.limit(limit);
             }
-            else
+            int read = stream.read(buffer.array(), limit, buffer.capacity() - limit);
+            if (read <= 0)
             {
-                ++colno;
+                stream = null;
+                return false;
             }
+            buffer.limit(limit + read);
+            buffer.position(limit);
+            return true;
         }
         catch (IOException e)
         {
             e.printStackTrace();
             System.exit(-1);
+            return false;
+        }
+    }
+
+    /**
+     * The getNextChar method reads the next character from the input stream
+     *      and sets the end-of-file flag eof if the end of file is reached and
+     *      the current character to the next character in the input stream
+     * @precondition the input buffer has been filled
+     * @postcondition updates the currentChar instance field with the next character, the
+     *      charOffset instance field with its offset, and the eof instance field if the
+     *      file ended
+     */
+    private void getNextChar()
+    {
+        charOffset = buffer.position();
+        int inp = readNext();
+        if (inp == -1 || inp == '.')
+        {
+            eof = true;
+        }
+        else
+        {
+            currentChar = (char) inp;
         }
     }
 
@@ -120,6 +333,21 @@ public class Scanner
         return !eof;
     }
 
+    /**
+     * The hasClass method looks up the given character in the precomputed character class
+     *      table and checks whether it belongs to the given class. Characters outside of the
+     *      ASCII range never belong to any class, so the lookup allocates nothing.
+     * @param ch the character to be classified
+     * @param cls the class bit mask to check for (WHITESPACE, LETTER, DIGIT, or OPERATOR)
+     * @precondition none
+     * @postcondition returns whether the character belongs to the class
+     * @return a boolean whether the character belongs to the given class
+     */
+    private static boolean hasClass(char ch, byte cls)
+    {
+        return ch < CHAR_CLASS.length && (CHAR_CLASS[ch] & cls) != 0;
+    }
+
     /**
      * The isWhiteSpace method returns true if the input parameter is a whitespace character and
      *      false if it is not.
@@ -130,8 +358,7 @@ public class Scanner
      */
     private boolean isWhiteSpace(char str)
     {
-        String s = "" + str;
-        return " \n\t\r".contains(s);
+        return hasClass(str, WHITESPACE);
     }
 
     /**
@@ -143,8 +370,7 @@ public class Scanner
      */
     private boolean isLetter(char str)
     {
-        String s = "" + str;
-        return "abcdefghijklmnopqrstuvwxyz".contains(s.toLowerCase());
+        return hasClass(str, LETTER);
     }
 
     /**
@@ -156,8 +382,7 @@ public class Scanner
      */
     private boolean isDigit(char str)
     {
-        String s = "" + str;
-        return "1234567890".contains(s);
+        return hasClass(str, DIGIT);
     }
 
     /**
@@ -169,57 +394,219 @@ public class Scanner
      */
     public boolean isOperator(char str)
     {
-        String s = "" + str;
-        return ":<>=;,+-*/%()".contains(s);
+        return hasClass(str, OPERATOR);
+    }
+
+    /**
+     * The appendLexeme method appends the given character to the reusable lexeme buffer,
+     *      doubling the buffer whenever it is full so that scanning a lexeme of length n
+     *      takes linear time instead of rebuilding a String on every character.
+     * @param ch the character to append to the current lexeme
+     * @precondition the lexeme buffer has been initialized
+     * @postcondition the character is stored at the end of the current lexeme
+     */
+    private void appendLexeme(char ch)
+    {
+        if (lexemeLength == lexeme.length)
+        {
+            lexeme = Arrays.copyOf(lexeme, lexeme.length * 2);
+        }
+        lexeme[lexemeLength++] = ch;
+    }
+
+    /**
+     * The cutLexeme method cuts the current lexeme out of the lexeme buffer as the slice
+     *      starting at offset 0 with length lexemeLength. This is the only place where the
+     *      scanned characters of a number or identifier are turned into a String.
+     * @precondition the lexeme buffer holds the characters of the current lexeme
+     * @postcondition the lexeme buffer is left untouched and may be reused for the next lexeme
+     * @return the current lexeme as a String
+     */
+    private String cutLexeme()
+    {
+        return new String(lexeme, 0, lexemeLength);
     }
 
     /**
      * The scanNumber method scans the input stream for a number and returns the number
      *      as a string, and additionally, it scans numbers until it sees a non-digit. The
      *      method then returns that digit as a string.
-     * @return the number as a string
+     * @return the kind of the scanned token, NUMBER
      * @precondition the currentChar is a digit
-     * @postcondition returns the complete number in the file stream
+     * @postcondition the complete number is in the lexeme buffer
      * @throws ScanErrorException if the current character is not a digit
      */
-    private Token scanNumber() throws ScanErrorException
+    private TOKEN_KIND scanNumber() throws ScanErrorException
     {
-        char current = currentChar;
-        String digit = "";
-        while (isDigit(current)) {
-            digit += current;
-            eat(current);
-            current = currentChar;
+        lexemeLength = 0;
+        while (hasNext() && isDigit(currentChar))
+        {
+            appendLexeme(currentChar);
+            eat(currentChar);
         }
-        return new Token(TOKEN_TYPE.NUMBER, digit);
+        return TOKEN_KIND.NUMBER;
     }
 
     /**
      * The scanIdentifier method scans the input stream for an identifier and returns the
      *      identifier as a string, and additionally, it scans numbers until it sees a non-digit
      *      or non-letter. The method then returns that identifier as a string.
-     * @return the identifier as a string
+     * @return the kind of the scanned token, the keyword kind or IDENTIFIER
      * @precondition the currentChar is a letter
-     * @postcondition returns the complete identifier in the file stream
+     * @postcondition the complete identifier is in the lexeme buffer
      * @throws ScanErrorException if the current character is not a letter
      */
-    private Token scanIdentifier() throws ScanErrorException
+    private TOKEN_KIND scanIdentifier() throws ScanErrorException
     {
         char current = currentChar;
         if (!isLetter(current))
         {
             throw new ScanErrorException("Illegal character, expected <letter>, found <" + current + ">.");
         }
-        String identifier = "";
-        while (isLetter(current) || isDigit(current))
+        lexemeLength = 0;
+        while (hasNext() && (isLetter(currentChar) || isDigit(currentChar)))
+        {
+            appendLexeme(currentChar);
+            eat(currentChar);
+        }
+        TOKEN_KIND keyword = keywordKind(lexeme, lexemeLength);
+        return keyword != null ? keyword : TOKEN_KIND.IDENTIFIER;
+    }
+
+    /**
+     * The keywordHash method computes the perfect hash of a keyword from its first character,
+     *      last character, and length. The multipliers were chosen so that no two keywords of
+     *      the language share a slot in the 32 entry KEYWORDS table.
+     * @param first the first character of the word
+     * @param last the last character of the word
+     * @param length the length of the word
+     * @return the slot of the word in the KEYWORDS table
+     */
+    private static int keywordHash(char first, char last, int length)
+    {
+        return (first * 3 + last * 11 + length) & (KEYWORDS.length - 1);
+    }
+
+    /**
+     * The keywordKind method looks up the word stored in the first length characters of the
+     *      given buffer in the perfect hash keyword table. A single probe and one character
+     *      comparison decide whether the word is a keyword, regardless of how many keywords
+     *      the language has.
+     * @param chars the buffer holding the word
+     * @param length the length of the word
+     * @precondition length is at most chars.length
+     * @postcondition the buffer is not modified
+     * @return the TOKEN_KIND of the keyword, or null if the word is not a keyword
+     */
+    public static TOKEN_KIND keywordKind(char[] chars, int length)
+    {
+        if (length == 0)
+        {
+            return null;
+        }
+        TOKEN_KIND kind = KEYWORDS[keywordHash(chars[0], chars[length - 1], length)];
+        if (kind == null || kind.getSpelling().length() != length)
         {
-            identifier += current;
-            eat(current);
-            current = currentChar;
+            return null;
+        }
+        String spelling = kind.getSpelling();
+        for (int i = 0; i < length; ++i)
+        {
+            if (spelling.charAt(i) != chars[i])
+            {
+                return null;
+            }
+        }
+        return kind;
+    }
+
+    /**
+     * The operatorKind method maps an operator made of the given one or two characters to its
+     *      TOKEN_KIND with a switch on the characters, so no String is built for the operator.
+     * @param first the first character of the operator
+     * @param second the second character of the operator, or 0 for one character operators
+     * @return the TOKEN_KIND of the operator, OTHER if the operator has no kind of its own
+     */
+    public static TOKEN_KIND operatorKind(char first, char second)
+    {
+        switch (first)
+        {
+            case ':':
+                return second == '=' ? TOKEN_KIND.ASSIGN : second == 0 ? TOKEN_KIND.COLON : TOKEN_KIND.OTHER;
+            case '<':
+                return second == '=' ? TOKEN_KIND.LESS_EQUALS : second == '>' ? TOKEN_KIND.NOT_EQUALS
+                    : second == 0 ? TOKEN_KIND.LESS : TOKEN_KIND.OTHER;
+            case '>':
+                return second == '=' ? TOKEN_KIND.GREATER_EQUALS : second == 0 ? TOKEN_KIND.GREATER : TOKEN_KIND.OTHER;
+            default:
+                break;
+        }
+        if (second != 0)
+        {
+            return TOKEN_KIND.OTHER;
+        }
+        switch (first)
+        {
+            case ';':
+                return TOKEN_KIND.SEMICOLON;
+            case ',':
+                return TOKEN_KIND.COMMA;
+            case '(':
+                return TOKEN_KIND.LEFT_PAREN;
+            case ')':
+                return TOKEN_KIND.RIGHT_PAREN;
+            case '+':
+                return TOKEN_KIND.PLUS;
+            case '-':
+                return TOKEN_KIND.MINUS;
+            case '*':
+                return TOKEN_KIND.TIMES;
+            case '/':
+                return TOKEN_KIND.DIVIDE;
+            case '%':
+                return TOKEN_KIND.PERCENT;
+            case '=':
+                return TOKEN_KIND.EQUALS;
+            default:
+                return TOKEN_KIND.OTHER;
+        }
+    }
+
+    /**
+     * The kindOf method works out the TOKEN_KIND of a token that was built from a type and
+     *      a value alone, so that such tokens agree with the tokens produced by the scanner.
+     * @param type the type of the token
+     * @param value the value of the token
+     * @precondition value is not null
+     * @return the TOKEN_KIND matching the type and value
+     */
+    public static TOKEN_KIND kindOf(TOKEN_TYPE type, String value)
+    {
+        switch (type)
+        {
+            case NUMBER:
+                return TOKEN_KIND.NUMBER;
+            case EOF:
+                return TOKEN_KIND.EOF;
+            case IDENTIFIER:
+                if (value.isEmpty())
+                {
+                    return TOKEN_KIND.IDENTIFIER;
+                }
+                TOKEN_KIND keyword = KEYWORDS[keywordHash(value.charAt(0), value.charAt(value.length() - 1), value.length())];
+                return keyword != null && keyword.getType() == type && keyword.getSpelling().equals(value)
+                    ? keyword : TOKEN_KIND.IDENTIFIER;
+            default:
+                if (value.equals(TOKEN_KIND.MOD.getSpelling()))
+                {
+                    return TOKEN_KIND.MOD;
+                }
+                if (value.length() == 1 || value.length() == 2)
+                {
+                    return operatorKind(value.charAt(0), value.length() == 2 ? value.charAt(1) : 0);
+                }
+                return TOKEN_KIND.OTHER;
         }
-        if (identifier.equals("mod"))
-            return new Token(TOKEN_TYPE.OPERATOR, "mod");
-        return new Token(TOKEN_TYPE.IDENTIFIER, identifier);
     }
 
     /**
@@ -227,47 +614,42 @@ public class Scanner
      *      as a string, and additionally, it scans operators until it sees a non-operator. The
      *      method then returns that operator as a string. Additionally, when the method sees
      *      a "/" it calls the eatComment method to get rid of the comments.
-     * @return the operator as a string
+     * @return the kind of the operator, or null if a comment was eaten instead
      * @precondition the currentChar is an operator
-     * @postcondition returns the complete operator in the file stream and ignores comments
+     * @postcondition eats the complete operator in the file stream or the comment
      * @throws ScanErrorException if the current character is not an operator
      */
-    private Token scanOperator() throws ScanErrorException {
+    private TOKEN_KIND scanOperator() throws ScanErrorException {
         if (!isOperator(currentChar))
         {
             throw new ScanErrorException("Unrecognized character: " + currentChar);
         }
     
-        String token = "";
+        char first = currentChar;
     
-        if (currentChar == '/')
+        if (first == '/')
         {
-            if (!eatComment())
+            if (eatComment())
             {
-                token += "/";
-            }
-            else
-            {
-                return nextToken();
+                return null;
             }
         }
         else
         {
-            token += currentChar;
+            eat(first);
         }
     
-        eat(currentChar);
-    
-        if (isExtendableOperator(token.charAt(0)) && hasNext())
+        char second = 0;
+        if (isExtendableOperator(first) && hasNext())
         {
-            if (currentChar == '=' || (token.charAt(0) == '<' && currentChar == '>'))
+            if (currentChar == '=' || (first == '<' && currentChar == '>'))
             {
-                token += currentChar;
+                second = currentChar;
                 eat(currentChar);
             }
         }
     
-        return new Token(TOKEN_TYPE.OPERATOR, token);
+        return operatorKind(first, second);
     }    
     
     /**
@@ -357,61 +739,202 @@ public class Scanner
     }    
 
     /**
-     * The nextToken method returns the next token in the input stream. It checks if the
-     *      currentChar starts a number, identifier, operator, or whitespace. The method
-     *      automatically eats whitespace, and returns the next token. If the method encounters
-     *      an end of file, it returns "END".
-     * @return type String, the nextToken in the file stream
+     * The scan method scans the next token in the input stream without building a Token for
+     *      it. It checks if the currentChar starts a number, identifier, operator, or whitespace,
+     *      automatically eats whitespace and comments, and records the offset the token starts at in
+     *      the tokenStart instance field. The token ends at charOffset.
+     * @return the kind of the scanned token, EOF at the end of the input
+     * @precondition none
+     * @postcondition the token is eaten and its position is recorded
+     * @throws ScanErrorException if the input contains an unexpected character
+     */
+    TOKEN_KIND scan() throws ScanErrorException
+    {
+        while (true)
+        {
+            while (hasNext() && isWhiteSpace(currentChar))
+            {
+                eat(currentChar);
+            }
+            tokenStart = charOffset;
+            if(eof)
+            {
+                return TOKEN_KIND.EOF;
+            }
+            else if(isLetter(currentChar))
+            {
+                return scanIdentifier();
+            }
+            else if(isDigit(currentChar))
+            {
+                return scanNumber();
+            }
+            else if(isOperator(currentChar))
+            {
+                TOKEN_KIND kind = scanOperator();
+                if (kind != null)
+                {
+                    return kind;
+                }
+            }
+            else {
+                throw new ScanErrorException("Unexpected character: " + currentChar);
+            }
+        }
+    }
+
+    /**
+     * The nextToken method returns the next token in the input stream. Keywords, operators,
+     *      and the end of file are returned as their canonical Token, while identifiers and
+     *      numbers get a new Token holding their lexeme. If the method encounters an end of
+     *      file, it returns the EOF token.
+     * @return type Token, the nextToken in the file stream
      * @precondition none
      * @postcondition returns the next token in the file stream
-     * @throws ScanErrorException
+     * @throws ScanErrorException if the input contains an unexpected character
      */
     public Token nextToken() throws ScanErrorException
     {
-        while (hasNext() && isWhiteSpace(currentChar))
+        TOKEN_KIND kind = scan();
+        switch (kind)
         {
-            eat(currentChar);
+            case IDENTIFIER:
+            case NUMBER:
+                return new Token(kind.getType(), kind, cutLexeme());
+            case OTHER:
+                return new Token(kind.getType(), kind, slice(buffer, tokenStart, charOffset - tokenStart));
+            default:
+                return Token.of(kind);
         }
-        if(eof)
+    }
+
+    /**
+     * The tokenize method scans the rest of the input stream into a TokenStream, which stores
+     *      the kind and position of every token in parallel int arrays instead of building a
+     *      Token object and a String for each one. The values of identifiers and numbers are
+     *      cut out of the input buffer only when they are asked for.
+     * @return type TokenStream the remaining tokens of the input, ending with an EOF token
+     * @precondition none
+     * @postcondition the whole input is consumed
+     * @throws ScanErrorException if the input contains an unexpected character
+     */
+    public TokenStream tokenize() throws ScanErrorException
+    {
+        int position = buffer.position();
+        while (fill()) // the stream holds tokens by offset, so it needs the whole input
         {
-            return new Token(TOKEN_TYPE.EOF, "");
+            buffer.position(buffer.limit());
         }
-        else if(isLetter(currentChar))
+        buffer.position(position);
+        TokenStream tokens = new TokenStream(buffer.duplicate(), buffer.limit() / 8);
+        TOKEN_KIND kind;
+        do
         {
-            return scanIdentifier();
+            kind = scan();
+            tokens.add(kind, tokenStart, charOffset - tokenStart);
         }
-        else if(isDigit(currentChar))
+        while (kind != TOKEN_KIND.EOF);
+        tokens.trim();
+        return tokens;
+    }
+
+    /**
+     * The slice method cuts the bytes at the given offset and length out of the given input
+     *      buffer and turns them into a String. The input is ASCII wherever a token may appear,
+     *      so every byte becomes exactly one character.
+     * @param source the buffer holding the input
+     * @param offset the offset of the first byte of the slice
+     * @param length the number of bytes in the slice
+     * @precondition the slice lies inside the buffer
+     * @postcondition the position of the buffer is not changed
+     * @return the slice as a String
+     */
+    static String slice(ByteBuffer source, int offset, int length)
+    {
+        if (source.hasArray())
         {
-            return scanNumber();
+            return new String(source.array(), source.arrayOffset() + offset, length, StandardCharsets.ISO_8859_1);
         }
-        else if(isOperator(currentChar))
+        byte[] bytes = new byte[length];
+        source.get(offset, bytes);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Returns the offset in the input of the first character of the token most recently
+     *      returned by nextToken.
+     * @return type int the start offset of the last scanned token
+     */
+    public int getTokenOffset()
+    {
+        return tokenStart;
+    }
+
+    /**
+     * Returns the offset in the input just past the last character of the token most recently
+     *      scanned.
+     * @return type int the end offset of the last scanned token
+     */
+    int getTokenEnd()
+    {
+        return charOffset;
+    }
+
+    /**
+     * The getLineIndex method returns the index of line starts of the input, building it the
+     *      first time a position is asked for so that scanning itself never tracks lines. The
+     *      index is built again if a streamed input has grown since.
+     * @return type LineIndex the line index of the input
+     */
+    private LineIndex getLineIndex()
+    {
+        if (lines == null || linesLimit != buffer.limit())
         {
-            return scanOperator();
-        }
-        else {
-            throw new ScanErrorException("Unexpected character: " + currentChar);
+            lines = new LineIndex(buffer);
+            linesLimit = buffer.limit();
         }
+        return lines;
+    }
+
+    /**
+     * Returns the line the given offset of the input lies on.
+     * @param offset the offset in the input
+     * @return type int the line of the offset, numbered from 1
+     */
+    public int getLine(int offset)
+    {
+        return getLineIndex().getLine(offset);
+    }
+
+    /**
+     * Returns the column the given offset of the input lies on.
+     * @param offset the offset in the input
+     * @return type int the column of the offset, numbered from 1
+     */
+    public int getColumn(int offset)
+    {
+        return getLineIndex().getColumn(offset);
     }
 
     /**
      * Returns the line number associated with the line the Scanner is on while parsing the input.
-     *      The line number in incremeneted elsewhere everytime the Scanner sees a "/n", and the
-     *      instance variable aids in error handling.
+     *      The line is looked up in the line index from the offset of the current character,
+     *      and aids in error handling.
      * @return type int, the line number associated with the Scanner object
      */
     public int getLineno()
     {
-        return this.lineno;
+        return getLine(charOffset);
     }
 
     /**
      * Returns the column number associated with the column the Scanner is on while parsing the
-     *      input. The column number in incremeneted elsewhere everytime the Scanner sees
-     *      consumes a character, and the instance variable aids in error handling.
+     *      input. The column is looked up in the line index from the offset of the current
+     *      character, and aids in error handling.
      * @return type int, the column number associated with the Scanner object
      */
     public int getColno()
     {
-        return this.colno;
+        return getColumn(charOffset);
     }
 }
\ No newline at end of file
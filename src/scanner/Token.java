@@ -10,19 +10,66 @@ package src.scanner;
 public final class Token
 {
     private final Scanner.TOKEN_TYPE type;
+    private final Scanner.TOKEN_KIND kind;
     private final String value;
+    private int hash;
+
+    private static final Token[] CANONICAL = new Token[Scanner.TOKEN_KIND.values().length];
+
+    static
+    {
+        for (Scanner.TOKEN_KIND kind : Scanner.TOKEN_KIND.values())
+        {
+            if (kind.getSpelling() != null)
+            {
+                CANONICAL[kind.ordinal()] = new Token(kind.getType(), kind, kind.getSpelling());
+            }
+        }
+    }
 
     /**
      * The Token constructor creates a Token object that contains the type and value of the token.
+     *      The kind of the token is worked out from the type and value.
      * @param type the type of the Token referring to the Scanner.TOKEN_TYPE enum information
      * @param value the value of the token
      */
     public Token(Scanner.TOKEN_TYPE type, String value)
+    {
+        this(type, Scanner.kindOf(type, value), value);
+    }
+
+    /**
+     * The Token constructor creates a Token object that contains the type, kind, and value of
+     *      the token. It is used by the Scanner, which already knows the kind of every token.
+     * @param type the type of the Token referring to the Scanner.TOKEN_TYPE enum information
+     * @param kind the kind of the Token referring to the Scanner.TOKEN_KIND enum information
+     * @param value the value of the token
+     */
+    public Token(Scanner.TOKEN_TYPE type, Scanner.TOKEN_KIND kind, String value)
     {
         this.type = type;
+        this.kind = kind;
         this.value = value;
     }
 
+    /**
+     * Returns the canonical Token of the given kind. Every keyword, every operator with a kind
+     *      of its own, and the end of file have exactly one Token instance, which the Scanner
+     *      hands out instead of allocating a new Token each time.
+     * @param kind the kind of the token, which must have a fixed spelling
+     * @return type Token the shared Token of the given kind
+     * @throws IllegalArgumentException if tokens of the given kind have no fixed spelling
+     */
+    public static Token of(Scanner.TOKEN_KIND kind)
+    {
+        Token token = CANONICAL[kind.ordinal()];
+        if (token == null)
+        {
+            throw new IllegalArgumentException("Tokens of kind " + kind + " have no canonical instance");
+        }
+        return token;
+    }
+
     /**
      * A getter method that returns the type of the token
      * @return Scanner.TOKEN_TYPE the type of the token
@@ -32,6 +79,16 @@ public final class Token
         return type;
     }
 
+    /**
+     * A getter method that returns the kind of the token, which tells apart every keyword
+     *      and operator of the language
+     * @return Scanner.TOKEN_KIND the kind of the token
+     */
+    public Scanner.TOKEN_KIND getKind()
+    {
+        return kind;
+    }
+
     /**
      * A getter method that returns the value of the token
      * @return String the value of the token
@@ -64,6 +121,10 @@ public final class Token
      */
     public boolean equals(Object obj)
     {
+        if (obj == this)
+        {
+            return true;
+        }
         if (!(obj instanceof Token))
         {
             throw new IllegalArgumentException("Given object for comparison is not of type token");
@@ -75,12 +136,18 @@ public final class Token
     @Override
     /**
      * An overrided hashCode method that returns a unique hashCode for any Token object.
-     *      The method utilizes Java's hashCode method for String objects and adds the hashCode's
-     *      together for extra efficacy.
+     *      The method combines the hash of the type name with Java's hashCode for the value
+     *      String. The hash is computed on first use and cached, since tokens never change.
      * @return type int the hash code of the Token object
      */
     public int hashCode()
     {
-        return (this.type.name() + this.value).hashCode();
+        int h = hash;
+        if (h == 0)
+        {
+            h = 31 * this.type.name().hashCode() + this.value.hashCode();
+            hash = h;
+        }
+        return h;
     }
 }
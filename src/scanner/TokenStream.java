@@ -0,0 +1,319 @@
+package src.scanner;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The TokenStream class stores every token of a scanned input as a struct of arrays. The kind,
+ *      start offset, and length of the token at index i are kept at index i of three parallel
+ *      int arrays, so a token costs twelve bytes and no objects at all. The values of
+ *      identifiers and numbers are not stored; they are cut out of the input buffer only when
+ *      the parser asks for them, and lines and columns are looked up from the start offset in
+ *      a LineIndex built the first time a position is asked for.
+ * @author Daniel Gergov
+ * @version 10/18/26
+ */
+public class TokenStream
+{
+    private static final Scanner.TOKEN_KIND[] KINDS = Scanner.TOKEN_KIND.values();
+    private static final int MIN_CAPACITY = 16;
+
+    private final ByteBuffer source;
+    private int[] kinds;
+    private int[] starts;
+    private int[] lengths;
+    private int size;
+    private int editStart;
+    private int editEnd;
+    private LineIndex lines;
+
+    /**
+     * Constructor for the TokenStream class that creates an empty stream of tokens over the
+     *      given input buffer.
+     * @param source the buffer holding the input the tokens are scanned from
+     * @param capacity the number of tokens to make room for up front
+     */
+    public TokenStream(ByteBuffer source, int capacity)
+    {
+        this.source = source;
+        capacity = Math.max(capacity, MIN_CAPACITY);
+        kinds = new int[capacity];
+        starts = new int[capacity];
+        lengths = new int[capacity];
+        size = 0;
+        editStart = 0;
+        editEnd = 0;
+    }
+
+    /**
+     * Appends a token to the end of the stream, growing the arrays when they are full.
+     * @param kind the kind of the token
+     * @param start the offset of the first character of the token in the input
+     * @param length the number of characters in the token
+     * @postcondition the token is stored at index size - 1
+     */
+    public void add(Scanner.TOKEN_KIND kind, int start, int length)
+    {
+        if (size == kinds.length)
+        {
+            int capacity = size * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+        }
+        kinds[size] = kind.ordinal();
+        starts[size] = start;
+        lengths[size] = length;
+        ++size;
+    }
+
+    /**
+     * Shrinks the arrays to exactly the number of tokens in the stream, so a finished stream
+     *      does not keep the spare room left over from growing.
+     * @postcondition every array has length size
+     */
+    void trim()
+    {
+        if (size < kinds.length)
+        {
+            kinds = Arrays.copyOf(kinds, size);
+            starts = Arrays.copyOf(starts, size);
+            lengths = Arrays.copyOf(lengths, size);
+        }
+    }
+
+    /**
+     * The edit method builds the token stream of an edited copy of the input by scanning again
+     *      only the part of it around the edit. Scanning restarts at the end of the last token
+     *      that ends before the edit, since the scanner holds no state between tokens, and stops
+     *      as soon as a new token ends where an old token past the edit ended: from there on
+     *      both inputs are equal, so the remaining old tokens are copied with their offsets
+     *      shifted. The tokens from index getEditStart() up to getEditEnd() of the returned
+     *      stream are the ones that were scanned again.
+     * @param edited the buffer holding the edited input
+     * @param offset the offset of the edit in the old input
+     * @param removedLength the number of bytes of the old input the edit removed
+     * @param insertedLength the number of bytes the edit inserted in their place
+     * @precondition edited holds this stream's input with the edit applied
+     * @return type TokenStream the tokens of the edited input
+     * @throws ScanErrorException if the edited input contains an unexpected character
+     */
+    public TokenStream edit(ByteBuffer edited, int offset, int removedLength, int insertedLength) throws ScanErrorException
+    {
+        int delta = insertedLength - removedLength;
+        int removedEnd = offset + removedLength;
+        int first = firstEndingAt(offset);
+        TokenStream result = new TokenStream(edited, size + Math.max(delta, 0) + 1);
+        System.arraycopy(kinds, 0, result.kinds, 0, first);
+        System.arraycopy(starts, 0, result.starts, 0, first);
+        System.arraycopy(lengths, 0, result.lengths, 0, first);
+        result.size = first;
+        result.editStart = first;
+        Scanner scanner = new Scanner(edited, first == 0 ? 0 : starts[first - 1] + lengths[first - 1]);
+        int old = first;
+        while (true)
+        {
+            Scanner.TOKEN_KIND kind = scanner.scan();
+            int start = scanner.getTokenOffset();
+            int end = scanner.getTokenEnd();
+            result.add(kind, start, end - start);
+            if (kind == Scanner.TOKEN_KIND.EOF)
+            {
+                break;
+            }
+            end -= delta;
+            if (end >= removedEnd)
+            {
+                while (old < size && starts[old] + lengths[old] < end)
+                {
+                    ++old;
+                }
+                if (old < size && starts[old] + lengths[old] == end && KINDS[kinds[old]] != Scanner.TOKEN_KIND.EOF)
+                {
+                    result.editEnd = result.size;
+                    for (int i = old + 1; i < size; ++i)
+                    {
+                        result.add(KINDS[kinds[i]], starts[i] + delta, lengths[i]);
+                    }
+                    return result;
+                }
+            }
+        }
+        result.editEnd = result.size;
+        return result;
+    }
+
+    /**
+     * The firstEndingAt method finds the first token that ends at or after the given offset
+     *      with a binary search, since tokens end in increasing order.
+     * @param offset the offset in the input
+     * @return type int the index of the first token ending at or after offset, or of the EOF
+     *      token if there is none
+     */
+    private int firstEndingAt(int offset)
+    {
+        int low = 0;
+        int high = size - 1;
+        while (low < high)
+        {
+            int mid = (low + high) >>> 1;
+            if (starts[mid] + lengths[mid] < offset)
+            {
+                low = mid + 1;
+            }
+            else
+            {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the index of the first token that was scanned again by the edit that built this
+     *      stream. Every token before it is unchanged.
+     * @return type int the index of the first scanned token
+     */
+    public int getEditStart()
+    {
+        return editStart;
+    }
+
+    /**
+     * Returns the index just past the last token that was scanned again by the edit that built
+     *      this stream. Every token from it on is unchanged apart from its offset.
+     * @return type int the index past the last scanned token
+     */
+    public int getEditEnd()
+    {
+        return editEnd;
+    }
+
+    /**
+     * Returns the number of tokens in the stream, including the final EOF token.
+     * @return type int the number of tokens in the stream
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Returns the kind of the token at the given index.
+     * @param index the index of the token
+     * @return type Scanner.TOKEN_KIND the kind of the token
+     */
+    public Scanner.TOKEN_KIND getKind(int index)
+    {
+        return KINDS[kinds[index]];
+    }
+
+    /**
+     * Returns the offset of the first character of the token at the given index.
+     * @param index the index of the token
+     * @return type int the start offset of the token in the input
+     */
+    public int getStart(int index)
+    {
+        return starts[index];
+    }
+
+    /**
+     * Returns the number of characters of the token at the given index.
+     * @param index the index of the token
+     * @return type int the length of the token
+     */
+    public int getLength(int index)
+    {
+        return lengths[index];
+    }
+
+    /**
+     * Returns the line the token at the given index starts on.
+     * @param index the index of the token
+     * @return type int the line of the token
+     */
+    public int getLine(int index)
+    {
+        return getLineIndex().getLine(starts[index]);
+    }
+
+    /**
+     * Returns the column the token at the given index starts on.
+     * @param index the index of the token
+     * @return type int the column of the token
+     */
+    public int getColumn(int index)
+    {
+        return getLineIndex().getColumn(starts[index]);
+    }
+
+    /**
+     * The getLineIndex method returns the index of line starts of the input, building it the
+     *      first time a position is asked for.
+     * @return type LineIndex the line index of the input
+     */
+    private LineIndex getLineIndex()
+    {
+        if (lines == null)
+        {
+            lines = new LineIndex(source);
+        }
+        return lines;
+    }
+
+    /**
+     * Returns the value of the token at the given index. Keywords and operators return their
+     *      fixed spelling; every other token is cut out of the input buffer on each call.
+     * @param index the index of the token
+     * @return type String the value of the token
+     */
+    public String getValue(int index)
+    {
+        String spelling = KINDS[kinds[index]].getSpelling();
+        if (spelling != null)
+        {
+            return spelling;
+        }
+        return Scanner.slice(source, starts[index], lengths[index]);
+    }
+
+    /**
+     * Returns the value of the NUMBER token at the given index as an int, reading the digits
+     *      straight out of the input buffer without building a String.
+     * @param index the index of the token
+     * @precondition the token at the given index is a NUMBER token
+     * @return type int the value of the number
+     * @throws NumberFormatException if the number does not fit in an int
+     */
+    public int getInt(int index)
+    {
+        int start = starts[index];
+        long value = 0;
+        for (int i = start; i < start + lengths[index]; ++i)
+        {
+            value = value * 10 + (source.get(i) - '0');
+            if (value > Integer.MAX_VALUE)
+            {
+                throw new NumberFormatException("Number out of range: " + getValue(index));
+            }
+        }
+        return (int) value;
+    }
+
+    /**
+     * Builds a Token object for the token at the given index, for callers such as error
+     *      messages that want the token in the same form the Scanner hands out.
+     * @param index the index of the token
+     * @return type Token the token at the given index
+     */
+    public Token getToken(int index)
+    {
+        Scanner.TOKEN_KIND kind = getKind(index);
+        if (kind.getSpelling() != null)
+        {
+            return Token.of(kind);
+        }
+        return new Token(kind.getType(), kind, getValue(index));
+    }
+}
@@ -0,0 +1,524 @@
+package src.vm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import src.ast.ProcedureDeclaration;
+import src.ast.Variable;
+import src.environments.Resolver;
+
+/**
+ * The BytecodeEmitter class is the bytecode counterpart of the Emitter class. The AST nodes
+ *      assemble themselves into it the same way they compile themselves into MIPS assembly,
+ *      and it builds the BytecodeProgram the VirtualMachine runs. Variables are laid out by a
+ *      Resolver, so the bytecode scopes them the way the resolved tree and the compiled
+ *      program do: the parameters, the return variable, and the local variables of a
+ *      procedure live in its frame, and every other name is a global variable. The emitter
+ *      also keeps the labels and loops of the code being emitted and counts how many values
+ *      the code keeps on the stack, so the VirtualMachine never has to check for room.
+ * @author Daniel Gergov
+ * @version 10/18/26
+ */
+public class BytecodeEmitter
+{
+    private int[] code;
+    private int size;
+    private Resolver resolver;
+    private boolean inProcedure;
+    private Map<String, Integer> nameIndices;
+    private List<String> names;
+    private Map<String, Integer> procedureIndices;
+    private List<String> procedureNames;
+    private int[] entries;
+    private int[][] parameterSlots;
+    private int[] returnSlots;
+    private int[] slotCounts;
+    private int[] maxStacks;
+    private int procedure;
+    private int[] labels;
+    private int labelCount;
+    private int[] fixups;
+    private int fixupCount;
+    private int[] continueLabels;
+    private int[] breakLabels;
+    private int loopCount;
+    private int depth;
+    private int maxDepth;
+    private int mainMaxStack;
+    private int last;
+    private int marked;
+
+    /**
+     * Constructor for the BytecodeEmitter class that starts emitting the main program.
+     */
+    public BytecodeEmitter()
+    {
+        code = new int[256];
+        size = 0;
+        resolver = new Resolver();
+        inProcedure = false;
+        nameIndices = new HashMap<String, Integer>();
+        names = new ArrayList<String>();
+        procedureIndices = new HashMap<String, Integer>();
+        procedureNames = new ArrayList<String>();
+        entries = new int[8];
+        parameterSlots = new int[8][];
+        returnSlots = new int[8];
+        slotCounts = new int[8];
+        maxStacks = new int[8];
+        labels = new int[16];
+        labelCount = 0;
+        fixups = new int[16];
+        fixupCount = 0;
+        continueLabels = new int[8];
+        breakLabels = new int[8];
+        loopCount = 0;
+        depth = 0;
+        maxDepth = 0;
+        mainMaxStack = 0;
+        last = -1;
+        marked = 0;
+    }
+
+    /**
+     * The put method appends an int to the code, growing the code array when it is full.
+     * @param value the opcode or operand to append
+     */
+    private void put(int value)
+    {
+        if (size == code.length)
+        {
+            code = Arrays.copyOf(code, size * 2);
+        }
+        code[size++] = value;
+    }
+
+    /**
+     * The push method records that the code emitted next has the given number of values more
+     *      on the stack, keeping track of the most values it ever has.
+     * @param count the number of values pushed, negative if values are popped
+     */
+    private void push(int count)
+    {
+        depth += count;
+        maxDepth = Math.max(maxDepth, depth);
+    }
+
+    /**
+     * Returns the index of the given variable name in the name table, adding it if needed.
+     * @param name the name of a variable
+     * @return type int the index of the name
+     */
+    private int nameIndex(String name)
+    {
+        Integer index = nameIndices.get(name);
+        if (index == null)
+        {
+            index = names.size();
+            nameIndices.put(name, index);
+            names.add(name);
+        }
+        return index;
+    }
+
+    /**
+     * Returns the number of the procedure with the given name, giving the name the next
+     *      number the first time it is seen.
+     * @param id the name of the procedure
+     * @return type int the number of the procedure
+     */
+    private int procedureIndex(String id)
+    {
+        Integer index = procedureIndices.get(id);
+        if (index == null)
+        {
+            index = procedureNames.size();
+            procedureIndices.put(id, index);
+            procedureNames.add(id);
+            if (index == entries.length)
+            {
+                entries = Arrays.copyOf(entries, index * 2);
+                parameterSlots = Arrays.copyOf(parameterSlots, index * 2);
+                returnSlots = Arrays.copyOf(returnSlots, index * 2);
+                slotCounts = Arrays.copyOf(slotCounts, index * 2);
+                maxStacks = Arrays.copyOf(maxStacks, index * 2);
+            }
+            entries[index] = -1;
+            parameterSlots[index] = new int[0];
+        }
+        return index;
+    }
+
+    /**
+     * The begin method records that an instruction starts at the end of the code.
+     */
+    private void begin()
+    {
+        last = size;
+    }
+
+    /**
+     * The takeConstant method checks whether the last instruction pushes a constant that no
+     *      jump can skip, and if so removes it so that the instruction that pops it can take
+     *      the constant as an operand instead.
+     * @return type boolean true if a constant was removed; otherwise, false
+     */
+    private boolean takeConstant()
+    {
+        if (last >= marked && last == size - 2 && code[last] == Opcode.CONST)
+        {
+            size = last;
+            last = -1;
+            push(-1);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * The emitConstant method emits code that pushes the given value.
+     * @param value the value to push
+     */
+    public void emitConstant(int value)
+    {
+        begin();
+        put(Opcode.CONST);
+        put(value);
+        push(1);
+    }
+
+    /**
+     * The emitLoad method emits code that pushes the value of the given variable.
+     * @param name the name of the variable
+     */
+    public void emitLoad(String name)
+    {
+        begin();
+        put(resolver.isLocal(name) ? Opcode.LOAD : Opcode.LOADG);
+        put(resolver.getSlot(name));
+        put(nameIndex(name));
+        push(1);
+    }
+
+    /**
+     * The emitStore method emits code that pops a value into the given variable.
+     * @param name the name of the variable
+     */
+    public void emitStore(String name)
+    {
+        begin();
+        put(resolver.isLocal(name) ? Opcode.STORE : Opcode.STOREG);
+        put(resolver.getSlot(name));
+        push(-1);
+    }
+
+    /**
+     * The emitClear method emits code that marks the given variable unassigned, the way
+     *      declaring a variable does.
+     * @param name the name of the variable
+     */
+    public void emitClear(String name)
+    {
+        begin();
+        put(resolver.isLocal(name) ? Opcode.CLEAR : Opcode.CLEARG);
+        put(resolver.getSlot(name));
+    }
+
+    /**
+     * The emitOperator method emits code that pops two values and pushes the result of the
+     *      given arithmetic or comparison operator on them. An arithmetic operator whose right
+     *      operand is a constant takes the constant as an operand.
+     * @param op the operator as the parser spells it
+     */
+    public void emitOperator(String op)
+    {
+        int opcode = Opcode.of(op);
+        if (opcode <= Opcode.MOD && takeConstant())
+        {
+            int value = code[size + 1];
+            begin();
+            put(opcode + Opcode.CONSTANT_ARITHMETIC);
+            put(value);
+            return;
+        }
+        begin();
+        put(opcode);
+        push(-1);
+    }
+
+    /**
+     * The emitBranch method emits code that pops two values and jumps to the given label if
+     *      the given comparison of them holds, or if it does not hold. A comparison whose right
+     *      operand is a constant takes the constant as an operand.
+     * @param op the comparison operator as the parser spells it
+     * @param when true to jump when the comparison holds; false to jump when it does not
+     * @param label the label to jump to
+     */
+    public void emitBranch(String op, boolean when, int label)
+    {
+        int opcode = Opcode.jumpOf(op, when);
+        if (takeConstant())
+        {
+            int value = code[size + 1];
+            begin();
+            put(opcode + Opcode.CONSTANT_JUMP);
+            put(value);
+            putLabel(label);
+            push(-1);
+            return;
+        }
+        begin();
+        put(opcode);
+        putLabel(label);
+        push(-2);
+    }
+
+    /**
+     * The emitJump method emits code that jumps to the given label.
+     * @param label the label to jump to
+     */
+    public void emitJump(int label)
+    {
+        begin();
+        put(Opcode.JUMP);
+        putLabel(label);
+    }
+
+    /**
+     * The emitForTest method emits code that jumps to the given label once the counter of the
+     *      for loop on top of the stack is past its bound.
+     * @param label the label to jump to
+     */
+    public void emitForTest(int label)
+    {
+        begin();
+        put(Opcode.FORTEST);
+        putLabel(label);
+    }
+
+    /**
+     * The emitForNext method emits code that increments the counter of the for loop on top of
+     *      the stack and stores it in the given variable.
+     * @param name the name of the loop variable
+     */
+    public void emitForNext(String name)
+    {
+        begin();
+        put(resolver.isLocal(name) ? Opcode.FORNEXT : Opcode.FORNEXTG);
+        put(resolver.getSlot(name));
+    }
+
+    /**
+     * The emitForEnd method emits code that pops the counter and the bound of a for loop.
+     */
+    public void emitForEnd()
+    {
+        begin();
+        put(Opcode.POP2);
+        push(-2);
+    }
+
+    /**
+     * The emitCall method emits code that calls the given procedure with the given number of
+     *      arguments, which are on top of the stack.
+     * @param id the name of the procedure
+     * @param count the number of arguments
+     * @param value true if the return value is pushed; false if it is ignored
+     */
+    public void emitCall(String id, int count, boolean value)
+    {
+        begin();
+        put(value ? Opcode.CALL : Opcode.CALLV);
+        put(procedureIndex(id));
+        put(count);
+        push(-count + (value ? 1 : 0));
+    }
+
+    /**
+     * The emitWriteln method emits code that pops a value and prints it.
+     */
+    public void emitWriteln()
+    {
+        begin();
+        put(Opcode.WRITELN);
+        push(-1);
+    }
+
+    /**
+     * The emitBreak method emits code that leaves the innermost loop, or fails if there is no
+     *      loop around it in the procedure or main program.
+     */
+    public void emitBreak()
+    {
+        if (loopCount == 0)
+        {
+            begin();
+            put(Opcode.NOBREAK);
+        }
+        else
+        {
+            emitJump(breakLabels[loopCount - 1]);
+        }
+    }
+
+    /**
+     * The emitContinue method emits code that goes on with the next iteration of the
+     *      innermost loop, or fails if there is no loop around it in the procedure or main
+     *      program.
+     */
+    public void emitContinue()
+    {
+        if (loopCount == 0)
+        {
+            begin();
+            put(Opcode.NOCONTINUE);
+        }
+        else
+        {
+            emitJump(continueLabels[loopCount - 1]);
+        }
+    }
+
+    /**
+     * The emitExit method emits code that returns from the procedure, or ends the program in
+     *      the main program.
+     */
+    public void emitExit()
+    {
+        begin();
+        put(inProcedure ? Opcode.RET : Opcode.HALT);
+    }
+
+    /**
+     * Returns a new label, which marks no place in the code until mark is called with it.
+     * @return type int the label
+     */
+    public int newLabel()
+    {
+        if (labelCount == labels.length)
+        {
+            labels = Arrays.copyOf(labels, labelCount * 2);
+        }
+        labels[labelCount] = -1;
+        return labelCount++;
+    }
+
+    /**
+     * The mark method makes the given label mark the place of the next instruction.
+     * @param label the label
+     */
+    public void mark(int label)
+    {
+        labels[label] = size;
+        marked = size;
+    }
+
+    /**
+     * The putLabel method appends the given label as the target of a jump, to be replaced by
+     *      the place it marks when the program is built.
+     * @param label the label
+     */
+    private void putLabel(int label)
+    {
+        if (fixupCount == fixups.length)
+        {
+            fixups = Arrays.copyOf(fixups, fixupCount * 2);
+        }
+        fixups[fixupCount++] = size;
+        put(label);
+    }
+
+    /**
+     * The enterLoop method starts a loop, so that break and continue statements inside it jump
+     *      to its labels.
+     * @param continueLabel the label a continue statement jumps to
+     * @param breakLabel the label a break statement jumps to
+     */
+    public void enterLoop(int continueLabel, int breakLabel)
+    {
+        if (loopCount == continueLabels.length)
+        {
+            continueLabels = Arrays.copyOf(continueLabels, loopCount * 2);
+            breakLabels = Arrays.copyOf(breakLabels, loopCount * 2);
+        }
+        continueLabels[loopCount] = continueLabel;
+        breakLabels[loopCount] = breakLabel;
+        ++loopCount;
+    }
+
+    /**
+     * The exitLoop method ends the innermost loop.
+     */
+    public void exitLoop()
+    {
+        --loopCount;
+    }
+
+    /**
+     * The endMain method ends the main program, which comes first in the code.
+     */
+    public void endMain()
+    {
+        begin();
+        put(Opcode.HALT);
+        mainMaxStack = maxDepth;
+    }
+
+    /**
+     * The beginProcedure method starts the code of the given procedure. Its frame holds its
+     *      parameters, its return variable, and its local variables, laid out by the Resolver.
+     *      A later procedure with the same name replaces an earlier one.
+     * @param declaration the procedure whose body is emitted next
+     */
+    public void beginProcedure(ProcedureDeclaration declaration)
+    {
+        resolver.enterProcedure(declaration);
+        inProcedure = true;
+        procedure = procedureIndex(declaration.getId());
+        entries[procedure] = size;
+        Variable[] parameters = declaration.getParameters();
+        parameterSlots[procedure] = new int[parameters.length];
+        for (int i = 0; i < parameters.length; ++i)
+        {
+            parameterSlots[procedure][i] = resolver.getSlot(parameters[i].getName());
+        }
+        returnSlots[procedure] = resolver.getSlot(declaration.getId());
+        slotCounts[procedure] = resolver.getLocalCount();
+        depth = 0;
+        maxDepth = 0;
+        loopCount = 0;
+    }
+
+    /**
+     * The endProcedure method returns from and ends the code of the current procedure.
+     */
+    public void endProcedure()
+    {
+        begin();
+        put(Opcode.RET);
+        maxStacks[procedure] = maxDepth;
+        resolver.exitProcedure();
+        inProcedure = false;
+    }
+
+    /**
+     * The build method replaces every label in the code with the place it marks and returns
+     *      the finished program.
+     * @return type BytecodeProgram the emitted program
+     */
+    public BytecodeProgram build()
+    {
+        for (int i = 0; i < fixupCount; ++i)
+        {
+            code[fixups[i]] = labels[code[fixups[i]]];
+        }
+        fixupCount = 0;
+        int count = procedureNames.size();
+        return new BytecodeProgram(Arrays.copyOf(code, size), resolver.getGlobalCount(), mainMaxStack,
+                Arrays.copyOf(entries, count), Arrays.copyOf(parameterSlots, count), Arrays.copyOf(returnSlots, count),
+                Arrays.copyOf(slotCounts, count), Arrays.copyOf(maxStacks, count),
+                names.toArray(new String[names.size()]), procedureNames.toArray(new String[count]));
+    }
+}
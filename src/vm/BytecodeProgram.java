@@ -0,0 +1,151 @@
+package src.vm;
+
+/**
+ * The BytecodeProgram class holds a program compiled by the BytecodeEmitter: the code array,
+ *      which starts with the main program, the layout of every procedure, the number of global
+ *      variables, and the names of the variables and procedures the code refers to, which are
+ *      only needed for error messages. Procedures are numbered by name, so a call refers to
+ *      the last procedure declared with the name it calls, as it does when the tree is run.
+ * @author Daniel Gergov
+ * @version 10/18/26
+ */
+public class BytecodeProgram
+{
+    private int[] code;
+    private int globalCount;
+    private int mainMaxStack;
+    private int[] entries;
+    private int[][] parameterSlots;
+    private int[] returnSlots;
+    private int[] slotCounts;
+    private int[] maxStacks;
+    private String[] names;
+    private String[] procedureNames;
+
+    /**
+     * Constructor for the BytecodeProgram class.
+     * @param code the code array, starting with the main program
+     * @param globalCount the number of global variables
+     * @param mainMaxStack the most values the main program keeps on the stack at once
+     * @param entries the index in the code of each procedure, or -1 if a called procedure is
+     *      not declared
+     * @param parameterSlots the slot of each parameter of each procedure
+     * @param returnSlots the slot of the return variable of each procedure
+     * @param slotCounts the number of slots in the frame of each procedure
+     * @param maxStacks the most values each procedure keeps on the stack above its frame
+     * @param names the names of the variables the code refers to by index
+     * @param procedureNames the name of each procedure
+     */
+    public BytecodeProgram(int[] code, int globalCount, int mainMaxStack, int[] entries,
+            int[][] parameterSlots, int[] returnSlots, int[] slotCounts, int[] maxStacks,
+            String[] names, String[] procedureNames)
+    {
+        this.code = code;
+        this.globalCount = globalCount;
+        this.mainMaxStack = mainMaxStack;
+        this.entries = entries;
+        this.parameterSlots = parameterSlots;
+        this.returnSlots = returnSlots;
+        this.slotCounts = slotCounts;
+        this.maxStacks = maxStacks;
+        this.names = names;
+        this.procedureNames = procedureNames;
+    }
+
+    /**
+     * Returns the code array of the program.
+     * @return type int[] the code, starting with the main program
+     */
+    public int[] getCode()
+    {
+        return code;
+    }
+
+    /**
+     * Returns the number of global variables of the program.
+     * @return type int the number of global slots
+     */
+    public int getGlobalCount()
+    {
+        return globalCount;
+    }
+
+    /**
+     * Returns the most values the main program keeps on the stack at once.
+     * @return type int the stack size the main program needs
+     */
+    public int getMainMaxStack()
+    {
+        return mainMaxStack;
+    }
+
+    /**
+     * Returns the index in the code where the given procedure starts.
+     * @param procedure the index of the procedure
+     * @return type int the entry of the procedure, or -1 if it is not declared
+     */
+    public int getEntry(int procedure)
+    {
+        return entries[procedure];
+    }
+
+    /**
+     * Returns the slots of the parameters of the given procedure, in order.
+     * @param procedure the index of the procedure
+     * @return type int[] the parameter slots
+     */
+    public int[] getParameterSlots(int procedure)
+    {
+        return parameterSlots[procedure];
+    }
+
+    /**
+     * Returns the slot of the return variable of the given procedure.
+     * @param procedure the index of the procedure
+     * @return type int the return slot
+     */
+    public int getReturnSlot(int procedure)
+    {
+        return returnSlots[procedure];
+    }
+
+    /**
+     * Returns the number of slots in a frame of the given procedure.
+     * @param procedure the index of the procedure
+     * @return type int the frame size
+     */
+    public int getSlotCount(int procedure)
+    {
+        return slotCounts[procedure];
+    }
+
+    /**
+     * Returns the most values the given procedure keeps on the stack above its frame at once.
+     * @param procedure the index of the procedure
+     * @return type int the stack size the procedure needs above its frame
+     */
+    public int getMaxStack(int procedure)
+    {
+        return maxStacks[procedure];
+    }
+
+    /**
+     * Returns the name of the variable the code refers to by the given index.
+     * @param index the index of the name
+     * @return type String the name of the variable
+     */
+    public String getName(int index)
+    {
+        return names[index];
+    }
+
+    /**
+     * Returns the name of the given procedure.
+     * @param procedure the index of the procedure
+     * @return type String the name of the procedure
+     */
+    public String getProcedureName(int procedure)
+    {
+        return procedureNames[procedure];
+    }
+}
@@ -0,0 +1,184 @@
+package src.vm;
+
+/**
+ * The Opcode class holds the instruction set of the bytecode the VirtualMachine runs. A program
+ *      is a flat int array in which every instruction is its opcode followed by its operands,
+ *      all of them ints. Local slots are indices into the frame of the running procedure and
+ *      global slots are indices into the global variables; jump targets are indices into the
+ *      code array.
+ * @author Daniel Gergov
+ * @version 10/18/26
+ */
+public final class Opcode
+{
+    /** CONST value: pushes value. */
+    public static final int CONST = 0;
+    /** LOAD slot name: pushes the local in slot, which must have been assigned. */
+    public static final int LOAD = 1;
+    /** STORE slot: pops a value into the local in slot. */
+    public static final int STORE = 2;
+    /** CLEAR slot: marks the local in slot unassigned. */
+    public static final int CLEAR = 3;
+    /** LOADG slot name: pushes the global in slot, which must have been assigned. */
+    public static final int LOADG = 4;
+    /** STOREG slot: pops a value into the global in slot. */
+    public static final int STOREG = 5;
+    /** CLEARG slot: marks the global in slot unassigned. */
+    public static final int CLEARG = 6;
+    /** ADD: pops b and a, pushes a + b. */
+    public static final int ADD = 7;
+    /** SUB: pops b and a, pushes a - b. */
+    public static final int SUB = 8;
+    /** MUL: pops b and a, pushes a * b. */
+    public static final int MUL = 9;
+    /** DIV: pops b and a, pushes a / b. */
+    public static final int DIV = 10;
+    /** MOD: pops b and a, pushes a mod b. */
+    public static final int MOD = 11;
+    /** EQ: pops b and a, pushes 1 if a = b, otherwise 0. */
+    public static final int EQ = 12;
+    /** NE: pops b and a, pushes 1 if a &lt;&gt; b, otherwise 0. */
+    public static final int NE = 13;
+    /** LT: pops b and a, pushes 1 if a &lt; b, otherwise 0. */
+    public static final int LT = 14;
+    /** LE: pops b and a, pushes 1 if a &lt;= b, otherwise 0. */
+    public static final int LE = 15;
+    /** GT: pops b and a, pushes 1 if a &gt; b, otherwise 0. */
+    public static final int GT = 16;
+    /** GE: pops b and a, pushes 1 if a &gt;= b, otherwise 0. */
+    public static final int GE = 17;
+    /** JUMP target: continues at target. */
+    public static final int JUMP = 18;
+    /** JEQ target: pops b and a, continues at target if a = b. */
+    public static final int JEQ = 19;
+    /** JNE target: pops b and a, continues at target if a &lt;&gt; b. */
+    public static final int JNE = 20;
+    /** JLT target: pops b and a, continues at target if a &lt; b. */
+    public static final int JLT = 21;
+    /** JLE target: pops b and a, continues at target if a &lt;= b. */
+    public static final int JLE = 22;
+    /** JGT target: pops b and a, continues at target if a &gt; b. */
+    public static final int JGT = 23;
+    /** JGE target: pops b and a, continues at target if a &gt;= b. */
+    public static final int JGE = 24;
+    /** FORTEST target: with the counter and the bound of a for loop on top of the stack,
+     *  continues at target if the counter is past the bound. */
+    public static final int FORTEST = 25;
+    /** FORNEXT slot: increments the counter of a for loop and stores it in the local in slot. */
+    public static final int FORNEXT = 26;
+    /** FORNEXTG slot: increments the counter of a for loop and stores it in the global in slot. */
+    public static final int FORNEXTG = 27;
+    /** POP2: pops the counter and the bound of a finished for loop. */
+    public static final int POP2 = 28;
+    /** CALL procedure count: calls the procedure with the count arguments on top of the stack
+     *  and pushes its return value. */
+    public static final int CALL = 29;
+    /** CALLV procedure count: calls the procedure with the count arguments on top of the stack
+     *  and ignores its return value. */
+    public static final int CALLV = 30;
+    /** RET: returns from the running procedure. */
+    public static final int RET = 31;
+    /** WRITELN: pops a value and prints it on its own line. */
+    public static final int WRITELN = 32;
+    /** NOBREAK: fails because a break statement is not inside a loop. */
+    public static final int NOBREAK = 33;
+    /** NOCONTINUE: fails because a continue statement is not inside a loop. */
+    public static final int NOCONTINUE = 34;
+    /** HALT: ends the program. */
+    public static final int HALT = 35;
+    /** ADDC value: pops a, pushes a + value. */
+    public static final int ADDC = 36;
+    /** SUBC value: pops a, pushes a - value. */
+    public static final int SUBC = 37;
+    /** MULC value: pops a, pushes a * value. */
+    public static final int MULC = 38;
+    /** DIVC value: pops a, pushes a / value. */
+    public static final int DIVC = 39;
+    /** MODC value: pops a, pushes a mod value. */
+    public static final int MODC = 40;
+    /** JEQC value target: pops a, continues at target if a = value. */
+    public static final int JEQC = 41;
+    /** JNEC value target: pops a, continues at target if a &lt;&gt; value. */
+    public static final int JNEC = 42;
+    /** JLTC value target: pops a, continues at target if a &lt; value. */
+    public static final int JLTC = 43;
+    /** JLEC value target: pops a, continues at target if a &lt;= value. */
+    public static final int JLEC = 44;
+    /** JGTC value target: pops a, continues at target if a &gt; value. */
+    public static final int JGTC = 45;
+    /** JGEC value target: pops a, continues at target if a &gt;= value. */
+    public static final int JGEC = 46;
+
+    /** The distance from each arithmetic opcode to its form with a constant right operand. */
+    public static final int CONSTANT_ARITHMETIC = ADDC - ADD;
+    /** The distance from each conditional jump to its form with a constant right operand. */
+    public static final int CONSTANT_JUMP = JEQC - JEQ;
+
+    /**
+     * The private constructor of the Opcode class, which only holds constants.
+     */
+    private Opcode()
+    {
+    }
+
+    /**
+     * Returns the opcode that computes the given arithmetic or comparison operator.
+     * @param op the operator as the parser spells it
+     * @return type int the opcode of the operator
+     * @throws IllegalArgumentException if op is not an operator
+     */
+    public static int of(String op)
+    {
+        switch(op)
+        {
+            case "+":
+                return ADD;
+            case "-":
+                return SUB;
+            case "*":
+                return MUL;
+            case "/":
+                return DIV;
+            case "mod":
+                return MOD;
+            case "=":
+                return EQ;
+            case "<>":
+                return NE;
+            case "<":
+                return LT;
+            case "<=":
+                return LE;
+            case ">":
+                return GT;
+            case ">=":
+                return GE;
+            default:
+                throw new IllegalArgumentException("Unexpected operator in expression evaluation");
+        }
+    }
+
+    /**
+     * Returns the conditional jump that is taken when the given comparison holds, or when it
+     *      does not hold.
+     * @param op the comparison operator as the parser spells it
+     * @param when true for the jump taken when the comparison holds; false for the jump taken
+     *      when it does not
+     * @return type int the opcode of the jump
+     * @throws IllegalArgumentException if op is not a comparison operator
+     */
+    public static int jumpOf(String op, boolean when)
+    {
+        int comparison = of(op);
+        if (comparison < EQ || comparison > GE)
+        {
+            throw new IllegalArgumentException("Unexpected operator in expression evaluation");
+        }
+        if (!when)
+        {
+            comparison = comparison == EQ ? NE : comparison == NE ? EQ : comparison == LT ? GE
+                    : comparison == GE ? LT : comparison == LE ? GT : LE;
+        }
+        return comparison - EQ + JEQ;
+    }
+}
@@ -0,0 +1,297 @@
+package src.vm;
+
+import java.util.Arrays;
+
+/**
+ * The VirtualMachine class runs a BytecodeProgram in a single dispatch loop. The frames of
+ *      the procedures and the values the code works on share one int stack: a call copies its
+ *      arguments into the parameter slots of a new frame right above them, and the values of
+ *      the callee go on top of its frame. A parallel boolean array records which slots hold
+ *      a value, so reading a variable that was never assigned fails the way it does when the
+ *      resolved tree is run.
+ * @author Daniel Gergov
+ * @version 10/18/26
+ */
+public class VirtualMachine
+{
+    private static final int CALL_RECORD = 5;
+
+    private BytecodeProgram program;
+
+    /**
+     * Constructor for the VirtualMachine class that runs the given program.
+     * @param program the program to run
+     */
+    public VirtualMachine(BytecodeProgram program)
+    {
+        this.program = program;
+    }
+
+    /**
+     * The run method runs the program from the start of the main program until it halts.
+     * @precondition the program was built by a BytecodeEmitter
+     * @postcondition the output of the program has been printed
+     * @throws RuntimeException if a variable is read before it is assigned, a procedure that
+     *      is not declared is called, or a void procedure is evaluated
+     * @throws IllegalArgumentException if a break or continue statement is not inside a loop
+     * @throws ArithmeticException if the program divides by zero
+     */
+    public void run()
+    {
+        int[] code = program.getCode();
+        int[] globals = new int[program.getGlobalCount()];
+        boolean[] globalsSet = new boolean[globals.length];
+        int[] stack = new int[Math.max(program.getMainMaxStack(), 16)];
+        boolean[] set = new boolean[stack.length];
+        int[] calls = new int[CALL_RECORD * 16];
+        int callCount = 0;
+        int sp = 0;
+        int fp = 0;
+        int pc = 0;
+        while (true)
+        {
+            switch (code[pc++])
+            {
+                case Opcode.CONST:
+                    stack[sp++] = code[pc++];
+                    break;
+                case Opcode.LOAD:
+                {
+                    int slot = fp + code[pc++];
+                    if (!set[slot])
+                    {
+                        throw new RuntimeException("Variable " + program.getName(code[pc]) + " has no value.");
+                    }
+                    ++pc;
+                    stack[sp++] = stack[slot];
+                    break;
+                }
+                case Opcode.STORE:
+                {
+                    int slot = fp + code[pc++];
+                    stack[slot] = stack[--sp];
+                    set[slot] = true;
+                    break;
+                }
+                case Opcode.CLEAR:
+                    set[fp + code[pc++]] = false;
+                    break;
+                case Opcode.LOADG:
+                {
+                    int slot = code[pc++];
+                    if (!globalsSet[slot])
+                    {
+                        throw new RuntimeException("Variable " + program.getName(code[pc]) + " has no value.");
+                    }
+                    ++pc;
+                    stack[sp++] = globals[slot];
+                    break;
+                }
+                case Opcode.STOREG:
+                {
+                    int slot = code[pc++];
+                    globals[slot] = stack[--sp];
+                    globalsSet[slot] = true;
+                    break;
+                }
+                case Opcode.CLEARG:
+                    globalsSet[code[pc++]] = false;
+                    break;
+                case Opcode.ADD:
+                    --sp;
+                    stack[sp - 1] += stack[sp];
+                    break;
+                case Opcode.SUB:
+                    --sp;
+                    stack[sp - 1] -= stack[sp];
+                    break;
+                case Opcode.MUL:
+                    --sp;
+                    stack[sp - 1] *= stack[sp];
+                    break;
+                case Opcode.DIV:
+                    --sp;
+                    stack[sp - 1] /= stack[sp];
+                    break;
+                case Opcode.MOD:
+                    --sp;
+                    stack[sp - 1] %= stack[sp];
+                    break;
+                case Opcode.EQ:
+                    --sp;
+                    stack[sp - 1] = stack[sp - 1] == stack[sp] ? 1 : 0;
+                    break;
+                case Opcode.NE:
+                    --sp;
+                    stack[sp - 1] = stack[sp - 1] != stack[sp] ? 1 : 0;
+                    break;
+                case Opcode.LT:
+                    --sp;
+                    stack[sp - 1] = stack[sp - 1] < stack[sp] ? 1 : 0;
+                    break;
+                case Opcode.LE:
+                    --sp;
+                    stack[sp - 1] = stack[sp - 1] <= stack[sp] ? 1 : 0;
+                    break;
+                case Opcode.GT:
+                    --sp;
+                    stack[sp - 1] = stack[sp - 1] > stack[sp] ? 1 : 0;
+                    break;
+                case Opcode.GE:
+                    --sp;
+                    stack[sp - 1] = stack[sp - 1] >= stack[sp] ? 1 : 0;
+                    break;
+                case Opcode.JUMP:
+                    pc = code[pc];
+                    break;
+                case Opcode.JEQ:
+                    sp -= 2;
+                    pc = stack[sp] == stack[sp + 1] ? code[pc] : pc + 1;
+                    break;
+                case Opcode.JNE:
+                    sp -= 2;
+                    pc = stack[sp] != stack[sp + 1] ? code[pc] : pc + 1;
+                    break;
+                case Opcode.JLT:
+                    sp -= 2;
+                    pc = stack[sp] < stack[sp + 1] ? code[pc] : pc + 1;
+                    break;
+                case Opcode.JLE:
+                    sp -= 2;
+                    pc = stack[sp] <= stack[sp + 1] ? code[pc] : pc + 1;
+                    break;
+                case Opcode.JGT:
+                    sp -= 2;
+                    pc = stack[sp] > stack[sp + 1] ? code[pc] : pc + 1;
+                    break;
+                case Opcode.JGE:
+                    sp -= 2;
+                    pc = stack[sp] >= stack[sp + 1] ? code[pc] : pc + 1;
+                    break;
+                case Opcode.FORTEST:
+                    pc = stack[sp - 2] > stack[sp - 1] ? code[pc] : pc + 1;
+                    break;
+                case Opcode.FORNEXT:
+                {
+                    int slot = fp + code[pc++];
+                    stack[slot] = ++stack[sp - 2];
+                    set[slot] = true;
+                    break;
+                }
+                case Opcode.FORNEXTG:
+                {
+                    int slot = code[pc++];
+                    globals[slot] = ++stack[sp - 2];
+                    globalsSet[slot] = true;
+                    break;
+                }
+                case Opcode.POP2:
+                    sp -= 2;
+                    break;
+                case Opcode.CALL:
+                case Opcode.CALLV:
+                {
+                    boolean value = code[pc - 1] == Opcode.CALL;
+                    int procedure = code[pc++];
+                    int count = code[pc++];
+                    int entry = program.getEntry(procedure);
+                    if (entry < 0)
+                    {
+                        throw new RuntimeException("Procedure " + program.getProcedureName(procedure) + " not declared.");
+                    }
+                    int base = sp - count;
+                    int slotCount = program.getSlotCount(procedure);
+                    int needed = sp + slotCount + program.getMaxStack(procedure);
+                    if (needed > stack.length)
+                    {
+                        stack = Arrays.copyOf(stack, Math.max(needed, stack.length * 2));
+                        set = Arrays.copyOf(set, stack.length);
+                    }
+                    Arrays.fill(set, sp, sp + slotCount, false);
+                    int[] parameterSlots = program.getParameterSlots(procedure);
+                    for (int i = 0; i < count; ++i)
+                    {
+                        stack[sp + parameterSlots[i]] = stack[base + i];
+                        set[sp + parameterSlots[i]] = true;
+                    }
+                    if (callCount + CALL_RECORD > calls.length)
+                    {
+                        calls = Arrays.copyOf(calls, calls.length * 2);
+                    }
+                    calls[callCount++] = pc;
+                    calls[callCount++] = fp;
+                    calls[callCount++] = base;
+                    calls[callCount++] = procedure;
+                    calls[callCount++] = value ? 1 : 0;
+                    fp = sp;
+                    sp += slotCount;
+                    pc = entry;
+                    break;
+                }
+                case Opcode.RET:
+                {
+                    boolean value = calls[--callCount] == 1;
+                    int procedure = calls[--callCount];
+                    int base = calls[--callCount];
+                    int returnSlot = fp + program.getReturnSlot(procedure);
+                    fp = calls[--callCount];
+                    pc = calls[--callCount];
+                    sp = base;
+                    if (value)
+                    {
+                        if (!set[returnSlot])
+                        {
+                            throw new RuntimeException("Cannot evaluate expression with void return value");
+                        }
+                        stack[sp++] = stack[returnSlot];
+                    }
+                    break;
+                }
+                case Opcode.WRITELN:
+                    System.out.println(stack[--sp]);
+                    break;
+                case Opcode.NOBREAK:
+                    throw new IllegalArgumentException("Break statement can only be used within a loop.");
+                case Opcode.NOCONTINUE:
+                    throw new IllegalArgumentException("Continue statement can only be used within a loop.");
+                case Opcode.HALT:
+                    return;
+                case Opcode.ADDC:
+                    stack[sp - 1] += code[pc++];
+                    break;
+                case Opcode.SUBC:
+                    stack[sp - 1] -= code[pc++];
+                    break;
+                case Opcode.MULC:
+                    stack[sp - 1] *= code[pc++];
+                    break;
+                case Opcode.DIVC:
+                    stack[sp - 1] /= code[pc++];
+                    break;
+                case Opcode.MODC:
+                    stack[sp - 1] %= code[pc++];
+                    break;
+                case Opcode.JEQC:
+                    pc = stack[--sp] == code[pc] ? code[pc + 1] : pc + 2;
+                    break;
+                case Opcode.JNEC:
+                    pc = stack[--sp] != code[pc] ? code[pc + 1] : pc + 2;
+                    break;
+                case Opcode.JLTC:
+                    pc = stack[--sp] < code[pc] ? code[pc + 1] : pc + 2;
+                    break;
+                case Opcode.JLEC:
+                    pc = stack[--sp] <= code[pc] ? code[pc + 1] : pc + 2;
+                    break;
+                case Opcode.JGTC:
+                    pc = stack[--sp] > code[pc] ? code[pc + 1] : pc + 2;
+                    break;
+                case Opcode.JGEC:
+                    pc = stack[--sp] >= code[pc] ? code[pc + 1] : pc + 2;
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown opcode " + code[pc - 1] + " at " + (pc - 1));
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package src.vm;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import src.ast.Program;
+import src.environments.Environment;
+import src.parser.Parser;
+import src.scanner.ScanErrorException;
+import src.scanner.Scanner;
+
+/**
+ * The VirtualMachineTester class checks that the VirtualMachine prints what the tree walkers
+ *      print. For every program it runs Program.exec, Program.run on the resolved program, and
+ *      the VirtualMachine on the assembled program, each capturing what it writes and the
+ *      message of the error it stops on, and reports one line per file.
+ *
+ *      The VirtualMachine must print exactly what the resolved walker prints. It must also
+ *      print exactly what exec prints whenever exec runs the program to the end. exec cannot
+ *      run every program: its Assignment only changes a variable that already holds a value,
+ *      so the first assignment to any global, declared with VAR or not, or to the return
+ *      variable of a procedure fails. Where exec stops on an error, the VirtualMachine follows
+ *      the resolved walker and assigns the variable, so the file is reported as diverging
+ *      from exec with its error, and what exec printed before it must be the start of what
+ *      the VirtualMachine prints.
+ * Usage: java src.vm.VirtualMachineTester [files]
+ * @author Daniel Gergov
+ * @version 10/18/26
+ */
+public class VirtualMachineTester
+{
+    /**
+     * The main method compares the interpreters on the given files, or on every .txt file in
+     *      ./test, and exits with status 1 if any file does not match.
+     * @param args the files to compare, optional
+     */
+    public static void main(String[] args)
+    {
+        String[] files = args;
+        if (files.length == 0)
+        {
+            files = new File("./test").list((dir, name) -> name.endsWith(".txt"));
+            Arrays.sort(files);
+            for (int i = 0; i < files.length; ++i)
+            {
+                files[i] = "./test/" + files[i];
+            }
+        }
+        boolean passed = true;
+        for (String file : files)
+        {
+            try
+            {
+                passed &= compare(file);
+            }
+            catch (IOException e)
+            {
+                e.printStackTrace();
+                System.out.println(file + ": could not be read");
+                passed = false;
+            }
+            catch (ScanErrorException e)
+            {
+                e.printStackTrace();
+                System.out.println(file + ": " + e.getMessage());
+                passed = false;
+            }
+        }
+        System.out.println(passed ? "all files match" : "some files do not match");
+        if (!passed)
+        {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * The compare method runs one program in every interpreter and reports whether the
+     *      VirtualMachine printed what it should.
+     * @param file the file of the program
+     * @return type boolean true if the output of the VirtualMachine matches; otherwise, false
+     * @throws IOException if the file cannot be read
+     * @throws ScanErrorException if the program contains an unexpected character
+     */
+    private static boolean compare(String file) throws IOException, ScanErrorException
+    {
+        Program program = new Parser(new Scanner(Paths.get(file))).parseProgram();
+        Program resolved = program.resolve();
+        VirtualMachine vm = new VirtualMachine(program.assemble());
+        String[] exec = capture(() -> program.exec(new Environment()));
+        String[] walked = capture(() -> resolved.run(new Environment()));
+        String[] bytecode = capture(() -> vm.run());
+        if (!bytecode[0].equals(walked[0]) || !same(bytecode[1], walked[1]))
+        {
+            System.out.println(file + ": MISMATCH with the resolved walker");
+            return false;
+        }
+        if (exec[1] == null)
+        {
+            if (!bytecode[0].equals(exec[0]) || bytecode[1] != null)
+            {
+                System.out.println(file + ": MISMATCH with exec");
+                return false;
+            }
+            System.out.println(file + ": matches exec and the resolved walker");
+            return true;
+        }
+        if (!bytecode[0].startsWith(exec[0]))
+        {
+            System.out.println(file + ": MISMATCH with exec before it stopped on: " + exec[1]);
+            return false;
+        }
+        System.out.println(file + ": matches the resolved walker, diverges from exec, which "
+                + "stopped on: " + exec[1]);
+        return true;
+    }
+
+    /**
+     * The capture method runs an interpreter with System.out redirected.
+     * @param interpreter the interpreter to run
+     * @return type String[] what the interpreter printed, and the message of the error it
+     *      stopped on, or null if it ran to the end
+     */
+    private static String[] capture(Runnable interpreter)
+    {
+        PrintStream out = System.out;
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        String error = null;
+        System.setOut(new PrintStream(buffer, true));
+        try
+        {
+            interpreter.run();
+        }
+        catch (RuntimeException e)
+        {
+            error = e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+        finally
+        {
+            System.setOut(out);
+        }
+        return new String[] {buffer.toString(), error};
+    }
+
+    /**
+     * Returns whether the given error messages are the same, either being null.
+     * @param a one message, or null
+     * @param b another message, or null
+     * @return type boolean true if both are null or both are equal; otherwise, false
+     */
+    private static boolean same(String a, String b)
+    {
+        return a == null ? b == null : a.equals(b);
+    }
+}